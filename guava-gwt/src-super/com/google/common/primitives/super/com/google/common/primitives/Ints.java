@@ -260,6 +260,94 @@ public final class Ints {
     return max;
   }
 
+  /**
+   * Returns the {@code k} least values in {@code array}, in ascending order, or
+   * all of its values, sorted, if it has fewer than {@code k}. Like {@link
+   * com.google.common.collect.Ordering#leastOf(Iterable, int)}, this takes a
+   * single pass over {@code array} and O(k) additional memory, but it doesn't
+   * box the values.
+   *
+   * <p>The least values of a large input can be found in parallel by finding
+   * the least values of each part of it, and then the least values of their
+   * {@link #concat concatenation}.
+   *
+   * @param array the values to select from
+   * @param k the number of values to return
+   * @return a new array of the {@code min(k, array.length)} least values in
+   *     {@code array}, in ascending order
+   * @throws IllegalArgumentException if {@code k} is negative
+   * @since 18.0
+   */
+  @Beta
+  public static int[] leastOf(int[] array, int k) {
+    checkNotNull(array);
+    checkArgument(k >= 0, "k (%s) must be >= 0", k);
+    if (k == 0) {
+      return new int[0];
+    } else if (2L * k >= array.length) {
+      // the buffer would hold the whole array anyway
+      int[] result = copyOf(array, array.length);
+      Arrays.sort(result);
+      return (k >= result.length) ? result : copyOf(result, k);
+    }
+    // The same algorithm as TopKSelector: keep a buffer of 2k values, and
+    // whenever it fills up, partition it and keep its k least values.
+    int[] buffer = copyOf(array, 2 * k);
+    int threshold = partitionLeast(buffer, buffer.length, k);
+    int bufferSize = k;
+    for (int i = 2 * k; i < array.length; i++) {
+      int value = array[i];
+      if (value < threshold) {
+        buffer[bufferSize++] = value;
+        if (bufferSize == buffer.length) {
+          threshold = partitionLeast(buffer, buffer.length, k);
+          bufferSize = k;
+        }
+      }
+    }
+    Arrays.sort(buffer, 0, bufferSize);
+    return copyOf(buffer, k);
+  }
+
+  /**
+   * Moves the {@code k} least of the first {@code size} values in {@code
+   * buffer} to its first {@code k} positions, by quickselect, and returns the
+   * greatest of them.
+   */
+  private static int partitionLeast(int[] buffer, int size, int k) {
+    int left = 0;
+    int right = size - 1;
+    while (left < right) {
+      int pivotIndex = (left + right + 1) >>> 1;
+      int pivot = buffer[pivotIndex];
+      buffer[pivotIndex] = buffer[right];
+      int pivotNewIndex = left;
+      for (int i = left; i < right; i++) {
+        if (buffer[i] < pivot) {
+          int tmp = buffer[pivotNewIndex];
+          buffer[pivotNewIndex++] = buffer[i];
+          buffer[i] = tmp;
+        }
+      }
+      buffer[right] = buffer[pivotNewIndex];
+      buffer[pivotNewIndex] = pivot;
+      if (pivotNewIndex > k) {
+        right = pivotNewIndex - 1;
+      } else if (pivotNewIndex < k) {
+        left = pivotNewIndex + 1;
+      } else {
+        break;
+      }
+    }
+    int max = buffer[0];
+    for (int i = 1; i < k; i++) {
+      if (buffer[i] > max) {
+        max = buffer[i];
+      }
+    }
+    return max;
+  }
+
   /**
    * Returns the values from each provided array combined into a single array.
    * For example, {@code concat(new int[] {a, b}, new int[] {}, new
@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Compares the sequential and parallel terminal operations of {@link FluentIterable}, over a
+ * filter and transform pipeline whose function does a tunable amount of work per element.
+ */
+public class FluentIterableParallelBenchmark {
+  @Param({"1000", "100000"})
+  int size;
+
+  // the number of iterations of busy work in the transform function
+  @Param({"0", "100", "1000"})
+  int work;
+
+  @Param({"1", "2", "4", "8"})
+  int threads;
+
+  private ExecutorService executor;
+  private FluentIterable<Long> pipeline;
+
+  @BeforeExperiment void setUp() {
+    executor = Executors.newFixedThreadPool(threads);
+    ImmutableList.Builder<Integer> source = ImmutableList.builder();
+    for (int i = 0; i < size; i++) {
+      source.add(i);
+    }
+    final int work = this.work;
+    pipeline = FluentIterable.from(source.build())
+        .filter(new Predicate<Integer>() {
+          @Override public boolean apply(Integer input) {
+            return (input & 7) != 0;
+          }
+        })
+        .transform(new Function<Integer, Long>() {
+          @Override public Long apply(Integer input) {
+            long x = input;
+            for (int i = 0; i < work; i++) {
+              x = x * 6364136223846793005L + 1442695040888963407L;
+            }
+            return x;
+          }
+        });
+  }
+
+  @AfterExperiment void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark int toList(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += pipeline.toList().size();
+    }
+    return dummy;
+  }
+
+  @Benchmark int toListInParallel(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += pipeline.toListInParallel(executor).size();
+    }
+    return dummy;
+  }
+
+  @Benchmark int toSet(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += pipeline.toSet().size();
+    }
+    return dummy;
+  }
+
+  @Benchmark int toSetInParallel(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += pipeline.toSetInParallel(executor).size();
+    }
+    return dummy;
+  }
+
+  @Benchmark int uniqueIndex(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += pipeline.uniqueIndex(IDENTITY).size();
+    }
+    return dummy;
+  }
+
+  @Benchmark int uniqueIndexInParallel(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += pipeline.uniqueIndexInParallel(IDENTITY, executor).size();
+    }
+    return dummy;
+  }
+
+  private static final Function<Long, Long> IDENTITY = new Function<Long, Long>() {
+    @Override public Long apply(Long input) {
+      return input;
+    }
+  };
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the compact storage of {@link ImmutableListMultimap}, which keeps the values of all
+ * keys in one array, with an {@code ImmutableMap} of {@code ImmutableList} values. Run the
+ * {@code build} benchmark with the allocation instrument to compare their footprints.
+ */
+public class ImmutableListMultimapBenchmark {
+  enum Impl {
+    COMPACT {
+      @Override Map<Integer, ? extends Collection<Integer>> build(
+          ListMultimap<Integer, Integer> input) {
+        return ImmutableListMultimap.copyOf(input).asMap();
+      }
+    },
+    MAP_OF_LISTS {
+      @Override Map<Integer, ? extends Collection<Integer>> build(
+          ListMultimap<Integer, Integer> input) {
+        ImmutableMap.Builder<Integer, ImmutableList<Integer>> builder = ImmutableMap.builder();
+        for (Map.Entry<Integer, Collection<Integer>> entry : input.asMap().entrySet()) {
+          builder.put(entry.getKey(), ImmutableList.copyOf(entry.getValue()));
+        }
+        return builder.build();
+      }
+    };
+
+    abstract Map<Integer, ? extends Collection<Integer>> build(
+        ListMultimap<Integer, Integer> input);
+  }
+
+  @Param Impl impl;
+
+  @Param({"1000", "100000"})
+  int keyCount;
+
+  @Param({"1", "2", "10"})
+  int valuesPerKey;
+
+  private ListMultimap<Integer, Integer> input;
+  private Map<Integer, ? extends Collection<Integer>> multimap;
+  private int[] queries;
+
+  @BeforeExperiment void setUp() {
+    input = ArrayListMultimap.create(keyCount, valuesPerKey);
+    for (int key = 0; key < keyCount; key++) {
+      for (int value = 0; value < valuesPerKey; value++) {
+        input.put(key, value);
+      }
+    }
+    multimap = impl.build(input);
+    Random random = new Random(0);
+    queries = new int[1024];
+    for (int i = 0; i < queries.length; i++) {
+      queries[i] = random.nextInt(2 * keyCount);
+    }
+  }
+
+  @Benchmark int build(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += impl.build(input).size();
+    }
+    return dummy;
+  }
+
+  @Benchmark int get(int reps) {
+    Map<Integer, ? extends Collection<Integer>> multimap = this.multimap;
+    int[] queries = this.queries;
+    int mask = queries.length - 1;
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      Collection<Integer> values = multimap.get(queries[i & mask]);
+      if (values != null) {
+        dummy += values.size();
+      }
+    }
+    return dummy;
+  }
+
+  @Benchmark int getAndIterate(int reps) {
+    Map<Integer, ? extends Collection<Integer>> multimap = this.multimap;
+    int[] queries = this.queries;
+    int mask = queries.length - 1;
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      Collection<Integer> values = multimap.get(queries[i & mask]);
+      if (values != null) {
+        for (Integer value : values) {
+          dummy += value;
+        }
+      }
+    }
+    return dummy;
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+import com.google.common.primitives.Longs;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares ways to select the {@code k} least elements of a large input: sorting a copy, as in
+ * {@link SortedCopyBenchmark}, {@link Ordering#leastOf(Iterable, int)}, {@link TopKSelector}s
+ * filled on several threads and then combined, and {@link Longs#leastOf} on unboxed values.
+ */
+public class LeastOfBenchmark {
+  @Param({"10000", "1000000"})
+  int size;
+
+  @Param({"10", "100", "1000"})
+  int k;
+
+  @Param({"1", "4"})
+  int threads;
+
+  private ImmutableList<Long> input;
+  private long[] primitiveInput;
+  private ExecutorService executor;
+
+  @BeforeExperiment void setUp() {
+    Random random = new Random(0);
+    primitiveInput = new long[size];
+    for (int i = 0; i < size; i++) {
+      primitiveInput[i] = random.nextLong();
+    }
+    input = ImmutableList.copyOf(Longs.asList(primitiveInput));
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  @AfterExperiment void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark long sortAndSublist(int reps) {
+    long dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      List<Long> copy = new ArrayList<Long>(input);
+      Collections.sort(copy);
+      dummy += copy.get(k - 1);
+    }
+    return dummy;
+  }
+
+  @Benchmark long orderingLeastOf(int reps) {
+    long dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += ORDERING.leastOf(input, k).get(k - 1);
+    }
+    return dummy;
+  }
+
+  @Benchmark long combinedSelectors(int reps) throws Exception {
+    long dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      List<Future<TopKSelector<Long>>> partials =
+          new ArrayList<Future<TopKSelector<Long>>>(threads);
+      for (int t = 0; t < threads; t++) {
+        final List<Long> part =
+            input.subList(size * t / threads, size * (t + 1) / threads);
+        partials.add(executor.submit(new Callable<TopKSelector<Long>>() {
+          @Override public TopKSelector<Long> call() {
+            TopKSelector<Long> selector = TopKSelector.least(k);
+            selector.offerAll(part);
+            return selector;
+          }
+        }));
+      }
+      TopKSelector<Long> selector = TopKSelector.least(k);
+      for (Future<TopKSelector<Long>> partial : partials) {
+        selector.combine(partial.get());
+      }
+      dummy += selector.topK().get(k - 1);
+    }
+    return dummy;
+  }
+
+  @Benchmark long primitiveLeastOf(int reps) {
+    long dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += Longs.leastOf(primitiveInput, k)[k - 1];
+    }
+    return dummy;
+  }
+
+  private static final Ordering<Long> ORDERING = Ordering.natural();
+}
@@ -21,6 +21,7 @@ import static com.google.common.collect.Lists.newArrayList;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
+import com.google.caliper.api.Footprint;
 import com.google.common.collect.CollectionBenchmarkSampleData.Element;
 
 import java.util.Collection;
@@ -31,8 +32,8 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 /**
- * A microbenchmark that tests the performance of get() and iteration on various map
- * implementations.  Forked from {@link SetContainsBenchmark}.
+ * A microbenchmark that tests the performance of get() and iteration, and the memory footprint, of
+ * various map implementations.  Forked from {@link SetContainsBenchmark}.
  *
  * @author Nicholaus Shupe
  */
@@ -175,6 +176,11 @@ public class MapBenchmark {
 
   private Collection<Element> values;
 
+  // the same keys as longs, for comparing boxed and primitive keys; these ignore impl
+  private long[] longQueries;
+  private Map<Long, Element> boxedLongMap;
+  private LongObjectHashMap<Element> primitiveLongMap;
+
   @BeforeExperiment void setUp() {
     CollectionBenchmarkSampleData sampleData = 
         new CollectionBenchmarkSampleData(
@@ -189,6 +195,17 @@ public class MapBenchmark {
     }
     this.mapToTest = impl.create(values);
     this.queries = sampleData.getQueries();
+
+    this.boxedLongMap = Maps.newHashMap();
+    this.primitiveLongMap = LongObjectHashMap.create(values.size());
+    for (Element element : values) {
+      boxedLongMap.put((long) element.hash, element);
+      primitiveLongMap.put(element.hash, element);
+    }
+    this.longQueries = new long[queries.length];
+    for (int i = 0; i < queries.length; i++) {
+      longQueries[i] = queries[i].hash;
+    }
   }
 
   @Benchmark boolean get(int reps) {
@@ -208,6 +225,30 @@ public class MapBenchmark {
     return dummy;
   }
 
+  @Benchmark boolean getLongBoxed(int reps) {
+    Map<Long, Element> map = boxedLongMap;
+    long[] queries = longQueries;
+    int mask = queries.length - 1;
+
+    boolean dummy = false;
+    for (int i = 0; i < reps; i++) {
+      dummy ^= map.get(queries[i & mask]) != null;
+    }
+    return dummy;
+  }
+
+  @Benchmark boolean getLongPrimitive(int reps) {
+    LongObjectHashMap<Element> map = primitiveLongMap;
+    long[] queries = longQueries;
+    int mask = queries.length - 1;
+
+    boolean dummy = false;
+    for (int i = 0; i < reps; i++) {
+      dummy ^= map.get(queries[i & mask]) != null;
+    }
+    return dummy;
+  }
+
   @Benchmark int createAndPopulate(int reps) {
     int dummy = 0;
     for (int i = 0; i < reps; i++) {
@@ -241,4 +282,24 @@ public class MapBenchmark {
     return dummy;
 
   }
+
+  @Benchmark boolean iterateWithValues(int reps) {
+    Map<Element, Element> map = mapToTest;
+
+    boolean dummy = false;
+    for (int i = 0; i < reps; i++) {
+      for (Element value : map.values()) {
+        dummy ^= value == null;
+      }
+    }
+    return dummy;
+  }
+
+  /**
+   * Measures the memory retained by a map, including its keys. The keys are the same objects for
+   * every implementation, so the differences come from the map structure alone.
+   */
+  @Footprint Object sizeOfMap() {
+    return impl.create(values);
+  }
 }
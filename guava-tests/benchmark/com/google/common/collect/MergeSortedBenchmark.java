@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Benchmarks the k-way merge of {@link Iterators#mergeSorted} for different numbers of inputs, and
+ * compares {@link Ordering#parallelSortedCopy}, which sorts runs on several threads and merges
+ * them, with {@link Ordering#sortedCopy}.
+ */
+public class MergeSortedBenchmark {
+  @Param({"100000", "1000000"})
+  int size;
+
+  @Param({"2", "16", "256"})
+  int k;
+
+  @Param({"1", "4"})
+  int threads;
+
+  private ImmutableList<Integer> input;
+  private List<ImmutableList<Integer>> sortedRuns;
+  private ExecutorService executor;
+
+  @BeforeExperiment void setUp() {
+    Random random = new Random(0);
+    List<Integer> list = Lists.newArrayListWithCapacity(size);
+    for (int i = 0; i < size; i++) {
+      list.add(random.nextInt());
+    }
+    input = ImmutableList.copyOf(list);
+    sortedRuns = Lists.newArrayListWithCapacity(k);
+    for (int i = 0; i < k; i++) {
+      sortedRuns.add(ORDERING.immutableSortedCopy(
+          input.subList(size * i / k, size * (i + 1) / k)));
+    }
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  @AfterExperiment void tearDown() {
+    executor.shutdown();
+  }
+
+  @Benchmark int mergeSorted(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      for (Integer element : Iterables.mergeSorted(sortedRuns, ORDERING)) {
+        dummy += element;
+      }
+    }
+    return dummy;
+  }
+
+  @Benchmark int sortedCopy(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += ORDERING.sortedCopy(input).get(0);
+    }
+    return dummy;
+  }
+
+  @Benchmark int parallelSortedCopy(int reps) {
+    int dummy = 0;
+    for (int i = 0; i < reps; i++) {
+      dummy += ORDERING.parallelSortedCopy(input, executor).get(0);
+    }
+    return dummy;
+  }
+
+  private static final Ordering<Integer> ORDERING = Ordering.natural();
+}
@@ -16,23 +16,34 @@
 
 package com.google.common.collect;
 
+import com.google.caliper.AfterExperiment;
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
 import com.google.caliper.Param;
+import com.google.caliper.api.SkipThisScenarioException;
 import com.google.common.base.Function;
 import com.google.common.collect.ForwardingQueue;
 import com.google.common.collect.MinMaxPriorityQueue;
 import com.google.common.collect.Ordering;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import java.math.BigInteger;
 import java.util.Comparator;
+import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
- * Benchmarks to compare performance of MinMaxPriorityQueue and PriorityQueue.
- * 
+ * Benchmarks to compare performance of MinMaxPriorityQueue and PriorityQueue,
+ * and of the thread-safe queues that can be offered to from several threads:
+ * a synchronized MinMaxPriorityQueue and ConcurrentMinMaxPriorityQueue.
+ *
  * @author Sverre Sundsdal
  */
 public class MinMaxPriorityQueueBenchmark {
@@ -44,7 +55,13 @@ public class MinMaxPriorityQueueBenchmark {
 
   @Param private HeapType heap;
 
+  // The number of threads that offer to a queue bounded to size in
+  // boundedOffer; the other benchmarks run on one thread only.
+  @Param({"1", "4"}) private int threads;
+
   private Queue<Integer> queue;
+  private Queue<Integer> boundedQueue;
+  private ExecutorService threadPool;
 
   private final Random random = new Random();
 
@@ -53,9 +70,17 @@ public class MinMaxPriorityQueueBenchmark {
     for (int i = 0; i < size; i++) {
       queue.add(random.nextInt());
     }
+    boundedQueue = heap.createBounded(comparator.get(), size);
+    threadPool = Executors.newFixedThreadPool(
+        threads, new ThreadFactoryBuilder().setDaemon(true).build());
   }
-  
+
+  @AfterExperiment void tearDown() {
+    threadPool.shutdown();
+  }
+
   @Benchmark void pollAndAdd(int reps) {
+    singleThreadedOnly();
     for (int i = 0; i < reps; i++) {
       // TODO(kevinb): precompute random #s?
       queue.add(queue.poll() ^ random.nextInt()); 
@@ -63,6 +88,7 @@ public class MinMaxPriorityQueueBenchmark {
   }
 
   @Benchmark void populate(int reps) {
+    singleThreadedOnly();
     for (int i = 0; i < reps; i++) {
       queue.clear();
       for (int j = 0; j < size; j++) {
@@ -72,6 +98,44 @@ public class MinMaxPriorityQueueBenchmark {
     }
   }
 
+  /**
+   * Keeps the least {@code size} of a stream of random elements, offered by
+   * {@code threads} threads at once, each of which offers {@code reps}
+   * elements.
+   */
+  @Benchmark long boundedOffer(final int reps)
+      throws ExecutionException, InterruptedException {
+    if (boundedQueue == null) {
+      throw new SkipThisScenarioException();
+    }
+    List<Future<Long>> futures = Lists.newArrayListWithCapacity(threads);
+    for (int i = 0; i < threads; i++) {
+      futures.add(threadPool.submit(new Callable<Long>() {
+        @Override public Long call() {
+          Random random = new Random();
+          long dummy = 0;
+          for (int j = 0; j < reps; j++) {
+            if (boundedQueue.offer(random.nextInt())) {
+              dummy++;
+            }
+          }
+          return dummy;
+        }
+      }));
+    }
+    long total = 0;
+    for (Future<Long> future : futures) {
+      total += future.get();
+    }
+    return total;
+  }
+
+  private void singleThreadedOnly() {
+    if (threads != 1) {
+      throw new SkipThisScenarioException();
+    }
+  }
+
   /**
    * Implementation of the InvertedMinMaxPriorityQueue which forwards all calls to
    * a MinMaxPriorityQueue, except poll, which is forwarded to pollMax. That way
@@ -110,9 +174,40 @@ public class MinMaxPriorityQueueBenchmark {
       @Override public Queue<Integer> create(Comparator<Integer> comparator) {
         return new InvertedMinMaxPriorityQueue<Integer>(comparator);
       }
+    },
+    SYNCHRONIZED_MIN_MAX {
+      @Override public Queue<Integer> create(Comparator<Integer> comparator) {
+        return Queues.synchronizedQueue(
+            MinMaxPriorityQueue.orderedBy(comparator).<Integer>create());
+      }
+      @Override public Queue<Integer> createBounded(
+          Comparator<Integer> comparator, int maximumSize) {
+        return Queues.synchronizedQueue(MinMaxPriorityQueue
+            .orderedBy(comparator).maximumSize(maximumSize).<Integer>create());
+      }
+    },
+    CONCURRENT_MIN_MAX {
+      @Override public Queue<Integer> create(Comparator<Integer> comparator) {
+        return ConcurrentMinMaxPriorityQueue.orderedBy(comparator).create();
+      }
+      @Override public Queue<Integer> createBounded(
+          Comparator<Integer> comparator, int maximumSize) {
+        return ConcurrentMinMaxPriorityQueue.orderedBy(comparator)
+            .maximumSize(maximumSize).create();
+      }
     };
 
     public abstract Queue<Integer> create(Comparator<Integer> comparator);
+
+    /**
+     * Creates a thread-safe queue that keeps the least {@code maximumSize}
+     * elements offered to it, or returns null if this type of queue isn't
+     * thread-safe.
+     */
+    public Queue<Integer> createBounded(
+        Comparator<Integer> comparator, int maximumSize) {
+      return null;
+    }
   }
   
   /**
@@ -54,6 +54,11 @@ public class SetContainsBenchmark {
   private Element[] queries;
   private Set<Element> setToTest;
 
+  // the same elements as longs, for comparing boxed and primitive sets; these ignore impl
+  private long[] longQueries;
+  private Set<Long> boxedLongSet;
+  private LongHashSet primitiveLongSet;
+
   @BeforeExperiment void setUp() {
     CollectionBenchmarkSampleData sampleData = 
         new CollectionBenchmarkSampleData(
@@ -61,6 +66,17 @@ public class SetContainsBenchmark {
     
     this.setToTest = impl.create(sampleData.getValuesInSet());
     this.queries = sampleData.getQueries();
+
+    this.boxedLongSet = Sets.newHashSet();
+    this.primitiveLongSet = LongHashSet.create(size);
+    for (Element element : sampleData.getValuesInSet()) {
+      boxedLongSet.add((long) element.hash);
+      primitiveLongSet.add(element.hash);
+    }
+    this.longQueries = new long[queries.length];
+    for (int i = 0; i < queries.length; i++) {
+      longQueries[i] = queries[i].hash;
+    }
   }
 
   @Benchmark boolean contains(int reps) {
@@ -77,4 +93,28 @@ public class SetContainsBenchmark {
     }
     return dummy;
   }
+
+  @Benchmark boolean containsLongBoxed(int reps) {
+    Set<Long> set = boxedLongSet;
+    long[] queries = longQueries;
+    int mask = queries.length - 1;
+
+    boolean dummy = false;
+    for (int i = 0; i < reps; i++) {
+      dummy ^= set.contains(queries[i & mask]);
+    }
+    return dummy;
+  }
+
+  @Benchmark boolean containsLongPrimitive(int reps) {
+    LongHashSet set = primitiveLongSet;
+    long[] queries = longQueries;
+    int mask = queries.length - 1;
+
+    boolean dummy = false;
+    for (int i = 0; i < reps; i++) {
+      dummy ^= set.contains(queries[i & mask]);
+    }
+    return dummy;
+  }
 }
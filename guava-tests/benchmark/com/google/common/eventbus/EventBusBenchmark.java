@@ -18,6 +18,7 @@ package com.google.common.eventbus;
 
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
 
 /**
  * Benchmark for {@link EventBus}.
@@ -26,12 +27,19 @@ import com.google.caliper.Benchmark;
  */
 public class EventBusBenchmark {
 
+  /** The number of additional subscribers to String events, and to Comparable events. */
+  @Param({"0", "20"}) int extraSubscribers;
+
   private EventBus eventBus;
 
   @BeforeExperiment
   void setUp() {
     eventBus = new EventBus("for benchmarking purposes");
     eventBus.register(this);
+    for (int i = 0; i < extraSubscribers; i++) {
+      eventBus.register(new StringSubscriber());
+      eventBus.register(new ComparableSubscriber());
+    }
   }
 
   @Benchmark void postStrings(int reps) {
@@ -40,8 +48,51 @@ public class EventBusBenchmark {
     }
   }
 
+  /**
+   * Posts events whose subscribers are all registered for one of their supertypes, so that each
+   * post has to take the type hierarchy of {@code Integer} into account.
+   */
+  @Benchmark void postIntegers(int reps) {
+    for (int i = 0; i < reps; i++) {
+      eventBus.post(i);
+    }
+  }
+
+  /** Posts events that nobody subscribes to, which get reposted as {@link DeadEvent}s. */
+  @Benchmark void postDeadEvents(int reps) {
+    Object event = new Object();
+    for (int i = 0; i < reps; i++) {
+      eventBus.post(event);
+    }
+  }
+
+  /** Measures registration, which replaces the subscribers that posts see. */
+  @Benchmark void registerAndUnregister(int reps) {
+    Object subscriber = new StringSubscriber();
+    for (int i = 0; i < reps; i++) {
+      eventBus.register(subscriber);
+      eventBus.unregister(subscriber);
+    }
+  }
+
   @Subscribe
   public void handleStrings(String string) {
     // Nothing to do here.
   }
+
+  static class StringSubscriber {
+    @Subscribe
+    @AllowConcurrentEvents
+    public void handleStrings(String string) {
+      // Nothing to do here.
+    }
+  }
+
+  static class ComparableSubscriber {
+    @Subscribe
+    @AllowConcurrentEvents
+    public void handleComparables(Comparable<?> comparable) {
+      // Nothing to do here.
+    }
+  }
 }
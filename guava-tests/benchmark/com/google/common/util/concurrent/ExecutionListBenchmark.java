@@ -44,8 +44,6 @@ import javax.annotation.concurrent.GuardedBy;
  */
 @VmOptions({"-Xms3g", "-Xmx3g"})
 public class ExecutionListBenchmark {
-  private static final int NUM_THREADS = 10;  // make a param?
-
   // We execute the listeners on the sameThreadExecutor because we don't really care about what the
   // listeners are doing, and they aren't doing much.
   private static final Executor SAME_THREAD_EXECUTOR = MoreExecutors.sameThreadExecutor();
@@ -77,6 +75,24 @@ public class ExecutionListBenchmark {
         };
       }
     },
+    NEW_WITH_LOCK {
+      @Override ExecutionListWrapper newExecutionList() {
+        return new ExecutionListWrapper() {
+          final ExecutionListWithLock list = new ExecutionListWithLock();
+          @Override public void add(Runnable runnable, Executor executor) {
+            list.add(runnable, executor);
+          }
+
+          @Override public void execute() {
+            list.execute();
+          }
+
+          @Override public Object getImpl() {
+            return list;
+          }
+        };
+      }
+    },
     NEW_WITH_CAS {
       @Override ExecutionListWrapper newExecutionList() {
         return new ExecutionListWrapper() {
@@ -159,6 +175,12 @@ public class ExecutionListBenchmark {
   @Param Impl impl;
   @Param({"1", "5", "10"}) int numListeners;
 
+  /**
+   * The number of threads that add listeners concurrently in the multi-threaded benchmarks. Vary it
+   * to see how each implementation scales as producers contend on the same list.
+   */
+  @Param({"1", "10", "50"}) int numProducers;
+
   private final Runnable listener = new Runnable() {
     @Override public void run() {
       listenerLatch.countDown();
@@ -166,14 +188,16 @@ public class ExecutionListBenchmark {
   };
 
   @BeforeExperiment void setUp() throws Exception {
-    executorService = new ThreadPoolExecutor(NUM_THREADS,
-        NUM_THREADS,
+    // one thread per producer, plus one for the task calling execute()
+    int numThreads = numProducers + 1;
+    executorService = new ThreadPoolExecutor(numThreads,
+        numThreads,
         Long.MAX_VALUE,
         TimeUnit.SECONDS,
         new ArrayBlockingQueue<Runnable>(1000));
     final AtomicInteger integer = new AtomicInteger();
     // Execute a bunch of tasks to ensure that our threads are allocated and hot
-    for (int i = 0; i < NUM_THREADS * 10; i++) {
+    for (int i = 0; i < numThreads * 10; i++) {
       executorService.submit(new Runnable() {
         @Override public void run() {
           integer.getAndIncrement();
@@ -241,8 +265,8 @@ public class ExecutionListBenchmark {
     int returnValue = 0;
     for (int i = 0; i < reps; i++) {
       list = impl.newExecutionList();
-      listenerLatch = new CountDownLatch(numListeners * NUM_THREADS);
-      for (int j = 0; j < NUM_THREADS; j++) {
+      listenerLatch = new CountDownLatch(numListeners * numProducers);
+      for (int j = 0; j < numProducers; j++) {
         executorService.submit(addTask);
       }
       executorService.submit(executeTask);
@@ -263,9 +287,9 @@ public class ExecutionListBenchmark {
     int returnValue = 0;
     for (int i = 0; i < reps; i++) {
       list = impl.newExecutionList();
-      listenerLatch = new CountDownLatch(numListeners * NUM_THREADS);
+      listenerLatch = new CountDownLatch(numListeners * numProducers);
       executorService.submit(executeTask);
-      for (int j = 0; j < NUM_THREADS; j++) {
+      for (int j = 0; j < numProducers; j++) {
         executorService.submit(addTask);
       }
       returnValue = (int) listenerLatch.getCount();
@@ -274,6 +298,74 @@ public class ExecutionListBenchmark {
     return returnValue;
   }
 
+  // This is the implementation of ExecutionList that synchronized on add and execute, before it
+  // switched to a compare-and-set on the head of the stack.
+  private static final class ExecutionListWithLock {
+    static final Logger log = Logger.getLogger(ExecutionListWithLock.class.getName());
+
+    @GuardedBy("this")
+    private RunnableExecutorPair runnables;
+    @GuardedBy("this")
+    private boolean executed;
+
+    public void add(Runnable runnable, Executor executor) {
+      Preconditions.checkNotNull(runnable, "Runnable was null.");
+      Preconditions.checkNotNull(executor, "Executor was null.");
+
+      synchronized (this) {
+        if (!executed) {
+          runnables = new RunnableExecutorPair(runnable, executor, runnables);
+          return;
+        }
+      }
+      executeListener(runnable, executor);
+    }
+
+    public void execute() {
+      RunnableExecutorPair list;
+      synchronized (this) {
+        if (executed) {
+          return;
+        }
+        executed = true;
+        list = runnables;
+        runnables = null;  // allow GC to free listeners even if this stays around for a while.
+      }
+      RunnableExecutorPair reversedList = null;
+      while (list != null) {
+        RunnableExecutorPair tmp = list;
+        list = list.next;
+        tmp.next = reversedList;
+        reversedList = tmp;
+      }
+      while (reversedList != null) {
+        executeListener(reversedList.runnable, reversedList.executor);
+        reversedList = reversedList.next;
+      }
+    }
+
+    private static void executeListener(Runnable runnable, Executor executor) {
+      try {
+        executor.execute(runnable);
+      } catch (RuntimeException e) {
+        log.log(Level.SEVERE, "RuntimeException while executing runnable "
+            + runnable + " with executor " + executor, e);
+      }
+    }
+
+    private static final class RunnableExecutorPair {
+      final Runnable runnable;
+      final Executor executor;
+      @Nullable RunnableExecutorPair next;
+
+      RunnableExecutorPair(Runnable runnable, Executor executor, RunnableExecutorPair next) {
+        this.runnable = runnable;
+        this.executor = executor;
+        this.next = next;
+      }
+    }
+  }
+
   // This is the old implementation of ExecutionList using a LinkedList.
   private static final class OldExecutionList {
     static final Logger log = Logger.getLogger(OldExecutionList.class.getName());
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Benchmark;
+import com.google.caliper.Param;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Benchmarks scheduling timeouts that are cancelled before they expire, which is the common case
+ * for request deadlines.
+ */
+public class ScheduledExecutorBenchmark {
+  enum Impl {
+    SCHEDULED_THREAD_POOL {
+      @Override ListeningScheduledExecutorService create() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+        return MoreExecutors.listeningDecorator(executor);
+      }
+    },
+    TIMING_WHEEL {
+      @Override ListeningScheduledExecutorService create() {
+        return TimingWheelScheduledExecutorService.newBuilder()
+            .build(MoreExecutors.sameThreadExecutor());
+      }
+    };
+
+    abstract ListeningScheduledExecutorService create();
+  }
+
+  @Param Impl impl;
+
+  /** The number of timeouts that are pending at any time. */
+  @Param({"1000", "100000"}) int pending;
+
+  /** The number of threads that schedule and cancel timeouts concurrently. */
+  @Param({"1", "8"}) int numThreads;
+
+  private ListeningScheduledExecutorService scheduler;
+  private ExecutorService producers;
+  private final Runnable timeout = Runnables.doNothing();
+
+  @BeforeExperiment void setUp() {
+    scheduler = impl.create();
+    producers = Executors.newFixedThreadPool(numThreads);
+  }
+
+  @AfterExperiment void tearDown() {
+    scheduler.shutdownNow();
+    producers.shutdownNow();
+  }
+
+  @Benchmark int scheduleThenCancel(int reps) throws Exception {
+    final int repsPerThread = reps / numThreads + 1;
+    final int pendingPerThread = pending / numThreads;
+    Future<?>[] results = new Future<?>[numThreads];
+    for (int t = 0; t < numThreads; t++) {
+      results[t] = producers.submit(new Runnable() {
+        @Override public void run() {
+          // cancel each timeout once pendingPerThread newer ones were scheduled
+          Future<?>[] window = new Future<?>[Math.max(1, pendingPerThread)];
+          for (int i = 0; i < repsPerThread; i++) {
+            int slot = i % window.length;
+            if (window[slot] != null) {
+              window[slot].cancel(false);
+            }
+            window[slot] = scheduler.schedule(timeout, 30, SECONDS);
+          }
+          for (Future<?> future : window) {
+            if (future != null) {
+              future.cancel(false);
+            }
+          }
+        }
+      });
+    }
+    int dummy = 0;
+    for (Future<?> result : results) {
+      dummy += (result.get() == null) ? 1 : 0;
+    }
+    return dummy;
+  }
+}
@@ -32,6 +32,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -46,6 +47,8 @@ public class StripedBenchmark {
     }
   };
 
+  private static final int THREADS = 8;
+
   @Param({"2", "8", "64", "1024", "65536"}) int numStripes;
   @Param Impl impl;
 
@@ -64,6 +67,16 @@ public class StripedBenchmark {
       @Override Striped<Lock> get(int stripes) {
         return new Striped.LargeLazyStriped<Lock>(stripes, LOCK_SUPPLIER);
       }
+    },
+    INSTRUMENTED {
+      @Override Striped<Lock> get(int stripes) {
+        return Striped.instrumentedLock(stripes);
+      }
+    },
+    ADAPTIVE {
+      @Override Striped<Lock> get(int stripes) {
+        return Striped.adaptiveLock(stripes, 1, 16);
+      }
     };
     
     abstract Striped<Lock> get(int stripes);
@@ -123,6 +136,59 @@ public class StripedBenchmark {
     return rvalue;
   }
 
+  @Benchmark long timeLockUnlock(long reps) {
+    long rvalue = 0;
+    int[] stripesLocal = stripes;
+    int mask = numStripes - 1;
+    Striped<Lock> stripedLocal = striped;
+    for (long i = 0; i < reps; i++) {
+      Lock lock = stripedLocal.getAt(stripesLocal[(int) (i & mask)]);
+      lock.lock();
+      rvalue += lock.hashCode();
+      lock.unlock();
+    }
+    return rvalue;
+  }
+
+  /**
+   * Each thread repeatedly locks a random stripe, does a little work under the lock and unlocks
+   * it. The adaptive implementation starts with a single lock, so this shows how fast it gets
+   * from fully serialized to the throughput of the eager implementation.
+   */
+  @Benchmark long timeContendedLockUnlock(long reps) throws InterruptedException {
+    final Striped<Lock> stripedLocal = impl.get(numStripes);
+    final int[] stripesLocal = stripes;
+    final int mask = numStripes - 1;
+    final long repsPerThread = reps / THREADS + 1;
+    final AtomicLong rvalue = new AtomicLong();
+    List<Thread> threads = new ArrayList<Thread>(THREADS);
+    for (int t = 0; t < THREADS; t++) {
+      final int offset = t * 31;
+      threads.add(new Thread() {
+        @Override public void run() {
+          long local = 0;
+          for (long i = 0; i < repsPerThread; i++) {
+            Lock lock = stripedLocal.getAt(stripesLocal[(int) ((i + offset) & mask)]);
+            lock.lock();
+            try {
+              local += Long.numberOfTrailingZeros(i + local);
+            } finally {
+              lock.unlock();
+            }
+          }
+          rvalue.addAndGet(local);
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    return rvalue.get();
+  }
+
   @Benchmark long timeBulkGet(long reps) {
     long rvalue = 0;
     List<Integer> bulkGetSetLocal = bulkGetSet;
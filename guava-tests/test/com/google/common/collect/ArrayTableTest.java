@@ -22,13 +22,16 @@ import static org.truth0.Truth.ASSERT;
 import com.google.common.annotations.GwtCompatible;
 import com.google.common.annotations.GwtIncompatible;
 import com.google.common.base.Objects;
+import com.google.common.base.Predicates;
 import com.google.common.collect.Table.Cell;
 import com.google.common.testing.EqualsTester;
 import com.google.common.testing.NullPointerTester;
 import com.google.common.testing.SerializableTester;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import java.util.Arrays;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 /**
  * Test cases for {@link ArrayTable}.
@@ -459,6 +462,17 @@ public class ArrayTableTest extends AbstractTableTest {
     }
   }
 
+  @GwtIncompatible("toListInParallel")
+  public void testValuesAndCellSet_inParallel() {
+    table = create("foo", 1, 'a', "bar", 1, 'b', "foo", 3, 'c', "cat", 2, 'd');
+    Executor executor = MoreExecutors.sameThreadExecutor();
+    assertEquals(ImmutableList.of('a', 'c', 'b', 'd'), FluentIterable.from(table.values())
+        .filter(Predicates.notNull())
+        .toListInParallel(executor));
+    assertEquals(ImmutableList.copyOf(table.cellSet()),
+        FluentIterable.from(table.cellSet()).toListInParallel(executor));
+  }
+
   @GwtIncompatible("reflection")
   public void testNulls() {
     new NullPointerTester().testAllPublicInstanceMethods(create());
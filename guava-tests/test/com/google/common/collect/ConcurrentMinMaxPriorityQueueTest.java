@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.base.Function;
+import com.google.common.testing.NullPointerTester;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit test for {@link ConcurrentMinMaxPriorityQueue}.
+ */
+public class ConcurrentMinMaxPriorityQueueTest extends TestCase {
+  private Ordering<Integer> SOME_COMPARATOR = Ordering.natural().reverse();
+
+  public void testCreation_simple() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create();
+    assertEquals(Integer.MAX_VALUE, queue.maximumSize);
+    assertSame(Ordering.natural(), queue.comparator());
+    assertTrue(queue.isEmpty());
+  }
+
+  public void testCreation_comparator() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.orderedBy(SOME_COMPARATOR).create();
+    assertEquals(Integer.MAX_VALUE, queue.maximumSize);
+    assertSame(SOME_COMPARATOR, queue.comparator());
+  }
+
+  public void testCreation_maximumSize() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.maximumSize(42).create();
+    assertEquals(42, queue.maximumSize);
+    assertSame(Ordering.natural(), queue.comparator());
+  }
+
+  public void testCreation_initialContents() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue
+        .orderedBy(SOME_COMPARATOR)
+        .maximumSize(3)
+        .create(Arrays.asList(4, 8, 1, 9, 2));
+    assertEquals(Arrays.asList(9, 8, 4), Lists.newArrayList(queue));
+  }
+
+  public void testCreation_badMaximumSize() {
+    try {
+      ConcurrentMinMaxPriorityQueue.maximumSize(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testPollAndPeekBothEnds() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create();
+    queue.addAll(Arrays.asList(5, 3, 9, 1, 7));
+    assertEquals(5, queue.size());
+    assertEquals(1, (int) queue.peek());
+    assertEquals(1, (int) queue.peekFirst());
+    assertEquals(9, (int) queue.peekLast());
+    assertEquals(1, (int) queue.poll());
+    assertEquals(9, (int) queue.pollLast());
+    assertEquals(3, (int) queue.removeFirst());
+    assertEquals(7, (int) queue.removeLast());
+    assertEquals(5, (int) queue.pollFirst());
+    assertTrue(queue.isEmpty());
+    assertNull(queue.poll());
+    assertNull(queue.pollLast());
+    assertNull(queue.peekFirst());
+    assertNull(queue.peekLast());
+    try {
+      queue.removeFirst();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+    try {
+      queue.removeLast();
+      fail();
+    } catch (NoSuchElementException expected) {
+    }
+  }
+
+  public void testDuplicates() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create();
+    queue.addAll(Arrays.asList(2, 1, 2, 1));
+    assertEquals(Arrays.asList(1, 1, 2, 2), Lists.newArrayList(queue));
+  }
+
+  public void testEqualElementsInInsertionOrder() {
+    Ordering<String> byLength = Ordering.natural().onResultOf(
+        new Function<String, Integer>() {
+          @Override public Integer apply(String s) {
+            return s.length();
+          }
+        });
+    ConcurrentMinMaxPriorityQueue<String> queue =
+        ConcurrentMinMaxPriorityQueue.orderedBy(byLength).maximumSize(3).create();
+    queue.addAll(Arrays.asList("bb", "a", "cc", "dd", "e"));
+    assertEquals(Arrays.asList("a", "e", "bb"), Lists.newArrayList(queue));
+  }
+
+  public void testMaximumSize_evictsGreatest() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.maximumSize(3).create();
+    assertTrue(queue.offer(5));
+    assertTrue(queue.offer(3));
+    assertTrue(queue.offer(8));
+    assertTrue(queue.offer(1));
+    assertEquals(Arrays.asList(1, 3, 5), Lists.newArrayList(queue));
+    assertFalse(queue.offer(9));
+    assertFalse(queue.offer(5));
+    assertTrue(queue.add(9));
+    assertTrue(queue.offer(4));
+    assertEquals(Arrays.asList(1, 3, 4), Lists.newArrayList(queue));
+    assertEquals(3, queue.size());
+  }
+
+  public void testMaximumSize_afterPoll() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.maximumSize(2).create();
+    queue.addAll(Arrays.asList(1, 2, 3));
+    assertEquals(2, (int) queue.pollLast());
+    assertTrue(queue.offer(7));
+    assertEquals(Arrays.asList(1, 7), Lists.newArrayList(queue));
+  }
+
+  public void testClear() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create();
+    queue.addAll(Arrays.asList(3, 1, 2));
+    queue.clear();
+    assertTrue(queue.isEmpty());
+    assertFalse(queue.iterator().hasNext());
+  }
+
+  public void testIteratorAndRemoveUnsupported() {
+    ConcurrentMinMaxPriorityQueue<Integer> queue = ConcurrentMinMaxPriorityQueue.create();
+    queue.addAll(Arrays.asList(3, 1, 2));
+    Iterator<Integer> iterator = queue.iterator();
+    assertEquals(1, (int) iterator.next());
+    try {
+      iterator.remove();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      queue.remove(2);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    assertTrue(queue.contains(2));
+    assertEquals(3, queue.size());
+  }
+
+  public void testConcurrentOffers() throws Exception {
+    final int maximumSize = 100;
+    final ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.maximumSize(maximumSize).create();
+    List<Integer> all = Lists.newArrayList();
+    Random random = new Random(0);
+    for (int i = 0; i < 40000; i++) {
+      all.add(random.nextInt(10000));
+    }
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Void>> futures = Lists.newArrayList();
+      for (int t = 0; t < threads; t++) {
+        final List<Integer> part =
+            all.subList(all.size() * t / threads, all.size() * (t + 1) / threads);
+        futures.add(executor.submit(new Callable<Void>() {
+          @Override public Void call() {
+            for (Integer element : part) {
+              queue.offer(element);
+            }
+            return null;
+          }
+        }));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(maximumSize, queue.size());
+    assertEquals(Ordering.natural().leastOf(all, maximumSize), Lists.newArrayList(queue));
+  }
+
+  public void testConcurrentOffersAndPolls() throws Exception {
+    final ConcurrentMinMaxPriorityQueue<Integer> queue =
+        ConcurrentMinMaxPriorityQueue.maximumSize(50).create();
+    int threads = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<Integer>> futures = Lists.newArrayList();
+      for (int t = 0; t < threads; t++) {
+        final int seed = t;
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override public Integer call() {
+            Random random = new Random(seed);
+            int polled = 0;
+            for (int i = 0; i < 10000; i++) {
+              queue.offer(random.nextInt(1000));
+              if (random.nextInt(4) == 0 && queue.pollFirst() != null) {
+                polled++;
+              }
+            }
+            return polled;
+          }
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    List<Integer> remaining = Lists.newArrayList(queue);
+    assertEquals(queue.size(), remaining.size());
+    assertTrue(remaining.size() <= 50);
+    assertTrue(Ordering.natural().isOrdered(remaining));
+    int drained = 0;
+    while (queue.poll() != null) {
+      drained++;
+    }
+    assertEquals(remaining.size(), drained);
+    assertTrue(queue.isEmpty());
+  }
+
+  public void testNullPointers() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicConstructors(ConcurrentMinMaxPriorityQueue.class);
+    tester.testAllPublicStaticMethods(ConcurrentMinMaxPriorityQueue.class);
+    tester.testAllPublicInstanceMethods(ConcurrentMinMaxPriorityQueue.<String>create());
+  }
+}
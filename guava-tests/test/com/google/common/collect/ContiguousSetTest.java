@@ -38,6 +38,7 @@ import com.google.common.collect.testing.google.SetGenerators.ContiguousSetHeads
 import com.google.common.collect.testing.google.SetGenerators.ContiguousSetSubsetGenerator;
 import com.google.common.collect.testing.google.SetGenerators.ContiguousSetTailsetGenerator;
 import com.google.common.testing.EqualsTester;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import junit.framework.Test;
 import junit.framework.TestCase;
@@ -317,6 +318,47 @@ public class ContiguousSetTest extends TestCase {
         set.intersection(ContiguousSet.create(Range.open(-1, 4), integers())));
   }
 
+  @GwtIncompatible("not needed in emulated source")
+  public void testAsList() {
+    ImmutableList<Integer> list = ContiguousSet.create(Range.open(0, 5), integers()).asList();
+    assertEquals(ImmutableList.of(1, 2, 3, 4), list);
+    assertEquals(3, (int) list.get(2));
+    try {
+      list.get(4);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    assertEquals(Long.MAX_VALUE, (long) ContiguousSet.create(
+        Range.atLeast(Long.MAX_VALUE - 1), DiscreteDomain.longs()).asList().get(1));
+    assertEquals(ImmutableList.of(1, 2, 3, 4),
+        ContiguousSet.create(Range.open(0, 5), NOT_EQUAL_TO_INTEGERS).asList());
+  }
+
+  @GwtIncompatible("not needed in emulated source")
+  public void testAsList_indexOf() {
+    // linear searches of this list would take far too long
+    ImmutableList<Integer> list =
+        ContiguousSet.create(Range.closedOpen(0, Integer.MAX_VALUE), integers()).asList();
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(Integer.MAX_VALUE - 1, list.indexOf(Integer.MAX_VALUE - 1));
+      assertEquals(Integer.MAX_VALUE - 1, list.lastIndexOf(Integer.MAX_VALUE - 1));
+      assertEquals(-1, list.indexOf(Integer.MAX_VALUE));
+      assertEquals(-1, list.lastIndexOf(-1));
+    }
+    assertEquals(0, list.indexOf(0));
+    assertEquals(-1, list.indexOf("0"));
+    assertEquals(-1, list.lastIndexOf(null));
+    assertTrue(list instanceof SortedIterable);
+    assertSame(Ordering.natural(), ((SortedIterable<Integer>) list).comparator());
+  }
+
+  @GwtIncompatible("toListInParallel")
+  public void testToListInParallel() {
+    ContiguousSet<Integer> set = ContiguousSet.create(Range.closed(-10, 1000), integers());
+    assertEquals(ImmutableList.copyOf(set),
+        FluentIterable.from(set).toListInParallel(MoreExecutors.sameThreadExecutor()));
+  }
+
   @GwtIncompatible("suite")
   public static class BuiltTests extends TestCase {
     public static Test suite() {
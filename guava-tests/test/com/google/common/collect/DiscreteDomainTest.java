@@ -22,6 +22,8 @@ import com.google.common.annotations.GwtIncompatible;
 
 import junit.framework.TestCase;
 
+import java.math.BigInteger;
+
 /**
  * Tests for {@link DiscreteDomain}.
  *
@@ -34,4 +36,30 @@ public class DiscreteDomainTest extends TestCase {
     reserializeAndAssert(DiscreteDomain.longs());
     reserializeAndAssert(DiscreteDomain.bigIntegers());
   }
+
+  public void testOffset() {
+    assertEquals(7, (int) DiscreteDomain.integers().offset(3, 4));
+    assertEquals(Long.MAX_VALUE, (long) DiscreteDomain.longs().offset(Long.MAX_VALUE - 2, 2));
+    assertEquals(BigInteger.TEN, DiscreteDomain.bigIntegers().offset(BigInteger.ONE, 9));
+    assertTrue(DiscreteDomain.integers().supportsFastOffset);
+  }
+
+  public void testOffset_customDomain() {
+    DiscreteDomain<Integer> domain = new DiscreteDomain<Integer>() {
+      @Override public Integer next(Integer value) {
+        return value + 1;
+      }
+
+      @Override public Integer previous(Integer value) {
+        return value - 1;
+      }
+
+      @Override public long distance(Integer start, Integer end) {
+        return (long) end - start;
+      }
+    };
+    assertFalse(domain.supportsFastOffset);
+    assertEquals(7, (int) domain.offset(3, 4));
+    assertEquals(3, (int) domain.offset(3, 0));
+  }
 }
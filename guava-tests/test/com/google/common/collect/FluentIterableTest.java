@@ -29,6 +29,7 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.testing.IteratorFeature;
 import com.google.common.collect.testing.IteratorTester;
 import com.google.common.testing.NullPointerTester;
+import com.google.common.util.concurrent.MoreExecutors;
 
 import junit.framework.AssertionFailedError;
 import junit.framework.TestCase;
@@ -40,6 +41,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.SortedSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 
 import javax.annotation.Nullable;
 
@@ -656,6 +661,178 @@ public class FluentIterableTest extends TestCase {
     }
   }
 
+  @GwtIncompatible("Executor")
+  public void testToListInParallel() throws Exception {
+    List<Integer> source = Lists.newArrayList();
+    for (int i = 0; i < 10000; i++) {
+      source.add(i);
+    }
+    final Set<Thread> threads = Collections.synchronizedSet(Sets.<Thread>newHashSet());
+    FluentIterable<String> pipeline = FluentIterable.from(source)
+        .filter(new Predicate<Integer>() {
+          @Override
+          public boolean apply(Integer input) {
+            threads.add(Thread.currentThread());
+            return input % 3 != 0;
+          }
+        })
+        .transform(Functions.toStringFunction());
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      assertEquals(pipeline.toList(), pipeline.toListInParallel(executor));
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(threads.size() > 1);
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToListInParallel_immutableSet() {
+    FluentIterable<Integer> pipeline = FluentIterable.from(ImmutableSet.of(5, 4, 3, 2, 1))
+        .transform(Functions.forMap(ImmutableMap.of(1, 10, 2, 20, 3, 30, 4, 40, 5, 50)));
+    assertEquals(ImmutableList.of(50, 40, 30, 20, 10),
+        pipeline.toListInParallel(MoreExecutors.sameThreadExecutor()));
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToListInParallel_immutableCollectionAsListOnlyWhenParallel() {
+    final ImmutableList<Integer> elements = ImmutableList.of(1, 2, 3, 4);
+    final int[] asListCalls = {0};
+    @SuppressWarnings("serial") // not serialized in this test
+    ImmutableCollection<Integer> source = new ImmutableCollection<Integer>() {
+      @Override public UnmodifiableIterator<Integer> iterator() {
+        return elements.iterator();
+      }
+
+      @Override public int size() {
+        return elements.size();
+      }
+
+      @Override boolean isPartialView() {
+        return false;
+      }
+
+      @Override public ImmutableList<Integer> asList() {
+        asListCalls[0]++;
+        return elements;
+      }
+    };
+    FluentIterable<Integer> pipeline = FluentIterable.from(source)
+        .filter(Predicates.not(Predicates.equalTo(2)))
+        .transform(Functions.forMap(ImmutableMap.of(1, 10, 3, 30, 4, 40)));
+    assertEquals(ImmutableList.of(10, 30, 40), pipeline.toList());
+    assertEquals(0, asListCalls[0]);
+    assertEquals(ImmutableList.of(10, 30, 40),
+        pipeline.toListInParallel(MoreExecutors.sameThreadExecutor()));
+    assertEquals(1, asListCalls[0]);
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToListInParallel_notSplittable() {
+    Executor rejecting = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new AssertionFailedError();
+      }
+    };
+    assertEquals(ImmutableList.of("a", "b"),
+        FluentIterable.from(iterable("a", "b")).toListInParallel(rejecting));
+    assertEquals(ImmutableList.of(1, 2),
+        fluent(1, 2, 3).limit(2).toListInParallel(rejecting));
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToListInParallel_rejectingExecutor() {
+    List<Integer> source = Lists.newArrayList();
+    for (int i = 0; i < 10000; i++) {
+      source.add(i);
+    }
+    final List<Thread> started = Lists.newArrayList();
+    final int[] rejections = {0};
+    // runs the first range on a thread of its own, and rejects all others
+    Executor saturated = new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        if (!started.isEmpty()) {
+          rejections[0]++;
+          throw new RejectedExecutionException();
+        }
+        Thread thread = new Thread(command);
+        started.add(thread);
+        thread.start();
+      }
+    };
+    FluentIterable<String> pipeline = FluentIterable.from(source)
+        .transform(Functions.toStringFunction());
+    assertEquals(pipeline.toList(), pipeline.toListInParallel(saturated));
+    assertEquals(1, rejections[0]);
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToListInParallel_functionThrows() {
+    final RuntimeException failure = new RuntimeException();
+    FluentIterable<Integer> pipeline = fluent(1, 2, 3, 4, 5, 6, 7, 8)
+        .transform(new Function<Integer, Integer>() {
+          @Override
+          public Integer apply(Integer input) {
+            if (input == 7) {
+              throw failure;
+            }
+            return input;
+          }
+        });
+    try {
+      pipeline.toListInParallel(MoreExecutors.sameThreadExecutor());
+      fail();
+    } catch (RuntimeException expected) {
+      assertSame(failure, expected);
+    }
+  }
+
+  @GwtIncompatible("Executor")
+  public void testIndexInParallel() {
+    FluentIterable<String> pipeline =
+        FluentIterable.from(asList("one", "two", "three", "four", "five"));
+    Function<String, Integer> length = new Function<String, Integer>() {
+      @Override
+      public Integer apply(String input) {
+        return input.length();
+      }
+    };
+    ImmutableListMultimap<Integer, String> index =
+        pipeline.indexInParallel(length, MoreExecutors.sameThreadExecutor());
+    assertEquals(pipeline.index(length), index);
+    assertEquals(ImmutableList.of(3, 5, 4), index.keySet().asList());
+    assertEquals(ImmutableList.of("four", "five"), index.get(4));
+  }
+
+  @GwtIncompatible("Executor")
+  public void testUniqueIndexInParallel() {
+    Function<Object, String> toString = Functions.toStringFunction();
+    assertEquals(ImmutableMap.of("3", 3, "1", 1, "2", 2),
+        fluent(3, 1, 2).uniqueIndexInParallel(toString, MoreExecutors.sameThreadExecutor()));
+    try {
+      fluent(1, 2, 1).uniqueIndexInParallel(toString, MoreExecutors.sameThreadExecutor());
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToSetInParallel() {
+    FluentIterable<Integer> pipeline = fluent(4, 1, 4, 2, 1, 3, 2, 5);
+    ImmutableSet<Integer> set = pipeline.toSetInParallel(MoreExecutors.sameThreadExecutor());
+    assertEquals(ImmutableList.of(4, 1, 2, 3, 5), set.asList());
+  }
+
+  @GwtIncompatible("Executor")
+  public void testToSortedSetInParallel() {
+    ImmutableSortedSet<Integer> set = fluent(4, 1, 4, 2, 1, 3, 2, 5)
+        .toSortedSetInParallel(Ordering.natural().reverse(), MoreExecutors.sameThreadExecutor());
+    assertEquals(ImmutableList.of(5, 4, 3, 2, 1), set.asList());
+    assertEquals(Ordering.natural().reverse(), set.comparator());
+  }
+
   public void testCopyInto_List() {
     ASSERT.that(fluent(1, 3, 5).copyInto(Lists.newArrayList(1, 2)))
         .has().exactly(1, 2, 1, 3, 5).inOrder();
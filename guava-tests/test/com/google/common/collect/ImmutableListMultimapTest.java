@@ -37,6 +37,8 @@ import junit.framework.TestSuite;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 
 /**
@@ -377,6 +379,75 @@ public class ImmutableListMultimapTest extends TestCase {
     } catch (NullPointerException expected) {}
   }
 
+  public void testCopyOfAsMap() {
+    LinkedListMultimap<String, Integer> input = LinkedListMultimap.create();
+    input.putAll("foo", Arrays.asList(1, 2, 3));
+    input.put("bar", 4);
+    input.putAll("baz", Arrays.asList(5, 6));
+    Map<String, Collection<Integer>> asMap = ImmutableListMultimap.copyOf(input).asMap();
+    assertEquals(input.asMap(), asMap);
+    ASSERT.that(asMap.keySet()).has().exactly("foo", "bar", "baz").inOrder();
+    ASSERT.that(asMap.values()).has().exactly(
+        ImmutableList.of(1, 2, 3), ImmutableList.of(4), ImmutableList.of(5, 6)).inOrder();
+    assertTrue(asMap.containsKey("bar"));
+    assertFalse(asMap.containsKey("qux"));
+    assertNull(asMap.get("qux"));
+    assertNull(asMap.get(null));
+  }
+
+  public void testAsMapValuesIsNotAList() {
+    ImmutableListMultimap<String, Integer> multimap =
+        ImmutableListMultimap.of("foo", 1, "foo", 2, "bar", 3);
+    Collection<Collection<Integer>> values = multimap.asMap().values();
+    List<ImmutableList<Integer>> expected =
+        ImmutableList.of(ImmutableList.of(1, 2), ImmutableList.of(3));
+    assertFalse(values instanceof List);
+    assertFalse(values.equals(expected));
+    assertFalse(expected.equals(values));
+    assertEquals(expected, ((ImmutableCollection<Collection<Integer>>) values).asList());
+  }
+
+  public void testSingleKey_of() {
+    ImmutableListMultimap<String, Integer> multimap = ImmutableListMultimap.of("foo", 1);
+    assertEquals(ImmutableList.of(1), multimap.get("foo"));
+    assertEquals(ImmutableList.of(), multimap.get("bar"));
+    assertEquals(ImmutableMap.of("foo", ImmutableList.of(1)), multimap.asMap());
+  }
+
+  public void testSingleKey_builder() {
+    ImmutableListMultimap<String, Integer> multimap =
+        ImmutableListMultimap.<String, Integer>builder().putAll("foo", 1, 2, 3).build();
+    assertEquals(ImmutableList.of(1, 2, 3), multimap.get("foo"));
+    assertEquals(ImmutableMap.of("foo", ImmutableList.of(1, 2, 3)), multimap.asMap());
+  }
+
+  public void testSingleKey_copyOf() {
+    LinkedListMultimap<String, Integer> input = LinkedListMultimap.create();
+    input.putAll("foo", Arrays.asList(1, 2));
+    ImmutableListMultimap<String, Integer> multimap = ImmutableListMultimap.copyOf(input);
+    assertEquals(input, multimap);
+    assertEquals(ImmutableList.of(1, 2), multimap.get("foo"));
+    assertTrue(multimap.containsKey("foo"));
+    assertFalse(multimap.containsKey("bar"));
+  }
+
+  public void testCopyOfManyKeys() {
+    ArrayListMultimap<Integer, Integer> input = ArrayListMultimap.create();
+    for (int key = 0; key < 1000; key++) {
+      for (int value = 0; value < key % 5 + 1; value++) {
+        input.put(key, value);
+      }
+    }
+    ImmutableListMultimap<Integer, Integer> multimap = ImmutableListMultimap.copyOf(input);
+    assertEquals(input, multimap);
+    assertEquals(input.size(), multimap.size());
+    for (int key = 0; key < 1000; key++) {
+      assertEquals(input.get(key), multimap.get(key));
+      assertEquals(input.get(key), ImmutableList.copyOf(multimap.get(key)));
+    }
+    assertEquals(ImmutableList.of(), multimap.get(1000));
+  }
+
   public void testEmptyMultimapReads() {
     Multimap<String, Integer> multimap = ImmutableListMultimap.of();
     assertFalse(multimap.containsKey("foo"));
@@ -50,10 +50,12 @@ import junit.framework.TestCase;
 import junit.framework.TestSuite;
 
 import java.io.Serializable;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 
@@ -660,6 +662,18 @@ public class ImmutableMapTest extends TestCase {
     assertTrue(reserializedValues instanceof ImmutableCollection);
   }
 
+  public void testValuesIsNotAList() {
+    ImmutableMap<String, Integer> map = ImmutableMap.of("one", 1, "two", 2, "three", 3);
+    ImmutableCollection<Integer> values = map.values();
+    assertFalse(values instanceof List);
+    assertFalse(values.equals(Arrays.asList(1, 2, 3)));
+    assertFalse(Arrays.asList(1, 2, 3).equals(values));
+    assertEquals(Arrays.asList(1, 2, 3), values.asList());
+    assertEquals(1, (int) values.asList().get(0));
+    assertTrue(values.contains(2));
+    assertFalse(values.contains(4));
+  }
+
   public void testEquals() {
     new EqualsTester()
         .addEqualityGroup(ImmutableList.of(), ImmutableList.of())
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.primitives.Ints;
+
+import junit.framework.TestCase;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link IntIntHashMap}.
+ */
+public class IntIntHashMapTest extends TestCase {
+  public void testEmpty() {
+    IntIntHashMap map = IntIntHashMap.create();
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.get(0));
+    assertEquals(0, map.get(7));
+    assertFalse(map.containsKey(0));
+    assertEquals(0, map.remove(7));
+    assertEquals(0, map.keys().length);
+    assertEquals("{}", map.toString());
+  }
+
+  public void testPutGetRemove() {
+    IntIntHashMap map = IntIntHashMap.create();
+    assertEquals(0, map.put(1, 10));
+    assertEquals(0, map.put(Integer.MIN_VALUE, 20));
+    assertEquals(10, map.put(1, 30));
+    assertEquals(2, map.size());
+    assertEquals(30, map.get(1));
+    assertEquals(20, map.get(Integer.MIN_VALUE));
+    assertEquals(30, map.remove(1));
+    assertFalse(map.containsKey(1));
+    assertEquals(1, map.size());
+  }
+
+  public void testZeroKey() {
+    IntIntHashMap map = IntIntHashMap.create();
+    assertEquals(0, map.put(0, 0));
+    assertTrue(map.containsKey(0));
+    assertEquals(1, map.size());
+    assertEquals(5, map.addAndGet(0, 5));
+    assertTrue(Ints.contains(map.keys(), 0));
+    assertEquals(ImmutableMap.of(0, 5), map.asMap());
+    assertEquals(5, map.remove(0));
+    assertFalse(map.containsKey(0));
+    assertEquals(0, map.get(0));
+  }
+
+  public void testAddAndGet() {
+    IntIntHashMap map = IntIntHashMap.create();
+    assertEquals(3, map.addAndGet(4, 3));
+    assertEquals(1, map.addAndGet(4, -2));
+    assertEquals(2, map.incrementAndGet(4));
+    assertEquals(0, map.addAndGet(4, -2));
+    // a key whose value drops to zero stays in the map
+    assertTrue(map.containsKey(4));
+  }
+
+  public void testAddAndGet_acrossRehash() {
+    IntIntHashMap map = IntIntHashMap.create(0);
+    for (int i = 1; i <= 1000; i++) {
+      assertEquals(i, map.addAndGet(i, i));
+    }
+    for (int i = 1; i <= 1000; i++) {
+      assertEquals(i, map.get(i));
+    }
+  }
+
+  public void testRemove_keepsCollidingKeysReachable() {
+    IntIntHashMap map = IntIntHashMap.create(4);
+    for (int i = 1; i <= 6; i++) {
+      map.put(i << 20, i);
+    }
+    for (int i = 1; i <= 6; i += 2) {
+      assertEquals(i, map.remove(i << 20));
+    }
+    for (int i = 1; i <= 6; i++) {
+      assertEquals(i % 2 == 0, map.containsKey(i << 20));
+    }
+  }
+
+  public void testAsMap() {
+    IntIntHashMap map = IntIntHashMap.create();
+    map.put(1, 10);
+    Map<Integer, Integer> view = map.asMap();
+    assertEquals((Integer) 10, view.get(1));
+    assertNull(view.get(2));
+    assertNull(view.get(1L));
+    assertNull(view.put(2, 20));
+    assertEquals((Integer) 20, view.put(2, 21));
+    assertEquals(21, map.get(2));
+    assertEquals(ImmutableMap.of(1, 10, 2, 21), view);
+
+    for (Map.Entry<Integer, Integer> entry : view.entrySet()) {
+      entry.setValue(entry.getValue() + 1);
+    }
+    assertEquals(ImmutableMap.of(1, 11, 2, 22), view);
+
+    assertEquals((Integer) 11, view.remove(1));
+    assertNull(view.remove(1));
+    try {
+      view.put(3, null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testAsMap_concurrentModification() {
+    IntIntHashMap map = IntIntHashMap.create();
+    map.put(1, 1);
+    map.put(2, 2);
+    Iterator<Integer> keys = map.asMap().keySet().iterator();
+    keys.next();
+    map.remove(2);
+    try {
+      keys.next();
+      fail();
+    } catch (ConcurrentModificationException expected) {
+    }
+  }
+
+  public void testAgainstHashMap() {
+    Random random = new Random(0);
+    IntIntHashMap map = IntIntHashMap.create();
+    Map<Integer, Integer> expected = new HashMap<Integer, Integer>();
+    for (int i = 0; i < 20000; i++) {
+      int key = random.nextInt(1000) - 500;
+      switch (random.nextInt(3)) {
+        case 0:
+          Integer oldValue = expected.put(key, i);
+          assertEquals((oldValue == null) ? 0 : oldValue, map.put(key, i));
+          break;
+        case 1:
+          Integer removed = expected.remove(key);
+          assertEquals((removed == null) ? 0 : removed, map.remove(key));
+          break;
+        default:
+          Integer current = expected.get(key);
+          int newValue = ((current == null) ? 0 : current) + 1;
+          expected.put(key, newValue);
+          assertEquals(newValue, map.incrementAndGet(key));
+          break;
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    assertEquals(expected, map.asMap());
+  }
+}
@@ -47,6 +47,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Queue;
+import java.util.Random;
 import java.util.RandomAccess;
 import java.util.Set;
 import java.util.SortedSet;
@@ -1339,6 +1340,51 @@ public class IterablesTest extends TestCase {
     verifyMergeSorted(iterables, allIntegers);
   }
 
+  public void testMergeSorted_manyIterables() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 50; trial++) {
+      List<Iterable<Integer>> iterables = Lists.newArrayList();
+      List<Integer> allIntegers = Lists.newArrayList();
+      int iterableCount = random.nextInt(40);
+      for (int i = 0; i < iterableCount; i++) {
+        List<Integer> list = Lists.newArrayList();
+        int size = random.nextInt(5);
+        for (int j = 0; j < size; j++) {
+          list.add(random.nextInt(20));
+        }
+        allIntegers.addAll(list);
+        iterables.add(Ordering.natural().sortedCopy(list));
+      }
+      verifyMergeSorted(iterables, allIntegers);
+    }
+  }
+
+  // Elements that compare equal come from the earlier iterable first.
+  public void testMergeSorted_ties() {
+    Ordering<String> byLength = Ordering.natural().onResultOf(
+        new Function<String, Integer>() {
+          @Override public Integer apply(String s) {
+            return s.length();
+          }
+        });
+    List<List<String>> iterables = ImmutableList.<List<String>>of(
+        ImmutableList.of("a", "bb", "ccc"),
+        ImmutableList.<String>of(),
+        ImmutableList.of("d", "ee"),
+        ImmutableList.of("f", "gg", "hhh"));
+    assertEquals(
+        ImmutableList.of("a", "d", "f", "bb", "ee", "gg", "ccc", "hhh"),
+        ImmutableList.copyOf(Iterables.mergeSorted(iterables, byLength)));
+  }
+
+  public void testMergeSorted_nulls() {
+    List<List<Integer>> iterables = ImmutableList.<List<Integer>>of(
+        Arrays.asList(1, 3, null), Arrays.<Integer>asList(null, null), Arrays.asList(2));
+    assertEquals(Arrays.asList(1, 2, 3, null, null, null),
+        Lists.newArrayList(Iterables.mergeSorted(
+            iterables, Ordering.<Integer>natural().nullsLast())));
+  }
+
   @GwtIncompatible("reflection")
   public void testIterables_nullCheck() throws Exception {
     new ClassSanityTester()
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.primitives.Longs;
+
+import junit.framework.TestCase;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Tests for {@link LongHashSet}.
+ */
+public class LongHashSetTest extends TestCase {
+  public void testEmpty() {
+    LongHashSet set = LongHashSet.create();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(0));
+    assertFalse(set.remove(0));
+    assertFalse(set.remove(1));
+    assertEquals(0, set.toArray().length);
+    assertEquals("[]", set.toString());
+  }
+
+  public void testAddContainsRemove() {
+    LongHashSet set = LongHashSet.create();
+    assertTrue(set.add(1));
+    assertTrue(set.add(Long.MAX_VALUE));
+    assertFalse(set.add(1));
+    assertEquals(2, set.size());
+    assertTrue(set.contains(Long.MAX_VALUE));
+    assertTrue(set.remove(1));
+    assertFalse(set.contains(1));
+    assertEquals(1, set.size());
+  }
+
+  public void testZero() {
+    LongHashSet set = LongHashSet.of(0, 0, 5);
+    assertEquals(2, set.size());
+    assertTrue(set.contains(0));
+    assertEquals(ImmutableSet.of(0L, 5L), set.asSet());
+    assertTrue(set.remove(0));
+    assertFalse(set.contains(0));
+    assertEquals(1, set.size());
+  }
+
+  public void testRemove_keepsCollidingElementsReachable() {
+    LongHashSet set = LongHashSet.create(4);
+    for (long i = 1; i <= 6; i++) {
+      set.add(i << 40);
+    }
+    for (long i = 1; i <= 6; i += 2) {
+      assertTrue(set.remove(i << 40));
+    }
+    for (long i = 1; i <= 6; i++) {
+      assertEquals(i % 2 == 0, set.contains(i << 40));
+    }
+  }
+
+  public void testClear() {
+    LongHashSet set = LongHashSet.of(0, 1, 2);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(0));
+    assertFalse(set.contains(2));
+  }
+
+  public void testAsSet() {
+    LongHashSet set = LongHashSet.of(1, 2);
+    Set<Long> view = set.asSet();
+    assertTrue(view.contains(1L));
+    assertFalse(view.contains(1));
+    assertFalse(view.contains(null));
+    assertTrue(view.add(3L));
+    assertTrue(set.contains(3));
+    assertTrue(view.remove(1L));
+    assertFalse(view.remove(1));
+    assertEquals(ImmutableSet.of(2L, 3L), view);
+    assertEquals(ImmutableSet.of(2L, 3L).hashCode(), view.hashCode());
+    view.clear();
+    assertTrue(set.isEmpty());
+  }
+
+  public void testAsSet_concurrentModification() {
+    LongHashSet set = LongHashSet.of(1, 2);
+    Iterator<Long> iterator = set.asSet().iterator();
+    iterator.next();
+    set.add(3);
+    try {
+      iterator.next();
+      fail();
+    } catch (ConcurrentModificationException expected) {
+    }
+  }
+
+  public void testAgainstHashSet() {
+    Random random = new Random(0);
+    LongHashSet set = LongHashSet.create();
+    Set<Long> expected = new HashSet<Long>();
+    for (int i = 0; i < 20000; i++) {
+      long element = random.nextInt(1000) - 500;
+      if (random.nextBoolean()) {
+        assertEquals(expected.add(element), set.add(element));
+      } else {
+        assertEquals(expected.remove(element), set.remove(element));
+      }
+      assertEquals(expected.size(), set.size());
+    }
+    assertEquals(expected, set.asSet());
+    assertEquals(expected, Sets.newHashSet(Longs.asList(set.toArray())));
+  }
+}
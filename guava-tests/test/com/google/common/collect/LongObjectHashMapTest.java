@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.primitives.Longs;
+
+import junit.framework.TestCase;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link LongObjectHashMap}.
+ */
+public class LongObjectHashMapTest extends TestCase {
+  public void testEmpty() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    assertTrue(map.isEmpty());
+    assertEquals(0, map.size());
+    assertNull(map.get(0));
+    assertNull(map.get(1));
+    assertFalse(map.containsKey(0));
+    assertNull(map.remove(1));
+    assertEquals(0, map.keys().length);
+    assertEquals("{}", map.toString());
+  }
+
+  public void testPutGetRemove() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    assertNull(map.put(1, "a"));
+    assertNull(map.put(-1, "b"));
+    assertNull(map.put(Long.MIN_VALUE, "c"));
+    assertEquals("a", map.put(1, "d"));
+    assertEquals(3, map.size());
+    assertEquals("d", map.get(1));
+    assertEquals("b", map.get(-1));
+    assertEquals("c", map.get(Long.MIN_VALUE));
+    assertEquals("b", map.remove(-1));
+    assertFalse(map.containsKey(-1));
+    assertEquals(2, map.size());
+  }
+
+  public void testZeroKey() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    assertNull(map.put(0, "zero"));
+    assertTrue(map.containsKey(0));
+    assertEquals("zero", map.get(0));
+    assertEquals(1, map.size());
+    assertTrue(Longs.contains(map.keys(), 0));
+    assertEquals(ImmutableMap.of(0L, "zero"), map.asMap());
+    assertEquals("zero", map.remove(0));
+    assertTrue(map.isEmpty());
+  }
+
+  public void testPut_nullValue() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    try {
+      map.put(1, null);
+      fail();
+    } catch (NullPointerException expected) {
+    }
+  }
+
+  public void testCreate_negativeSize() {
+    try {
+      LongObjectHashMap.create(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testRemove_keepsCollidingKeysReachable() {
+    // Keys that are multiples of a large power of two collide in small tables.
+    LongObjectHashMap<Long> map = LongObjectHashMap.create(4);
+    for (long i = 1; i <= 6; i++) {
+      map.put(i << 40, i);
+    }
+    for (long i = 1; i <= 6; i += 2) {
+      assertEquals((Long) i, map.remove(i << 40));
+    }
+    for (long i = 1; i <= 6; i++) {
+      assertEquals(i % 2 == 0, map.containsKey(i << 40));
+    }
+  }
+
+  public void testClear() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    map.put(0, "a");
+    map.put(1, "b");
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertFalse(map.containsKey(0));
+    assertFalse(map.containsKey(1));
+  }
+
+  public void testAsMap() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    map.put(1, "a");
+    Map<Long, String> view = map.asMap();
+    assertEquals("a", view.get(1L));
+    assertNull(view.get(1));
+    assertNull(view.get(null));
+    assertNull(view.put(2L, "b"));
+    assertEquals("b", map.get(2));
+    assertEquals(ImmutableMap.of(1L, "a", 2L, "b"), view);
+    assertEquals(ImmutableMap.of(1L, "a", 2L, "b").hashCode(), view.hashCode());
+
+    Map.Entry<Long, String> entry = view.entrySet().iterator().next();
+    String oldValue = entry.getValue();
+    assertEquals(oldValue, entry.setValue("c"));
+    assertEquals("c", map.get(entry.getKey()));
+
+    String removed = map.get(1);
+    assertEquals(removed, view.remove(1L));
+    assertNull(view.remove(1L));
+    assertFalse(map.containsKey(1));
+    view.clear();
+    assertTrue(map.isEmpty());
+  }
+
+  public void testAsMap_concurrentModification() {
+    LongObjectHashMap<String> map = LongObjectHashMap.create();
+    map.put(1, "a");
+    map.put(2, "b");
+    Iterator<Long> keys = map.asMap().keySet().iterator();
+    keys.next();
+    map.put(3, "c");
+    try {
+      keys.next();
+      fail();
+    } catch (ConcurrentModificationException expected) {
+    }
+  }
+
+  public void testAgainstHashMap() {
+    Random random = new Random(0);
+    LongObjectHashMap<Integer> map = LongObjectHashMap.create();
+    Map<Long, Integer> expected = new HashMap<Long, Integer>();
+    for (int i = 0; i < 20000; i++) {
+      long key = random.nextInt(1000) - 500;
+      if (random.nextBoolean()) {
+        assertEquals(expected.put(key, i), map.put(key, i));
+      } else {
+        assertEquals(expected.remove(key), map.remove(key));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    assertEquals(expected, map.asMap());
+    assertEquals(expected.keySet(), Sets.newHashSet(Longs.asList(map.keys())));
+  }
+}
@@ -43,6 +43,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.RandomAccess;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.annotation.Nullable;
 
@@ -433,6 +435,66 @@ public class OrderingTest extends TestCase {
         numberOrdering.sortedCopy(Collections.<Integer>emptyList()));
   }
 
+  @GwtIncompatible("Executor")
+  public void testParallelSortedCopy() {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Random random = new Random(0);
+      for (int size : new int[] {0, 5, 100000}) {
+        List<Integer> unsortedInts = Lists.newArrayListWithCapacity(size);
+        for (int i = 0; i < size; i++) {
+          unsortedInts.add(random.nextBoolean() ? random.nextInt(1000) : null);
+        }
+        Ordering<Integer> ordering = numberOrdering.nullsLast();
+        assertEquals(ordering.sortedCopy(unsortedInts),
+            ordering.parallelSortedCopy(unsortedInts, executor));
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @GwtIncompatible("Executor")
+  public void testParallelSortedCopy_stable() {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      Random random = new Random(0);
+      List<String> unsorted = Lists.newArrayList();
+      for (int i = 0; i < 100000; i++) {
+        unsorted.add(random.nextInt(100) + ":" + i);
+      }
+      Ordering<String> byPrefix = Ordering.natural().onResultOf(
+          new Function<String, Integer>() {
+            @Override public Integer apply(String s) {
+              return Integer.valueOf(s.substring(0, s.indexOf(':')));
+            }
+          });
+      assertEquals(byPrefix.sortedCopy(unsorted),
+          byPrefix.parallelSortedCopy(unsorted, executor));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @GwtIncompatible("Executor")
+  public void testParallelSortedCopy_comparatorThrows() {
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    try {
+      List<Integer> unsortedInts = Lists.newArrayList();
+      for (int i = 0; i < 100000; i++) {
+        unsortedInts.add(i % 7);
+      }
+      unsortedInts.set(80000, null);
+      try {
+        numberOrdering.parallelSortedCopy(unsortedInts, executor);
+        fail();
+      } catch (NullPointerException expected) {
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   public void testImmutableSortedCopy() {
     ImmutableList<Integer> unsortedInts = ImmutableList.of(5, 3, 0, 9, 3);
     ImmutableList<Integer> sortedInts
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import com.google.common.annotations.GwtCompatible;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link TopKSelector}.
+ */
+@GwtCompatible
+public class TopKSelectorTest extends TestCase {
+  public void testNegativeK() {
+    try {
+      TopKSelector.<String>least(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      TopKSelector.<String>greatest(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testZeroK() {
+    TopKSelector<Integer> selector = TopKSelector.least(0);
+    selector.offerAll(Arrays.asList(1, 2, 3));
+    assertEquals(Collections.<Integer>emptyList(), selector.topK());
+  }
+
+  public void testNoElementsOffered() {
+    TopKSelector<Integer> selector = TopKSelector.least(10);
+    assertEquals(Collections.<Integer>emptyList(), selector.topK());
+  }
+
+  public void testFewerThanKElements() {
+    TopKSelector<Integer> selector = TopKSelector.least(10);
+    selector.offerAll(Arrays.asList(4, 1, 3));
+    assertEquals(Arrays.asList(1, 3, 4), selector.topK());
+  }
+
+  public void testLeast() {
+    TopKSelector<Integer> selector = TopKSelector.least(3);
+    selector.offerAll(Arrays.asList(5, 0, 3, 9, 1, 7, 2, 8, 6, 4));
+    assertEquals(Arrays.asList(0, 1, 2), selector.topK());
+  }
+
+  public void testGreatest() {
+    TopKSelector<Integer> selector = TopKSelector.greatest(3);
+    selector.offerAll(Arrays.asList(5, 0, 3, 9, 1, 7, 2, 8, 6, 4));
+    assertEquals(Arrays.asList(9, 8, 7), selector.topK());
+  }
+
+  public void testNullsPermittedByComparator() {
+    TopKSelector<Integer> selector =
+        TopKSelector.least(2, Ordering.<Integer>natural().nullsFirst());
+    selector.offerAll(Arrays.asList(3, null, 1, null, 2));
+    assertEquals(Arrays.asList(null, null), selector.topK());
+  }
+
+  public void testTopKIsUnaffectedByLaterOffers() {
+    TopKSelector<Integer> selector = TopKSelector.least(2);
+    selector.offerAll(Arrays.asList(3, 2, 5, 4));
+    List<Integer> first = selector.topK();
+    selector.offer(1);
+    assertEquals(Arrays.asList(2, 3), first);
+    assertEquals(Arrays.asList(1, 2), selector.topK());
+  }
+
+  public void testCombine() {
+    TopKSelector<Integer> evens = TopKSelector.least(4);
+    TopKSelector<Integer> odds = TopKSelector.least(4);
+    for (int i = 100; i >= 0; i--) {
+      ((i % 2 == 0) ? evens : odds).offer(i);
+    }
+    assertEquals(Arrays.asList(0, 1, 2, 3), evens.combine(odds).topK());
+    assertEquals(Arrays.asList(1, 3, 5, 7), odds.topK());
+  }
+
+  public void testRandomized() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 100; trial++) {
+      int k = random.nextInt(20);
+      List<Integer> elements = Lists.newArrayList();
+      int size = random.nextInt(200);
+      for (int i = 0; i < size; i++) {
+        elements.add(random.nextInt(50));
+      }
+      TopKSelector<Integer> selector = TopKSelector.least(k);
+      selector.offerAll(elements);
+      List<Integer> expected = Ordering.natural().sortedCopy(elements);
+      assertEquals(expected.subList(0, Math.min(k, size)), selector.topK());
+    }
+  }
+}
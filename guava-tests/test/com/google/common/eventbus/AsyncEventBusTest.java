@@ -16,12 +16,17 @@
 
 package com.google.common.eventbus;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.eventbus.AsyncEventBus.OverflowPolicy;
+import com.google.common.testing.GcFinalization;
 
 import junit.framework.TestCase;
 
+import java.lang.ref.WeakReference;
 import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Test case for {@link AsyncEventBus}.
@@ -62,6 +67,156 @@ public class AsyncEventBusTest extends TestCase {
     assertEquals("Correct string should be delivered.", EVENT, events.get(0));
   }
 
+  public void testLanes_orderedPerSubscriber() {
+    AsyncEventBus laneBus = new AsyncEventBus(
+        executor, new RecordingExceptionHandler(), 10, OverflowPolicy.DROP);
+    StringCatcher catcher1 = new StringCatcher();
+    StringCatcher catcher2 = new StringCatcher();
+    laneBus.register(catcher1);
+    laneBus.register(catcher2);
+
+    laneBus.post("1");
+    laneBus.post("2");
+    laneBus.post("3");
+    assertTrue(catcher1.getEvents().isEmpty());
+
+    // one task per subscriber, however many events were posted
+    List<Runnable> tasks = executor.getTasks();
+    assertEquals(2, tasks.size());
+    tasks.get(0).run();
+    tasks.get(1).run();
+    assertEquals(ImmutableList.of("1", "2", "3"), catcher1.getEvents());
+    assertEquals(ImmutableList.of("1", "2", "3"), catcher2.getEvents());
+
+    // once drained, the next event schedules the lane again
+    laneBus.post("4");
+    assertEquals(4, tasks.size());
+  }
+
+  public void testLanes_drop() {
+    RecordingExceptionHandler handler = new RecordingExceptionHandler();
+    AsyncEventBus laneBus = new AsyncEventBus(executor, handler, 2, OverflowPolicy.DROP);
+    StringCatcher catcher = new StringCatcher();
+    laneBus.register(catcher);
+
+    laneBus.post("1");
+    laneBus.post("2");
+    laneBus.post("3");
+    assertTrue(handler.exception instanceof RejectedExecutionException);
+    assertEquals("3", handler.context.getEvent());
+    assertSame(catcher, handler.context.getSubscriber());
+
+    executor.getTasks().get(0).run();
+    assertEquals(ImmutableList.of("1", "2"), catcher.getEvents());
+  }
+
+  public void testLanes_block() throws Exception {
+    final AsyncEventBus laneBus =
+        new AsyncEventBus(executor, new RecordingExceptionHandler(), 1, OverflowPolicy.BLOCK);
+    StringCatcher catcher = new StringCatcher();
+    laneBus.register(catcher);
+    laneBus.post("1");
+
+    Thread poster = new Thread() {
+      @Override public void run() {
+        laneBus.post("2");
+      }
+    };
+    poster.start();
+    while (poster.getState() != Thread.State.WAITING) {
+      assertTrue(poster.isAlive());
+      Thread.yield();
+    }
+    assertEquals(1, executor.getTasks().size());
+
+    executor.getTasks().get(0).run();
+    poster.join(10000);
+    assertFalse(poster.isAlive());
+    // "2" was either picked up by the first task, or scheduled a new one
+    for (int i = 1; i < executor.getTasks().size(); i++) {
+      executor.getTasks().get(i).run();
+    }
+    assertEquals(ImmutableList.of("1", "2"), catcher.getEvents());
+  }
+
+  public void testLanes_rejectedExecution() throws Exception {
+    final RejectingExecutor rejectingExecutor = new RejectingExecutor();
+    final AsyncEventBus laneBus = new AsyncEventBus(
+        rejectingExecutor, new RecordingExceptionHandler(), 1, OverflowPolicy.BLOCK);
+    StringCatcher catcher = new StringCatcher();
+    laneBus.register(catcher);
+
+    final List<Throwable> thrown = Lists.newArrayList();
+    Thread poster = new Thread() {
+      @Override public void run() {
+        for (String event : ImmutableList.of("1", "2")) {
+          try {
+            laneBus.post(event);
+          } catch (RejectedExecutionException expected) {
+            thrown.add(expected);
+          }
+        }
+      }
+    };
+    poster.start();
+    poster.join(10000);
+    // a rejected event must not keep its place in the full lane
+    assertFalse(poster.isAlive());
+    assertEquals(2, thrown.size());
+
+    rejectingExecutor.rejecting = false;
+    laneBus.post("3");
+    assertEquals(1, rejectingExecutor.getTasks().size());
+    rejectingExecutor.getTasks().get(0).run();
+    assertEquals(ImmutableList.of("3"), catcher.getEvents());
+  }
+
+  public void testLanes_unregisteredSubscriberIsCollected() {
+    AsyncEventBus laneBus = new AsyncEventBus(
+        executor, new RecordingExceptionHandler(), 10, OverflowPolicy.DROP);
+    StringCatcher catcher = new StringCatcher();
+    WeakReference<StringCatcher> ref = new WeakReference<StringCatcher>(catcher);
+    laneBus.register(catcher);
+    laneBus.post("1");
+    executor.getTasks().get(0).run();
+    assertEquals(ImmutableList.of("1"), catcher.getEvents());
+
+    laneBus.unregister(catcher);
+    catcher = null;
+    GcFinalization.awaitClear(ref);
+  }
+
+  public void testLanes_invalidCapacity() {
+    try {
+      new AsyncEventBus(executor, new RecordingExceptionHandler(), 0, OverflowPolicy.BLOCK);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static class RejectingExecutor extends FakeExecutor {
+    volatile boolean rejecting = true;
+
+    @Override
+    public void execute(Runnable task) {
+      if (rejecting) {
+        throw new RejectedExecutionException();
+      }
+      super.execute(task);
+    }
+  }
+
+  private static class RecordingExceptionHandler implements SubscriberExceptionHandler {
+    Throwable exception;
+    SubscriberExceptionContext context;
+
+    @Override
+    public void handleException(Throwable exception, SubscriberExceptionContext context) {
+      this.exception = exception;
+      this.context = context;
+    }
+  }
+
   /**
    * An {@link Executor} wanna-be that simply records the tasks it's given.
    * Arguably the Worst Executor Ever.
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.eventbus;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.AsyncEventBus.OverflowPolicy;
+import com.google.common.eventbus.DispatchMetrics.SubscriberMetrics;
+import com.google.common.util.concurrent.LatencyHistogram;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * Test case for {@link DispatchMetrics}.
+ */
+public class DispatchMetricsTest extends TestCase {
+  private static final SubscriberExceptionHandler IGNORE_EXCEPTIONS =
+      new SubscriberExceptionHandler() {
+        @Override
+        public void handleException(Throwable exception, SubscriberExceptionContext context) {}
+      };
+
+  private final DispatchMetrics metrics = DispatchMetrics.create();
+
+  public void testSynchronousDispatch() throws Exception {
+    EventBus bus = new EventBus(IGNORE_EXCEPTIONS, metrics);
+    StringCatcher catcher = new StringCatcher();
+    bus.register(catcher);
+    bus.post("one");
+    bus.post("two");
+    bus.post("fail");
+
+    SubscriberMetrics subscriber = Iterables.getOnlyElement(metrics.snapshot());
+    assertSame(catcher, subscriber.getSubscriber());
+    assertEquals(StringCatcher.class.getMethod("onString", String.class),
+        subscriber.getSubscriberMethod());
+    assertEquals(3, subscriber.invocationCount());
+    assertEquals(1, subscriber.exceptionCount());
+    assertEquals(0, subscriber.pendingCount());
+    LatencyHistogram.Snapshot latencies = subscriber.latencies();
+    long histogramTotal = 0;
+    for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+      histogramTotal += latencies.bucketCount(bucket);
+    }
+    assertEquals(3, histogramTotal);
+    assertEquals(3, latencies.count());
+    assertTrue(latencies.percentileNanos(1.0) >= latencies.percentileNanos(0.5));
+
+    bus.post("four");
+    assertEquals(3, latencies.count());
+  }
+
+  public void testPendingEvents() {
+    ExecutorQueue executor = new ExecutorQueue();
+    EventBus bus = new AsyncEventBus(executor, IGNORE_EXCEPTIONS, metrics);
+    StringCatcher catcher = new StringCatcher();
+    bus.register(catcher);
+    bus.post("one");
+    bus.post("two");
+
+    SubscriberMetrics subscriber = Iterables.getOnlyElement(metrics.snapshot());
+    assertEquals(0, subscriber.invocationCount());
+    assertEquals(2, subscriber.pendingCount());
+
+    executor.runAll();
+    subscriber = Iterables.getOnlyElement(metrics.snapshot());
+    assertEquals(2, subscriber.invocationCount());
+    assertEquals(0, subscriber.pendingCount());
+  }
+
+  public void testDroppedEventsAreNotPending() {
+    ExecutorQueue executor = new ExecutorQueue();
+    EventBus bus =
+        new AsyncEventBus(executor, IGNORE_EXCEPTIONS, metrics, 1, OverflowPolicy.DROP);
+    StringCatcher catcher = new StringCatcher();
+    bus.register(catcher);
+    bus.post("one");
+    bus.post("dropped");
+    assertEquals(1, Iterables.getOnlyElement(metrics.snapshot()).pendingCount());
+
+    executor.runAll();
+    SubscriberMetrics subscriber = Iterables.getOnlyElement(metrics.snapshot());
+    assertEquals(1, subscriber.invocationCount());
+    assertEquals(0, subscriber.pendingCount());
+    assertEquals(Lists.newArrayList("one"), catcher.events);
+  }
+
+  public void testNoEvents() {
+    assertTrue(metrics.snapshot().isEmpty());
+  }
+
+  /** Records String events, and throws on "fail". */
+  public static class StringCatcher {
+    final List<String> events = Lists.newArrayList();
+
+    @Subscribe public void onString(String event) {
+      if (event.equals("fail")) {
+        throw new IllegalStateException();
+      }
+      events.add(event);
+    }
+  }
+
+  /** An executor that runs its tasks only when the test asks it to. */
+  private static class ExecutorQueue implements Executor {
+    final List<Runnable> tasks = Lists.newArrayList();
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+
+    void runAll() {
+      while (!tasks.isEmpty()) {
+        tasks.remove(0).run();
+      }
+    }
+  }
+}
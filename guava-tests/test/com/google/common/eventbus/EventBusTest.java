@@ -210,6 +210,60 @@ public class EventBusTest extends TestCase {
     assertContains(HierarchyFixture.class, hierarchy);
   }
 
+  public void testSubscribersFor() {
+    StringCatcher stringCatcher = new StringCatcher();
+    Object objCatcher = new Object() {
+      @SuppressWarnings("unused")
+      @Subscribe public void eat(Object food) {}
+    };
+    bus.register(stringCatcher);
+    assertEquals(1, bus.subscribersFor(String.class).size());
+    assertTrue(bus.subscribersFor(Integer.class).isEmpty());
+
+    // the subscribers resolved for each class must not outlive a registration
+    bus.register(objCatcher);
+    assertEquals(2, bus.subscribersFor(String.class).size());
+    assertEquals(1, bus.subscribersFor(Integer.class).size());
+
+    bus.unregister(stringCatcher);
+    assertEquals(1, bus.subscribersFor(String.class).size());
+    bus.unregister(objCatcher);
+    assertTrue(bus.subscribersFor(String.class).isEmpty());
+  }
+
+  public void testSubscribersFor_registrationDuringResolution() {
+    final StringCatcher stringCatcher = new StringCatcher();
+    final AtomicInteger resolutions = new AtomicInteger();
+    EventBus bus = new EventBus() {
+      @Override Set<Class<?>> flattenHierarchy(Class<?> concreteClass) {
+        Set<Class<?>> hierarchy = super.flattenHierarchy(concreteClass);
+        // the first resolution started before this registration, so it is redone
+        if (resolutions.getAndIncrement() == 0) {
+          register(stringCatcher);
+        }
+        return hierarchy;
+      }
+    };
+    assertEquals(1, bus.subscribersFor(String.class).size());
+    assertEquals(2, resolutions.get());
+    assertEquals(1, bus.subscribersFor(String.class).size());
+    assertEquals(2, resolutions.get());
+  }
+
+  public void testRegisterSupertypeSubscriberAfterPost() {
+    final List<Object> objectEvents = Lists.newArrayList();
+    Object objCatcher = new Object() {
+      @SuppressWarnings("unused")
+      @Subscribe public void eat(Object food) {
+        objectEvents.add(food);
+      }
+    };
+    bus.post(EVENT); // resolves String to no subscribers at all
+    bus.register(objCatcher);
+    bus.post(EVENT);
+    assertEquals(ImmutableList.of(EVENT), objectEvents);
+  }
+
   public void testMissingSubscribe() {
     bus.register(new Object());
   }
@@ -16,12 +16,14 @@
 
 package com.google.common.eventbus;
 
+import com.google.common.collect.Iterables;
 import com.google.common.testing.EqualsTester;
 
 import junit.framework.TestCase;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.Collection;
 
 /**
  * Test case for {@link EventSubscriber}.
@@ -84,6 +86,43 @@ public class EventSubscriberTest extends TestCase {
     }
   }
 
+  public void testFoundSubscriberOnNonPublicClass() throws Exception {
+    NonPublicListener listener = new NonPublicListener();
+    Collection<EventSubscriber> subscribers =
+        new AnnotatedSubscriberFinder().findAllSubscribers(listener).get(String.class);
+    assertEquals(1, subscribers.size());
+    EventSubscriber subscriber = Iterables.getOnlyElement(subscribers);
+    assertTrue(subscriber.getMethod().isAccessible());
+
+    subscriber.handleEvent("hello");
+    assertEquals("hello", listener.lastEvent);
+  }
+
+  public void testFoundSubscribersShareMethod() throws Exception {
+    NonPublicListener first = new NonPublicListener();
+    NonPublicListener second = new NonPublicListener();
+    AnnotatedSubscriberFinder finder = new AnnotatedSubscriberFinder();
+    EventSubscriber firstSubscriber =
+        Iterables.getOnlyElement(finder.findAllSubscribers(first).get(String.class));
+    EventSubscriber secondSubscriber =
+        Iterables.getOnlyElement(finder.findAllSubscribers(second).get(String.class));
+    // the method was made accessible once, for the class, and is shared by its instances
+    assertSame(firstSubscriber.getMethod(), secondSubscriber.getMethod());
+
+    secondSubscriber.handleEvent("hello");
+    assertNull(first.lastEvent);
+    assertEquals("hello", second.lastEvent);
+  }
+
+  private static class NonPublicListener {
+    String lastEvent;
+
+    @Subscribe
+    public void onString(String event) {
+      lastEvent = event;
+    }
+  }
+
   public void testEquals() throws Exception {
     Method charAt = String.class.getMethod("charAt", int.class);
     Method concat = String.class.getMethod("concat", String.class);
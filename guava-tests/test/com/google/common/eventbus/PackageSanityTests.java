@@ -33,6 +33,7 @@ public class PackageSanityTests extends AbstractPackageSanityTests {
   public PackageSanityTests() throws Exception {
     setDefault(EventSubscriber.class, new DummySubscriber().toEventSubscriber());
     setDefault(Method.class, DummySubscriber.subscriberMethod());
+    setDefault(int.class, 16); // a valid RingBufferEventBus buffer size
   }
 
   private static class DummySubscriber {
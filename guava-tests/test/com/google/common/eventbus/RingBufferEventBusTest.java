@@ -0,0 +1,290 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.eventbus;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.RingBufferEventBus.WaitStrategy;
+import com.google.common.testing.GcFinalization;
+
+import junit.framework.TestCase;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Test case for {@link RingBufferEventBus}.
+ */
+public class RingBufferEventBusTest extends TestCase {
+  private ExecutorService executor;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    executor = Executors.newCachedThreadPool();
+  }
+
+  @Override protected void tearDown() throws Exception {
+    executor.shutdownNow();
+    super.tearDown();
+  }
+
+  public void testDeliveryInOrder_blocking() throws Exception {
+    checkDeliveryInOrder(WaitStrategy.BLOCKING);
+  }
+
+  public void testDeliveryInOrder_yielding() throws Exception {
+    checkDeliveryInOrder(WaitStrategy.YIELDING);
+  }
+
+  private void checkDeliveryInOrder(WaitStrategy waitStrategy) throws Exception {
+    // a ring much smaller than the number of events, so that it wraps around many times
+    RingBufferEventBus bus = new RingBufferEventBus("test", executor, 4, waitStrategy);
+    IntegerCatcher catcher1 = new IntegerCatcher(100);
+    IntegerCatcher catcher2 = new IntegerCatcher(100);
+    bus.register(catcher1);
+    bus.register(catcher2);
+    for (int i = 0; i < 100; i++) {
+      bus.post(i);
+    }
+    catcher1.await();
+    catcher2.await();
+    assertEquals(range(100), catcher1.events);
+    assertEquals(range(100), catcher2.events);
+    bus.unregister(catcher1);
+    bus.unregister(catcher2);
+  }
+
+  public void testManyProducers() throws Exception {
+    final RingBufferEventBus bus =
+        new RingBufferEventBus("test", executor, 8, WaitStrategy.BLOCKING);
+    int producers = 4;
+    final int eventsPerProducer = 250;
+    IntegerCatcher catcher = new IntegerCatcher(producers * eventsPerProducer);
+    bus.register(catcher);
+    Thread[] threads = new Thread[producers];
+    for (int i = 0; i < producers; i++) {
+      final int producer = i;
+      threads[i] = new Thread() {
+        @Override public void run() {
+          for (int j = 0; j < eventsPerProducer; j++) {
+            bus.post(producer * eventsPerProducer + j);
+          }
+        }
+      };
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    catcher.await();
+    assertEquals(producers * eventsPerProducer, catcher.events.size());
+    // each producer's events arrive in the order it posted them
+    int[] lastSeen = new int[producers];
+    for (int event : catcher.events) {
+      int producer = event / eventsPerProducer;
+      assertTrue(event % eventsPerProducer >= lastSeen[producer]);
+      lastSeen[producer] = event % eventsPerProducer;
+    }
+    bus.unregister(catcher);
+  }
+
+  public void testLag() throws Exception {
+    RingBufferEventBus bus = new RingBufferEventBus("test", executor, 16, WaitStrategy.BLOCKING);
+    BlockingCatcher catcher = new BlockingCatcher();
+    bus.register(catcher);
+    assertEquals(0, bus.lag(catcher));
+    bus.post("1");
+    assertTrue(catcher.started.await(10, TimeUnit.SECONDS));
+    bus.post("2");
+    bus.post("3");
+    // "1" is being handled, so none of the three events has been delivered completely
+    assertEquals(3, bus.lag(catcher));
+    catcher.proceed.countDown();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (bus.lag(catcher) > 0) {
+      assertTrue(System.nanoTime() < deadline);
+      Thread.sleep(1);
+    }
+    bus.unregister(catcher);
+    try {
+      bus.lag(catcher);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testDeadEvent() throws Exception {
+    RingBufferEventBus bus = new RingBufferEventBus("test", executor, 4, WaitStrategy.BLOCKING);
+    final CountDownLatch deadEventReceived = new CountDownLatch(1);
+    Object deadEventCatcher = new Object() {
+      @Subscribe public void onDeadEvent(DeadEvent event) {
+        if (event.getEvent().equals("unheard")) {
+          deadEventReceived.countDown();
+        }
+      }
+    };
+    bus.register(deadEventCatcher);
+    bus.post("unheard");
+    assertTrue(deadEventReceived.await(10, TimeUnit.SECONDS));
+    bus.unregister(deadEventCatcher);
+  }
+
+  public void testRegisterTwice() throws Exception {
+    RingBufferEventBus bus = new RingBufferEventBus("test", executor, 4, WaitStrategy.BLOCKING);
+    IntegerCatcher catcher = new IntegerCatcher(2);
+    bus.register(catcher);
+    bus.register(catcher);
+    bus.post(1);
+    bus.post(2);
+    catcher.await();
+    assertEquals(ImmutableList.of(1, 2), catcher.events);
+    bus.unregister(catcher);
+    try {
+      bus.unregister(catcher);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testRegisterWhilePosting() throws Exception {
+    for (int round = 0; round < 100; round++) {
+      // a tiny ring, so that a producer that overtakes the joining consumer soon wraps around
+      final RingBufferEventBus bus =
+          new RingBufferEventBus("test", executor, 2, WaitStrategy.YIELDING);
+      final AtomicBoolean stop = new AtomicBoolean();
+      Thread producer = new Thread() {
+        @Override public void run() {
+          for (int i = 0; !stop.get(); i++) {
+            bus.post(i);
+          }
+        }
+      };
+      producer.setDaemon(true);
+      producer.start();
+      final List<Integer> events = Lists.newCopyOnWriteArrayList();
+      final CountDownLatch delivered = new CountDownLatch(10);
+      Object catcher = new Object() {
+        @Subscribe public void onInteger(Integer event) {
+          events.add(event);
+          delivered.countDown();
+        }
+      };
+      bus.register(catcher);
+      assertTrue(delivered.await(10, TimeUnit.SECONDS));
+      stop.set(true);
+      producer.join(TimeUnit.SECONDS.toMillis(10));
+      assertFalse(producer.isAlive());
+      bus.unregister(catcher);
+      // the catcher sees consecutive events from the first one posted after it joined
+      for (int i = 1; i < events.size(); i++) {
+        assertEquals(events.get(i - 1) + 1, (int) events.get(i));
+      }
+    }
+  }
+
+  public void testDeliveredEventsAreCollected() throws Exception {
+    RingBufferEventBus bus = new RingBufferEventBus("test", executor, 16, WaitStrategy.BLOCKING);
+    CountingCatcher catcher1 = new CountingCatcher(2);
+    CountingCatcher catcher2 = new CountingCatcher(2);
+    bus.register(catcher1);
+    bus.register(catcher2);
+    Object event = new Object();
+    WeakReference<Object> ref = new WeakReference<Object>(event);
+    bus.post(event);
+    event = null;
+    // a second event, so that the consumers no longer refer to the first one either
+    bus.post(new Object());
+    catcher1.await();
+    catcher2.await();
+    GcFinalization.awaitClear(ref);
+    bus.unregister(catcher1);
+    bus.unregister(catcher2);
+  }
+
+  public void testInvalidBufferSize() {
+    try {
+      new RingBufferEventBus("test", executor, 6, WaitStrategy.BLOCKING);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      new RingBufferEventBus("test", executor, 0, WaitStrategy.BLOCKING);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static List<Integer> range(int size) {
+    List<Integer> range = Lists.newArrayList();
+    for (int i = 0; i < size; i++) {
+      range.add(i);
+    }
+    return range;
+  }
+
+  /** Records Integer events, which are always delivered from the same thread. */
+  public static class IntegerCatcher {
+    final List<Integer> events = Lists.newArrayList();
+    private final CountDownLatch done;
+
+    IntegerCatcher(int expectedEvents) {
+      done = new CountDownLatch(expectedEvents);
+    }
+
+    @Subscribe public void onInteger(Integer event) {
+      events.add(event);
+      done.countDown();
+    }
+
+    void await() throws InterruptedException {
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+  }
+
+  /** Counts the events it receives, without keeping them. */
+  public static class CountingCatcher {
+    private final CountDownLatch done;
+
+    CountingCatcher(int expectedEvents) {
+      done = new CountDownLatch(expectedEvents);
+    }
+
+    @Subscribe public void onObject(Object event) {
+      done.countDown();
+    }
+
+    void await() throws InterruptedException {
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+    }
+  }
+
+  /** Blocks in its subscriber method until the test lets it proceed. */
+  public static class BlockingCatcher {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch proceed = new CountDownLatch(1);
+
+    @Subscribe public void onString(String event) throws InterruptedException {
+      started.countDown();
+      proceed.await();
+    }
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.io.TestOption.READ_THROWS;
+import static com.google.common.io.TestOption.WRITE_THROWS;
+
+import com.google.common.base.Function;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Ordering;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link ExternalSort}.
+ */
+public class ExternalSortTest extends IoTestCase {
+  private static final String SEPARATOR = System.getProperty("line.separator");
+
+  public void testSortLines_empty() throws IOException {
+    TestCharSink sink = new TestCharSink();
+    ExternalSort.sortLines(new TestCharSource(""), sink, Ordering.natural(), 10);
+    assertEquals("", sink.getString());
+  }
+
+  public void testSortLines_inMemory() throws IOException {
+    TestCharSink sink = new TestCharSink();
+    ExternalSort.sortLines(
+        new TestCharSource("pear\napple\r\nfig\rbanana\n"), sink, Ordering.natural(), 1000);
+    assertEquals(lines("apple", "banana", "fig", "pear"), sink.getString());
+  }
+
+  public void testSortLines_spilled() throws IOException {
+    List<String> input = randomLines(1000);
+    File runDir = getTempDir();
+    TestCharSink sink = new TestCharSink();
+    ExternalSort.sortLines(new TestCharSource(Joiner.on('\n').join(input)), sink,
+        Ordering.natural(), 500, runDir, 64);
+    assertEquals(lines(Ordering.natural().sortedCopy(input)), sink.getString());
+    assertEquals(0, runDir.list().length);
+  }
+
+  public void testSortLines_severalMergePasses() throws IOException {
+    List<String> input = randomLines(1000);
+    File runDir = getTempDir();
+    TestCharSink sink = new TestCharSink();
+    // about 200 runs of 5 lines, merged 3 at a time
+    ExternalSort.sortLines(new TestCharSource(Joiner.on('\n').join(input)), sink,
+        Ordering.natural(), 20, runDir, 3);
+    assertEquals(lines(Ordering.natural().sortedCopy(input)), sink.getString());
+    assertEquals(0, runDir.list().length);
+  }
+
+  public void testSortLines_lineLongerThanBudget() throws IOException {
+    TestCharSink sink = new TestCharSink();
+    ExternalSort.sortLines(new TestCharSource("bbbbbbbb\na\ncccccccccccc\nd"), sink,
+        Ordering.natural(), 4, getTempDir(), 2);
+    assertEquals(lines("a", "bbbbbbbb", "cccccccccccc", "d"), sink.getString());
+  }
+
+  public void testSortLines_stable() throws IOException {
+    List<String> input = Lists.newArrayList();
+    Random random = new Random(0);
+    for (int i = 0; i < 1000; i++) {
+      input.add(random.nextInt(10) + ":" + i);
+    }
+    Ordering<String> byFirstChar = Ordering.natural().onResultOf(
+        new Function<String, Character>() {
+          @Override public Character apply(String line) {
+            return line.charAt(0);
+          }
+        });
+    TestCharSink sink = new TestCharSink();
+    ExternalSort.sortLines(new TestCharSource(Joiner.on('\n').join(input)), sink, byFirstChar,
+        100, getTempDir(), 4);
+    assertEquals(lines(byFirstChar.sortedCopy(input)), sink.getString());
+  }
+
+  // The test sources and sinks encode in UTF-8, which would replace unpaired surrogates.
+  public void testSortLines_unpairedSurrogates() throws IOException {
+    final StringWriter out = new StringWriter();
+    CharSink sink = new CharSink() {
+      @Override public Writer openStream() {
+        return out;
+      }
+    };
+    ExternalSort.sortLines(CharSource.wrap("b\ud800\na\udc00"), sink, Ordering.natural(), 1,
+        getTempDir(), 2);
+    assertEquals(lines("a\udc00", "b\ud800"), out.toString());
+  }
+
+  public void testSortLines_readThrows() throws IOException {
+    File runDir = getTempDir();
+    try {
+      ExternalSort.sortLines(new TestCharSource(Joiner.on('\n').join(randomLines(100)),
+          READ_THROWS), new TestCharSink(), Ordering.natural(), 10, runDir, 2);
+      fail();
+    } catch (IOException expected) {
+    }
+    assertEquals(0, runDir.list().length);
+  }
+
+  public void testSortLines_writeThrows() throws IOException {
+    File runDir = getTempDir();
+    try {
+      ExternalSort.sortLines(new TestCharSource(Joiner.on('\n').join(randomLines(100))),
+          new TestCharSink(WRITE_THROWS), Ordering.natural(), 10, runDir, 2);
+      fail();
+    } catch (IOException expected) {
+    }
+    assertEquals(0, runDir.list().length);
+  }
+
+  public void testSortLines_badBudget() throws IOException {
+    try {
+      ExternalSort.sortLines(new TestCharSource(""), new TestCharSink(), Ordering.natural(), 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static List<String> randomLines(int count) {
+    Random random = new Random(0);
+    List<String> lines = Lists.newArrayList();
+    for (int i = 0; i < count; i++) {
+      lines.add(Integer.toString(random.nextInt(100000), 36));
+    }
+    return lines;
+  }
+
+  private static String lines(String... lines) {
+    return lines(Lists.newArrayList(lines));
+  }
+
+  private static String lines(List<String> lines) {
+    return lines.isEmpty() ? "" : Joiner.on(SEPARATOR).join(lines) + SEPARATOR;
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import static java.lang.Double.NaN;
+
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.ImmutableList;
+import com.google.common.testing.SerializableTester;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ImmutableDoubleArray}.
+ */
+@GwtCompatible(emulated = true)
+public class ImmutableDoubleArrayTest extends TestCase {
+  public void testOf() {
+    assertSame(ImmutableDoubleArray.of(), ImmutableDoubleArray.of(new double[0]));
+    assertEquals("[]", ImmutableDoubleArray.of().toString());
+    assertEquals("[1.0, -2.5, NaN]", ImmutableDoubleArray.of(1, -2.5, NaN).toString());
+  }
+
+  public void testCopyOf() {
+    double[] array = {1, 2};
+    ImmutableDoubleArray copy = ImmutableDoubleArray.copyOf(array);
+    array[0] = 7;
+    assertEquals(1.0, copy.get(0));
+    assertEquals(ImmutableDoubleArray.of(1, 2),
+        ImmutableDoubleArray.copyOf(Arrays.asList(1.0, 2.0)));
+  }
+
+  public void testBuilder() {
+    ImmutableDoubleArray.Builder builder = ImmutableDoubleArray.builder();
+    for (int i = 0; i < 50; i++) {
+      builder.add(i);
+    }
+    ImmutableDoubleArray array = builder
+        .addAll(new double[] {50, 51})
+        .addAll(ImmutableList.of(52.0))
+        .addAll(ImmutableDoubleArray.of(53))
+        .build();
+    assertEquals(54, array.length());
+    for (int i = 0; i < array.length(); i++) {
+      assertEquals((double) i, array.get(i));
+    }
+  }
+
+  public void testIndexOf_usesDoubleEquality() {
+    ImmutableDoubleArray array = ImmutableDoubleArray.of(NaN, 0.0, 1.0);
+    assertEquals(-1, array.indexOf(NaN));
+    assertFalse(array.contains(NaN));
+    assertEquals(1, array.indexOf(-0.0));
+    assertEquals(2, array.lastIndexOf(1.0));
+  }
+
+  public void testReductions() {
+    ImmutableDoubleArray array = ImmutableDoubleArray.of(3, -0.0, 0.0, 2.5);
+    assertEquals(5.5, array.sum());
+    assertEquals(-0.0, array.min());
+    assertEquals(3.0, array.max());
+    assertTrue(Double.isNaN(ImmutableDoubleArray.of(1, NaN).min()));
+    assertTrue(Double.isNaN(ImmutableDoubleArray.of(NaN, 1).max()));
+    assertTrue(Double.isNaN(ImmutableDoubleArray.of(1, NaN).sum()));
+    try {
+      ImmutableDoubleArray.of().min();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testSubArray() {
+    ImmutableDoubleArray sub = ImmutableDoubleArray.of(0, 1, 2, 3).subArray(1, 3);
+    assertEquals(ImmutableDoubleArray.of(1, 2), sub);
+    assertEquals(3.0, sub.sum());
+    assertTrue(Arrays.equals(new double[] {1, 2}, sub.toArray()));
+    assertEquals(ImmutableDoubleArray.of(1, 2), sub.trimmed());
+    try {
+      sub.get(2);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testEqualsAndHashCode() {
+    assertEquals(ImmutableDoubleArray.of(NaN), ImmutableDoubleArray.of(NaN));
+    assertFalse(ImmutableDoubleArray.of(0.0).equals(ImmutableDoubleArray.of(-0.0)));
+    ImmutableDoubleArray array = ImmutableDoubleArray.of(9, 1.5, NaN).subArray(1, 3);
+    assertEquals(ImmutableDoubleArray.of(1.5, NaN), array);
+    assertEquals(Arrays.hashCode(new double[] {1.5, NaN}), array.hashCode());
+  }
+
+  public void testAsList() {
+    List<Double> list = ImmutableDoubleArray.of(0, 1, 2).subArray(1, 3).asList();
+    assertEquals(ImmutableList.of(1.0, 2.0), list);
+    assertEquals(ImmutableList.of(1.0, 2.0).hashCode(), list.hashCode());
+    assertEquals(ImmutableList.of(2.0), list.subList(1, 2));
+    assertEquals(0, list.indexOf(1.0));
+    assertEquals(-1, list.indexOf(1));
+    try {
+      list.set(0, 7.0);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @GwtIncompatible("SerializableTester")
+  public void testAsList_usesDoubleEquals() {
+    List<Double> list = ImmutableDoubleArray.of(1.0, NaN, 0.0, NaN, -0.0).asList();
+    assertTrue(list.contains(list.get(1)));
+    assertEquals(1, list.indexOf(NaN));
+    assertEquals(3, list.lastIndexOf(NaN));
+    assertEquals(2, list.indexOf(0.0));
+    assertEquals(2, list.lastIndexOf(0.0));
+    assertEquals(4, list.indexOf(-0.0));
+    assertEquals(4, list.lastIndexOf(-0.0));
+    assertFalse(ImmutableDoubleArray.of(0.0).asList().contains(-0.0));
+    assertEquals(Arrays.asList(1.0, NaN, 0.0, NaN, -0.0), list);
+  }
+
+  public void testSerialization() {
+    assertSame(ImmutableDoubleArray.of(),
+        SerializableTester.reserialize(ImmutableDoubleArray.of()));
+    SerializableTester.reserializeAndAssert(ImmutableDoubleArray.of(0, 1, 2).subArray(1, 3));
+  }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.ImmutableList;
+import com.google.common.testing.SerializableTester;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ImmutableIntArray}.
+ */
+@GwtCompatible(emulated = true)
+public class ImmutableIntArrayTest extends TestCase {
+  public void testOf() {
+    assertSame(ImmutableIntArray.of(), ImmutableIntArray.of(new int[0]));
+    assertEquals("[]", ImmutableIntArray.of().toString());
+    assertEquals("[1]", ImmutableIntArray.of(1).toString());
+    assertEquals("[1, -2, 3]", ImmutableIntArray.of(1, -2, 3).toString());
+  }
+
+  public void testCopyOf_array() {
+    int[] array = {1, 2, 3};
+    ImmutableIntArray copy = ImmutableIntArray.copyOf(array);
+    array[0] = 7;
+    assertEquals(1, copy.get(0));
+    assertTrue(Arrays.equals(new int[] {1, 2, 3}, copy.toArray()));
+    // toArray returns a fresh copy
+    copy.toArray()[0] = 7;
+    assertEquals(1, copy.get(0));
+  }
+
+  public void testCopyOf_iterable() {
+    assertEquals(ImmutableIntArray.of(1, 2), ImmutableIntArray.copyOf(Arrays.asList(1, 2)));
+    Iterable<Integer> iterable = ImmutableList.of(3, 4);
+    assertEquals(ImmutableIntArray.of(3, 4), ImmutableIntArray.copyOf(iterable));
+    assertSame(ImmutableIntArray.of(), ImmutableIntArray.copyOf(ImmutableList.<Integer>of()));
+  }
+
+  public void testBuilder() {
+    ImmutableIntArray.Builder builder = ImmutableIntArray.builder(0);
+    for (int i = 0; i < 100; i++) {
+      builder.add(i);
+    }
+    builder.addAll(new int[] {100, 101})
+        .addAll(Arrays.asList(102, 103))
+        .addAll(ImmutableIntArray.of(0, 104, 0).subArray(1, 2));
+    ImmutableIntArray array = builder.build();
+    assertEquals(105, array.length());
+    for (int i = 0; i < array.length(); i++) {
+      assertEquals(i, array.get(i));
+    }
+    // the builder is unaffected by build()
+    assertEquals(106, builder.add(105).build().length());
+    assertEquals(105, array.length());
+  }
+
+  public void testBuilder_negativeCapacity() {
+    try {
+      ImmutableIntArray.builder(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testGet_outOfBounds() {
+    ImmutableIntArray array = ImmutableIntArray.of(0, 1, 2).subArray(1, 2);
+    try {
+      array.get(1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      array.get(-1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testIndexOf() {
+    ImmutableIntArray array = ImmutableIntArray.of(5, 1, 5, 2, 5).subArray(1, 4);
+    assertEquals(1, array.indexOf(5));
+    assertEquals(1, array.lastIndexOf(5));
+    assertEquals(0, array.indexOf(1));
+    assertEquals(-1, array.indexOf(3));
+    assertTrue(array.contains(2));
+    assertFalse(array.contains(3));
+  }
+
+  public void testReductions() {
+    ImmutableIntArray array = ImmutableIntArray.of(Integer.MAX_VALUE, Integer.MAX_VALUE, -3);
+    assertEquals(2L * Integer.MAX_VALUE - 3, array.sum());
+    assertEquals(-3, array.min());
+    assertEquals(Integer.MAX_VALUE, array.max());
+    assertEquals(0, ImmutableIntArray.of().sum());
+    try {
+      ImmutableIntArray.of().min();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      ImmutableIntArray.of().max();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testSubArray() {
+    ImmutableIntArray array = ImmutableIntArray.of(0, 1, 2, 3, 4);
+    ImmutableIntArray sub = array.subArray(1, 4);
+    assertEquals(ImmutableIntArray.of(1, 2, 3), sub);
+    assertEquals(ImmutableIntArray.of(2), sub.subArray(1, 2));
+    assertSame(ImmutableIntArray.of(), array.subArray(2, 2));
+    assertEquals("[1, 2, 3]", sub.toString());
+    assertTrue(Arrays.equals(new int[] {1, 2, 3}, sub.toArray()));
+    try {
+      array.subArray(3, 2);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      array.subArray(0, 6);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testTrimmed() {
+    ImmutableIntArray array = ImmutableIntArray.of(0, 1, 2);
+    assertSame(array, array.trimmed());
+    ImmutableIntArray trimmed = array.subArray(1, 2).trimmed();
+    assertEquals(ImmutableIntArray.of(1), trimmed);
+  }
+
+  public void testEqualsAndHashCode() {
+    ImmutableIntArray array = ImmutableIntArray.of(9, 1, 2, 9).subArray(1, 3);
+    assertEquals(ImmutableIntArray.of(1, 2), array);
+    assertEquals(ImmutableIntArray.of(1, 2).hashCode(), array.hashCode());
+    assertEquals(Arrays.hashCode(new int[] {1, 2}), array.hashCode());
+    assertFalse(array.equals(ImmutableIntArray.of(1, 3)));
+    assertFalse(array.equals(ImmutableIntArray.of(1, 2, 3)));
+    assertFalse(array.equals(Arrays.asList(1, 2)));
+  }
+
+  public void testAsList() {
+    List<Integer> list = ImmutableIntArray.of(0, 1, 2, 3).subArray(1, 4).asList();
+    assertEquals(ImmutableList.of(1, 2, 3), list);
+    assertEquals(ImmutableList.of(1, 2, 3), ImmutableList.copyOf(list));
+    assertEquals(ImmutableList.of(1, 2, 3).hashCode(), list.hashCode());
+    assertEquals(ImmutableList.of(2), list.subList(1, 2));
+    assertEquals(1, list.indexOf(2));
+    assertEquals(-1, list.indexOf(2L));
+    assertFalse(list.contains(null));
+    try {
+      list.set(0, 7);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      list.add(7);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @GwtIncompatible("SerializableTester")
+  public void testSerialization() {
+    assertSame(ImmutableIntArray.of(), SerializableTester.reserialize(ImmutableIntArray.of()));
+    ImmutableIntArray sub = ImmutableIntArray.of(0, 1, 2, 3).subArray(1, 3);
+    ImmutableIntArray copy = SerializableTester.reserializeAndAssert(sub);
+    assertEquals(2, copy.get(1));
+    SerializableTester.reserializeAndAssert(sub.asList());
+  }
+}
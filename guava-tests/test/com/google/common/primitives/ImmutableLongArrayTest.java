@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.collect.ImmutableList;
+import com.google.common.testing.SerializableTester;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests for {@link ImmutableLongArray}.
+ */
+@GwtCompatible(emulated = true)
+public class ImmutableLongArrayTest extends TestCase {
+  public void testOf() {
+    assertSame(ImmutableLongArray.of(), ImmutableLongArray.of(new long[0]));
+    assertEquals("[]", ImmutableLongArray.of().toString());
+    assertEquals("[1]", ImmutableLongArray.of(1).toString());
+    assertEquals("[1, -2, 3]", ImmutableLongArray.of(1, -2, 3).toString());
+  }
+
+  public void testCopyOf_array() {
+    long[] array = {1, 2, 3};
+    ImmutableLongArray copy = ImmutableLongArray.copyOf(array);
+    array[0] = 7;
+    assertEquals(1, copy.get(0));
+    assertTrue(Arrays.equals(new long[] {1, 2, 3}, copy.toArray()));
+    // toArray returns a fresh copy
+    copy.toArray()[0] = 7;
+    assertEquals(1, copy.get(0));
+  }
+
+  public void testCopyOf_iterable() {
+    assertEquals(ImmutableLongArray.of(1, 2), ImmutableLongArray.copyOf(Arrays.asList(1L, 2L)));
+    Iterable<Long> iterable = ImmutableList.of(3L, 4L);
+    assertEquals(ImmutableLongArray.of(3, 4), ImmutableLongArray.copyOf(iterable));
+    assertSame(ImmutableLongArray.of(), ImmutableLongArray.copyOf(ImmutableList.<Long>of()));
+  }
+
+  public void testBuilder() {
+    ImmutableLongArray.Builder builder = ImmutableLongArray.builder(0);
+    for (int i = 0; i < 100; i++) {
+      builder.add(i);
+    }
+    builder.addAll(new long[] {100, 101})
+        .addAll(Arrays.asList(102L, 103L))
+        .addAll(ImmutableLongArray.of(0, 104, 0).subArray(1, 2));
+    ImmutableLongArray array = builder.build();
+    assertEquals(105, array.length());
+    for (int i = 0; i < array.length(); i++) {
+      assertEquals(i, array.get(i));
+    }
+    // the builder is unaffected by build()
+    assertEquals(106, builder.add(105).build().length());
+    assertEquals(105, array.length());
+  }
+
+  public void testBuilder_negativeCapacity() {
+    try {
+      ImmutableLongArray.builder(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testGet_outOfBounds() {
+    ImmutableLongArray array = ImmutableLongArray.of(0, 1, 2).subArray(1, 2);
+    try {
+      array.get(1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      array.get(-1);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testIndexOf() {
+    ImmutableLongArray array = ImmutableLongArray.of(5, 1, 5, 2, 5).subArray(1, 4);
+    assertEquals(1, array.indexOf(5));
+    assertEquals(1, array.lastIndexOf(5));
+    assertEquals(0, array.indexOf(1));
+    assertEquals(-1, array.indexOf(3));
+    assertTrue(array.contains(2));
+    assertFalse(array.contains(3));
+  }
+
+  public void testReductions() {
+    ImmutableLongArray array = ImmutableLongArray.of(Long.MAX_VALUE, -3, Long.MIN_VALUE);
+    assertEquals(-4, array.sum());
+    assertEquals(Long.MIN_VALUE, array.min());
+    assertEquals(Long.MAX_VALUE, array.max());
+    assertEquals(0, ImmutableLongArray.of().sum());
+    try {
+      ImmutableLongArray.of().min();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      ImmutableLongArray.of().max();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testSubArray() {
+    ImmutableLongArray array = ImmutableLongArray.of(0, 1, 2, 3, 4);
+    ImmutableLongArray sub = array.subArray(1, 4);
+    assertEquals(ImmutableLongArray.of(1, 2, 3), sub);
+    assertEquals(ImmutableLongArray.of(2), sub.subArray(1, 2));
+    assertSame(ImmutableLongArray.of(), array.subArray(2, 2));
+    assertEquals("[1, 2, 3]", sub.toString());
+    assertTrue(Arrays.equals(new long[] {1, 2, 3}, sub.toArray()));
+    try {
+      array.subArray(3, 2);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+    try {
+      array.subArray(0, 6);
+      fail();
+    } catch (IndexOutOfBoundsException expected) {
+    }
+  }
+
+  public void testTrimmed() {
+    ImmutableLongArray array = ImmutableLongArray.of(0, 1, 2);
+    assertSame(array, array.trimmed());
+    ImmutableLongArray trimmed = array.subArray(1, 2).trimmed();
+    assertEquals(ImmutableLongArray.of(1), trimmed);
+  }
+
+  public void testEqualsAndHashCode() {
+    ImmutableLongArray array = ImmutableLongArray.of(9, 1, 2, 9).subArray(1, 3);
+    assertEquals(ImmutableLongArray.of(1, 2), array);
+    assertEquals(ImmutableLongArray.of(1, 2).hashCode(), array.hashCode());
+    assertEquals(Arrays.hashCode(new long[] {1, 2}), array.hashCode());
+    assertFalse(array.equals(ImmutableLongArray.of(1, 3)));
+    assertFalse(array.equals(ImmutableLongArray.of(1, 2, 3)));
+    assertFalse(array.equals(Arrays.asList(1L, 2L)));
+  }
+
+  public void testAsList() {
+    List<Long> list = ImmutableLongArray.of(0, 1, 2, 3).subArray(1, 4).asList();
+    assertEquals(ImmutableList.of(1L, 2L, 3L), list);
+    assertEquals(ImmutableList.of(1L, 2L, 3L), ImmutableList.copyOf(list));
+    assertEquals(ImmutableList.of(1L, 2L, 3L).hashCode(), list.hashCode());
+    assertEquals(ImmutableList.of(2L), list.subList(1, 2));
+    assertEquals(1, list.indexOf(2L));
+    assertEquals(-1, list.indexOf(2));
+    assertFalse(list.contains(null));
+    try {
+      list.set(0, 7L);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+    try {
+      list.add(7L);
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  @GwtIncompatible("SerializableTester")
+  public void testSerialization() {
+    assertSame(ImmutableLongArray.of(), SerializableTester.reserialize(ImmutableLongArray.of()));
+    ImmutableLongArray sub = ImmutableLongArray.of(0, 1, 2, 3).subArray(1, 3);
+    ImmutableLongArray copy = SerializableTester.reserializeAndAssert(sub);
+    assertEquals(2, copy.get(1));
+    SerializableTester.reserializeAndAssert(sub.asList());
+  }
+}
@@ -186,6 +186,40 @@ public class IntsTest extends TestCase {
         (int) 5, (int) 3, (int) 0, (int) 9));
   }
 
+  public void testLeastOf() {
+    int[] array = {(int) 5, (int) 0, (int) 3, (int) 9, (int) 1, (int) 7, (int) 2};
+    assertTrue(Arrays.equals(EMPTY, Ints.leastOf(array, 0)));
+    assertTrue(Arrays.equals(new int[] {(int) 0, (int) 1}, Ints.leastOf(array, 2)));
+    assertTrue(Arrays.equals(
+        new int[] {(int) 0, (int) 1, (int) 2, (int) 3, (int) 5, (int) 7, (int) 9},
+        Ints.leastOf(array, 10)));
+    assertTrue(Arrays.equals(new int[] {LEAST}, Ints.leastOf(new int[] {GREATEST, LEAST}, 1)));
+    assertTrue(Arrays.equals(new int[] {(int) 5, (int) 0, (int) 3, (int) 9, (int) 1,
+        (int) 7, (int) 2}, array));
+    try {
+      Ints.leastOf(array, -1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testLeastOf_randomized() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 100; trial++) {
+      int k = random.nextInt(20);
+      int[] array = new int[random.nextInt(200)];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = (int) random.nextInt(50);
+      }
+      int[] sorted = new int[array.length];
+      System.arraycopy(array, 0, sorted, 0, array.length);
+      Arrays.sort(sorted);
+      int[] expected = new int[Math.min(k, array.length)];
+      System.arraycopy(sorted, 0, expected, 0, expected.length);
+      assertTrue(Arrays.equals(expected, Ints.leastOf(array, k)));
+    }
+  }
+
   public void testMin_noArgs() {
     try {
       Ints.min();
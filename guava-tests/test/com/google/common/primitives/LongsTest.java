@@ -159,6 +159,41 @@ public class LongsTest extends TestCase {
         (long) 5, (long) 3, (long) 0, (long) 9));
   }
 
+  public void testLeastOf() {
+    long[] array = {(long) 5, (long) 0, (long) 3, (long) 9, (long) 1, (long) 7, (long) 2};
+    assertTrue(Arrays.equals(EMPTY, Longs.leastOf(array, 0)));
+    assertTrue(Arrays.equals(new long[] {(long) 0, (long) 1}, Longs.leastOf(array, 2)));
+    assertTrue(Arrays.equals(
+        new long[] {(long) 0, (long) 1, (long) 2, (long) 3, (long) 5, (long) 7, (long) 9},
+        Longs.leastOf(array, 10)));
+    assertTrue(Arrays.equals(
+        new long[] {MIN_VALUE}, Longs.leastOf(new long[] {MAX_VALUE, MIN_VALUE}, 1)));
+    assertTrue(Arrays.equals(new long[] {(long) 5, (long) 0, (long) 3, (long) 9, (long) 1,
+        (long) 7, (long) 2}, array));
+    try {
+      Longs.leastOf(array, -1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testLeastOf_randomized() {
+    Random random = new Random(0);
+    for (int trial = 0; trial < 100; trial++) {
+      int k = random.nextInt(20);
+      long[] array = new long[random.nextInt(200)];
+      for (int i = 0; i < array.length; i++) {
+        array[i] = (long) random.nextInt(50);
+      }
+      long[] sorted = new long[array.length];
+      System.arraycopy(array, 0, sorted, 0, array.length);
+      Arrays.sort(sorted);
+      long[] expected = new long[Math.min(k, array.length)];
+      System.arraycopy(sorted, 0, expected, 0, expected.length);
+      assertTrue(Arrays.equals(expected, Longs.leastOf(array, k)));
+    }
+  }
+
   public void testMin_noArgs() {
     try {
       Longs.min();
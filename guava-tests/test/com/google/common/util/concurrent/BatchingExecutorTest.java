@@ -0,0 +1,259 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for {@link BatchingExecutor}.
+ */
+public class BatchingExecutorTest extends TestCase {
+  private ScheduledExecutorService scheduler;
+  private RecordingHandler handler;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    handler = new RecordingHandler();
+  }
+
+  @Override protected void tearDown() throws Exception {
+    scheduler.shutdownNow();
+    super.tearDown();
+  }
+
+  public void testBatchBySize() throws Exception {
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(3)
+        .maxDelay(1, HOURS)
+        .build(handler, scheduler);
+    ListenableFuture<String> first = executor.submit(1);
+    ListenableFuture<String> second = executor.submit(2);
+    assertTrue(handler.batches.isEmpty());
+    ListenableFuture<String> third = executor.submit(3);
+    assertEquals(ImmutableList.of(ImmutableList.of(1, 2, 3)), handler.batches);
+    assertFalse(first.isDone());
+
+    handler.complete(0);
+    assertEquals("1", first.get());
+    assertEquals("2", second.get());
+    assertEquals("3", third.get());
+  }
+
+  public void testBatchByDelay() throws Exception {
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(100)
+        .maxDelay(10, MILLISECONDS)
+        .build(new ImmediateHandler(), scheduler);
+    ListenableFuture<String> first = executor.submit(1);
+    ListenableFuture<String> second = executor.submit(2);
+    assertEquals("1", first.get(10, SECONDS));
+    assertEquals("2", second.get(10, SECONDS));
+  }
+
+  public void testFlush() throws Exception {
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(100)
+        .maxDelay(1, HOURS)
+        .build(handler, scheduler);
+    executor.flush(); // nothing to hand over
+    assertTrue(handler.batches.isEmpty());
+    executor.submit(1);
+    executor.submit(2);
+    executor.flush();
+    executor.submit(3);
+    executor.flush();
+    assertEquals(
+        ImmutableList.of(ImmutableList.of(1, 2), ImmutableList.of(3)), handler.batches);
+  }
+
+  public void testHandlerFailure() throws Exception {
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(2)
+        .maxDelay(1, HOURS)
+        .build(handler, scheduler);
+    ListenableFuture<String> first = executor.submit(1);
+    ListenableFuture<String> second = executor.submit(2);
+    Exception failure = new Exception();
+    handler.results.get(0).setException(failure);
+    assertFailedWith(failure, first);
+    assertFailedWith(failure, second);
+  }
+
+  public void testHandlerThrows() throws Exception {
+    final RuntimeException failure = new RuntimeException();
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(1)
+        .maxDelay(1, HOURS)
+        .build(new AsyncFunction<List<Integer>, List<String>>() {
+          @Override public ListenableFuture<List<String>> apply(List<Integer> batch) {
+            throw failure;
+          }
+        }, scheduler);
+    assertFailedWith(failure, executor.submit(1));
+  }
+
+  public void testHandlerReturnsWrongNumberOfResults() throws Exception {
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(2)
+        .maxDelay(1, HOURS)
+        .build(handler, scheduler);
+    ListenableFuture<String> first = executor.submit(1);
+    executor.submit(2);
+    handler.results.get(0).set(ImmutableList.of("1"));
+    try {
+      first.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof IllegalStateException);
+    }
+  }
+
+  public void testCapacity() throws Exception {
+    final BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(2)
+        .maxDelay(1, HOURS)
+        .capacity(2)
+        .build(handler, scheduler);
+    executor.submit(1);
+    executor.submit(2);
+    final AtomicBoolean submitted = new AtomicBoolean();
+    Thread producer = new Thread() {
+      @Override public void run() {
+        try {
+          executor.submit(3);
+          submitted.set(true);
+        } catch (InterruptedException e) {
+          throw new AssertionError(e);
+        }
+      }
+    };
+    producer.start();
+    producer.join(100);
+    assertTrue(producer.isAlive()); // blocked, the first batch has not completed yet
+    assertFalse(submitted.get());
+
+    handler.complete(0);
+    producer.join(10000);
+    assertTrue(submitted.get());
+  }
+
+  public void testCapacity_interrupted() throws Exception {
+    BatchingExecutor<Integer, String> executor = BatchingExecutor.newBuilder()
+        .maxBatchSize(2)
+        .maxDelay(1, HOURS)
+        .capacity(1)
+        .build(handler, scheduler);
+    executor.submit(1);
+    Thread.currentThread().interrupt();
+    try {
+      executor.submit(2);
+      fail();
+    } catch (InterruptedException expected) {
+    }
+  }
+
+  public void testBuilder_unset() {
+    try {
+      BatchingExecutor.newBuilder().maxDelay(1, SECONDS).build(handler, scheduler);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    try {
+      BatchingExecutor.newBuilder().maxBatchSize(1).build(handler, scheduler);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  public void testBuilder_invalid() {
+    try {
+      BatchingExecutor.newBuilder().maxBatchSize(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BatchingExecutor.newBuilder().maxDelay(-1, SECONDS);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BatchingExecutor.newBuilder().capacity(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BatchingExecutor.newBuilder().maxBatchSize(1).maxBatchSize(2);
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+  }
+
+  private static void assertFailedWith(Throwable expected, ListenableFuture<?> future)
+      throws InterruptedException {
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException e) {
+      assertSame(expected, e.getCause());
+    }
+  }
+
+  /** Records batches, and lets the test complete them later. */
+  private static class RecordingHandler implements AsyncFunction<List<Integer>, List<String>> {
+    final List<List<Integer>> batches = Lists.newCopyOnWriteArrayList();
+    final List<SettableFuture<List<String>>> results = Lists.newCopyOnWriteArrayList();
+
+    @Override public ListenableFuture<List<String>> apply(List<Integer> batch) {
+      batches.add(batch);
+      SettableFuture<List<String>> result = SettableFuture.create();
+      results.add(result);
+      return result;
+    }
+
+    void complete(int index) {
+      results.get(index).set(toStrings(batches.get(index)));
+    }
+  }
+
+  private static class ImmediateHandler implements AsyncFunction<List<Integer>, List<String>> {
+    @Override public ListenableFuture<List<String>> apply(List<Integer> batch) {
+      return Futures.immediateFuture(toStrings(batch));
+    }
+  }
+
+  private static List<String> toStrings(List<Integer> batch) {
+    List<String> strings = Lists.newArrayList();
+    for (Integer i : batch) {
+      strings.add(String.valueOf(i));
+    }
+    return strings;
+  }
+}
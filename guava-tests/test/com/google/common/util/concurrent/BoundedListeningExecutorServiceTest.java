@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.util.concurrent.BoundedListeningExecutorService.AdmissionPolicy;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Tests for {@link BoundedListeningExecutorService}.
+ */
+public class BoundedListeningExecutorServiceTest extends TestCase {
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private BoundedListeningExecutorService executor;
+
+  @Override protected void tearDown() throws Exception {
+    release.countDown();
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    super.tearDown();
+  }
+
+  /** Creates an executor with one thread and a queue of one task, and fills both. */
+  private void createSaturated(AdmissionPolicy policy) throws InterruptedException {
+    executor = BoundedListeningExecutorService.newBuilder()
+        .threads(1)
+        .queueCapacity(1)
+        .admissionPolicy(policy)
+        .build();
+    executor.submit(new Runnable() {
+      @Override public void run() {
+        started.countDown();
+        Uninterruptibles.awaitUninterruptibly(release);
+      }
+    });
+    assertTrue(started.await(10, SECONDS));
+    executor.submit(Runnables.doNothing());
+    assertEquals(1, executor.queueDepth());
+    assertEquals(1, executor.activeCount());
+  }
+
+  public void testFailFast() throws Exception {
+    createSaturated(AdmissionPolicy.failFast());
+    ListenableFuture<?> rejected = executor.submit(Runnables.doNothing());
+    assertRejected(rejected);
+    assertEquals(1, executor.rejectedCount());
+    try {
+      executor.execute(Runnables.doNothing());
+      fail();
+    } catch (RejectedExecutionException expected) {
+    }
+    assertEquals(2, executor.rejectedCount());
+  }
+
+  public void testCallerRuns() throws Exception {
+    createSaturated(AdmissionPolicy.callerRuns());
+    ListenableFuture<Thread> ranOn = executor.submit(new Callable<Thread>() {
+      @Override public Thread call() {
+        return Thread.currentThread();
+      }
+    });
+    assertSame(Thread.currentThread(), ranOn.get());
+    assertEquals(1, executor.callerRunsCount());
+    assertEquals(0, executor.rejectedCount());
+  }
+
+  public void testBlockWithTimeout() throws Exception {
+    createSaturated(AdmissionPolicy.blockWithTimeout(10, MILLISECONDS));
+    long start = System.nanoTime();
+    assertRejected(executor.submit(Runnables.doNothing()));
+    assertTrue(System.nanoTime() - start >= MILLISECONDS.toNanos(10));
+
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, SECONDS));
+    assertEquals(2, executor.completedCount());
+  }
+
+  public void testBlockWithTimeout_admittedOnceRoomFreesUp() throws Exception {
+    createSaturated(AdmissionPolicy.blockWithTimeout(10, SECONDS));
+    new Thread() {
+      @Override public void run() {
+        Uninterruptibles.sleepUninterruptibly(20, MILLISECONDS);
+        release.countDown();
+      }
+    }.start();
+    assertEquals("admitted",
+        executor.submit(Callables.returning("admitted")).get(10, SECONDS));
+    assertEquals(0, executor.rejectedCount());
+  }
+
+  public void testShutdown_rejectsWithFailedFuture() throws Exception {
+    executor = BoundedListeningExecutorService.newBuilder()
+        .admissionPolicy(AdmissionPolicy.callerRuns())
+        .build();
+    executor.shutdown();
+    assertRejected(executor.submit(Runnables.doNothing()));
+    assertTrue(executor.awaitTermination(10, SECONDS));
+  }
+
+  public void testHistograms() throws Exception {
+    executor = BoundedListeningExecutorService.newBuilder().threads(2).build();
+    for (int i = 0; i < 10; i++) {
+      executor.submit(new Runnable() {
+        @Override public void run() {
+          Uninterruptibles.sleepUninterruptibly(2, MILLISECONDS);
+        }
+      });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, SECONDS));
+    assertEquals(10, executor.completedCount());
+
+    LatencyHistogram.Snapshot runTimes = executor.runTimeHistogram();
+    assertEquals(10, runTimes.count());
+    assertTrue(runTimes.totalNanos() >= 10 * MILLISECONDS.toNanos(2));
+    assertTrue(runTimes.percentileNanos(0.0) >= MILLISECONDS.toNanos(2));
+    assertTrue(runTimes.percentileNanos(1.0) >= runTimes.percentileNanos(0.5));
+    long bucketTotal = 0;
+    for (int bucket = 0; bucket < Long.SIZE; bucket++) {
+      bucketTotal += runTimes.bucketCount(bucket);
+    }
+    assertEquals(10, bucketTotal);
+
+    LatencyHistogram.Snapshot waitTimes = executor.waitTimeHistogram();
+    assertEquals(10, waitTimes.count());
+    // 10 tasks on 2 threads: the last ones waited for at least 4 others to finish
+    assertTrue(waitTimes.percentileNanos(1.0) >= 4 * MILLISECONDS.toNanos(2));
+  }
+
+  public void testBuilder_invalid() {
+    try {
+      BoundedListeningExecutorService.newBuilder().threads(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      BoundedListeningExecutorService.newBuilder().queueCapacity(0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      AdmissionPolicy.blockWithTimeout(-1, SECONDS);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  private static void assertRejected(ListenableFuture<?> future) throws InterruptedException {
+    try {
+      future.get();
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof RejectedExecutionException);
+    }
+  }
+}
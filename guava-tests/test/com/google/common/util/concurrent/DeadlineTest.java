@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.base.Functions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.testing.FakeTicker;
+
+import junit.framework.TestCase;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tests for {@link Deadline}.
+ */
+public class DeadlineTest extends TestCase {
+  private RecordingScheduler scheduler;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    scheduler = new RecordingScheduler();
+  }
+
+  @Override protected void tearDown() throws Exception {
+    scheduler.shutdownNow();
+    super.tearDown();
+  }
+
+  public void testTimeRemaining() {
+    FakeTicker ticker = new FakeTicker();
+    Deadline deadline = Deadline.after(10, SECONDS, scheduler, ticker);
+    assertEquals(10000, deadline.timeRemaining(MILLISECONDS));
+    assertFalse(deadline.isExpired());
+    ticker.advance(4, SECONDS);
+    assertEquals(6, deadline.timeRemaining(SECONDS));
+    ticker.advance(6, SECONDS);
+    assertTrue(deadline.isExpired());
+    assertEquals(0, deadline.timeRemaining(SECONDS));
+    assertEquals("Deadline[expired]", deadline.toString());
+  }
+
+  public void testAttach_cancelsOnExpiry() {
+    FakeTicker ticker = new FakeTicker();
+    Deadline deadline = Deadline.after(1, HOURS, scheduler, ticker);
+    SettableFuture<String> first = deadline.attach(SettableFuture.<String>create());
+    SettableFuture<String> second = deadline.attach(SettableFuture.<String>create());
+    assertEquals(1, scheduler.timers.size());
+    assertFalse(first.isDone());
+    ticker.advance(1, HOURS);
+    scheduler.runTimer(0);
+    assertTrue(first.isCancelled());
+    assertTrue(second.isCancelled());
+    assertTrue(deadline.isExpired());
+  }
+
+  public void testAttach_afterExpiry() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    Deadline deadline = Deadline.after(1, SECONDS, scheduler, ticker);
+    ticker.advance(1, SECONDS);
+    SettableFuture<String> future = deadline.attach(SettableFuture.<String>create());
+    assertTrue(future.isCancelled());
+    assertEquals(0, scheduler.timers.size());
+  }
+
+  public void testAttach_timerReclaimedWhenAllDone() {
+    Deadline deadline = Deadline.after(1, HOURS, scheduler);
+    SettableFuture<String> first = deadline.attach(SettableFuture.<String>create());
+    SettableFuture<String> second = deadline.attach(SettableFuture.<String>create());
+    first.set("first");
+    assertEquals(1, scheduler.timers.size());
+    assertFalse(scheduler.timers.get(0).isCancelled());
+    second.set("second");
+    assertTrue(scheduler.timers.get(0).isCancelled());
+    // attaching another future schedules a new timer
+    SettableFuture<String> third = deadline.attach(SettableFuture.<String>create());
+    assertEquals(2, scheduler.timers.size());
+    third.cancel(false);
+    assertTrue(scheduler.timers.get(1).isCancelled());
+    assertFalse(deadline.isExpired());
+  }
+
+  public void testTransform_cancelsWholePipeline() {
+    FakeTicker ticker = new FakeTicker();
+    Deadline deadline = Deadline.after(1, HOURS, scheduler, ticker);
+    SettableFuture<String> input = SettableFuture.create();
+    final SettableFuture<String> inner = SettableFuture.create();
+    ListenableFuture<String> fetched = deadline.transform(input,
+        new AsyncFunction<String, String>() {
+          @Override public ListenableFuture<String> apply(String in) {
+            return inner;
+          }
+        }, sameThreadExecutor());
+    ListenableFuture<List<String>> all = deadline.allAsList(ImmutableList.of(
+        fetched, deadline.transform(input, Functions.<String>identity(), sameThreadExecutor())));
+    input.set("request");
+    assertFalse(all.isDone());
+    ticker.advance(1, HOURS);
+    scheduler.runTimer(0);
+    assertTrue(all.isCancelled());
+    assertTrue(fetched.isCancelled());
+    assertTrue(inner.isCancelled());
+    assertEquals(1, scheduler.timers.size());
+  }
+
+  public void testTransform_skippedAfterExpiry() throws Exception {
+    FakeTicker ticker = new FakeTicker();
+    Deadline deadline = Deadline.after(1, HOURS, scheduler, ticker);
+    SettableFuture<String> input = SettableFuture.create();
+    final AtomicBoolean applied = new AtomicBoolean();
+    ListenableFuture<String> output = deadline.transform(input,
+        new AsyncFunction<String, String>() {
+          @Override public ListenableFuture<String> apply(String in) {
+            applied.set(true);
+            return Futures.immediateFuture(in);
+          }
+        }, sameThreadExecutor());
+    ticker.advance(1, HOURS);
+    input.set("late");
+    assertTrue(output.isCancelled());
+    assertFalse(applied.get());
+  }
+
+  public void testSuccessfulAsList_completesBeforeDeadline() throws Exception {
+    Deadline deadline = Deadline.after(1, HOURS, scheduler);
+    ListeningExecutorService executor =
+        MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    try {
+      ListenableFuture<List<String>> results = deadline.successfulAsList(ImmutableList.of(
+          executor.submit(Callables.returning("a")),
+          Futures.<String>immediateFailedFuture(new Exception())));
+      assertEquals(Arrays.asList("a", null), results.get(10, SECONDS));
+      assertFalse(deadline.isExpired());
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * A scheduler that remembers the tasks scheduled on it, so that a test can run one itself
+   * instead of waiting for it.
+   */
+  private static class RecordingScheduler extends ScheduledThreadPoolExecutor {
+    final List<ScheduledFuture<?>> timers = Lists.newCopyOnWriteArrayList();
+    final List<Runnable> commands = Lists.newCopyOnWriteArrayList();
+
+    RecordingScheduler() {
+      super(1);
+    }
+
+    @Override public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      ScheduledFuture<?> timer = super.schedule(command, delay, unit);
+      timers.add(timer);
+      commands.add(command);
+      return timer;
+    }
+
+    /** Runs the task of the given timer now, as if its delay had elapsed. */
+    void runTimer(int index) {
+      assertTrue(timers.get(index).cancel(false));
+      commands.get(index).run();
+    }
+  }
+}
@@ -96,6 +96,41 @@ public class ExecutionListTest extends TestCase {
     assertEquals(1, runCalled.get());
   }
 
+  public void testAddConcurrentlyWithExecute() throws Exception {
+    final int producers = 8;
+    final int listenersPerProducer = 1000;
+    final AtomicInteger runCalled = new AtomicInteger();
+    final Runnable listener = new Runnable() {
+      @Override public void run() {
+        runCalled.getAndIncrement();
+      }
+    };
+    final CountDownLatch start = new CountDownLatch(1);
+    Thread[] threads = new Thread[producers];
+    for (int i = 0; i < producers; i++) {
+      threads[i] = new Thread() {
+        @Override public void run() {
+          try {
+            start.await();
+          } catch (InterruptedException e) {
+            throw new AssertionError(e);
+          }
+          for (int j = 0; j < listenersPerProducer; j++) {
+            list.add(listener, MoreExecutors.sameThreadExecutor());
+          }
+        }
+      };
+      threads[i].start();
+    }
+    start.countDown();
+    list.execute();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    // every listener ran exactly once, whether it was added before or after execute()
+    assertEquals(producers * listenersPerProducer, runCalled.get());
+  }
+
   public void testAddAfterRun() throws Exception {
     // Run the previous test
     testRunOnPopulatedList();
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest extends TestCase {
+
+  public void testEmpty() {
+    LatencyHistogram.Snapshot snapshot = LatencyHistogram.create().snapshot();
+    assertEquals(0, snapshot.count());
+    assertEquals(0, snapshot.totalNanos());
+    assertEquals(0, snapshot.percentileNanos(0.5));
+    assertEquals(0, snapshot.percentileNanos(1.0));
+  }
+
+  public void testBuckets() {
+    LatencyHistogram histogram = LatencyHistogram.create();
+    histogram.record(0);
+    histogram.record(-5);
+    histogram.record(1);
+    histogram.record(1000);
+    histogram.record(1023);
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(5, snapshot.count());
+    assertEquals(2024, snapshot.totalNanos());
+    assertEquals(2, snapshot.bucketCount(0));
+    assertEquals(1, snapshot.bucketCount(1));
+    assertEquals(2, snapshot.bucketCount(10));
+    assertEquals(0, snapshot.percentileNanos(0.4));
+    assertEquals(2, snapshot.percentileNanos(0.6));
+    assertEquals(1024, snapshot.percentileNanos(1.0));
+  }
+
+  public void testTopBucket() {
+    LatencyHistogram histogram = LatencyHistogram.create();
+    histogram.record(1L << 61);
+    assertEquals(1, histogram.snapshot().bucketCount(62));
+    assertEquals(1L << 62, histogram.snapshot().percentileNanos(1.0));
+
+    histogram.record(1L << 62);
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(2, histogram.snapshot().bucketCount(63));
+    assertEquals(Long.MAX_VALUE, histogram.snapshot().percentileNanos(1.0));
+  }
+
+  public void testSnapshot() {
+    LatencyHistogram histogram = LatencyHistogram.create();
+    histogram.record(10);
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    histogram.record(20);
+    assertEquals(1, snapshot.count());
+    assertEquals(10, snapshot.totalNanos());
+    assertEquals(2, histogram.snapshot().count());
+  }
+
+  public void testInvalidArguments() {
+    LatencyHistogram.Snapshot snapshot = LatencyHistogram.create().snapshot();
+    try {
+      snapshot.bucketCount(-1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      snapshot.bucketCount(64);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      snapshot.percentileNanos(1.5);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.NullPointerTester;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests for {@link LongAdderMap}.
+ */
+public class LongAdderMapTest extends TestCase {
+
+  public void testNulls() {
+    NullPointerTester tester = new NullPointerTester();
+    tester.testAllPublicConstructors(LongAdderMap.class);
+    tester.testAllPublicStaticMethods(LongAdderMap.class);
+    LongAdderMap<Object> map = LongAdderMap.create();
+    tester.testAllPublicInstanceMethods(map);
+  }
+
+  public void testAdd() {
+    LongAdderMap<String> map = LongAdderMap.create();
+    assertEquals(0L, map.sum("a"));
+    assertFalse(map.containsKey("a"));
+    map.increment("a");
+    map.increment("a");
+    map.add("b", 10);
+    map.decrement("b");
+    assertEquals(2L, map.sum("a"));
+    assertEquals(9L, map.sum("b"));
+    assertEquals(11L, map.sum());
+    assertEquals(2, map.size());
+    assertEquals(ImmutableMap.of("a", 2L, "b", 9L), map.snapshot());
+  }
+
+  public void testSumThenReset() {
+    LongAdderMap<String> map = LongAdderMap.create();
+    assertEquals(0L, map.sumThenReset("a"));
+    map.add("a", 5);
+    assertEquals(5L, map.sumThenReset("a"));
+    assertEquals(0L, map.sum("a"));
+    assertTrue(map.containsKey("a"));
+    map.increment("a");
+    assertEquals(1L, map.sumThenReset("a"));
+  }
+
+  public void testSumThenResetAll() {
+    LongAdderMap<String> map = LongAdderMap.create();
+    map.add("a", 1);
+    map.add("b", 2);
+    assertEquals(ImmutableMap.of("a", 1L, "b", 2L), map.sumThenResetAll());
+    assertEquals(ImmutableMap.of("a", 0L, "b", 0L), map.snapshot());
+    map.add("b", 3);
+    assertEquals(ImmutableMap.of("a", 0L, "b", 3L), map.sumThenResetAll());
+  }
+
+  public void testRemoveAndClear() {
+    LongAdderMap<String> map = LongAdderMap.create();
+    map.add("a", 3);
+    map.add("b", 4);
+    assertEquals(3L, map.remove("a"));
+    assertEquals(0L, map.remove("a"));
+    assertFalse(map.containsKey("a"));
+    assertEquals(1, map.size());
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertEquals(0L, map.sum());
+  }
+
+  public void testSumThenReset_concurrentUpdatesAreNotLost() throws Exception {
+    final LongAdderMap<String> map = LongAdderMap.create();
+    final int threads = 4;
+    final int incrementsPerThread = 100000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    for (int i = 0; i < threads; i++) {
+      executor.execute(new Runnable() {
+        @Override public void run() {
+          for (int j = 0; j < incrementsPerThread; j++) {
+            map.increment("hot");
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    long reported = 0;
+    for (int round = 0; !executor.isTerminated(); round++) {
+      // alternate between the two ways of resetting
+      if (round % 2 == 0) {
+        reported += map.sumThenReset("hot");
+      } else {
+        Long sum = map.sumThenResetAll().get("hot");
+        reported += (sum == null) ? 0 : sum;
+      }
+    }
+    assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    reported += map.sumThenReset("hot");
+    assertEquals((long) threads * incrementsPerThread, reported);
+  }
+}
@@ -46,6 +46,7 @@ import com.google.common.base.Suppliers;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import com.google.common.testing.ClassSanityTester;
 import com.google.common.util.concurrent.MoreExecutors.Application;
 
@@ -55,6 +56,7 @@ import org.mockito.Mockito;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
@@ -590,6 +592,30 @@ public class MoreExecutorsTest extends JSR166TestCase {
     assertEquals(factory.getClass(), Executors.defaultThreadFactory().getClass());
   }
 
+  public void testNewVirtualThreadPerTaskExecutor() throws Exception {
+    ListeningExecutorService executor = MoreExecutors.newVirtualThreadPerTaskExecutor();
+    final CountDownLatch allStarted = new CountDownLatch(100);
+    final CountDownLatch release = new CountDownLatch(1);
+    List<ListenableFuture<Thread>> futures = Lists.newArrayList();
+    for (int i = 0; i < 100; i++) {
+      futures.add(executor.submit(new Callable<Thread>() {
+        @Override public Thread call() throws InterruptedException {
+          allStarted.countDown();
+          release.await();
+          return Thread.currentThread();
+        }
+      }));
+    }
+    // all tasks run concurrently, whether or not the JDK has virtual threads
+    assertTrue(allStarted.await(10, SECONDS));
+    release.countDown();
+    Set<Thread> threads = Sets.newIdentityHashSet();
+    threads.addAll(Futures.allAsList(futures).get(10, SECONDS));
+    assertEquals(100, threads.size());
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, SECONDS));
+  }
+
   public void testThreadRenaming() {
     Executor renamingExecutor = renamingDecorator(sameThreadExecutor(),
         Suppliers.ofInstance("FooBar"));
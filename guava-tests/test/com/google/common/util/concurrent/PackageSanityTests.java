@@ -39,6 +39,7 @@ public class PackageSanityTests extends AbstractPackageSanityTests {
 
   public PackageSanityTests() {
     setDefault(RateLimiter.class, RateLimiter.create(1.0));
+    setDefault(PermitSource.class, PermitSource.createInMemory(1.0));
     setDefault(SleepingStopwatch.class, NO_OP_STOPWATCH);
     setDefault(long.class, 0L);
   }
@@ -376,9 +376,131 @@ public class RateLimiterTest extends TestCase {
     }
   }
 
+  public void testLeasing_sharedSource() {
+    PermitSource source = PermitSource.createInMemory(stopwatch, 5.0);
+    RateLimiter first = RateLimiter.create(stopwatch, source, 1, 100.0);
+    RateLimiter second = RateLimiter.create(stopwatch, source, 1, 100.0);
+    first.acquire(); // R0.00, since it's the first lease
+    second.acquire(); // R0.20, the source only allows 5 permits per second overall
+    first.acquire(); // R0.20
+    second.acquire(); // R0.20
+    assertEvents("R0.00", "R0.20", "R0.20", "R0.20");
+  }
+
+  public void testLeasing_batches() {
+    CountingPermitSource source =
+        new CountingPermitSource(PermitSource.createInMemory(stopwatch, 1000.0));
+    RateLimiter limiter = RateLimiter.create(stopwatch, source, 10, 1000.0);
+    for (int i = 0; i < 25; i++) {
+      limiter.acquire();
+    }
+    assertEquals(3, source.leases);
+    assertEquals(30, source.leasedPermits);
+    limiter.acquire(12); // more than a lease, and more than what's left in the pool
+    assertEquals(4, source.leases);
+    assertEquals(40, source.leasedPermits);
+  }
+
+  public void testLeasing_releaseLeasedPermits() {
+    CountingPermitSource source =
+        new CountingPermitSource(PermitSource.createInMemory(stopwatch, 5.0));
+    RateLimiter first = RateLimiter.create(stopwatch, source, 10, 100.0);
+    RateLimiter second = RateLimiter.create(stopwatch, source, 10, 100.0);
+    first.acquire(); // R0.00, leases 10 permits, i.e. the source's next 2 seconds
+    first.releaseLeasedPermits(); // gives back the 9 unused ones
+    assertEquals(9, source.releasedPermits);
+    second.acquire(); // R0.20 instead of R2.00
+    first.releaseLeasedPermits(); // nothing left to give back
+    assertEquals(9, source.releasedPermits);
+    assertEvents("R0.00", "R0.20");
+  }
+
+  public void testLeasing_tryAcquire() {
+    PermitSource source = PermitSource.createInMemory(stopwatch, 5.0);
+    RateLimiter limiter = RateLimiter.create(stopwatch, source, 1, 100.0);
+    assertTrue(limiter.tryAcquire(0, SECONDS));
+    assertFalse(limiter.tryAcquire(0, SECONDS));
+    stopwatch.sleepMillis(100);
+    assertFalse(limiter.tryAcquire(0, SECONDS));
+    assertTrue(limiter.tryAcquire(100, MILLISECONDS));
+    assertEvents("R0.00", "U0.10", "R0.10");
+  }
+
+  public void testLeasing_tryAcquireSeveralFromSlowSource() {
+    CountingPermitSource source =
+        new CountingPermitSource(PermitSource.createInMemory(stopwatch, 1.0));
+    RateLimiter limiter = RateLimiter.create(stopwatch, source, 10, 1000.0);
+    for (int i = 0; i < 8; i++) {
+      limiter.acquire(); // the first lease holds 10 permits, and the next one waits 10 seconds
+    }
+    assertEquals(1, source.leases);
+    // 2 permits are left in the pool, so 5 need a new lease
+    assertFalse(limiter.tryAcquire(5, 0, SECONDS));
+    assertFalse(limiter.tryAcquire(5, 9, SECONDS));
+    assertEquals(1, source.leases); // refusing leased nothing
+    assertTrue(limiter.tryAcquire(2, 1, MILLISECONDS)); // the local limiter still waits 1ms
+    assertEquals(1, source.leases);
+    assertTrue(limiter.tryAcquire(5, 10, SECONDS));
+    assertEquals(2, source.leases);
+    assertEvents("R0.00", "R0.00", "R0.00", "R0.00", "R0.00", "R0.00", "R0.00", "R0.00",
+        "R0.00", "R9.99");
+  }
+
+  public void testLeasing_warmUp() {
+    PermitSource source = PermitSource.createInMemory(stopwatch, 1000.0);
+    RateLimiter limiter = RateLimiter.create(stopwatch, source, 10, 2.0, 4000, MILLISECONDS);
+    for (int i = 0; i < 8; i++) {
+      limiter.acquire(); // #1
+    }
+    stopwatch.sleepMillis(500); // #2: to repay for the last acquire
+    stopwatch.sleepMillis(4000); // #3: becomes cold again
+    for (int i = 0; i < 8; i++) {
+      limiter.acquire(); // #4
+    }
+    // the same as in testWarmUp(): the source has plenty of permits, so the local warmup rules
+    assertEvents(
+        "R0.00, R1.38, R1.13, R0.88, R0.63, R0.50, R0.50, R0.50", // #1
+        "U0.50", // #2
+        "U4.00", // #3
+        "R0.00, R1.38, R1.13, R0.88, R0.63, R0.50, R0.50, R0.50"); // #4
+  }
+
+  public void testLeasing_parameterValidation() {
+    PermitSource source = PermitSource.createInMemory(stopwatch, 5.0);
+    try {
+      RateLimiter.create(source, 0, 1.0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      RateLimiter.create(source, 1, 0.0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      RateLimiter.create(source, 1, 1.0, -1, NANOSECONDS);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      PermitSource.createInMemory(0.0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testReleaseLeasedPermits_noSource() {
+    RateLimiter limiter = RateLimiter.create(stopwatch, 5.0);
+    limiter.acquire(); // R0.00
+    limiter.releaseLeasedPermits();
+    limiter.acquire(); // R0.20, unaffected
+    assertEvents("R0.00", "R0.20");
+  }
+
   public void testNulls() {
     NullPointerTester tester = new NullPointerTester()
         .setDefault(SleepingStopwatch.class, stopwatch)
+        .setDefault(PermitSource.class, PermitSource.createInMemory(stopwatch, 5.0))
         .setDefault(int.class, 1);
     tester.testStaticMethods(RateLimiter.class, Visibility.PACKAGE);
     tester.testInstanceMethods(RateLimiter.create(stopwatch, 5.0), Visibility.PACKAGE);
@@ -441,6 +563,35 @@ public class RateLimiterTest extends TestCase {
     }
   }
 
+  static class CountingPermitSource extends PermitSource {
+    final PermitSource delegate;
+    int leases;
+    int leasedPermits;
+    int releasedPermits;
+
+    CountingPermitSource(PermitSource delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    protected long lease(int permits) {
+      leases++;
+      leasedPermits += permits;
+      return delegate.lease(permits);
+    }
+
+    @Override
+    protected long queryLease(int permits) {
+      return delegate.queryLease(permits);
+    }
+
+    @Override
+    protected void release(int permits) {
+      releasedPermits += permits;
+      delegate.release(permits);
+    }
+  }
+
   public void testMocking() throws Exception {
     RateLimiter mockito = Mockito.mock(RateLimiter.class);
     RateLimiter easyMock = EasyMock.createNiceMock(RateLimiter.class);
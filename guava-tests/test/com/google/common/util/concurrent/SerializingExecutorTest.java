@@ -24,6 +24,7 @@ import junit.framework.TestCase;
 
 import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -171,6 +172,61 @@ public class SerializingExecutorTest extends TestCase {
     assertEquals(2, numCalls.get());
   }
 
+  public void testManyProducers() throws Exception {
+    final int producers = 8;
+    final int tasksPerProducer = 1000;
+    ExecutorService service = Executors.newFixedThreadPool(4);
+    try {
+      final SerializingExecutor executor = new SerializingExecutor(service);
+      final AtomicBoolean running = new AtomicBoolean();
+      final AtomicBoolean overlapped = new AtomicBoolean();
+      final int[] lastSeen = new int[producers];
+      final AtomicBoolean reordered = new AtomicBoolean();
+      final CountDownLatch done = new CountDownLatch(producers * tasksPerProducer);
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] threads = new Thread[producers];
+      for (int i = 0; i < producers; i++) {
+        final int producer = i;
+        threads[i] = new Thread() {
+          @Override public void run() {
+            try {
+              start.await();
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            }
+            for (int j = 1; j <= tasksPerProducer; j++) {
+              final int sequence = j;
+              executor.execute(new Runnable() {
+                @Override public void run() {
+                  if (!running.compareAndSet(false, true)) {
+                    overlapped.set(true);
+                  }
+                  // tasks never overlap, so lastSeen needs no further synchronization
+                  if (lastSeen[producer] != sequence - 1) {
+                    reordered.set(true);
+                  }
+                  lastSeen[producer] = sequence;
+                  running.set(false);
+                  done.countDown();
+                }
+              });
+            }
+          }
+        };
+        threads[i].start();
+      }
+      start.countDown();
+      assertTrue(done.await(10, TimeUnit.SECONDS));
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertFalse(overlapped.get());
+      assertFalse(reordered.get());
+    } finally {
+      service.shutdown();
+    }
+  }
+
   public void testTaskThrowsError() throws Exception {
     class MyError extends Error {}
     final CyclicBarrier barrier = new CyclicBarrier(2);
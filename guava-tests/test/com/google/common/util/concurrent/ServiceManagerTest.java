@@ -19,6 +19,7 @@ import static java.util.Arrays.asList;
 
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
 import com.google.common.testing.NullPointerTester;
@@ -139,6 +140,98 @@ public class ServiceManagerTest extends TestCase {
     assertTrue(listener.failedServices.isEmpty());
   }
 
+  public void testDependencies_startAndStopOrder() {
+    List<String> events = Lists.newCopyOnWriteArrayList();
+    Service database = new RecordingService("database", events);
+    Service cache = new RecordingService("cache", events);
+    Service frontend = new RecordingService("frontend", events);
+    Service metrics = new RecordingService("metrics", events);
+    ServiceManager manager = new ServiceManager(asList(frontend, cache, database, metrics),
+        ImmutableSetMultimap.of(frontend, cache, frontend, database, cache, database));
+    manager.startAsync().awaitHealthy();
+    assertState(manager, Service.State.RUNNING, database, cache, frontend, metrics);
+    assertTrue(events.indexOf("start database") < events.indexOf("start cache"));
+    assertTrue(events.indexOf("start cache") < events.indexOf("start frontend"));
+
+    events.clear();
+    manager.stopAsync().awaitStopped();
+    assertState(manager, Service.State.TERMINATED, database, cache, frontend, metrics);
+    assertTrue(events.indexOf("stop frontend") < events.indexOf("stop cache"));
+    assertTrue(events.indexOf("stop cache") < events.indexOf("stop database"));
+  }
+
+  public void testDependencies_parallelStartup() {
+    Service a = new NoOpDelayedSerivce(200);
+    Service b = new NoOpDelayedSerivce(200);
+    Service c = new NoOpDelayedSerivce(200);
+    Service d = new NoOpService();
+    ServiceManager manager = new ServiceManager(asList(a, b, c, d),
+        ImmutableSetMultimap.of(d, a, d, b, d, c));
+    long start = System.nanoTime();
+    manager.startAsync().awaitHealthy();
+    // a, b and c start at the same time
+    assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(600));
+    manager.stopAsync().awaitStopped();
+  }
+
+  public void testDependencies_failedDependency() {
+    Service a = new FailStartService();
+    Service b = new NoOpService();
+    ServiceManager manager = new ServiceManager(asList(a, b), ImmutableSetMultimap.of(b, a));
+    try {
+      manager.startAsync().awaitHealthy();
+      fail();
+    } catch (IllegalStateException expected) {
+    }
+    assertState(manager, Service.State.FAILED, a);
+    assertState(manager, Service.State.NEW, b);
+    manager.stopAsync().awaitStopped();
+    assertState(manager, Service.State.TERMINATED, b);
+  }
+
+  public void testDependencies_invalid() {
+    Service a = new NoOpService();
+    Service b = new NoOpService();
+    Service c = new NoOpService();
+    try {
+      new ServiceManager(asList(a, b, c), ImmutableSetMultimap.of(a, b, b, c, c, a));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      new ServiceManager(asList(a), ImmutableSetMultimap.of(a, a));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      new ServiceManager(asList(a, b), ImmutableSetMultimap.of(a, c));
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+
+  public void testStartupCriticalPath() {
+    Service a = new NoOpDelayedSerivce(100);
+    Service b = new NoOpDelayedSerivce(100);
+    Service c = new NoOpDelayedSerivce(150);
+    ServiceManager manager = new ServiceManager(asList(a, b, c), ImmutableSetMultimap.of(b, a));
+    assertTrue(manager.startupCriticalPath().isEmpty());
+    manager.startAsync().awaitHealthy();
+    ImmutableMap<Service, Long> criticalPath = manager.startupCriticalPath();
+    assertEquals(asList(a, b), criticalPath.keySet().asList());
+    assertTrue(criticalPath.get(a) >= 100);
+    assertTrue(criticalPath.get(b) >= 100);
+    manager.stopAsync().awaitStopped();
+  }
+
+  public void testStartupCriticalPath_noDependencies() {
+    Service a = new NoOpDelayedSerivce(50);
+    Service b = new NoOpDelayedSerivce(150);
+    ServiceManager manager = new ServiceManager(asList(a, b));
+    manager.startAsync().awaitHealthy();
+    assertEquals(ImmutableSet.of(b), manager.startupCriticalPath().keySet());
+  }
+
   public void testFailStart() throws Exception {
     Service a = new NoOpService();
     Service b = new FailStartService();
@@ -525,6 +618,27 @@ public class ServiceManagerTest extends TestCase {
         .testAllPublicInstanceMethods(manager);
   }
 
+  /** Records when it starts and stops. */
+  private static final class RecordingService extends AbstractService {
+    final String name;
+    final List<String> events;
+
+    RecordingService(String name, List<String> events) {
+      this.name = name;
+      this.events = events;
+    }
+
+    @Override protected void doStart() {
+      events.add("start " + name);
+      notifyStarted();
+    }
+
+    @Override protected void doStop() {
+      events.add("stop " + name);
+      notifyStopped();
+    }
+  }
+
   private static final class RecordingListener extends ServiceManager.Listener {
     volatile boolean healthyCalled;
     volatile boolean stoppedCalled;
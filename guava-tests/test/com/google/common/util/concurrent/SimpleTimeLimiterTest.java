@@ -170,6 +170,28 @@ public class SimpleTimeLimiterTest extends TestCase {
     assertTheCallTookBetween(start, NOT_ENOUGH_MS, DELAY_MS);
   }
 
+  public void testCreateWithVirtualThreads() throws Exception {
+    TimeLimiter limiter = SimpleTimeLimiter.createWithVirtualThreads();
+    Callable<String> callable = new Callable<String>() {
+      @Override
+      public String call() throws InterruptedException {
+        return someGoodStaticMethod();
+      }
+    };
+    long start = System.nanoTime();
+    assertEquals("yes", limiter.callWithTimeout(
+        callable, ENOUGH_MS, TimeUnit.MILLISECONDS, true));
+    assertTheCallTookBetween(start, DELAY_MS, ENOUGH_MS);
+
+    start = System.nanoTime();
+    try {
+      limiter.callWithTimeout(callable, NOT_ENOUGH_MS, TimeUnit.MILLISECONDS, true);
+      fail("no exception thrown");
+    } catch (UncheckedTimeoutException expected) {
+    }
+    assertTheCallTookBetween(start, NOT_ENOUGH_MS, DELAY_MS);
+  }
+
   private static void assertTheCallTookBetween(
       long startNanos, int atLeastMillis, int atMostMillis) {
     long nanos = System.nanoTime() - startNanos;
@@ -35,6 +35,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -53,7 +54,9 @@ public class StripedTest extends TestCase {
         Striped.lock(100),
         Striped.lock(256),
         Striped.semaphore(100, 1),
-        Striped.semaphore(256, 1));
+        Striped.semaphore(256, 1),
+        Striped.instrumentedLock(100),
+        Striped.adaptiveLock(256, 4, 10));
   }
 
   private static final Supplier<ReadWriteLock> READ_WRITE_LOCK_SUPPLIER =
@@ -194,6 +197,145 @@ public class StripedTest extends TestCase {
     } catch (RuntimeException expected) {}
   }
 
+  public void testInstrumentedLock_counts() throws Exception {
+    final Striped.Instrumented<Lock> striped = Striped.instrumentedLock(64);
+    assertEquals(64, striped.lockCount());
+    Lock lock = striped.getAt(3);
+    lock.lock();
+    lock.lock(); // reentrant
+    assertEquals(2, striped.acquisitionCount(3));
+    assertEquals(0, striped.waitCount(3));
+
+    Thread thread = new Thread() {
+      @Override public void run() {
+        striped.getAt(3).lock();
+        striped.getAt(3).unlock();
+      }
+    };
+    thread.start();
+    awaitBlocked(thread);
+    lock.unlock();
+    lock.unlock();
+    thread.join();
+    assertEquals(3, striped.acquisitionCount(3));
+    assertEquals(1, striped.waitCount(3));
+    assertEquals(0, striped.acquisitionCount(4));
+    assertTrue(lock.tryLock());
+    lock.newCondition(); // conditions are supported, since the locks are never split
+    lock.unlock();
+    assertEquals(4, striped.acquisitionCount(3));
+  }
+
+  public void testAdaptiveLock_splitsUnderContention() throws Exception {
+    final Striped.Instrumented<Lock> striped =
+        new Striped.AdaptiveStriped(64, 1, 1, TimeUnit.SECONDS.toNanos(10));
+    assertEquals(64, striped.size());
+    assertEquals(1, striped.lockCount());
+    Lock first = striped.getAt(0);
+    first.lock();
+
+    Thread thread = new Thread() {
+      @Override public void run() {
+        // shares the only lock with stripe 0, so this waits, and splits the lock once it's free
+        striped.getAt(63).lock();
+        striped.getAt(63).unlock();
+      }
+    };
+    thread.start();
+    awaitBlocked(thread);
+    assertEquals(1, striped.lockCount());
+    first.unlock();
+    thread.join();
+    assertEquals(2, striped.lockCount());
+    assertEquals(1, striped.acquisitionCount(63));
+    assertEquals(1, striped.waitCount(63));
+
+    // stripes 0 and 63 are now backed by different locks
+    first.lock();
+    assertTrue(striped.getAt(63).tryLock());
+    striped.getAt(63).unlock();
+    first.unlock();
+  }
+
+  public void testAdaptiveLock_mutualExclusion() throws Exception {
+    final Striped.Instrumented<Lock> striped = Striped.adaptiveLock(16, 1, 1);
+    final int[] counters = new int[striped.size()];
+    final int iterations = 20000;
+    List<Thread> threads = Lists.newArrayList();
+    for (int t = 0; t < 4; t++) {
+      final int seed = t;
+      threads.add(new Thread() {
+        @Override public void run() {
+          for (int i = 0; i < iterations; i++) {
+            int index = (i * 7 + seed) % counters.length;
+            Lock lock = striped.getAt(index);
+            lock.lock();
+            try {
+              counters[index]++;
+            } finally {
+              lock.unlock();
+            }
+          }
+        }
+      });
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    long acquisitions = 0;
+    int total = 0;
+    for (int i = 0; i < counters.length; i++) {
+      acquisitions += striped.acquisitionCount(i);
+      total += counters[i];
+      assertTrue(striped.waitCount(i) <= striped.acquisitionCount(i));
+    }
+    assertEquals(4 * iterations, total);
+    assertEquals(4 * iterations, acquisitions);
+    assertTrue(striped.lockCount() <= striped.size());
+  }
+
+  public void testAdaptiveLock_noConditions() {
+    Striped<Lock> striped = Striped.adaptiveLock(64, 2, 10);
+    try {
+      striped.getAt(0).newCondition();
+      fail();
+    } catch (UnsupportedOperationException expected) {
+    }
+  }
+
+  public void testAdaptiveLock_unlockWithoutLock() {
+    Striped<Lock> striped = Striped.adaptiveLock(64, 2, 10);
+    try {
+      striped.getAt(0).unlock();
+      fail();
+    } catch (IllegalMonitorStateException expected) {
+    }
+  }
+
+  public void testAdaptiveLock_parameterValidation() {
+    try {
+      Striped.adaptiveLock(64, 0, 10);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      Striped.adaptiveLock(64, 2, 0);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    assertEquals(64, Striped.adaptiveLock(64, 1000, 10).lockCount());
+  }
+
+  private static void awaitBlocked(Thread thread) throws InterruptedException {
+    while (thread.getState() != Thread.State.WAITING
+        && thread.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(1);
+    }
+  }
+
   public void testMaxSize() {
     for (Striped<?> striped : ImmutableList.of(
         Striped.lazyWeakLock(Integer.MAX_VALUE),
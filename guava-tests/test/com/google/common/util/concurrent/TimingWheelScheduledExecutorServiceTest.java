@@ -0,0 +1,289 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import junit.framework.TestCase;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests for {@link TimingWheelScheduledExecutorService}.
+ */
+public class TimingWheelScheduledExecutorServiceTest extends TestCase {
+  private TimingWheelScheduledExecutorService executor;
+
+  @Override protected void setUp() throws Exception {
+    super.setUp();
+    // a tiny wheel, so that tasks move across several levels
+    executor = TimingWheelScheduledExecutorService.newBuilder()
+        .tickDuration(1, MILLISECONDS)
+        .ticksPerWheel(4)
+        .build(MoreExecutors.sameThreadExecutor());
+  }
+
+  @Override protected void tearDown() throws Exception {
+    executor.shutdownNow();
+    super.tearDown();
+  }
+
+  public void testSchedule_neverEarly() throws Exception {
+    long start = System.nanoTime();
+    ListenableScheduledFuture<Long> elapsed = executor.schedule(new Callable<Long>() {
+      @Override public Long call() {
+        return System.nanoTime();
+      }
+    }, 50, MILLISECONDS);
+    assertTrue(elapsed.getDelay(MILLISECONDS) > 0);
+    assertTrue(elapsed.get(10, SECONDS) - start >= MILLISECONDS.toNanos(50));
+    assertTrue(elapsed.getDelay(NANOSECONDS) <= 0);
+  }
+
+  public void testSchedule_orderedByDeadline() throws Exception {
+    final List<Integer> order = Lists.newCopyOnWriteArrayList();
+    List<ListenableFuture<?>> futures = Lists.newArrayList();
+    int[] delays = {90, 5, 45, 20, 70, 0};
+    for (final int delay : delays) {
+      futures.add(executor.schedule(new Runnable() {
+        @Override public void run() {
+          order.add(delay);
+        }
+      }, delay, MILLISECONDS));
+    }
+    Futures.allAsList(futures).get(10, SECONDS);
+    assertEquals(ImmutableList.of(0, 5, 20, 45, 70, 90), order);
+  }
+
+  public void testCancel() throws Exception {
+    ListenableScheduledFuture<?> future = executor.schedule(Runnables.doNothing(), 1, HOURS);
+    assertTrue(future.cancel(false));
+    assertTrue(future.isCancelled());
+    // the cancelled task no longer keeps the executor from terminating
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(10, SECONDS));
+  }
+
+  public void testScheduleAtFixedRate() throws Exception {
+    final CountDownLatch runs = new CountDownLatch(5);
+    ListenableScheduledFuture<?> future = executor.scheduleAtFixedRate(new Runnable() {
+      @Override public void run() {
+        runs.countDown();
+      }
+    }, 0, 2, MILLISECONDS);
+    assertTrue(runs.await(10, SECONDS));
+    assertFalse(future.isDone());
+    future.cancel(false);
+  }
+
+  public void testScheduleWithFixedDelay_failure() throws Exception {
+    final AtomicInteger runs = new AtomicInteger();
+    final RuntimeException failure = new RuntimeException();
+    ListenableScheduledFuture<?> future = executor.scheduleWithFixedDelay(new Runnable() {
+      @Override public void run() {
+        if (runs.incrementAndGet() == 3) {
+          throw failure;
+        }
+      }
+    }, 0, 2, MILLISECONDS);
+    try {
+      future.get(10, SECONDS);
+      fail();
+    } catch (ExecutionException expected) {
+      assertSame(failure, expected.getCause());
+    }
+    Thread.sleep(20);
+    assertEquals(3, runs.get());
+  }
+
+  public void testShutdown() throws Exception {
+    ListenableScheduledFuture<String> delayed =
+        executor.schedule(Callables.returning("done"), 20, MILLISECONDS);
+    ListenableScheduledFuture<?> periodic =
+        executor.scheduleAtFixedRate(Runnables.doNothing(), 1, 1, HOURS);
+    executor.shutdown();
+    assertTrue(executor.isShutdown());
+    try {
+      executor.schedule(Runnables.doNothing(), 1, MILLISECONDS);
+      fail();
+    } catch (RejectedExecutionException expected) {
+    }
+    assertTrue(executor.awaitTermination(10, SECONDS));
+    assertTrue(executor.isTerminated());
+    assertEquals("done", delayed.get());
+    assertTrue(periodic.isCancelled());
+  }
+
+  public void testShutdown_concurrentSchedule() throws Exception {
+    for (int round = 0; round < 100; round++) {
+      final TimingWheelScheduledExecutorService racing = TimingWheelScheduledExecutorService
+          .newBuilder().build(MoreExecutors.sameThreadExecutor());
+      int threads = 4;
+      final CountDownLatch start = new CountDownLatch(1);
+      final List<ListenableFuture<?>> accepted = Lists.newCopyOnWriteArrayList();
+      List<Thread> schedulers = Lists.newArrayList();
+      for (int i = 0; i < threads; i++) {
+        Thread thread = new Thread() {
+          @Override public void run() {
+            try {
+              start.await();
+              while (true) {
+                accepted.add(racing.schedule(Runnables.doNothing(), 0, MILLISECONDS));
+              }
+            } catch (RejectedExecutionException expected) {
+            } catch (InterruptedException e) {
+              throw new AssertionError(e);
+            }
+          }
+        };
+        thread.start();
+        schedulers.add(thread);
+      }
+      start.countDown();
+      racing.shutdown();
+      for (Thread thread : schedulers) {
+        thread.join(10000);
+        assertFalse(thread.isAlive());
+      }
+      assertTrue(racing.awaitTermination(10, SECONDS));
+      // every task that was accepted ran
+      for (ListenableFuture<?> future : accepted) {
+        assertTrue(future.isDone());
+        assertFalse(future.isCancelled());
+      }
+    }
+  }
+
+  public void testShutdownNow() throws Exception {
+    ListenableScheduledFuture<?> future = executor.schedule(Runnables.doNothing(), 1, HOURS);
+    List<Runnable> unstarted = executor.shutdownNow();
+    assertEquals(ImmutableList.of(future), unstarted);
+    assertTrue(executor.awaitTermination(10, SECONDS));
+  }
+
+  public void testTaskExecutor() throws Exception {
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      TimingWheelScheduledExecutorService pooled =
+          TimingWheelScheduledExecutorService.newBuilder().build(pool);
+      final Thread[] ranOn = new Thread[1];
+      pooled.schedule(new Runnable() {
+        @Override public void run() {
+          ranOn[0] = Thread.currentThread();
+        }
+      }, 1, MILLISECONDS).get(10, SECONDS);
+      assertNotNull(ranOn[0]);
+      assertNotSame(Thread.currentThread(), ranOn[0]);
+      assertEquals("submitted", pooled.submit(Callables.returning("submitted")).get(10, SECONDS));
+      pooled.shutdown();
+      assertTrue(pooled.awaitTermination(10, SECONDS));
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  public void testRejectedByTaskExecutor() throws Exception {
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    pool.shutdown();
+    TimingWheelScheduledExecutorService rejecting =
+        TimingWheelScheduledExecutorService.newBuilder().build(pool);
+    try {
+      rejecting.schedule(Runnables.doNothing(), 1, MILLISECONDS).get(10, SECONDS);
+      fail();
+    } catch (ExecutionException expected) {
+      assertTrue(expected.getCause() instanceof RejectedExecutionException);
+    } finally {
+      rejecting.shutdownNow();
+    }
+  }
+
+  public void testSimpleTimeLimiter() throws Exception {
+    ExecutorService pool = Executors.newCachedThreadPool();
+    TimingWheelScheduledExecutorService pooled =
+        TimingWheelScheduledExecutorService.newBuilder().build(pool);
+    try {
+      SimpleTimeLimiter limiter = new SimpleTimeLimiter(pooled);
+      assertEquals("fast", limiter.callWithTimeout(
+          Callables.returning("fast"), 10, SECONDS, true));
+      try {
+        limiter.callWithTimeout(new Callable<Void>() {
+          @Override public Void call() throws InterruptedException {
+            Thread.sleep(10000);
+            return null;
+          }
+        }, 10, MILLISECONDS, true);
+        fail();
+      } catch (UncheckedTimeoutException expected) {
+      }
+    } finally {
+      pooled.shutdownNow();
+      pool.shutdownNow();
+    }
+  }
+
+  public void testAbstractScheduledService() throws Exception {
+    final CountDownLatch iterations = new CountDownLatch(3);
+    AbstractScheduledService service = new AbstractScheduledService() {
+      @Override protected void runOneIteration() {
+        iterations.countDown();
+      }
+
+      @Override protected Scheduler scheduler() {
+        return Scheduler.newFixedDelaySchedule(0, 1, MILLISECONDS);
+      }
+
+      @Override protected ScheduledExecutorService executor() {
+        return executor;
+      }
+    };
+    service.startAsync().awaitRunning();
+    assertTrue(iterations.await(10, SECONDS));
+    service.stopAsync().awaitTerminated();
+  }
+
+  public void testBuilder_invalid() {
+    try {
+      TimingWheelScheduledExecutorService.newBuilder().tickDuration(0, MILLISECONDS);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      TimingWheelScheduledExecutorService.newBuilder().ticksPerWheel(6);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+    try {
+      TimingWheelScheduledExecutorService.newBuilder().ticksPerWheel(1);
+      fail();
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
@@ -557,26 +557,52 @@ public final class ArrayTable<R, C, V> extends AbstractTable<R, C, V> implements
   Iterator<Cell<R, C, V>> cellIterator() {
     return new AbstractIndexedListIterator<Cell<R, C, V>>(size()) {
       @Override protected Cell<R, C, V> get(final int index) {
-        return new Tables.AbstractCell<R, C, V>() {
-          final int rowIndex = index / columnList.size();
-          final int columnIndex = index % columnList.size();
-          @Override
-          public R getRowKey() {
-            return rowList.get(rowIndex);
-          }
-          @Override
-          public C getColumnKey() {
-            return columnList.get(columnIndex);
-          }
-          @Override
-          public V getValue() {
-            return at(rowIndex, columnIndex);
-          }
-        };
+        return getCell(index);
       }
     };
   }
 
+  /** Returns the cell at the given position in iteration order. */
+  private Cell<R, C, V> getCell(final int index) {
+    return new Tables.AbstractCell<R, C, V>() {
+      final int rowIndex = index / columnList.size();
+      final int columnIndex = index % columnList.size();
+      @Override
+      public R getRowKey() {
+        return rowList.get(rowIndex);
+      }
+      @Override
+      public C getColumnKey() {
+        return columnList.get(columnIndex);
+      }
+      @Override
+      public V getValue() {
+        return at(rowIndex, columnIndex);
+      }
+    };
+  }
+
+  /** Returns the value at the given position in iteration order. */
+  private V getValue(int index) {
+    return at(index / columnList.size(), index % columnList.size());
+  }
+
+  @GwtIncompatible("SplittableIterable")
+  @Override
+  Set<Cell<R, C, V>> createCellSet() {
+    return new IndexedCellSet();
+  }
+
+  /** The cell set, which parallel traversals can split by index range. */
+  @GwtIncompatible("SplittableIterable")
+  private final class IndexedCellSet extends CellSet
+      implements SplittableIterable.Indexed<Cell<R, C, V>> {
+    @Override
+    public Cell<R, C, V> elementAt(int index) {
+      return getCell(index);
+    }
+  }
+
   /**
    * Returns a view of all mappings that have the given column key. If the
    * column key isn't in {@link #columnKeySet()}, an empty immutable map is
@@ -769,5 +795,30 @@ public final class ArrayTable<R, C, V> extends AbstractTable<R, C, V> implements
     return super.values();
   }
 
+  @Override
+  Iterator<V> valuesIterator() {
+    // Read the values directly, rather than through a cell for each one.
+    return new AbstractIndexedListIterator<V>(size()) {
+      @Override protected V get(int index) {
+        return getValue(index);
+      }
+    };
+  }
+
+  @GwtIncompatible("SplittableIterable")
+  @Override
+  Collection<V> createValues() {
+    return new IndexedValues();
+  }
+
+  /** The values collection, which parallel traversals can split by index range. */
+  @GwtIncompatible("SplittableIterable")
+  private final class IndexedValues extends Values implements SplittableIterable.Indexed<V> {
+    @Override
+    public V elementAt(int index) {
+      return getValue(index);
+    }
+  }
+
   private static final long serialVersionUID = 0;
 }
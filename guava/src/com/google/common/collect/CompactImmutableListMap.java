@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.ObjectArrays.checkElementNotNull;
+
+import com.google.common.annotations.GwtIncompatible;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import javax.annotation.Nullable;
+
+/**
+ * The {@code asMap()} view of an {@link ImmutableListMultimap}, stored in compressed sparse row
+ * form: the values of all keys are in a single array, and an array of offsets gives the range of
+ * that array that holds the values of each key. An open-addressing hash table of ints maps each key
+ * to its position, as in {@link RegularImmutableMap}.
+ *
+ * <p>Unlike an {@code ImmutableMap} of {@code ImmutableList} values, this allocates no object per
+ * key. The lists returned by {@link #get} are views of the shared array, created on each call.
+ */
+@GwtIncompatible("not needed in emulated source")
+final class CompactImmutableListMap<K, V> extends ImmutableMap<K, ImmutableList<V>> {
+  // the distinct keys, in insertion order
+  private final transient Object[] keys;
+  // the values of keys[i] are values[offsets[i]] up to, but not including, values[offsets[i + 1]]
+  private final transient int[] offsets;
+  private final transient Object[] values;
+  // for each slot, the index of the key that hashes there, or ABSENT
+  private final transient int[] table;
+  // 'and' with an int to get a table index
+  private final transient int mask;
+
+  private static final int ABSENT = -1;
+
+  /**
+   * Returns a map with the same keys and values as {@code entries}, the entries of the
+   * {@code asMap()} view of some multimap, leaving out any key whose collection is empty. Returns
+   * {@code null} if every collection is empty.
+   *
+   * @param expectedValueCount the expected total number of values
+   * @throws NullPointerException if any key or value is null
+   */
+  @Nullable
+  static <K, V> CompactImmutableListMap<K, V> copyOf(
+      Collection<? extends Entry<? extends K, ? extends Collection<? extends V>>> entries,
+      int expectedValueCount) {
+    Object[] keys = new Object[entries.size()];
+    int[] offsets = new int[keys.length + 1];
+    Object[] values = new Object[expectedValueCount];
+    int keyCount = 0;
+    int valueCount = 0;
+    for (Entry<? extends K, ? extends Collection<? extends V>> entry : entries) {
+      int start = valueCount;
+      for (V value : entry.getValue()) {
+        if (valueCount == values.length) {
+          values = ObjectArrays.arraysCopyOf(values,
+              ImmutableCollection.Builder.expandedCapacity(values.length, valueCount + 1));
+        }
+        values[valueCount] = checkElementNotNull(value, valueCount - start);
+        valueCount++;
+      }
+      if (valueCount > start) {
+        keys[keyCount] = checkNotNull(entry.getKey());
+        offsets[++keyCount] = valueCount;
+      }
+    }
+    if (keyCount == 0) {
+      return null;
+    }
+    if (keyCount < keys.length) {
+      keys = ObjectArrays.arraysCopyOf(keys, keyCount);
+      offsets = Arrays.copyOf(offsets, keyCount + 1);
+    }
+    if (valueCount < values.length) {
+      values = ObjectArrays.arraysCopyOf(values, valueCount);
+    }
+    return new CompactImmutableListMap<K, V>(keys, offsets, values);
+  }
+
+  /**
+   * Creates a map from arrays laid out as described in the fields of this class, whose keys and
+   * values have already been checked for null.
+   *
+   * @throws IllegalArgumentException if {@code keys} contains duplicates
+   */
+  CompactImmutableListMap(Object[] keys, int[] offsets, Object[] values) {
+    this.keys = keys;
+    this.offsets = offsets;
+    this.values = values;
+    // chooseTableSize doesn't accept sizes below 2
+    int tableSize = ImmutableSet.chooseTableSize(Math.max(keys.length, 2));
+    table = new int[tableSize];
+    Arrays.fill(table, ABSENT);
+    mask = tableSize - 1;
+    for (int keyIndex = 0; keyIndex < keys.length; keyIndex++) {
+      Object key = keys[keyIndex];
+      for (int j = Hashing.smear(key.hashCode()); ; j++) {
+        int tableIndex = j & mask;
+        int existing = table[tableIndex];
+        if (existing == ABSENT) {
+          table[tableIndex] = keyIndex;
+          break;
+        }
+        if (key.equals(keys[existing])) {
+          checkNoConflict(false, "key", entryAt(keyIndex), entryAt(existing));
+        }
+      }
+    }
+  }
+
+  private int indexOf(@Nullable Object key) {
+    if (key == null) {
+      return ABSENT;
+    }
+    for (int j = Hashing.smear(key.hashCode()); ; j++) {
+      int keyIndex = table[j & mask];
+      if (keyIndex == ABSENT || key.equals(keys[keyIndex])) {
+        return keyIndex;
+      }
+    }
+  }
+
+  private ImmutableList<V> valuesAt(int keyIndex) {
+    int start = offsets[keyIndex];
+    return new RegularImmutableList<V>(values, start, offsets[keyIndex + 1] - start);
+  }
+
+  private Entry<K, ImmutableList<V>> entryAt(int keyIndex) {
+    @SuppressWarnings("unchecked") // we only store K's in keys
+    K key = (K) keys[keyIndex];
+    return Maps.immutableEntry(key, valuesAt(keyIndex));
+  }
+
+  /** Returns the number of values of all keys. */
+  int valueCount() {
+    return values.length;
+  }
+
+  @Override public ImmutableList<V> get(@Nullable Object key) {
+    int keyIndex = indexOf(key);
+    return (keyIndex == ABSENT) ? null : valuesAt(keyIndex);
+  }
+
+  @Override public boolean containsKey(@Nullable Object key) {
+    return indexOf(key) != ABSENT;
+  }
+
+  @Override
+  public int size() {
+    return keys.length;
+  }
+
+  @Override boolean isPartialView() {
+    return false;
+  }
+
+  @Override
+  ImmutableSet<Entry<K, ImmutableList<V>>> createEntrySet() {
+    return new ImmutableMapEntrySet<K, ImmutableList<V>>() {
+      @Override ImmutableMap<K, ImmutableList<V>> map() {
+        return CompactImmutableListMap.this;
+      }
+
+      @Override
+      public UnmodifiableIterator<Entry<K, ImmutableList<V>>> iterator() {
+        return asList().iterator();
+      }
+
+      @Override
+      ImmutableList<Entry<K, ImmutableList<V>>> createAsList() {
+        return new ImmutableAsList<Entry<K, ImmutableList<V>>>() {
+          @Override
+          public Entry<K, ImmutableList<V>> get(int index) {
+            checkElementIndex(index, size());
+            return entryAt(index);
+          }
+
+          @Override
+          ImmutableCollection<Entry<K, ImmutableList<V>>> delegateCollection() {
+            return map().entrySet();
+          }
+        };
+      }
+    };
+  }
+
+  @Override
+  ImmutableSet<K> createKeySet() {
+    return new RegularImmutableMap.KeySet<K>(this, ImmutableList.<K>asImmutableList(keys));
+  }
+
+  @Override
+  ImmutableCollection<ImmutableList<V>> createValues() {
+    return new RegularImmutableMap.Values<ImmutableList<V>>(this, new ValuesAsList());
+  }
+
+  @SuppressWarnings("serial") // uses writeReplace(), not default serialization
+  private final class ValuesAsList extends ImmutableList<ImmutableList<V>> {
+    @Override
+    public ImmutableList<V> get(int index) {
+      checkElementIndex(index, size());
+      return valuesAt(index);
+    }
+
+    @Override
+    public int size() {
+      return keys.length;
+    }
+
+    @Override
+    boolean isPartialView() {
+      return true;
+    }
+  }
+
+  /**
+   * Serialized form of a compact map. The lists are read back into an ordinary map first, which
+   * also rejects duplicate keys, and then compacted again.
+   */
+  private static class SerializedForm extends ImmutableMap.SerializedForm {
+    SerializedForm(CompactImmutableListMap<?, ?> map) {
+      super(map);
+    }
+    @Override Object readResolve() {
+      @SuppressWarnings("unchecked") // the values were written as lists
+      ImmutableMap<Object, ImmutableList<Object>> map =
+          (ImmutableMap<Object, ImmutableList<Object>>) super.readResolve();
+      return copyOf(map.entrySet(), map.size());
+    }
+    private static final long serialVersionUID = 0;
+  }
+
+  @Override Object writeReplace() {
+    return new SerializedForm(this);
+  }
+
+  // This class is never actually serialized directly, but we have to make the
+  // warning go away (and suppressing would suppress for all nested classes too)
+  private static final long serialVersionUID = 0;
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.primitives.Longs;
+
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A thread-safe double-ended priority queue: the concurrent counterpart of
+ * {@link MinMaxPriorityQueue}. Like that class, its head is its least element according to its
+ * comparator, the methods {@link #peekLast}, {@link #pollLast} and {@link #removeLast} act on its
+ * greatest element instead, and it can be configured with a maximum size, so that each time it
+ * grows beyond that size it removes its greatest element, which might be the element just added.
+ *
+ * <p>A queue with a maximum size {@code n} keeps the {@code n} least elements offered to it, which
+ * makes it a tracker of the top elements of a stream that many threads can offer to at once,
+ * without the lock that {@link Queues#synchronizedQueue} puts around a {@code MinMaxPriorityQueue}.
+ * Once such a queue is full, an offer of an element no less than its greatest element is rejected
+ * after a single comparison, without writing to any shared state; in a long stream, most offers
+ * end that way.
+ *
+ * <p>The elements are kept in a {@link ConcurrentSkipListMap}, so all operations but {@link #size}
+ * and the retrieval methods {@code peek}, {@code peekFirst} and {@code peekLast} take
+ * {@code O(log n)} expected time. Elements that compare equal are kept in the order in which they
+ * were added.
+ *
+ * <p>Operations are thread-safe, but they are not atomic with respect to each other. While another
+ * thread is adding an element, {@link #peekLast} and iteration may briefly see the greatest element
+ * that the addition is about to evict, and {@link #size} may briefly lag behind. The iterator is
+ * <i>weakly consistent</i>, returns the elements in ascending order, and does not support removal;
+ * neither does {@link #remove(Object)}.
+ *
+ * <p>This class does not accept null elements.
+ *
+ * @since 18.0
+ */
+@Beta
+public final class ConcurrentMinMaxPriorityQueue<E> extends AbstractQueue<E> {
+
+  /**
+   * Creates a new concurrent min-max priority queue with default settings: natural order, no
+   * maximum size and no initial contents.
+   */
+  public static <E extends Comparable<E>> ConcurrentMinMaxPriorityQueue<E> create() {
+    return new Builder<Comparable>(Ordering.natural()).create();
+  }
+
+  /**
+   * Creates and returns a new builder, configured to build {@code ConcurrentMinMaxPriorityQueue}
+   * instances that use {@code comparator} to determine the least and greatest elements.
+   */
+  public static <B> Builder<B> orderedBy(Comparator<B> comparator) {
+    return new Builder<B>(comparator);
+  }
+
+  /**
+   * Creates and returns a new builder, configured to build {@code ConcurrentMinMaxPriorityQueue}
+   * instances that are limited to {@code maximumSize} elements. Each time a queue grows beyond
+   * this bound, it immediately removes its greatest element (according to its comparator), which
+   * might be the element that was just added.
+   */
+  public static Builder<Comparable> maximumSize(int maximumSize) {
+    return new Builder<Comparable>(Ordering.natural()).maximumSize(maximumSize);
+  }
+
+  /**
+   * The builder class used in creation of concurrent min-max priority queues. Instead of
+   * constructing one directly, use {@link ConcurrentMinMaxPriorityQueue#orderedBy(Comparator)} or
+   * {@link ConcurrentMinMaxPriorityQueue#maximumSize(int)}.
+   *
+   * @param <B> the upper bound on the eventual type that can be produced by this builder, as in
+   *     {@link MinMaxPriorityQueue.Builder}
+   * @since 18.0
+   */
+  @Beta
+  public static final class Builder<B> {
+    private final Comparator<B> comparator;
+    private int maximumSize = Integer.MAX_VALUE;
+
+    private Builder(Comparator<B> comparator) {
+      this.comparator = checkNotNull(comparator);
+    }
+
+    /**
+     * Configures this builder to build {@code ConcurrentMinMaxPriorityQueue} instances that are
+     * limited to {@code maximumSize} elements. Each time a queue grows beyond this bound, it
+     * immediately removes its greatest element (according to its comparator), which might be the
+     * element that was just added.
+     */
+    public Builder<B> maximumSize(int maximumSize) {
+      checkArgument(maximumSize > 0);
+      this.maximumSize = maximumSize;
+      return this;
+    }
+
+    /**
+     * Builds a new concurrent min-max priority queue using the previously specified options, and
+     * having no initial contents.
+     */
+    public <T extends B> ConcurrentMinMaxPriorityQueue<T> create() {
+      return create(Collections.<T>emptySet());
+    }
+
+    /**
+     * Builds a new concurrent min-max priority queue using the previously specified options, and
+     * having the given initial elements.
+     */
+    public <T extends B> ConcurrentMinMaxPriorityQueue<T> create(
+        Iterable<? extends T> initialContents) {
+      ConcurrentMinMaxPriorityQueue<T> queue = new ConcurrentMinMaxPriorityQueue<T>(this);
+      for (T element : initialContents) {
+        queue.offer(element);
+      }
+      return queue;
+    }
+
+    @SuppressWarnings("unchecked") // safe "contravariant cast"
+    private <T extends B> Ordering<T> ordering() {
+      return Ordering.from((Comparator<T>) comparator);
+    }
+  }
+
+  /**
+   * An element of the queue, with the number of the offer that added it, which breaks ties between
+   * equal elements so that every node in the map is distinct.
+   */
+  private static final class Node<E> {
+    final E element;
+    final long sequence;
+
+    Node(E element, long sequence) {
+      this.element = element;
+      this.sequence = sequence;
+    }
+  }
+
+  private final Ordering<E> ordering;
+  @VisibleForTesting final int maximumSize;
+  private final ConcurrentSkipListMap<Node<E>, Boolean> nodes;
+  private final AtomicLong nextSequence = new AtomicLong();
+
+  /*
+   * The number of elements in the queue, not counting elements that are about to be removed.
+   * Additions put their node in the map before they increment count, and removals decrement count
+   * before they take a node out of the map, so the map always holds at least count nodes, plus one
+   * for each removal in progress. An addition that takes count beyond maximumSize evicts the
+   * greatest node; the map then holds more than maximumSize nodes, so the evicted node can't be
+   * one of the least maximumSize elements.
+   */
+  private final AtomicInteger count = new AtomicInteger();
+
+  private ConcurrentMinMaxPriorityQueue(Builder<? super E> builder) {
+    this.ordering = builder.ordering();
+    this.maximumSize = builder.maximumSize;
+    this.nodes = new ConcurrentSkipListMap<Node<E>, Boolean>(new Comparator<Node<E>>() {
+      @Override public int compare(Node<E> a, Node<E> b) {
+        int result = ordering.compare(a.element, b.element);
+        return (result != 0) ? result : Longs.compare(a.sequence, b.sequence);
+      }
+    });
+  }
+
+  @Override public int size() {
+    return Math.min(count.get(), maximumSize);
+  }
+
+  /**
+   * Adds the given element to this queue. If this queue has a maximum size, after adding
+   * {@code element} the queue will automatically evict its greatest element (according to its
+   * comparator), which may be {@code element} itself.
+   *
+   * @return {@code true} always
+   */
+  @Override public boolean add(E element) {
+    offer(element);
+    return true;
+  }
+
+  /**
+   * Adds the given element to this queue. If this queue has a maximum size, after adding
+   * {@code element} the queue will automatically evict its greatest element (according to its
+   * comparator), which may be {@code element} itself.
+   *
+   * @return {@code false} if {@code element} itself was evicted
+   */
+  @Override public boolean offer(E element) {
+    checkNotNull(element);
+    if (count.get() >= maximumSize) {
+      // The queue is full, so an element that is no less than the greatest would be evicted at
+      // once, and a later element equal to it would be evicted first.
+      Map.Entry<Node<E>, Boolean> last = nodes.lastEntry();
+      if (last != null && ordering.compare(element, last.getKey().element) >= 0) {
+        return false;
+      }
+    }
+    Node<E> node = new Node<E>(element, nextSequence.getAndIncrement());
+    nodes.put(node, Boolean.TRUE);
+    if (count.incrementAndGet() > maximumSize) {
+      count.decrementAndGet();
+      return nodes.pollLastEntry().getKey() != node;
+    }
+    return true;
+  }
+
+  /**
+   * Decrements {@link #count} unless it is zero, reserving an element for the caller to take out
+   * of the map.
+   */
+  private boolean reserveRemoval() {
+    while (true) {
+      int current = count.get();
+      if (current == 0) {
+        return false;
+      }
+      if (count.compareAndSet(current, current - 1)) {
+        return true;
+      }
+    }
+  }
+
+  @Override public E poll() {
+    return reserveRemoval() ? nodes.pollFirstEntry().getKey().element : null;
+  }
+
+  @Override public E peek() {
+    return elementOf(nodes.firstEntry());
+  }
+
+  private static <E> E elementOf(Map.Entry<Node<E>, Boolean> entry) {
+    return (entry == null) ? null : entry.getKey().element;
+  }
+
+  /**
+   * Removes and returns the least element of this queue, or returns {@code null} if the queue is
+   * empty.
+   */
+  public E pollFirst() {
+    return poll();
+  }
+
+  /**
+   * Removes and returns the least element of this queue.
+   *
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public E removeFirst() {
+    return remove();
+  }
+
+  /**
+   * Retrieves, but does not remove, the least element of this queue, or returns {@code null} if
+   * the queue is empty.
+   */
+  public E peekFirst() {
+    return peek();
+  }
+
+  /**
+   * Removes and returns the greatest element of this queue, or returns {@code null} if the queue
+   * is empty.
+   */
+  public E pollLast() {
+    return reserveRemoval() ? nodes.pollLastEntry().getKey().element : null;
+  }
+
+  /**
+   * Removes and returns the greatest element of this queue.
+   *
+   * @throws NoSuchElementException if the queue is empty
+   */
+  public E removeLast() {
+    E element = pollLast();
+    if (element == null) {
+      throw new NoSuchElementException();
+    }
+    return element;
+  }
+
+  /**
+   * Retrieves, but does not remove, the greatest element of this queue, or returns {@code null} if
+   * the queue is empty.
+   */
+  public E peekLast() {
+    return elementOf(nodes.lastEntry());
+  }
+
+  /**
+   * Returns a weakly consistent iterator over the elements of this queue, in ascending order. The
+   * iterator does not support removal.
+   */
+  @Override public Iterator<E> iterator() {
+    final Iterator<Node<E>> nodeIterator = nodes.keySet().iterator();
+    return new UnmodifiableIterator<E>() {
+      @Override public boolean hasNext() {
+        return nodeIterator.hasNext();
+      }
+
+      @Override public E next() {
+        return nodeIterator.next().element;
+      }
+    };
+  }
+
+  /**
+   * Returns the comparator used to order the elements in this queue. Obeys the general contract of
+   * {@link java.util.PriorityQueue#comparator}, but returns {@link Ordering#natural} instead of
+   * {@code null} to indicate natural ordering.
+   */
+  public Comparator<? super E> comparator() {
+    return ordering;
+  }
+}
@@ -58,6 +58,10 @@ public abstract class DiscreteDomain<C extends Comparable> {
       implements Serializable {
     private static final IntegerDomain INSTANCE = new IntegerDomain();
 
+    IntegerDomain() {
+      super(true);
+    }
+
     @Override public Integer next(Integer value) {
       int i = value;
       return (i == Integer.MAX_VALUE) ? null : i + 1;
@@ -68,6 +72,10 @@ public abstract class DiscreteDomain<C extends Comparable> {
       return (i == Integer.MIN_VALUE) ? null : i - 1;
     }
 
+    @Override Integer offset(Integer origin, long distance) {
+      return (int) (origin + distance);
+    }
+
     @Override public long distance(Integer start, Integer end) {
       return (long) end - start;
     }
@@ -105,6 +113,10 @@ public abstract class DiscreteDomain<C extends Comparable> {
       implements Serializable {
     private static final LongDomain INSTANCE = new LongDomain();
 
+    LongDomain() {
+      super(true);
+    }
+
     @Override public Long next(Long value) {
       long l = value;
       return (l == Long.MAX_VALUE) ? null : l + 1;
@@ -115,6 +127,10 @@ public abstract class DiscreteDomain<C extends Comparable> {
       return (l == Long.MIN_VALUE) ? null : l - 1;
     }
 
+    @Override Long offset(Long origin, long distance) {
+      return origin + distance;
+    }
+
     @Override public long distance(Long start, Long end) {
       long result = end - start;
       if (end > start && result < 0) { // overflow
@@ -159,6 +175,10 @@ public abstract class DiscreteDomain<C extends Comparable> {
       implements Serializable {
     private static final BigIntegerDomain INSTANCE = new BigIntegerDomain();
 
+    BigIntegerDomain() {
+      super(true);
+    }
+
     private static final BigInteger MIN_LONG =
         BigInteger.valueOf(Long.MIN_VALUE);
     private static final BigInteger MAX_LONG =
@@ -172,6 +192,10 @@ public abstract class DiscreteDomain<C extends Comparable> {
       return value.subtract(BigInteger.ONE);
     }
 
+    @Override BigInteger offset(BigInteger origin, long distance) {
+      return origin.add(BigInteger.valueOf(distance));
+    }
+
     @Override public long distance(BigInteger start, BigInteger end) {
       return end.subtract(start).max(MIN_LONG).min(MAX_LONG).longValue();
     }
@@ -188,8 +212,31 @@ public abstract class DiscreteDomain<C extends Comparable> {
     private static final long serialVersionUID = 0;
   }
   
+  /**
+   * Whether {@link #offset} takes constant time, rather than time proportional to the distance.
+   */
+  final boolean supportsFastOffset;
+
   /** Constructor for use by subclasses. */
-  protected DiscreteDomain() {}
+  protected DiscreteDomain() {
+    this(false);
+  }
+
+  private DiscreteDomain(boolean supportsFastOffset) {
+    this.supportsFastOffset = supportsFastOffset;
+  }
+
+  /**
+   * Returns the value at the given nonnegative distance above {@code origin}, which must exist.
+   * The default implementation calls {@link #next} {@code distance} times.
+   */
+  C offset(C origin, long distance) {
+    C current = origin;
+    for (long i = 0; i < distance; i++) {
+      current = next(current);
+    }
+    return current;
+  }
 
   /**
    * Returns the unique least value of type {@code C} that is greater than
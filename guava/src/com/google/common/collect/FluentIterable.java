@@ -30,6 +30,7 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
 import java.util.SortedSet;
+import java.util.concurrent.Executor;
 
 import javax.annotation.CheckReturnValue;
 import javax.annotation.Nullable;
@@ -157,7 +158,9 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    */
   @CheckReturnValue
   public final FluentIterable<E> filter(Predicate<? super E> predicate) {
-    return from(Iterables.filter(iterable, predicate));
+    Iterable<E> filtered = Iterables.filter(iterable, predicate);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null) ? from(filtered) : splittable.filter(filtered, predicate);
   }
 
   /**
@@ -206,7 +209,9 @@ public abstract class FluentIterable<E> implements Iterable<E> {
    * contains the corresponding element.
    */
   public final <T> FluentIterable<T> transform(Function<? super E, T> function) {
-    return from(Iterables.transform(iterable, function));
+    Iterable<T> transformed = Iterables.transform(iterable, function);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null) ? from(transformed) : splittable.transform(transformed, function);
   }
 
   /**
@@ -334,6 +339,34 @@ public abstract class FluentIterable<E> implements Iterable<E> {
     return ImmutableList.copyOf(iterable);
   }
 
+  /**
+   * Returns an {@code ImmutableList} containing all of the elements from this fluent iterable in
+   * proper sequence, computing them in parallel on {@code executor}.
+   *
+   * <p>The elements can be computed in parallel if this fluent iterable was created from a
+   * {@link java.util.RandomAccess RandomAccess} list or an {@link ImmutableCollection}, followed
+   * only by calls to {@link #filter(Predicate)} and {@link #transform}. The source is then split
+   * into ranges, and the predicates and functions are applied to each range in a separate task,
+   * except for one range that the calling thread processes itself. The elements are still returned
+   * in the order of the source. Otherwise, this method is equivalent to {@link #toList}, and
+   * doesn't use {@code executor}.
+   *
+   * <p>The predicates and functions must be safe to call from several threads at once, and the
+   * source must not be modified during the call. This method blocks until every range is done, so
+   * {@code executor} must not run its tasks on a thread that is itself waiting for this method,
+   * as a pool that is full of such callers would deadlock. If a predicate or function throws an
+   * exception, this method throws it once every range has finished or given up.
+   *
+   * @since 18.0
+   */
+  @Beta
+  @GwtIncompatible("Executor")
+  public final ImmutableList<E> toListInParallel(Executor executor) {
+    checkNotNull(executor);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null) ? toList() : splittable.toList(executor);
+  }
+
   /**
    * Returns an {@code ImmutableList} containing all of the elements from this {@code
    * FluentIterable} in the order specified by {@code comparator}.  To produce an {@code
@@ -358,6 +391,22 @@ public abstract class FluentIterable<E> implements Iterable<E> {
     return ImmutableSet.copyOf(iterable);
   }
 
+  /**
+   * Returns the same set as {@link #toSet}, but computes the elements of this fluent iterable in
+   * parallel on {@code executor}, under the conditions described in {@link #toListInParallel}.
+   * Each range is collected into its own builder, and the builders are combined in order, so each
+   * element keeps the position of its first occurrence.
+   *
+   * @since 18.0
+   */
+  @Beta
+  @GwtIncompatible("Executor")
+  public final ImmutableSet<E> toSetInParallel(Executor executor) {
+    checkNotNull(executor);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null) ? toSet() : splittable.toSet(executor);
+  }
+
   /**
    * Returns an {@code ImmutableSortedSet} containing all of the elements from this {@code
    * FluentIterable} in the order specified by {@code comparator}, with duplicates (determined by
@@ -372,6 +421,27 @@ public abstract class FluentIterable<E> implements Iterable<E> {
     return ImmutableSortedSet.copyOf(comparator, iterable);
   }
 
+  /**
+   * Returns the same set as {@link #toSortedSet}, but computes the elements of this fluent
+   * iterable in parallel on {@code executor}, under the conditions described in
+   * {@link #toListInParallel}. The elements are sorted by the calling thread once every range is
+   * done.
+   *
+   * @throws NullPointerException if any element is null
+   * @since 18.0
+   */
+  @Beta
+  @GwtIncompatible("Executor")
+  public final ImmutableSortedSet<E> toSortedSetInParallel(
+      Comparator<? super E> comparator, Executor executor) {
+    checkNotNull(comparator);
+    checkNotNull(executor);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null)
+        ? toSortedSet(comparator)
+        : splittable.toSortedSet(comparator, executor);
+  }
+
   /**
    * Returns an immutable map for which the elements of this {@code FluentIterable} are the keys in
    * the same order, mapped to values by the given function. If this iterable contains duplicate
@@ -408,6 +478,25 @@ public abstract class FluentIterable<E> implements Iterable<E> {
     return Multimaps.index(iterable, keyFunction);
   }
 
+  /**
+   * Returns the same multimap as {@link #index}, but computes the elements of this fluent iterable
+   * and applies {@code keyFunction} to them in parallel on {@code executor}, under the conditions
+   * described in {@link #toListInParallel}. Each range is collected into its own builder, and the
+   * builders are combined in order, so keys and values appear in the same order as they do in the
+   * result of {@code index}.
+   *
+   * @since 18.0
+   */
+  @Beta
+  @GwtIncompatible("Executor")
+  public final <K> ImmutableListMultimap<K, E> indexInParallel(
+      Function<? super E, K> keyFunction, Executor executor) {
+    checkNotNull(keyFunction);
+    checkNotNull(executor);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null) ? index(keyFunction) : splittable.index(keyFunction, executor);
+  }
+
   /**
    * Returns an immutable map for which the {@link java.util.Map#values} are the elements of this
    * {@code FluentIterable} in the given order, and each key is the product of invoking a supplied
@@ -424,6 +513,31 @@ public abstract class FluentIterable<E> implements Iterable<E> {
     return Maps.uniqueIndex(iterable, keyFunction);
   }
 
+  /**
+   * Returns the same map as {@link #uniqueIndex}, but computes the elements of this fluent
+   * iterable and applies {@code keyFunction} to them in parallel on {@code executor}, under the
+   * conditions described in {@link #toListInParallel}. Each range is collected into its own
+   * builder, and the builders are combined in order, so the entries appear in the same order as
+   * they do in the result of {@code uniqueIndex}.
+   *
+   * @throws IllegalArgumentException if {@code keyFunction} produces the same key for more than one
+   *     value in this fluent iterable
+   * @throws NullPointerException if any element of this fluent iterable is null, or if
+   *     {@code keyFunction} produces {@code null} for any value
+   * @since 18.0
+   */
+  @Beta
+  @GwtIncompatible("Executor")
+  public final <K> ImmutableMap<K, E> uniqueIndexInParallel(
+      Function<? super E, K> keyFunction, Executor executor) {
+    checkNotNull(keyFunction);
+    checkNotNull(executor);
+    SplittableIterable<E> splittable = SplittableIterable.of(this, iterable);
+    return (splittable == null)
+        ? uniqueIndex(keyFunction)
+        : splittable.uniqueIndex(keyFunction, executor);
+  }
+
   /**
    * Returns an array containing all of the elements from this fluent iterable in iteration order.
    *
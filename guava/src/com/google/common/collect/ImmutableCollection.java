@@ -360,5 +360,17 @@ public abstract class ImmutableCollection<E> extends AbstractCollection<E>
       super.addAll(elements);
       return this;
     }
+
+    /**
+     * Appends the contents of {@code builder} to this builder, as if they had been added to this
+     * one after its own.
+     */
+    ArrayBasedBuilder<E> combine(ArrayBasedBuilder<E> builder) {
+      checkNotNull(builder);
+      ensureCapacity(size + builder.size);
+      System.arraycopy(builder.contents, 0, contents, size, builder.size);
+      size += builder.size;
+      return this;
+    }
   }
 }
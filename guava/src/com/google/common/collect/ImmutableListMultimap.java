@@ -23,7 +23,6 @@ import java.io.IOException;
 import java.io.InvalidObjectException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.util.Collection;
 import java.util.Comparator;
 import java.util.Map.Entry;
 
@@ -253,19 +252,12 @@ public class ImmutableListMultimap<K, V>
       }
     }
 
-    ImmutableMap.Builder<K, ImmutableList<V>> builder = ImmutableMap.builder();
-    int size = 0;
-
-    for (Entry<? extends K, ? extends Collection<? extends V>> entry
-        : multimap.asMap().entrySet()) {
-      ImmutableList<V> list = ImmutableList.copyOf(entry.getValue());
-      if (!list.isEmpty()) {
-        builder.put(entry.getKey(), list);
-        size += list.size();
-      }
-    }
-
-    return new ImmutableListMultimap<K, V>(builder.build(), size);
+    // Store the values of all keys in one array, rather than one list per key.
+    CompactImmutableListMap<K, V> map = CompactImmutableListMap.copyOf(
+        multimap.asMap().entrySet(), multimap.size());
+    return (map == null)
+        ? ImmutableListMultimap.<K, V>of()
+        : new ImmutableListMultimap<K, V>(map, map.valueCount());
   }
 
   ImmutableListMultimap(ImmutableMap<K, ImmutableList<V>> map, int size) {
@@ -374,7 +366,10 @@ public class ImmutableListMultimap<K, V>
 
     ImmutableMap<Object, ImmutableList<Object>> tmpMap;
     try {
-      tmpMap = builder.build();
+      // Compact the lists read from the stream into a single array.
+      ImmutableMap<Object, ImmutableList<Object>> compact =
+          CompactImmutableListMap.copyOf(builder.build().entrySet(), tmpSize);
+      tmpMap = (compact == null) ? ImmutableMap.<Object, ImmutableList<Object>>of() : compact;
     } catch (IllegalArgumentException e) {
       throw (InvalidObjectException)
           new InvalidObjectException(e.getMessage()).initCause(e);
@@ -234,6 +234,18 @@ public abstract class ImmutableMap<K, V> implements Map<K, V>, Serializable {
       return this;
     }
 
+    /**
+     * Appends the entries of {@code builder} to this builder, as if they had been put into this
+     * one after its own. The entries are immutable, so they are shared rather than copied.
+     */
+    Builder<K, V> combine(Builder<K, V> builder) {
+      checkNotNull(builder);
+      ensureCapacity(size + builder.size);
+      System.arraycopy(builder.entries, 0, entries, size, builder.size);
+      size += builder.size;
+      return this;
+    }
+
     /*
      * TODO(kevinb): Should build() and the ImmutableBiMap & ImmutableSortedMap
      * versions throw an IllegalStateException instead?
@@ -420,7 +432,11 @@ public abstract class ImmutableMap<K, V> implements Map<K, V>, Serializable {
   @Override
   public ImmutableCollection<V> values() {
     ImmutableCollection<V> result = values;
-    return (result == null) ? values = new ImmutableMapValues<K, V>(this) : result;
+    return (result == null) ? values = createValues() : result;
+  }
+
+  ImmutableCollection<V> createValues() {
+    return new ImmutableMapValues<K, V>(this);
   }
 
   // cached so that this.multimapView().inverse() only computes inverse once
@@ -80,7 +80,7 @@ final class ImmutableMapValues<K, V> extends ImmutableCollection<V> {
   }
 
   @GwtIncompatible("serialization")
-  private static class SerializedForm<V> implements Serializable {
+  static class SerializedForm<V> implements Serializable {
     final ImmutableMap<?, V> map;
     SerializedForm(ImmutableMap<?, V> map) {
       this.map = map;
@@ -247,6 +247,17 @@ public abstract class ImmutableMultimap<K, V> extends AbstractMultimap<K, V>
       return this;
     }
 
+    /**
+     * Appends the mappings of {@code builder} to this builder, as if they had been put into this
+     * one after its own. The values were checked for null when they were put into {@code builder}.
+     */
+    Builder<K, V> combine(Builder<K, V> builder) {
+      for (Map.Entry<K, Collection<V>> entry : builder.builderMultimap.asMap().entrySet()) {
+        builderMultimap.putAll(entry.getKey(), entry.getValue());
+      }
+      return this;
+    }
+
     /**
      * Returns a newly-created immutable multimap.
      */
@@ -0,0 +1,417 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hash map from primitive {@code int} keys to primitive {@code int} values, which boxes neither.
+ * The keys and values are stored in two parallel arrays, using open addressing with linear
+ * probing, so that a mapping costs no object at all. This makes it a compact counter of
+ * {@code int} elements: unlike {@code HashMultiset<Integer>}, {@link #addAndGet} allocates nothing.
+ * Use {@link #asMap} to pass the contents to code that expects a {@code Map<Integer, Integer>}.
+ *
+ * <p>As in {@link com.google.common.util.concurrent.AtomicLongMap AtomicLongMap}, a key that is
+ * not in the map has an implicit value of zero. Unlike in {@code AtomicLongMap}, a key stays in the
+ * map when its value becomes zero, until it is {@linkplain #remove removed}.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since 18.0
+ */
+@Beta
+@GwtIncompatible("ImmutableSet.chooseTableSize")
+public final class IntIntHashMap {
+  /** Marks an empty slot. The key 0 itself is stored outside of the table. */
+  private static final int FREE = 0;
+
+  private static final double LOAD_FACTOR = 0.7;
+
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  /**
+   * Creates an empty {@code IntIntHashMap}.
+   */
+  public static IntIntHashMap create() {
+    return new IntIntHashMap(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates an empty {@code IntIntHashMap} with enough capacity to hold the specified number of
+   * mappings without rehashing.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static IntIntHashMap create(int expectedSize) {
+    checkNonnegative(expectedSize, "expectedSize");
+    return new IntIntHashMap(expectedSize);
+  }
+
+  private int[] keys;
+  private int[] values;
+  private int mask;
+  /** The number of keys in the table, which excludes the key 0. */
+  private int assigned;
+  private boolean hasZeroKey;
+  private int zeroValue;
+  private int modCount;
+
+  private IntIntHashMap(int expectedSize) {
+    allocate(ImmutableSet.chooseTableSize(Math.max(expectedSize, 2)));
+  }
+
+  private void allocate(int tableSize) {
+    keys = new int[tableSize];
+    values = new int[tableSize];
+    mask = tableSize - 1;
+  }
+
+  private int firstSlot(int key) {
+    return Hashing.smear(key) & mask;
+  }
+
+  /**
+   * Returns the slot that holds {@code key}, or -1 if there is none. {@code key} must not be 0.
+   */
+  private int slotOf(int key) {
+    for (int slot = firstSlot(key); ; slot = (slot + 1) & mask) {
+      int candidate = keys[slot];
+      if (candidate == key) {
+        return slot;
+      } else if (candidate == FREE) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Returns the value associated with {@code key}, or zero if there is none.
+   */
+  public int get(int key) {
+    if (key == FREE) {
+      return zeroValue;
+    }
+    int slot = slotOf(key);
+    return (slot < 0) ? 0 : values[slot];
+  }
+
+  /**
+   * Returns {@code true} if this map contains a mapping for {@code key}.
+   */
+  public boolean containsKey(int key) {
+    return (key == FREE) ? hasZeroKey : slotOf(key) >= 0;
+  }
+
+  /**
+   * Associates {@code value} with {@code key}, and returns the value previously associated with
+   * {@code key}, or zero if there was none.
+   */
+  public int put(int key, int value) {
+    int slot = insertionSlot(key);
+    if (slot < 0) {
+      int oldValue = zeroValue;
+      zeroValue = value;
+      return oldValue;
+    }
+    int oldValue = values[slot];
+    values[slot] = value;
+    return oldValue;
+  }
+
+  /**
+   * Adds {@code delta} to the value associated with {@code key}, and returns the new value.
+   */
+  public int addAndGet(int key, int delta) {
+    int slot = insertionSlot(key);
+    if (slot < 0) {
+      return zeroValue += delta;
+    }
+    return values[slot] += delta;
+  }
+
+  /**
+   * Increments by one the value associated with {@code key}, and returns the new value.
+   */
+  public int incrementAndGet(int key) {
+    return addAndGet(key, 1);
+  }
+
+  /**
+   * Returns the slot of {@code key}, adding it with a value of zero if it is absent, or -1 if
+   * {@code key} is 0. The slot stays valid until the next insertion or removal.
+   */
+  private int insertionSlot(int key) {
+    if (key == FREE) {
+      if (!hasZeroKey) {
+        hasZeroKey = true;
+        modCount++;
+      }
+      return -1;
+    }
+    int slot = firstSlot(key);
+    for (int candidate; (candidate = keys[slot]) != FREE; slot = (slot + 1) & mask) {
+      if (candidate == key) {
+        return slot;
+      }
+    }
+    keys[slot] = key;
+    values[slot] = 0;
+    modCount++;
+    if (Hashing.needsResizing(++assigned, keys.length, LOAD_FACTOR)) {
+      rehash(keys.length * 2);
+      slot = slotOf(key);
+    }
+    return slot;
+  }
+
+  private void rehash(int tableSize) {
+    int[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(tableSize);
+    for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+      int key = oldKeys[oldSlot];
+      if (key != FREE) {
+        int slot = firstSlot(key);
+        while (keys[slot] != FREE) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[oldSlot];
+      }
+    }
+  }
+
+  /**
+   * Removes the mapping for {@code key}, and returns the value that was associated with it, or
+   * zero if there was none.
+   */
+  public int remove(int key) {
+    if (key == FREE) {
+      int oldValue = zeroValue;
+      if (hasZeroKey) {
+        hasZeroKey = false;
+        zeroValue = 0;
+        modCount++;
+      }
+      return oldValue;
+    }
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return 0;
+    }
+    int oldValue = values[slot];
+    removeAt(slot);
+    return oldValue;
+  }
+
+  /**
+   * Empties {@code slot}, and moves back the keys that follow it in their probe sequence, so that
+   * no lookup stops early at the new empty slot.
+   */
+  private void removeAt(int slot) {
+    int gap = slot;
+    for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+      // The key at next may fill the gap if the gap is between its first slot and next.
+      if (((next - firstSlot(keys[next])) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+    }
+    keys[gap] = FREE;
+    values[gap] = 0;
+    assigned--;
+    modCount++;
+  }
+
+  /**
+   * Returns the number of mappings in this map.
+   */
+  public int size() {
+    return assigned + (hasZeroKey ? 1 : 0);
+  }
+
+  /**
+   * Returns {@code true} if this map contains no mappings.
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Removes all mappings from this map. The capacity of the map is unchanged.
+   */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    Arrays.fill(values, 0);
+    assigned = 0;
+    hasZeroKey = false;
+    zeroValue = 0;
+    modCount++;
+  }
+
+  /**
+   * Returns a new array containing the keys of this map, in no particular order.
+   */
+  public int[] keys() {
+    int[] result = new int[size()];
+    int i = 0;
+    if (hasZeroKey) {
+      result[i++] = FREE;
+    }
+    for (int key : keys) {
+      if (key != FREE) {
+        result[i++] = key;
+      }
+    }
+    return result;
+  }
+
+  private Map<Integer, Integer> asMap;
+
+  /**
+   * Returns a view of this map as a {@code Map<Integer, Integer>}, which boxes keys and values as
+   * they are read or written. Changes to the view write through to this map, except that its
+   * iterators do not support {@code remove}; the view's {@code remove} methods may be used
+   * instead.
+   */
+  public Map<Integer, Integer> asMap() {
+    Map<Integer, Integer> result = asMap;
+    return (result == null) ? asMap = new AsMap() : result;
+  }
+
+  private final class AsMap extends Maps.ImprovedAbstractMap<Integer, Integer> {
+    @Override
+    public Integer get(@Nullable Object key) {
+      return containsKey(key) ? IntIntHashMap.this.get((Integer) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+      return (key instanceof Integer) && IntIntHashMap.this.containsKey((Integer) key);
+    }
+
+    @Override
+    public Integer put(Integer key, Integer value) {
+      checkNotNull(key);
+      checkNotNull(value);
+      Integer oldValue = get(key);
+      IntIntHashMap.this.put(key, value);
+      return oldValue;
+    }
+
+    @Override
+    public Integer remove(@Nullable Object key) {
+      return containsKey(key) ? IntIntHashMap.this.remove((Integer) key) : null;
+    }
+
+    @Override
+    public int size() {
+      return IntIntHashMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      IntIntHashMap.this.clear();
+    }
+
+    @Override
+    Set<Entry<Integer, Integer>> createEntrySet() {
+      return new Maps.EntrySet<Integer, Integer>() {
+        @Override
+        Map<Integer, Integer> map() {
+          return AsMap.this;
+        }
+
+        @Override
+        public Iterator<Entry<Integer, Integer>> iterator() {
+          return new EntryIterator();
+        }
+      };
+    }
+  }
+
+  private final class EntryIterator extends AbstractIterator<Map.Entry<Integer, Integer>> {
+    private int expectedModCount = modCount;
+    /** The next slot to look at, or -1 if the key 0 hasn't been looked at yet. */
+    private int slot = -1;
+
+    @Override
+    protected Map.Entry<Integer, Integer> computeNext() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (slot == -1) {
+        slot = 0;
+        if (hasZeroKey) {
+          return new MapEntry(FREE, zeroValue);
+        }
+      }
+      while (slot < keys.length) {
+        int current = slot++;
+        if (keys[current] != FREE) {
+          return new MapEntry(keys[current], values[current]);
+        }
+      }
+      return endOfData();
+    }
+  }
+
+  private final class MapEntry extends AbstractMapEntry<Integer, Integer> {
+    private final int key;
+    private int value;
+
+    MapEntry(int key, int value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Integer getKey() {
+      return key;
+    }
+
+    @Override
+    public Integer getValue() {
+      return value;
+    }
+
+    @Override
+    public Integer setValue(Integer value) {
+      int oldValue = put(key, value);
+      this.value = value;
+      return oldValue;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+}
@@ -43,8 +43,6 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.NoSuchElementException;
-import java.util.PriorityQueue;
-import java.util.Queue;
 
 import javax.annotation.Nullable;
 
@@ -1248,6 +1246,9 @@ public final class Iterators {
    * <p>For any equivalent elements across all {@code iterators}, it is
    * undefined which element is returned first.
    *
+   * <p>Each element takes about log<sub>2</sub>(k) comparisons to merge, for
+   * {@code k} iterators.
+   *
    * @since 11.0
    */
   @Beta
@@ -1261,50 +1262,115 @@ public final class Iterators {
   }
 
   /**
-   * An iterator that performs a lazy N-way merge, calculating the next value
-   * each time the iterator is polled. This amortizes the sorting cost over the
-   * iteration and requires less memory than sorting all elements at once.
-   *
-   * <p>Retrieving a single element takes approximately O(log(M)) time, where M
-   * is the number of iterators. (Retrieving all elements takes approximately
-   * O(N*log(M)) time, where N is the total number of elements.)
+   * An iterator that merges sorted iterators with a tree of losers. Each leaf
+   * of the tree is one of the iterators, and each internal node holds the
+   * iterator whose next element lost the comparison played at that node, while
+   * the winner moves on up the tree; the overall winner is kept at the root.
+   * Taking the next element then replays only the comparisons on the path from
+   * the winning leaf to the root: about log2(k) comparisons for k iterators,
+   * with no objects allocated per element, whereas a heap needs up to twice as
+   * many and reinserts an iterator each time.
+   *
+   * <p>Ties are won by the iterator that came first in the input.
    */
   private static class MergingIterator<T> extends UnmodifiableIterator<T> {
-    final Queue<PeekingIterator<T>> queue;
+    private final Comparator<? super T> itemComparator;
+    private final Iterator<? extends T>[] iterators;
+    // the next element of each iterator that has one
+    private final Object[] heads;
+    private final boolean[] exhausted;
+    // tree[0] is the index of the winning iterator, and tree[1..k) the losers
+    // at each node, where the children of node n are nodes 2n and 2n + 1, and
+    // iterator i is the leaf at node k + i
+    private final int[] tree;
 
     public MergingIterator(Iterable<? extends Iterator<? extends T>> iterators,
-        final Comparator<? super T> itemComparator) {
-      // A comparator that's used by the heap, allowing the heap
-      // to be sorted based on the top of each iterator.
-      Comparator<PeekingIterator<T>> heapComparator =
-          new Comparator<PeekingIterator<T>>() {
-            @Override
-            public int compare(PeekingIterator<T> o1, PeekingIterator<T> o2) {
-              return itemComparator.compare(o1.peek(), o2.peek());
-            }
-          };
-
-      queue = new PriorityQueue<PeekingIterator<T>>(2, heapComparator);
-
+        Comparator<? super T> itemComparator) {
+      this.itemComparator = itemComparator;
+      List<Iterator<? extends T>> nonEmpty = Lists.newArrayList();
       for (Iterator<? extends T> iterator : iterators) {
         if (iterator.hasNext()) {
-          queue.add(Iterators.peekingIterator(iterator));
+          nonEmpty.add(iterator);
+        }
+      }
+      int k = nonEmpty.size();
+      @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+      Iterator<? extends T>[] array = nonEmpty.toArray(new Iterator[k]);
+      this.iterators = array;
+      heads = new Object[k];
+      exhausted = new boolean[k];
+      for (int i = 0; i < k; i++) {
+        heads[i] = array[i].next();
+      }
+      tree = new int[Math.max(k, 1)];
+      if (k == 0) {
+        return;
+      }
+      // Play the initial tournament from the leaves up, remembering the winner
+      // at each node.
+      int[] winners = new int[2 * k];
+      for (int i = 0; i < k; i++) {
+        winners[k + i] = i;
+      }
+      for (int node = k - 1; node >= 1; node--) {
+        int left = winners[2 * node];
+        int right = winners[2 * node + 1];
+        if (beats(left, right)) {
+          winners[node] = left;
+          tree[node] = right;
+        } else {
+          winners[node] = right;
+          tree[node] = left;
         }
       }
+      tree[0] = (k == 1) ? 0 : winners[1];
+    }
+
+    /**
+     * Returns whether the head of iterator {@code a} should be returned before
+     * that of {@code b}.
+     */
+    private boolean beats(int a, int b) {
+      if (exhausted[a] || exhausted[b]) {
+        return exhausted[b] && (!exhausted[a] || a < b);
+      }
+      @SuppressWarnings("unchecked") // we only store T's in heads
+      T headA = (T) heads[a];
+      @SuppressWarnings("unchecked") // we only store T's in heads
+      T headB = (T) heads[b];
+      int comparison = itemComparator.compare(headA, headB);
+      return comparison < 0 || (comparison == 0 && a < b);
     }
 
     @Override
     public boolean hasNext() {
-      return !queue.isEmpty();
+      return iterators.length > 0 && !exhausted[tree[0]];
     }
 
     @Override
     public T next() {
-      PeekingIterator<T> nextIter = queue.remove();
-      T next = nextIter.next();
-      if (nextIter.hasNext()) {
-        queue.add(nextIter);
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      int winner = tree[0];
+      @SuppressWarnings("unchecked") // we only store T's in heads
+      T next = (T) heads[winner];
+      if (iterators[winner].hasNext()) {
+        heads[winner] = iterators[winner].next();
+      } else {
+        heads[winner] = null;
+        exhausted[winner] = true;
+      }
+      // Replay the comparisons on the path from the winner's leaf to the root.
+      for (int node = (winner + iterators.length) >>> 1; node >= 1;
+          node >>>= 1) {
+        int loser = tree[node];
+        if (beats(loser, winner)) {
+          tree[node] = winner;
+          winner = loser;
+        }
       }
+      tree[0] = winner;
       return next;
     }
   }
@@ -0,0 +1,314 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Longs;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hash set of primitive {@code long} values, which doesn't box them. The values are stored in an
+ * array, using open addressing with linear probing, so that an element costs no object. Use
+ * {@link #asSet} to pass the contents to code that expects a {@code Set<Long>}.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since 18.0
+ */
+@Beta
+@GwtIncompatible("ImmutableSet.chooseTableSize")
+public final class LongHashSet {
+  /** Marks an empty slot. The element 0 itself is stored outside of the table. */
+  private static final long FREE = 0L;
+
+  private static final double LOAD_FACTOR = 0.7;
+
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  /**
+   * Creates an empty {@code LongHashSet}.
+   */
+  public static LongHashSet create() {
+    return new LongHashSet(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates an empty {@code LongHashSet} with enough capacity to hold the specified number of
+   * elements without rehashing.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static LongHashSet create(int expectedSize) {
+    checkNonnegative(expectedSize, "expectedSize");
+    return new LongHashSet(expectedSize);
+  }
+
+  /**
+   * Creates a {@code LongHashSet} containing the given elements.
+   */
+  public static LongHashSet of(long... elements) {
+    LongHashSet set = new LongHashSet(elements.length);
+    for (long element : elements) {
+      set.add(element);
+    }
+    return set;
+  }
+
+  private long[] table;
+  private int mask;
+  /** The number of elements in the table, which excludes the element 0. */
+  private int assigned;
+  private boolean containsZero;
+  private int modCount;
+
+  private LongHashSet(int expectedSize) {
+    allocate(ImmutableSet.chooseTableSize(Math.max(expectedSize, 2)));
+  }
+
+  private void allocate(int tableSize) {
+    table = new long[tableSize];
+    mask = tableSize - 1;
+  }
+
+  private int firstSlot(long element) {
+    return Hashing.smear(Longs.hashCode(element)) & mask;
+  }
+
+  /**
+   * Returns the slot that holds {@code element}, or -1 if there is none. {@code element} must not
+   * be 0.
+   */
+  private int slotOf(long element) {
+    for (int slot = firstSlot(element); ; slot = (slot + 1) & mask) {
+      long candidate = table[slot];
+      if (candidate == element) {
+        return slot;
+      } else if (candidate == FREE) {
+        return -1;
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if this set contains {@code element}.
+   */
+  public boolean contains(long element) {
+    return (element == FREE) ? containsZero : slotOf(element) >= 0;
+  }
+
+  /**
+   * Adds {@code element} to this set, and returns {@code true} if it was not already present.
+   */
+  public boolean add(long element) {
+    if (element == FREE) {
+      if (containsZero) {
+        return false;
+      }
+      containsZero = true;
+      modCount++;
+      return true;
+    }
+    int slot = firstSlot(element);
+    for (long candidate; (candidate = table[slot]) != FREE; slot = (slot + 1) & mask) {
+      if (candidate == element) {
+        return false;
+      }
+    }
+    table[slot] = element;
+    modCount++;
+    if (Hashing.needsResizing(++assigned, table.length, LOAD_FACTOR)) {
+      rehash(table.length * 2);
+    }
+    return true;
+  }
+
+  private void rehash(int tableSize) {
+    long[] oldTable = table;
+    allocate(tableSize);
+    for (long element : oldTable) {
+      if (element != FREE) {
+        int slot = firstSlot(element);
+        while (table[slot] != FREE) {
+          slot = (slot + 1) & mask;
+        }
+        table[slot] = element;
+      }
+    }
+  }
+
+  /**
+   * Removes {@code element} from this set, and returns {@code true} if it was present.
+   */
+  public boolean remove(long element) {
+    if (element == FREE) {
+      if (!containsZero) {
+        return false;
+      }
+      containsZero = false;
+      modCount++;
+      return true;
+    }
+    int slot = slotOf(element);
+    if (slot < 0) {
+      return false;
+    }
+    removeAt(slot);
+    return true;
+  }
+
+  /**
+   * Empties {@code slot}, and moves back the elements that follow it in their probe sequence, so
+   * that no lookup stops early at the new empty slot.
+   */
+  private void removeAt(int slot) {
+    int gap = slot;
+    for (int next = (gap + 1) & mask; table[next] != FREE; next = (next + 1) & mask) {
+      // The element at next may fill the gap if the gap is between its first slot and next.
+      if (((next - firstSlot(table[next])) & mask) >= ((next - gap) & mask)) {
+        table[gap] = table[next];
+        gap = next;
+      }
+    }
+    table[gap] = FREE;
+    assigned--;
+    modCount++;
+  }
+
+  /**
+   * Returns the number of elements in this set.
+   */
+  public int size() {
+    return assigned + (containsZero ? 1 : 0);
+  }
+
+  /**
+   * Returns {@code true} if this set contains no elements.
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Removes all elements from this set. The capacity of the set is unchanged.
+   */
+  public void clear() {
+    Arrays.fill(table, FREE);
+    assigned = 0;
+    containsZero = false;
+    modCount++;
+  }
+
+  /**
+   * Returns a new array containing the elements of this set, in no particular order.
+   */
+  public long[] toArray() {
+    long[] result = new long[size()];
+    int i = 0;
+    if (containsZero) {
+      result[i++] = FREE;
+    }
+    for (long element : table) {
+      if (element != FREE) {
+        result[i++] = element;
+      }
+    }
+    return result;
+  }
+
+  private Set<Long> asSet;
+
+  /**
+   * Returns a view of this set as a {@code Set<Long>}, which boxes elements as they are read or
+   * written. Changes to the view write through to this set, except that its iterators do not
+   * support {@code remove}; the view's {@code remove} methods may be used instead.
+   */
+  public Set<Long> asSet() {
+    Set<Long> result = asSet;
+    return (result == null) ? asSet = new AsSet() : result;
+  }
+
+  private final class AsSet extends AbstractSet<Long> {
+    @Override
+    public boolean contains(@Nullable Object object) {
+      return (object instanceof Long) && LongHashSet.this.contains((Long) object);
+    }
+
+    @Override
+    public boolean add(Long element) {
+      return LongHashSet.this.add(element);
+    }
+
+    @Override
+    public boolean remove(@Nullable Object object) {
+      return (object instanceof Long) && LongHashSet.this.remove((Long) object);
+    }
+
+    @Override
+    public int size() {
+      return LongHashSet.this.size();
+    }
+
+    @Override
+    public void clear() {
+      LongHashSet.this.clear();
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+      return new AbstractIterator<Long>() {
+        private int expectedModCount = modCount;
+        /** The next slot to look at, or -1 if 0 hasn't been looked at yet. */
+        private int slot = -1;
+
+        @Override
+        protected Long computeNext() {
+          if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+          }
+          if (slot == -1) {
+            slot = 0;
+            if (containsZero) {
+              return FREE;
+            }
+          }
+          while (slot < table.length) {
+            long element = table[slot++];
+            if (element != FREE) {
+              return element;
+            }
+          }
+          return endOfData();
+        }
+      };
+    }
+  }
+
+  @Override
+  public String toString() {
+    return asSet().toString();
+  }
+}
@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.primitives.Longs;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A hash map from primitive {@code long} keys to non-null values, which doesn't box its keys. The
+ * keys and values are stored in two parallel arrays, using open addressing with linear probing, so
+ * that a mapping costs no object beyond its value. Use {@link #asMap} to pass the contents to code
+ * that expects a {@code Map<Long, V>}.
+ *
+ * <p>This class is not thread-safe.
+ *
+ * @since 18.0
+ */
+@Beta
+@GwtIncompatible("ImmutableSet.chooseTableSize")
+public final class LongObjectHashMap<V> {
+  /** Marks an empty slot. The key 0 itself is stored outside of the table. */
+  private static final long FREE = 0L;
+
+  private static final double LOAD_FACTOR = 0.7;
+
+  private static final int DEFAULT_EXPECTED_SIZE = 8;
+
+  /**
+   * Creates an empty {@code LongObjectHashMap}.
+   */
+  public static <V> LongObjectHashMap<V> create() {
+    return new LongObjectHashMap<V>(DEFAULT_EXPECTED_SIZE);
+  }
+
+  /**
+   * Creates an empty {@code LongObjectHashMap} with enough capacity to hold the specified number
+   * of mappings without rehashing.
+   *
+   * @throws IllegalArgumentException if {@code expectedSize} is negative
+   */
+  public static <V> LongObjectHashMap<V> create(int expectedSize) {
+    checkNonnegative(expectedSize, "expectedSize");
+    return new LongObjectHashMap<V>(expectedSize);
+  }
+
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  /** The number of keys in the table, which excludes the key 0. */
+  private int assigned;
+  /** The value of the key 0, or null if it is absent. */
+  @Nullable private V zeroValue;
+  private int modCount;
+
+  private LongObjectHashMap(int expectedSize) {
+    allocate(ImmutableSet.chooseTableSize(Math.max(expectedSize, 2)));
+  }
+
+  private void allocate(int tableSize) {
+    keys = new long[tableSize];
+    values = new Object[tableSize];
+    mask = tableSize - 1;
+  }
+
+  private int firstSlot(long key) {
+    return Hashing.smear(Longs.hashCode(key)) & mask;
+  }
+
+  /**
+   * Returns the slot that holds {@code key}, or -1 if there is none. {@code key} must not be 0.
+   */
+  private int slotOf(long key) {
+    for (int slot = firstSlot(key); ; slot = (slot + 1) & mask) {
+      long candidate = keys[slot];
+      if (candidate == key) {
+        return slot;
+      } else if (candidate == FREE) {
+        return -1;
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked") // we only put V's in values
+  private V valueAt(int slot) {
+    return (V) values[slot];
+  }
+
+  /**
+   * Returns the value associated with {@code key}, or {@code null} if there is none.
+   */
+  @Nullable
+  public V get(long key) {
+    if (key == FREE) {
+      return zeroValue;
+    }
+    int slot = slotOf(key);
+    return (slot < 0) ? null : valueAt(slot);
+  }
+
+  /**
+   * Returns {@code true} if this map contains a mapping for {@code key}.
+   */
+  public boolean containsKey(long key) {
+    return (key == FREE) ? zeroValue != null : slotOf(key) >= 0;
+  }
+
+  /**
+   * Associates {@code value} with {@code key}, and returns the value previously associated with
+   * {@code key}, or {@code null} if there was none.
+   */
+  @Nullable
+  public V put(long key, V value) {
+    checkNotNull(value);
+    if (key == FREE) {
+      V oldValue = zeroValue;
+      zeroValue = value;
+      if (oldValue == null) {
+        modCount++;
+      }
+      return oldValue;
+    }
+    int slot = firstSlot(key);
+    for (long candidate; (candidate = keys[slot]) != FREE; slot = (slot + 1) & mask) {
+      if (candidate == key) {
+        V oldValue = valueAt(slot);
+        values[slot] = value;
+        return oldValue;
+      }
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    modCount++;
+    if (Hashing.needsResizing(++assigned, keys.length, LOAD_FACTOR)) {
+      rehash(keys.length * 2);
+    }
+    return null;
+  }
+
+  private void rehash(int tableSize) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(tableSize);
+    for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+      long key = oldKeys[oldSlot];
+      if (key != FREE) {
+        int slot = firstSlot(key);
+        while (keys[slot] != FREE) {
+          slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = oldValues[oldSlot];
+      }
+    }
+  }
+
+  /**
+   * Removes the mapping for {@code key}, and returns the value that was associated with it, or
+   * {@code null} if there was none.
+   */
+  @Nullable
+  public V remove(long key) {
+    if (key == FREE) {
+      V oldValue = zeroValue;
+      zeroValue = null;
+      if (oldValue != null) {
+        modCount++;
+      }
+      return oldValue;
+    }
+    int slot = slotOf(key);
+    if (slot < 0) {
+      return null;
+    }
+    V oldValue = valueAt(slot);
+    removeAt(slot);
+    return oldValue;
+  }
+
+  /**
+   * Empties {@code slot}, and moves back the keys that follow it in their probe sequence, so that
+   * no lookup stops early at the new empty slot.
+   */
+  private void removeAt(int slot) {
+    int gap = slot;
+    for (int next = (gap + 1) & mask; keys[next] != FREE; next = (next + 1) & mask) {
+      // The key at next may fill the gap if the gap is between its first slot and next.
+      if (((next - firstSlot(keys[next])) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+    }
+    keys[gap] = FREE;
+    values[gap] = null;
+    assigned--;
+    modCount++;
+  }
+
+  /**
+   * Returns the number of mappings in this map.
+   */
+  public int size() {
+    return assigned + ((zeroValue == null) ? 0 : 1);
+  }
+
+  /**
+   * Returns {@code true} if this map contains no mappings.
+   */
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  /**
+   * Removes all mappings from this map. The capacity of the map is unchanged.
+   */
+  public void clear() {
+    Arrays.fill(keys, FREE);
+    Arrays.fill(values, null);
+    assigned = 0;
+    zeroValue = null;
+    modCount++;
+  }
+
+  /**
+   * Returns a new array containing the keys of this map, in no particular order.
+   */
+  public long[] keys() {
+    long[] result = new long[size()];
+    int i = 0;
+    if (zeroValue != null) {
+      result[i++] = FREE;
+    }
+    for (long key : keys) {
+      if (key != FREE) {
+        result[i++] = key;
+      }
+    }
+    return result;
+  }
+
+  private Map<Long, V> asMap;
+
+  /**
+   * Returns a view of this map as a {@code Map<Long, V>}, which boxes keys as they are read or
+   * written. Changes to the view write through to this map, except that its iterators do not
+   * support {@code remove}; the view's {@code remove} methods may be used instead.
+   */
+  public Map<Long, V> asMap() {
+    Map<Long, V> result = asMap;
+    return (result == null) ? asMap = new AsMap() : result;
+  }
+
+  private final class AsMap extends Maps.ImprovedAbstractMap<Long, V> {
+    @Override
+    public V get(@Nullable Object key) {
+      return (key instanceof Long) ? LongObjectHashMap.this.get((Long) key) : null;
+    }
+
+    @Override
+    public boolean containsKey(@Nullable Object key) {
+      return (key instanceof Long) && LongObjectHashMap.this.containsKey((Long) key);
+    }
+
+    @Override
+    public V put(Long key, V value) {
+      return LongObjectHashMap.this.put(key, value);
+    }
+
+    @Override
+    public V remove(@Nullable Object key) {
+      return (key instanceof Long) ? LongObjectHashMap.this.remove((Long) key) : null;
+    }
+
+    @Override
+    public int size() {
+      return LongObjectHashMap.this.size();
+    }
+
+    @Override
+    public void clear() {
+      LongObjectHashMap.this.clear();
+    }
+
+    @Override
+    Set<Entry<Long, V>> createEntrySet() {
+      return new Maps.EntrySet<Long, V>() {
+        @Override
+        Map<Long, V> map() {
+          return AsMap.this;
+        }
+
+        @Override
+        public Iterator<Entry<Long, V>> iterator() {
+          return new EntryIterator();
+        }
+      };
+    }
+  }
+
+  private final class EntryIterator extends AbstractIterator<Map.Entry<Long, V>> {
+    private int expectedModCount = modCount;
+    /** The next slot to look at, or -1 if the key 0 hasn't been looked at yet. */
+    private int slot = -1;
+
+    @Override
+    protected Map.Entry<Long, V> computeNext() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (slot == -1) {
+        slot = 0;
+        if (zeroValue != null) {
+          return new MapEntry(FREE, zeroValue);
+        }
+      }
+      while (slot < keys.length) {
+        int current = slot++;
+        if (keys[current] != FREE) {
+          return new MapEntry(keys[current], valueAt(current));
+        }
+      }
+      return endOfData();
+    }
+  }
+
+  private final class MapEntry extends AbstractMapEntry<Long, V> {
+    private final long key;
+    private V value;
+
+    MapEntry(long key, V value) {
+      this.key = key;
+      this.value = value;
+    }
+
+    @Override
+    public Long getKey() {
+      return key;
+    }
+
+    @Override
+    public V getValue() {
+      return value;
+    }
+
+    @Override
+    public V setValue(V value) {
+      V oldValue = put(key, value);
+      this.value = value;
+      return oldValue;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return asMap().toString();
+  }
+}
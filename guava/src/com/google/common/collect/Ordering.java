@@ -19,7 +19,9 @@ package com.google.common.collect;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.CollectPreconditions.checkNonnegative;
 
+import com.google.common.annotations.Beta;
 import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
 
@@ -36,6 +38,7 @@ import java.util.NoSuchElementException;
 import java.util.SortedMap;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Nullable;
@@ -662,97 +665,9 @@ public abstract class Ordering<T> implements Comparator<T> {
       return Collections.unmodifiableList(list);
     }
 
-    /*
-     * Our goal is an O(n) algorithm using only one pass and O(k) additional
-     * memory.
-     *
-     * We use the following algorithm: maintain a buffer of size 2*k. Every time
-     * the buffer gets full, find the median and partition around it, keeping
-     * only the lowest k elements.  This requires n/k find-median-and-partition
-     * steps, each of which take O(k) time with a traditional quickselect.
-     *
-     * After sorting the output, the whole algorithm is O(n + k log k). It
-     * degrades gracefully for worst-case input (descending order), performs
-     * competitively or wins outright for randomly ordered input, and doesn't
-     * require the whole collection to fit into memory.
-     */
-    int bufferCap = k * 2;
-    @SuppressWarnings("unchecked") // we'll only put E's in
-    E[] buffer = (E[]) new Object[bufferCap];
-    E threshold = elements.next();
-    buffer[0] = threshold;
-    int bufferSize = 1;
-    // threshold is the kth smallest element seen so far.  Once bufferSize >= k,
-    // anything larger than threshold can be ignored immediately.
-
-    while (bufferSize < k && elements.hasNext()) {
-      E e = elements.next();
-      buffer[bufferSize++] = e;
-      threshold = max(threshold, e);
-    }
-
-    while (elements.hasNext()) {
-      E e = elements.next();
-      if (compare(e, threshold) >= 0) {
-        continue;
-      }
-
-      buffer[bufferSize++] = e;
-      if (bufferSize == bufferCap) {
-        // We apply the quickselect algorithm to partition about the median,
-        // and then ignore the last k elements.
-        int left = 0;
-        int right = bufferCap - 1;
-
-        int minThresholdPosition = 0;
-        // The leftmost position at which the greatest of the k lower elements
-        // -- the new value of threshold -- might be found.
-
-        while (left < right) {
-          int pivotIndex = (left + right + 1) >>> 1;
-          int pivotNewIndex = partition(buffer, left, right, pivotIndex);
-          if (pivotNewIndex > k) {
-            right = pivotNewIndex - 1;
-          } else if (pivotNewIndex < k) {
-            left = Math.max(pivotNewIndex, left + 1);
-            minThresholdPosition = pivotNewIndex;
-          } else {
-            break;
-          }
-        }
-        bufferSize = k;
-
-        threshold = buffer[minThresholdPosition];
-        for (int i = minThresholdPosition + 1; i < bufferSize; i++) {
-          threshold = max(threshold, buffer[i]);
-        }
-      }
-    }
-
-    Arrays.sort(buffer, 0, bufferSize, this);
-
-    bufferSize = Math.min(bufferSize, k);
-    return Collections.unmodifiableList(
-        Arrays.asList(ObjectArrays.arraysCopyOf(buffer, bufferSize)));
-    // We can't use ImmutableList; we have to be null-friendly!
-  }
-
-  private <E extends T> int partition(
-      E[] values, int left, int right, int pivotIndex) {
-    E pivotValue = values[pivotIndex];
-
-    values[pivotIndex] = values[right];
-    values[right] = pivotValue;
-
-    int storeIndex = left;
-    for (int i = left; i < right; i++) {
-      if (compare(values[i], pivotValue) < 0) {
-        ObjectArrays.swap(values, storeIndex, i);
-        storeIndex++;
-      }
-    }
-    ObjectArrays.swap(values, right, storeIndex);
-    return storeIndex;
+    TopKSelector<E> selector = TopKSelector.least(k, this);
+    selector.offerAll(elements);
+    return selector.topK();
   }
 
   /**
@@ -818,6 +733,58 @@ public abstract class Ordering<T> implements Comparator<T> {
     return Lists.newArrayList(Arrays.asList(array));
   }
 
+  /**
+   * Returns a <b>mutable</b> list containing {@code elements} sorted by this
+   * ordering, like {@link #sortedCopy}, but sorts large inputs in parallel on
+   * {@code executor}: the elements are split into runs that are sorted as
+   * separate tasks, one of them by the calling thread, and the calling thread
+   * then merges the sorted runs with {@link Iterators#mergeSorted}. Inputs too
+   * small to be worth splitting are sorted by the calling thread alone. The
+   * sort is stable, like that of {@link #sortedCopy}.
+   *
+   * <p>This ordering must be safe to use from several threads at once. This
+   * method waits for all the tasks it gives to {@code executor}, so the
+   * executor must not run them on a thread that is waiting for this method.
+   * If this ordering throws an exception for some pair of elements, this method
+   * rethrows it once all the tasks have finished.
+   *
+   * @since 18.0
+   */
+  @Beta
+  @GwtIncompatible("Executor")
+  public <E extends T> List<E> parallelSortedCopy(
+      Iterable<E> elements, Executor executor) {
+    checkNotNull(executor);
+    @SuppressWarnings("unchecked") // does not escape, and contains only E's
+    final E[] array = (E[]) Iterables.toArray(elements);
+    int runCount =
+        SplittableIterable.rangeCount(array.length, MIN_PARALLEL_SORT_RUN);
+    if (runCount == 1) {
+      Arrays.sort(array, this);
+      return Lists.newArrayList(Arrays.asList(array));
+    }
+    final List<Iterator<E>> runs = Lists.newArrayList();
+    for (int i = 0; i < runCount; i++) {
+      runs.add(null);
+    }
+    SplittableIterable.runInRanges(array.length, runCount, executor,
+        new SplittableIterable.RangeTask() {
+          @Override public void run(int runIndex, int from, int to) {
+            Arrays.sort(array, from, to, Ordering.this);
+            runs.set(runIndex, Iterators.forArray(array, from, to - from, 0));
+          }
+        });
+    List<E> result = Lists.newArrayListWithCapacity(array.length);
+    Iterators.addAll(result, Iterators.mergeSorted(runs, this));
+    return result;
+  }
+
+  /**
+   * The least number of elements in each run of {@link #parallelSortedCopy};
+   * shorter runs sort too quickly to be worth a task of their own.
+   */
+  private static final int MIN_PARALLEL_SORT_RUN = 1 << 13;
+
   /**
    * Returns an <b>immutable</b> list containing {@code elements} sorted by this
    * ordering. The input is not modified.
@@ -15,6 +15,7 @@
 package com.google.common.collect;
 
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.BoundType.CLOSED;
 
@@ -23,6 +24,7 @@ import com.google.common.annotations.GwtIncompatible;
 
 import java.io.Serializable;
 import java.util.Collection;
+import java.util.Comparator;
 
 import javax.annotation.Nullable;
 
@@ -94,6 +96,44 @@ final class RegularContiguousSet<C extends Comparable> extends ContiguousSet<C>
     };
   }
 
+  @GwtIncompatible("not needed in emulated source")
+  @Override ImmutableList<C> createAsList() {
+    // The built-in domains compute each element directly, so the list needn't copy the set, and
+    // a parallel traversal can split it by index.
+    if (domain.supportsFastOffset) {
+      return new AsList();
+    }
+    return super.createAsList();
+  }
+
+  @GwtIncompatible("not needed in emulated source")
+  private final class AsList extends ImmutableAsList<C> implements SortedIterable<C> {
+    @Override ImmutableSortedSet<C> delegateCollection() {
+      return RegularContiguousSet.this;
+    }
+
+    @Override public Comparator<? super C> comparator() {
+      return RegularContiguousSet.this.comparator();
+    }
+
+    @Override public C get(int index) {
+      checkElementIndex(index, size());
+      return domain.offset(first(), index);
+    }
+
+    // Like ImmutableSortedAsList, override indexOf() and lastIndexOf() to avoid a linear search.
+
+    @Override public int indexOf(@Nullable Object target) {
+      return RegularContiguousSet.this.indexOf(target);
+    }
+
+    @Override public int lastIndexOf(@Nullable Object target) {
+      return RegularContiguousSet.this.indexOf(target);
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
   private static boolean equalsOrThrow(Comparable<?> left, @Nullable Comparable<?> right) {
     return right != null && Range.compareOrThrow(left, right) == 0;
   }
@@ -16,16 +16,25 @@
 
 package com.google.common.collect;
 
+import static com.google.common.base.Preconditions.checkElementIndex;
 import static com.google.common.collect.CollectPreconditions.checkEntryNotNull;
 
 import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
 import com.google.common.collect.ImmutableMapEntry.TerminalEntry;
 
+import java.util.Arrays;
+
 import javax.annotation.Nullable;
 
 /**
  * Implementation of {@link ImmutableMap} with two or more entries.
  *
+ * <p>The keys and values are stored in a single array, alternating, in insertion order, and an
+ * open-addressing hash table of ints maps each key to its position in that array. Unlike a table
+ * of chained entries, this layout allocates no object per entry: entries are only created while
+ * the entry set is iterated.
+ *
  * @author Jesse Wilson
  * @author Kevin Bourrillion
  * @author Gregory Kick
@@ -33,149 +42,91 @@ import javax.annotation.Nullable;
 @GwtCompatible(serializable = true, emulated = true)
 final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
 
-  // entries in insertion order
-  private final transient ImmutableMapEntry<K, V>[] entries;
-  // array of linked lists of entries
-  private final transient ImmutableMapEntry<K, V>[] table;
+  // keys at even indexes and their values at the next odd indexes, in insertion order
+  private final transient Object[] alternatingKeysAndValues;
+  // for each slot, the entry index of the key that hashes there, or ABSENT
+  private final transient int[] table;
   // 'and' with an int to get a table index
   private final transient int mask;
-  
+
+  private static final int ABSENT = -1;
+
   RegularImmutableMap(TerminalEntry<?, ?>... theEntries) {
     this(theEntries.length, theEntries);
   }
-  
+
   /**
    * Constructor for RegularImmutableMap that takes as input an array of {@code TerminalEntry}
    * entries.  Assumes that these entries have already been checked for null.
-   * 
-   * <p>This allows reuse of the entry objects from the array in the actual implementation.
    */
   RegularImmutableMap(int size, TerminalEntry<?, ?>[] theEntries) {
-    entries = createEntryArray(size);
-    int tableSize = Hashing.closedTableSize(size, MAX_LOAD_FACTOR);
-    table = createEntryArray(tableSize);
-    mask = tableSize - 1;
-    for (int entryIndex = 0; entryIndex < size; entryIndex++) {
-      @SuppressWarnings("unchecked")
-      TerminalEntry<K, V> entry = (TerminalEntry<K, V>) theEntries[entryIndex];
-      K key = entry.getKey();
-      int tableIndex = Hashing.smear(key.hashCode()) & mask;
-      @Nullable ImmutableMapEntry<K, V> existing = table[tableIndex];
-      // prepend, not append, so the entries can be immutable
-      ImmutableMapEntry<K, V> newEntry = (existing == null)
-          ? entry
-          : new NonTerminalMapEntry<K, V>(entry, existing);
-      table[tableIndex] = newEntry;
-      entries[entryIndex] = newEntry;
-      checkNoConflictInBucket(key, newEntry, existing);
-    }
+    this(size, theEntries, false);
   }
-  
+
   /**
    * Constructor for RegularImmutableMap that makes no assumptions about the input entries.
    */
   RegularImmutableMap(Entry<?, ?>[] theEntries) {
-    int size = theEntries.length;
-    entries = createEntryArray(size);
-    int tableSize = Hashing.closedTableSize(size, MAX_LOAD_FACTOR);
-    table = createEntryArray(tableSize);
-    mask = tableSize - 1;
-    for (int entryIndex = 0; entryIndex < size; entryIndex++) {
-      @SuppressWarnings("unchecked") // all our callers carefully put in only Entry<K, V>s
-      Entry<K, V> entry = (Entry<K, V>) theEntries[entryIndex];
-      K key = entry.getKey();
-      V value = entry.getValue();
-      checkEntryNotNull(key, value);
-      int tableIndex = Hashing.smear(key.hashCode()) & mask;
-      @Nullable ImmutableMapEntry<K, V> existing = table[tableIndex];
-      // prepend, not append, so the entries can be immutable
-      ImmutableMapEntry<K, V> newEntry = (existing == null)
-          ? new TerminalEntry<K, V>(key, value)
-          : new NonTerminalMapEntry<K, V>(key, value, existing);
-      table[tableIndex] = newEntry;
-      entries[entryIndex] = newEntry;
-      checkNoConflictInBucket(key, newEntry, existing);
-    }
+    this(theEntries.length, theEntries, true);
   }
 
-  private void checkNoConflictInBucket(
-      K key, ImmutableMapEntry<K, V> entry, ImmutableMapEntry<K, V> bucketHead) {
-    for (; bucketHead != null; bucketHead = bucketHead.getNextInKeyBucket()) {
-      checkNoConflict(!key.equals(bucketHead.getKey()), "key", entry, bucketHead);
-    }
-  }
-  
-  private static final class NonTerminalMapEntry<K, V> extends ImmutableMapEntry<K, V> {
-    private final ImmutableMapEntry<K, V> nextInKeyBucket;
-
-    NonTerminalMapEntry(K key, V value, ImmutableMapEntry<K, V> nextInKeyBucket) {
-      super(key, value);
-      this.nextInKeyBucket = nextInKeyBucket;
-    }
-
-    NonTerminalMapEntry(ImmutableMapEntry<K, V> contents, ImmutableMapEntry<K, V> nextInKeyBucket) {
-      super(contents);
-      this.nextInKeyBucket = nextInKeyBucket;
-    }
-
-    @Override
-    ImmutableMapEntry<K, V> getNextInKeyBucket() {
-      return nextInKeyBucket;
-    }
-
-    @Override
-    @Nullable
-    ImmutableMapEntry<K, V> getNextInValueBucket() {
-      return null;
+  private RegularImmutableMap(int size, Entry<?, ?>[] theEntries, boolean checkNulls) {
+    alternatingKeysAndValues = new Object[2 * size];
+    // Open addressing needs sparser tables than chaining, so size them like ImmutableSet does.
+    int tableSize = ImmutableSet.chooseTableSize(size);
+    table = new int[tableSize];
+    Arrays.fill(table, ABSENT);
+    mask = tableSize - 1;
+    for (int entryIndex = 0; entryIndex < size; entryIndex++) {
+      Entry<?, ?> entry = theEntries[entryIndex];
+      Object key = entry.getKey();
+      Object value = entry.getValue();
+      if (checkNulls) {
+        checkEntryNotNull(key, value);
+      }
+      for (int j = Hashing.smear(key.hashCode()); ; j++) {
+        int tableIndex = j & mask;
+        int existing = table[tableIndex];
+        if (existing == ABSENT) {
+          table[tableIndex] = entryIndex;
+          break;
+        }
+        checkNoConflict(!key.equals(alternatingKeysAndValues[2 * existing]),
+            "key", entry, theEntries[existing]);
+      }
+      alternatingKeysAndValues[2 * entryIndex] = key;
+      alternatingKeysAndValues[2 * entryIndex + 1] = value;
     }
-    
-  }
-
-  /**
-   * Closed addressing tends to perform well even with high load factors.
-   * Being conservative here ensures that the table is still likely to be
-   * relatively sparse (hence it misses fast) while saving space.
-   */
-  private static final double MAX_LOAD_FACTOR = 1.2;
-
-  /**
-   * Creates an {@code ImmutableMapEntry} array to hold parameterized entries. The
-   * result must never be upcast back to ImmutableMapEntry[] (or Object[], etc.), or
-   * allowed to escape the class.
-   */
-  @SuppressWarnings("unchecked") // Safe as long as the javadocs are followed
-  private ImmutableMapEntry<K, V>[] createEntryArray(int size) {
-    return new ImmutableMapEntry[size];
   }
 
   @Override public V get(@Nullable Object key) {
     if (key == null) {
       return null;
     }
-    int index = Hashing.smear(key.hashCode()) & mask;
-    for (ImmutableMapEntry<K, V> entry = table[index];
-        entry != null;
-        entry = entry.getNextInKeyBucket()) {
-      K candidateKey = entry.getKey();
-
+    for (int j = Hashing.smear(key.hashCode()); ; j++) {
+      int entryIndex = table[j & mask];
+      if (entryIndex == ABSENT) {
+        return null;
+      }
       /*
        * Assume that equals uses the == optimization when appropriate, and that
        * it would check hash codes as an optimization when appropriate. If we
        * did these things, it would just make things worse for the most
        * performance-conscious users.
        */
-      if (key.equals(candidateKey)) {
-        return entry.getValue();
+      if (key.equals(alternatingKeysAndValues[2 * entryIndex])) {
+        @SuppressWarnings("unchecked") // we only store V's at odd indexes
+        V value = (V) alternatingKeysAndValues[2 * entryIndex + 1];
+        return value;
       }
     }
-    return null;
   }
 
   @Override
   public int size() {
-    return entries.length;
+    return alternatingKeysAndValues.length / 2;
   }
-  
+
   @Override boolean isPartialView() {
     return false;
   }
@@ -185,6 +136,20 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
     return new EntrySet();
   }
 
+  @Override
+  ImmutableSet<K> createKeySet() {
+    @SuppressWarnings("unchecked") // we only store K's at even indexes
+    ImmutableList<K> keyList = (ImmutableList<K>) new KeysOrValuesAsList(0);
+    return new KeySet<K>(this, keyList);
+  }
+
+  @Override
+  ImmutableCollection<V> createValues() {
+    @SuppressWarnings("unchecked") // we only store V's at odd indexes
+    ImmutableList<V> valueList = (ImmutableList<V>) new KeysOrValuesAsList(1);
+    return new Values<V>(this, valueList);
+  }
+
   @SuppressWarnings("serial") // uses writeReplace(), not default serialization
   private class EntrySet extends ImmutableMapEntrySet<K, V> {
     @Override ImmutableMap<K, V> map() {
@@ -198,7 +163,133 @@ final class RegularImmutableMap<K, V> extends ImmutableMap<K, V> {
 
     @Override
     ImmutableList<Entry<K, V>> createAsList() {
-      return new RegularImmutableAsList<Entry<K, V>>(this, entries);
+      return new ImmutableAsList<Entry<K, V>>() {
+        @Override
+        public Entry<K, V> get(int index) {
+          checkElementIndex(index, size());
+          @SuppressWarnings("unchecked") // we only store K's at even indexes
+          K key = (K) alternatingKeysAndValues[2 * index];
+          @SuppressWarnings("unchecked") // we only store V's at odd indexes
+          V value = (V) alternatingKeysAndValues[2 * index + 1];
+          return Maps.immutableEntry(key, value);
+        }
+
+        @Override
+        ImmutableCollection<Entry<K, V>> delegateCollection() {
+          return EntrySet.this;
+        }
+      };
+    }
+  }
+
+  /**
+   * The keys or the values of the map, in insertion order, read straight from
+   * {@link #alternatingKeysAndValues}.
+   */
+  @SuppressWarnings("serial") // uses writeReplace(), not default serialization
+  private final class KeysOrValuesAsList extends ImmutableList<Object> {
+    private final int offset;
+
+    KeysOrValuesAsList(int offset) {
+      this.offset = offset;
+    }
+
+    @Override
+    public Object get(int index) {
+      checkElementIndex(index, size());
+      return alternatingKeysAndValues[2 * index + offset];
+    }
+
+    @Override
+    public int size() {
+      return RegularImmutableMap.this.size();
+    }
+
+    @Override
+    boolean isPartialView() {
+      return true;
+    }
+  }
+
+  @SuppressWarnings("serial") // uses writeReplace(), not default serialization
+  static final class KeySet<K> extends ImmutableSet<K> {
+    private final transient ImmutableMap<K, ?> map;
+    private final transient ImmutableList<K> list;
+
+    KeySet(ImmutableMap<K, ?> map, ImmutableList<K> list) {
+      this.map = map;
+      this.list = list;
+    }
+
+    @Override
+    public UnmodifiableIterator<K> iterator() {
+      return asList().iterator();
+    }
+
+    @Override
+    ImmutableList<K> createAsList() {
+      return list;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object object) {
+      return map.get(object) != null;
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    boolean isPartialView() {
+      return true;
+    }
+  }
+
+  /**
+   * The values of a map whose {@link #asList} view is a given list. Unlike that list, this is not
+   * a {@code List}, so that its {@code equals} and {@code hashCode} are those of
+   * {@code Map.values()}.
+   */
+  @SuppressWarnings("serial") // uses writeReplace(), not default serialization
+  static final class Values<V> extends ImmutableCollection<V> {
+    private final transient ImmutableMap<?, V> map;
+    private final transient ImmutableList<V> list;
+
+    Values(ImmutableMap<?, V> map, ImmutableList<V> list) {
+      this.map = map;
+      this.list = list;
+    }
+
+    @Override
+    public UnmodifiableIterator<V> iterator() {
+      return asList().iterator();
+    }
+
+    @Override
+    ImmutableList<V> createAsList() {
+      return list;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object object) {
+      return list.contains(object);
+    }
+
+    @Override
+    public int size() {
+      return map.size();
+    }
+
+    @Override
+    boolean isPartialView() {
+      return true;
+    }
+
+    @GwtIncompatible("serialization")
+    @Override Object writeReplace() {
+      return new ImmutableMapValues.SerializedForm<V>(map);
     }
   }
 
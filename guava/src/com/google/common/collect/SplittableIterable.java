@@ -0,0 +1,404 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.GwtIncompatible;
+import com.google.common.base.Function;
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link FluentIterable} made of a random-access source list and a chain of {@code filter} and
+ * {@code transform} steps, which remembers those parts so that its elements can be computed for
+ * ranges of the source independently, and therefore in parallel. Iterating over it is no different
+ * from iterating over the equivalent {@code Iterables.filter} and {@code Iterables.transform}
+ * views.
+ */
+@GwtIncompatible("Executor")
+final class SplittableIterable<E> extends FluentIterable<E> {
+  /** Returned by a {@link Step} for a source element that the chain filters out. */
+  private static final Object SKIP = new Object();
+
+  /**
+   * The filter and transform steps of the chain, composed into a single step that maps a source
+   * element to the element of this iterable, or to {@link #SKIP}.
+   */
+  private abstract static class Step {
+    abstract Object apply(Object sourceElement);
+  }
+
+  private static final Step IDENTITY = new Step() {
+    @Override Object apply(Object sourceElement) {
+      return sourceElement;
+    }
+  };
+
+  /**
+   * A collection whose elements can be read by their position in iteration order, in constant
+   * time, so that it can be split by index range without being copied.
+   */
+  interface Indexed<E> extends Collection<E> {
+    E elementAt(int index);
+  }
+
+  /** The number of ranges to split the source into for each available processor. */
+  private static final int RANGES_PER_PROCESSOR = 4;
+
+  /**
+   * Returns {@code fluent} as a splittable iterable, or {@code null} if it can't be split. A fluent
+   * iterable can be split if it is the result of {@code filter} and {@code transform} calls on a
+   * splittable iterable, or if it wraps a {@link RandomAccess} list, an {@link Indexed} collection
+   * or an {@link ImmutableCollection}.
+   *
+   * @param iterable the iterable that {@code fluent} wraps, or {@code fluent} itself
+   */
+  @Nullable
+  static <E> SplittableIterable<E> of(FluentIterable<E> fluent, Iterable<E> iterable) {
+    if (fluent instanceof SplittableIterable) {
+      return (SplittableIterable<E>) fluent;
+    } else if ((iterable instanceof List && iterable instanceof RandomAccess)
+        || iterable instanceof Indexed
+        || iterable instanceof ImmutableCollection) {
+      return new SplittableIterable<E>(iterable, (Collection<?>) iterable, IDENTITY);
+    }
+    return null;
+  }
+
+  /**
+   * Returns {@code source} as a random-access list. This is only called when a parallel terminal
+   * runs, since {@link ImmutableCollection#asList} may copy the collection, and caches the copy.
+   */
+  private static List<?> asRandomAccessList(Collection<?> source) {
+    if (source instanceof List && source instanceof RandomAccess) {
+      return (List<?>) source;
+    } else if (source instanceof Indexed) {
+      return new IndexedAsList((Indexed<?>) source);
+    } else {
+      return ((ImmutableCollection<?>) source).asList();
+    }
+  }
+
+  private static final class IndexedAsList extends AbstractList<Object> implements RandomAccess {
+    private final Indexed<?> indexed;
+
+    IndexedAsList(Indexed<?> indexed) {
+      this.indexed = indexed;
+    }
+
+    @Override public Object get(int index) {
+      return indexed.elementAt(index);
+    }
+
+    @Override public int size() {
+      return indexed.size();
+    }
+  }
+
+  private final Iterable<E> delegate;
+  // a RandomAccess list, an Indexed collection or an ImmutableCollection
+  private final Collection<?> source;
+  private final Step step;
+
+  private SplittableIterable(Iterable<E> delegate, Collection<?> source, Step step) {
+    super(delegate);
+    this.delegate = delegate;
+    this.source = source;
+    this.step = step;
+  }
+
+  @Override
+  public Iterator<E> iterator() {
+    return delegate.iterator();
+  }
+
+  /**
+   * Returns a splittable iterable that iterates over {@code filtered}, which must be the elements
+   * of this iterable that satisfy {@code predicate}.
+   */
+  SplittableIterable<E> filter(Iterable<E> filtered, final Predicate<? super E> predicate) {
+    checkNotNull(predicate);
+    final Step previous = step;
+    return new SplittableIterable<E>(filtered, source, new Step() {
+      @Override Object apply(Object sourceElement) {
+        Object element = previous.apply(sourceElement);
+        @SuppressWarnings("unchecked") // element is an E unless it is SKIP
+        boolean keep = (element != SKIP) && predicate.apply((E) element);
+        return keep ? element : SKIP;
+      }
+    });
+  }
+
+  /**
+   * Returns a splittable iterable that iterates over {@code transformed}, which must be the result
+   * of applying {@code function} to the elements of this iterable.
+   */
+  <T> SplittableIterable<T> transform(
+      Iterable<T> transformed, final Function<? super E, T> function) {
+    checkNotNull(function);
+    final Step previous = step;
+    return new SplittableIterable<T>(transformed, source, new Step() {
+      @Override Object apply(Object sourceElement) {
+        Object element = previous.apply(sourceElement);
+        @SuppressWarnings("unchecked") // element is an E unless it is SKIP
+        Object result = (element == SKIP) ? SKIP : function.apply((E) element);
+        return result;
+      }
+    });
+  }
+
+  /**
+   * Collects the elements of one range of the source into a builder, and combines the builders of
+   * consecutive ranges, so that no range is copied more than once on the way to the result.
+   */
+  private abstract static class Accumulator<E, B> {
+    /** Returns a builder for a range of {@code rangeSize} source elements. */
+    abstract B newBuilder(int rangeSize);
+
+    abstract void add(B builder, E element);
+
+    /** Appends the contents of {@code from}, the builder of a later range, to {@code into}. */
+    abstract void combine(B into, B from);
+  }
+
+  ImmutableList<E> toList(Executor executor) {
+    return collect(executor, new Accumulator<E, ImmutableList.Builder<E>>() {
+      @Override ImmutableList.Builder<E> newBuilder(int rangeSize) {
+        return new ImmutableList.Builder<E>(rangeSize);
+      }
+
+      @Override void add(ImmutableList.Builder<E> builder, E element) {
+        builder.add(element);
+      }
+
+      @Override void combine(ImmutableList.Builder<E> into, ImmutableList.Builder<E> from) {
+        into.combine(from);
+      }
+    }).build();
+  }
+
+  ImmutableSet<E> toSet(Executor executor) {
+    return collect(executor, new Accumulator<E, ImmutableSet.Builder<E>>() {
+      @Override ImmutableSet.Builder<E> newBuilder(int rangeSize) {
+        return new ImmutableSet.Builder<E>(rangeSize);
+      }
+
+      @Override void add(ImmutableSet.Builder<E> builder, E element) {
+        builder.add(element);
+      }
+
+      @Override void combine(ImmutableSet.Builder<E> into, ImmutableSet.Builder<E> from) {
+        into.combine(from);
+      }
+    }).build();
+  }
+
+  ImmutableSortedSet<E> toSortedSet(
+      final Comparator<? super E> comparator, Executor executor) {
+    checkNotNull(comparator);
+    return collect(executor, new Accumulator<E, ImmutableSortedSet.Builder<E>>() {
+      @Override ImmutableSortedSet.Builder<E> newBuilder(int rangeSize) {
+        return new ImmutableSortedSet.Builder<E>(comparator);
+      }
+
+      @Override void add(ImmutableSortedSet.Builder<E> builder, E element) {
+        builder.add(element);
+      }
+
+      @Override void combine(
+          ImmutableSortedSet.Builder<E> into, ImmutableSortedSet.Builder<E> from) {
+        into.combine(from);
+      }
+    }).build();
+  }
+
+  <K> ImmutableListMultimap<K, E> index(
+      final Function<? super E, K> keyFunction, Executor executor) {
+    checkNotNull(keyFunction);
+    return collect(executor, new Accumulator<E, ImmutableListMultimap.Builder<K, E>>() {
+      @Override ImmutableListMultimap.Builder<K, E> newBuilder(int rangeSize) {
+        return ImmutableListMultimap.builder();
+      }
+
+      @Override void add(ImmutableListMultimap.Builder<K, E> builder, E element) {
+        builder.put(keyFunction.apply(element), element);
+      }
+
+      @Override void combine(
+          ImmutableListMultimap.Builder<K, E> into, ImmutableListMultimap.Builder<K, E> from) {
+        into.combine(from);
+      }
+    }).build();
+  }
+
+  <K> ImmutableMap<K, E> uniqueIndex(
+      final Function<? super E, K> keyFunction, Executor executor) {
+    checkNotNull(keyFunction);
+    return collect(executor, new Accumulator<E, ImmutableMap.Builder<K, E>>() {
+      @Override ImmutableMap.Builder<K, E> newBuilder(int rangeSize) {
+        return new ImmutableMap.Builder<K, E>(rangeSize);
+      }
+
+      @Override void add(ImmutableMap.Builder<K, E> builder, E element) {
+        builder.put(keyFunction.apply(element), element);
+      }
+
+      @Override void combine(ImmutableMap.Builder<K, E> into, ImmutableMap.Builder<K, E> from) {
+        into.combine(from);
+      }
+    }).build();
+  }
+
+  /**
+   * Splits the source into ranges, collects the elements of this iterable in each range into a
+   * builder, using {@link #runInRanges}, and returns their builders combined in order.
+   */
+  private <B> B collect(Executor executor, final Accumulator<E, B> accumulator) {
+    checkNotNull(executor);
+    final List<?> sourceList = asRandomAccessList(source);
+    int size = sourceList.size();
+    int rangeCount = rangeCount(size, 1);
+    final List<B> results = new ArrayList<B>(rangeCount);
+    for (int i = 0; i < rangeCount; i++) {
+      results.add(null);
+    }
+    runInRanges(size, rangeCount, executor, new RangeTask() {
+      @Override public void run(int rangeIndex, int from, int to) {
+        results.set(rangeIndex, collectRange(sourceList, from, to, accumulator));
+      }
+    });
+    B result = results.get(0);
+    for (int i = 1; i < rangeCount; i++) {
+      accumulator.combine(result, results.get(i));
+    }
+    return result;
+  }
+
+  /** The work that {@link #runInRanges} does for one index range. */
+  interface RangeTask {
+    void run(int rangeIndex, int from, int to);
+  }
+
+  /**
+   * Returns the number of ranges to split {@code size} indexes into for {@link #runInRanges}: a few
+   * for each available processor, but no more than will give each range {@code minRangeSize}
+   * indexes, and at least one.
+   */
+  static int rangeCount(int size, int minRangeSize) {
+    int maxRanges = RANGES_PER_PROCESSOR * Runtime.getRuntime().availableProcessors();
+    return Math.max(1, Math.min(size / minRangeSize, maxRanges));
+  }
+
+  /**
+   * Splits the indexes {@code [0, size)} into {@code rangeCount} ranges of nearly equal length and
+   * runs {@code task} on each of them: on {@code executor}, except for the first range, which the
+   * calling thread runs itself. If the executor rejects a range, the calling thread runs that range
+   * and all later ones too. Waits for all of them, and then rethrows the first failure, if any;
+   * once some range has failed, ranges that haven't started yet are skipped.
+   */
+  static void runInRanges(int size, int rangeCount, Executor executor, final RangeTask task) {
+    final CountDownLatch done = new CountDownLatch(rangeCount - 1);
+    final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+    boolean rejected = false;
+    for (int i = 1; i < rangeCount; i++) {
+      final int rangeIndex = i;
+      final int from = (int) ((long) size * i / rangeCount);
+      final int to = (int) ((long) size * (i + 1) / rangeCount);
+      Runnable range = new Runnable() {
+        @Override public void run() {
+          try {
+            if (failure.get() == null) {
+              task.run(rangeIndex, from, to);
+            }
+          } catch (Throwable t) {
+            failure.compareAndSet(null, t);
+          } finally {
+            done.countDown();
+          }
+        }
+      };
+      if (!rejected) {
+        try {
+          executor.execute(range);
+          continue;
+        } catch (RejectedExecutionException e) {
+          // The executor is saturated or shut down; don't leave the rest of the input undone.
+          rejected = true;
+        }
+      }
+      range.run();
+    }
+    try {
+      task.run(0, 0, size / rangeCount);
+    } catch (Throwable t) {
+      failure.compareAndSet(null, t);
+    }
+    awaitUninterruptibly(done);
+    Throwable t = failure.get();
+    if (t != null) {
+      throw Throwables.propagate(t);
+    }
+  }
+
+  private <B> B collectRange(
+      List<?> sourceList, int from, int to, Accumulator<E, B> accumulator) {
+    B builder = accumulator.newBuilder(to - from);
+    for (int i = from; i < to; i++) {
+      Object element = step.apply(sourceList.get(i));
+      if (element != SKIP) {
+        @SuppressWarnings("unchecked") // element isn't SKIP, so it is an E
+        E e = (E) element;
+        accumulator.add(builder, e);
+      }
+    }
+    return builder;
+  }
+
+  // Like Uninterruptibles.awaitUninterruptibly, which this package doesn't depend on.
+  private static void awaitUninterruptibly(CountDownLatch latch) {
+    boolean interrupted = false;
+    try {
+      while (true) {
+        try {
+          latch.await();
+          return;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
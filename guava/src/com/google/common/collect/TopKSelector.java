@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.collect;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.collect.CollectPreconditions.checkNonnegative;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtCompatible;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.Nullable;
+
+/**
+ * An accumulator that selects the {@code k} least elements offered to it, according to a
+ * comparator, in a single pass and O(k) memory. The {@code k} greatest elements can be selected by
+ * reversing the comparator, as {@link #greatest(int, Comparator)} does.
+ *
+ * <p>Selectors are not thread-safe, but they can be combined: to select the least elements of a
+ * large input on several threads, give each thread a selector of its own for its part of the
+ * input, and then {@link #combine} them. For example: <pre>   {@code
+ *
+ *   TopKSelector<Row> selector = TopKSelector.least(100, BY_SCORE);
+ *   for (TopKSelector<Row> partial : partialSelectors) {
+ *     selector.combine(partial);
+ *   }
+ *   List<Row> top = selector.topK();}</pre>
+ *
+ * <p>The selector keeps a buffer of {@code 2k} elements. Whenever it fills up, it partitions the
+ * buffer around its median, in O(k) expected time, and keeps only the lower half. Offering
+ * {@code n} elements therefore takes O(n) expected time, and {@link #topK} then sorts the
+ * remaining {@code k} elements in O(k log k). This is the algorithm that
+ * {@link Ordering#leastOf(Iterator, int)} uses.
+ *
+ * <p>Null elements are permitted if the comparator permits them.
+ *
+ * @since 18.0
+ */
+@Beta
+@GwtCompatible
+public final class TopKSelector<T> {
+  /**
+   * Returns a selector of the {@code k} least elements offered to it, according to their natural
+   * ordering.
+   *
+   * @throws IllegalArgumentException if {@code k < 0} or {@code k > Integer.MAX_VALUE / 2}
+   */
+  public static <T extends Comparable<? super T>> TopKSelector<T> least(int k) {
+    return least(k, Ordering.natural());
+  }
+
+  /**
+   * Returns a selector of the {@code k} least elements offered to it, according to
+   * {@code comparator}.
+   *
+   * @throws IllegalArgumentException if {@code k < 0} or {@code k > Integer.MAX_VALUE / 2}
+   */
+  public static <T> TopKSelector<T> least(int k, Comparator<? super T> comparator) {
+    return new TopKSelector<T>(comparator, k);
+  }
+
+  /**
+   * Returns a selector of the {@code k} greatest elements offered to it, according to their
+   * natural ordering. {@link #topK} returns them from greatest to least.
+   *
+   * @throws IllegalArgumentException if {@code k < 0} or {@code k > Integer.MAX_VALUE / 2}
+   */
+  public static <T extends Comparable<? super T>> TopKSelector<T> greatest(int k) {
+    return greatest(k, Ordering.natural());
+  }
+
+  /**
+   * Returns a selector of the {@code k} greatest elements offered to it, according to
+   * {@code comparator}. {@link #topK} returns them from greatest to least.
+   *
+   * @throws IllegalArgumentException if {@code k < 0} or {@code k > Integer.MAX_VALUE / 2}
+   */
+  public static <T> TopKSelector<T> greatest(int k, Comparator<? super T> comparator) {
+    return new TopKSelector<T>(Ordering.from(comparator).reverse(), k);
+  }
+
+  private final int k;
+  private final Comparator<? super T> comparator;
+
+  /*
+   * We are currently considering the elements in buffer in the range [0, bufferSize) as candidates
+   * for the top k elements. Whenever the buffer is filled, we quickselect the top k elements to the
+   * range [0, k) and ignore the remaining elements.
+   */
+  private final T[] buffer;
+  private int bufferSize;
+
+  /**
+   * The largest of the lowest k elements we've seen so far relative to this comparator. If
+   * bufferSize >= k, then we can ignore any elements greater than this value.
+   */
+  @Nullable private T threshold;
+
+  private TopKSelector(Comparator<? super T> comparator, int k) {
+    this.comparator = checkNotNull(comparator, "comparator");
+    this.k = k;
+    checkNonnegative(k, "k");
+    checkArgument(k <= Integer.MAX_VALUE / 2, "k (%s) must be <= Integer.MAX_VALUE / 2", k);
+    @SuppressWarnings("unchecked") // we'll only put T's in
+    T[] buffer = (T[]) new Object[k * 2];
+    this.buffer = buffer;
+    this.bufferSize = 0;
+    this.threshold = null;
+  }
+
+  /**
+   * Adds {@code elem} as a candidate for the top {@code k} elements. This operation takes amortized
+   * O(1) time.
+   */
+  public void offer(@Nullable T elem) {
+    if (k == 0) {
+      return;
+    } else if (bufferSize == 0) {
+      buffer[0] = elem;
+      threshold = elem;
+      bufferSize = 1;
+    } else if (bufferSize < k) {
+      buffer[bufferSize++] = elem;
+      if (comparator.compare(elem, threshold) > 0) {
+        threshold = elem;
+      }
+    } else if (comparator.compare(elem, threshold) < 0) {
+      // Otherwise, we can ignore elem; we've seen k better elements.
+      buffer[bufferSize++] = elem;
+      if (bufferSize == 2 * k) {
+        trim();
+      }
+    }
+  }
+
+  /**
+   * Quickselects the top k elements from the 2k elements in the buffer. O(k) expected time,
+   * O(k log k) worst case.
+   */
+  private void trim() {
+    int left = 0;
+    int right = 2 * k - 1;
+
+    int minThresholdPosition = 0;
+    // The leftmost position at which the greatest of the k lower elements
+    // -- the new value of threshold -- might be found.
+
+    while (left < right) {
+      int pivotIndex = (left + right + 1) >>> 1;
+      int pivotNewIndex = partition(left, right, pivotIndex);
+      if (pivotNewIndex > k) {
+        right = pivotNewIndex - 1;
+      } else if (pivotNewIndex < k) {
+        left = Math.max(pivotNewIndex, left + 1);
+        minThresholdPosition = pivotNewIndex;
+      } else {
+        break;
+      }
+    }
+    bufferSize = k;
+
+    threshold = buffer[minThresholdPosition];
+    for (int i = minThresholdPosition + 1; i < k; i++) {
+      if (comparator.compare(buffer[i], threshold) > 0) {
+        threshold = buffer[i];
+      }
+    }
+  }
+
+  /**
+   * Partitions the contents of buffer in the range [left, right] around the pivot element
+   * previously stored in buffer[pivotIndex]. Returns the new index of the pivot element,
+   * pivotNewIndex, so that everything in [left, pivotNewIndex] is less than or equal to pivot, and
+   * everything in (pivotNewIndex, right] is greater than pivot.
+   */
+  private int partition(int left, int right, int pivotIndex) {
+    T pivotValue = buffer[pivotIndex];
+    buffer[pivotIndex] = buffer[right];
+
+    int pivotNewIndex = left;
+    for (int i = left; i < right; i++) {
+      if (comparator.compare(buffer[i], pivotValue) < 0) {
+        ObjectArrays.swap(buffer, pivotNewIndex, i);
+        pivotNewIndex++;
+      }
+    }
+    buffer[right] = buffer[pivotNewIndex];
+    buffer[pivotNewIndex] = pivotValue;
+    return pivotNewIndex;
+  }
+
+  /**
+   * Adds each member of {@code elements} as a candidate for the top {@code k} elements. This
+   * operation takes amortized linear time in the length of {@code elements}.
+   */
+  public void offerAll(Iterable<? extends T> elements) {
+    offerAll(elements.iterator());
+  }
+
+  /**
+   * Adds each member of {@code elements} as a candidate for the top {@code k} elements. This
+   * operation takes amortized linear time in the length of {@code elements}. The iterator is
+   * consumed after this operation completes.
+   */
+  public void offerAll(Iterator<? extends T> elements) {
+    while (elements.hasNext()) {
+      offer(elements.next());
+    }
+  }
+
+  /**
+   * Offers the candidates of {@code other}, which must use an equivalent comparator, to this
+   * selector, so that this selector then selects from the elements offered to either of them.
+   * This takes O(k) time, and leaves {@code other} unchanged.
+   *
+   * @return this selector
+   */
+  public TopKSelector<T> combine(TopKSelector<T> other) {
+    for (int i = 0; i < other.bufferSize; i++) {
+      offer(other.buffer[i]);
+    }
+    return this;
+  }
+
+  /**
+   * Returns the top {@code k} elements offered to this selector, or all elements if fewer than
+   * {@code k} have been offered, in the order of the comparator: from least to greatest for a
+   * selector returned by {@code least}, and from greatest to least for one returned by
+   * {@code greatest}. The returned list is an unmodifiable {@link java.util.RandomAccess} list,
+   * and isn't affected by further calls to this selector. This takes O(k log k) time.
+   */
+  public List<T> topK() {
+    Arrays.sort(buffer, 0, bufferSize, comparator);
+    if (bufferSize > k) {
+      Arrays.fill(buffer, k, buffer.length, null);
+      bufferSize = k;
+      threshold = buffer[k - 1];
+    }
+    // We can't use ImmutableList; we have to be null-friendly!
+    return Collections.unmodifiableList(
+        Arrays.asList(ObjectArrays.arraysCopyOf(buffer, bufferSize)));
+  }
+}
@@ -49,6 +49,10 @@ class AnnotatedSubscriberFinder implements SubscriberFindingStrategy {
    * all super-classes, that are annotated with {@code @Subscribe}. The cache is shared across all
    * instances of this class; this greatly improves performance if multiple EventBus instances are
    * created and objects of the same class are registered on all of them.
+   *
+   * <p>The cached methods are bound for invocation once, when their class is first registered:
+   * they are already {@linkplain Method#setAccessible accessible}, so neither registering another
+   * instance of the class nor delivering an event goes through an access check.
    */
   private static final LoadingCache<Class<?>, ImmutableList<Method>> subscriberMethodsCache =
       CacheBuilder.newBuilder()
@@ -131,7 +135,11 @@ class AnnotatedSubscriberFinder implements SubscriberFindingStrategy {
         }
       }
     }
-    return ImmutableList.copyOf(identifiers.values());
+    ImmutableList<Method> methods = ImmutableList.copyOf(identifiers.values());
+    for (Method method : methods) {
+      method.setAccessible(true);
+    }
+    return methods;
   }
 
   /**
@@ -16,17 +16,36 @@
 
 package com.google.common.eventbus;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import com.google.common.annotations.Beta;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
 
+import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.Nullable;
 
 /**
  * An {@link EventBus} that takes the Executor of your choice and uses it to
  * dispatch events, allowing dispatch to occur asynchronously.
  *
+ * <p>By default, events are handed to the executor in the order they were
+ * posted, one task per event and subscriber. A bus created with
+ * {@link #AsyncEventBus(Executor, SubscriberExceptionHandler, int, OverflowPolicy)}
+ * instead gives each subscriber its own lane: a bounded queue of events that
+ * are delivered to that subscriber one at a time, in posting order, while
+ * different subscribers receive their events in parallel. A slow subscriber
+ * then holds at most one executor thread, and only delays its own events.
+ *
  * @author Cliff Biffle
  * @since 10.0
  */
@@ -35,8 +54,39 @@ public class AsyncEventBus extends EventBus {
   private final Executor executor;
 
   /** the queue of events is shared across all threads */
-  private final ConcurrentLinkedQueue<EventWithSubscriber> eventsToDispatch =
-      new ConcurrentLinkedQueue<EventWithSubscriber>();
+  private final ConcurrentLinkedQueue<EventWithSubscribers> eventsToDispatch =
+      new ConcurrentLinkedQueue<EventWithSubscribers>();
+
+  /**
+   * The lane of each subscriber, or {@code null} if this bus dispatches
+   * events through {@link #eventsToDispatch}. Lanes are created on the first
+   * event for a subscriber, and collected along with the subscriber once it has
+   * been unregistered.
+   */
+  @Nullable private final LoadingCache<EventSubscriber, SubscriberLane> lanes;
+
+  /**
+   * What happens to an event posted to an {@link AsyncEventBus} whose lane for
+   * one of the event's subscribers is full.
+   *
+   * @since 18.0
+   */
+  public enum OverflowPolicy {
+    /**
+     * The event is not delivered to that subscriber. It is passed instead, along
+     * with a {@link RejectedExecutionException}, to the bus's
+     * {@link SubscriberExceptionHandler}. Posting never waits.
+     */
+    DROP,
+
+    /**
+     * {@link EventBus#post} waits until that subscriber's lane has room for the
+     * event. This slows down posting threads to the pace of the slowest
+     * subscriber. A subscriber that posts events to itself must not use this
+     * policy, since it would wait for its own lane forever.
+     */
+    BLOCK
+  }
 
   /**
    * Creates a new AsyncEventBus that will use {@code executor} to dispatch
@@ -50,6 +100,7 @@ public class AsyncEventBus extends EventBus {
   public AsyncEventBus(String identifier, Executor executor) {
     super(identifier);
     this.executor = checkNotNull(executor);
+    this.lanes = null;
   }
 
   /**
@@ -66,6 +117,7 @@ public class AsyncEventBus extends EventBus {
   public AsyncEventBus(Executor executor, SubscriberExceptionHandler subscriberExceptionHandler) {
     super(subscriberExceptionHandler);
     this.executor = checkNotNull(executor);
+    this.lanes = null;
   }
 
   /**
@@ -79,11 +131,114 @@ public class AsyncEventBus extends EventBus {
   public AsyncEventBus(Executor executor) {
     super("default");
     this.executor = checkNotNull(executor);
+    this.lanes = null;
+  }
+
+  /**
+   * Creates a new AsyncEventBus that gives each subscriber its own lane on
+   * {@code executor}. Each subscriber receives its events one at a time and in
+   * the order they were posted, whether or not its method is marked with
+   * {@link AllowConcurrentEvents}, while different subscribers receive their
+   * events in parallel.
+   *
+   * @param executor Executor to use to dispatch events. It is the caller's
+   *        responsibility to shut down the executor after the last event has
+   *        been posted to this event bus.
+   * @param subscriberExceptionHandler Handler used to handle exceptions thrown from subscribers,
+   *        and events dropped by the {@link OverflowPolicy#DROP DROP} policy.
+   * @param maxQueuedEventsPerSubscriber the number of events that may wait for
+   *        delivery to any one subscriber
+   * @param overflowPolicy what to do with an event posted to a subscriber whose
+   *        lane is full
+   * @throws IllegalArgumentException if {@code maxQueuedEventsPerSubscriber} is
+   *         negative or zero
+   * @since 18.0
+   */
+  public AsyncEventBus(Executor executor, SubscriberExceptionHandler subscriberExceptionHandler,
+      int maxQueuedEventsPerSubscriber, OverflowPolicy overflowPolicy) {
+    super(subscriberExceptionHandler);
+    this.executor = checkNotNull(executor);
+    this.lanes = createLanes(maxQueuedEventsPerSubscriber, overflowPolicy);
+  }
+
+  /**
+   * Creates a new AsyncEventBus that will use {@code executor} to dispatch
+   * events, and reports the queueing and delivery of each event to
+   * {@code dispatchMonitor}.
+   *
+   * @param executor Executor to use to dispatch events. It is the caller's
+   *        responsibility to shut down the executor after the last event has
+   *        been posted to this event bus.
+   * @param subscriberExceptionHandler Handler used to handle exceptions thrown from subscribers.
+   * @param dispatchMonitor Monitor of event delivery, such as a {@link DispatchMetrics}.
+   * @since 18.0
+   */
+  public AsyncEventBus(Executor executor, SubscriberExceptionHandler subscriberExceptionHandler,
+      DispatchMonitor dispatchMonitor) {
+    super(subscriberExceptionHandler, dispatchMonitor);
+    this.executor = checkNotNull(executor);
+    this.lanes = null;
+  }
+
+  /**
+   * Creates a new AsyncEventBus that gives each subscriber its own lane on
+   * {@code executor}, like
+   * {@link #AsyncEventBus(Executor, SubscriberExceptionHandler, int, OverflowPolicy)},
+   * and reports the queueing and delivery of each event to
+   * {@code dispatchMonitor}. An event dropped by the
+   * {@link OverflowPolicy#DROP DROP} policy is not reported as queued.
+   *
+   * @param executor Executor to use to dispatch events. It is the caller's
+   *        responsibility to shut down the executor after the last event has
+   *        been posted to this event bus.
+   * @param subscriberExceptionHandler Handler used to handle exceptions thrown from subscribers,
+   *        and events dropped by the {@link OverflowPolicy#DROP DROP} policy.
+   * @param dispatchMonitor Monitor of event delivery, such as a {@link DispatchMetrics}.
+   * @param maxQueuedEventsPerSubscriber the number of events that may wait for
+   *        delivery to any one subscriber
+   * @param overflowPolicy what to do with an event posted to a subscriber whose
+   *        lane is full
+   * @throws IllegalArgumentException if {@code maxQueuedEventsPerSubscriber} is
+   *         negative or zero
+   * @since 18.0
+   */
+  public AsyncEventBus(Executor executor, SubscriberExceptionHandler subscriberExceptionHandler,
+      DispatchMonitor dispatchMonitor, int maxQueuedEventsPerSubscriber,
+      OverflowPolicy overflowPolicy) {
+    super(subscriberExceptionHandler, dispatchMonitor);
+    this.executor = checkNotNull(executor);
+    this.lanes = createLanes(maxQueuedEventsPerSubscriber, overflowPolicy);
+  }
+
+  private LoadingCache<EventSubscriber, SubscriberLane> createLanes(
+      final int maxQueuedEventsPerSubscriber, final OverflowPolicy overflowPolicy) {
+    checkNotNull(overflowPolicy);
+    checkArgument(maxQueuedEventsPerSubscriber > 0,
+        "maxQueuedEventsPerSubscriber must be positive: %s", maxQueuedEventsPerSubscriber);
+    return CacheBuilder.newBuilder()
+        .weakKeys()
+        .build(new CacheLoader<EventSubscriber, SubscriberLane>() {
+          @Override
+          public SubscriberLane load(EventSubscriber subscriber) {
+            return new SubscriberLane(maxQueuedEventsPerSubscriber, overflowPolicy);
+          }
+        });
   }
 
   @Override
-  void enqueueEvent(Object event, EventSubscriber subscriber) {
-    eventsToDispatch.offer(new EventWithSubscriber(event, subscriber));
+  void enqueueEvent(Object event, ImmutableList<EventSubscriber> subscribers) {
+    if (lanes != null) {
+      // Lanes keep each subscriber's events in order themselves, so there is
+      // no need to funnel every event through the shared queue.
+      for (EventSubscriber subscriber : subscribers) {
+        lanes.getUnchecked(subscriber).offer(event, subscriber);
+      }
+      return;
+    }
+    for (EventSubscriber subscriber : subscribers) {
+      eventQueued(event, subscriber);
+    }
+    eventsToDispatch.offer(new EventWithSubscribers(event, subscribers));
   }
 
   /**
@@ -94,12 +249,12 @@ public class AsyncEventBus extends EventBus {
   @Override
   protected void dispatchQueuedEvents() {
     while (true) {
-      EventWithSubscriber eventWithSubscriber = eventsToDispatch.poll();
-      if (eventWithSubscriber == null) {
+      EventWithSubscribers eventWithSubscribers = eventsToDispatch.poll();
+      if (eventWithSubscribers == null) {
         break;
       }
 
-      dispatch(eventWithSubscriber.event, eventWithSubscriber.subscriber);
+      eventWithSubscribers.dispatchTo(this);
     }
   }
 
@@ -118,4 +273,106 @@ public class AsyncEventBus extends EventBus {
           }
         });
   }
+
+  /**
+   * The events waiting for delivery to a single subscriber. At most one task
+   * per lane is submitted to the executor at a time; it delivers events until
+   * the lane is empty.
+   *
+   * <p>The lane is the value of its subscriber's entry in {@link #lanes}, so it
+   * must not refer to the subscriber itself, or the weak key could never be
+   * collected. Only the queued events refer to it, until they are delivered.
+   */
+  private final class SubscriberLane implements Runnable {
+    private final OverflowPolicy overflowPolicy;
+    private final Queue<QueuedEvent> events = new ConcurrentLinkedQueue<QueuedEvent>();
+
+    /** One permit per event that may be queued without overflowing. */
+    private final Semaphore capacity;
+
+    /** Whether a task draining this lane was submitted and has not finished. */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    SubscriberLane(int capacity, OverflowPolicy overflowPolicy) {
+      this.overflowPolicy = overflowPolicy;
+      this.capacity = new Semaphore(capacity);
+    }
+
+    void offer(Object event, EventSubscriber subscriber) {
+      switch (overflowPolicy) {
+        case BLOCK:
+          capacity.acquireUninterruptibly();
+          break;
+        case DROP:
+          if (!capacity.tryAcquire()) {
+            handleSubscriberException(
+                new RejectedExecutionException("Too many events queued for " + subscriber),
+                event, subscriber);
+            return;
+          }
+          break;
+        default:
+          throw new AssertionError(overflowPolicy);
+      }
+      eventQueued(event, subscriber);
+      QueuedEvent queued = new QueuedEvent(event, subscriber);
+      events.add(queued);
+      if (scheduled.compareAndSet(false, true)) {
+        boolean threw = true;
+        try {
+          executor.execute(this);
+          threw = false;
+        } finally {
+          if (threw) {
+            // Like a direct executor.execute call, fail the post without
+            // keeping the event. Nothing drains the lane while we hold the
+            // flag, so the event is still queued, and it must not keep a
+            // permit that no delivery will ever release.
+            if (events.remove(queued)) {
+              capacity.release();
+            }
+            scheduled.set(false);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void run() {
+      boolean stillRunning = true;
+      try {
+        while (true) {
+          QueuedEvent queued = events.poll();
+          if (queued == null) {
+            scheduled.set(false);
+            // An event may have been added after our poll but before the flag
+            // was cleared, by a thread that then didn't schedule us.
+            if (events.isEmpty() || !scheduled.compareAndSet(false, true)) {
+              stillRunning = false;
+              break;
+            }
+            continue;
+          }
+          capacity.release();
+          AsyncEventBus.super.dispatch(queued.event, queued.subscriber);
+        }
+      } finally {
+        if (stillRunning) {
+          // An Error is bubbling up; let the next event schedule the lane again.
+          scheduled.set(false);
+        }
+      }
+    }
+  }
+
+  /** An event waiting in a {@link SubscriberLane}, and the subscriber to deliver it to. */
+  private static final class QueuedEvent {
+    final Object event;
+    final EventSubscriber subscriber;
+
+    QueuedEvent(Object event, EventSubscriber subscriber) {
+      this.event = event;
+      this.subscriber = subscriber;
+    }
+  }
 }
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.eventbus;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.LatencyHistogram;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link DispatchMonitor} that counts, for each subscriber method, the events
+ * delivered to it, the exceptions it threw and the events still waiting for it,
+ * and records a histogram of how long it took to handle them. For example:
+ * <pre>   {@code
+ *
+ *   DispatchMetrics metrics = DispatchMetrics.create();
+ *   EventBus bus = new AsyncEventBus(executor, exceptionHandler, metrics);
+ *   ...
+ *   for (DispatchMetrics.SubscriberMetrics subscriber : metrics.snapshot()) {
+ *     if (subscriber.pendingCount() > 1000) {
+ *       logger.warning(subscriber.getSubscriberMethod() + " is falling behind");
+ *     }
+ *   }}</pre>
+ *
+ * <p>Subscribers are tracked by identity, and are forgotten once they are
+ * garbage-collected.
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public final class DispatchMetrics implements DispatchMonitor {
+  /** Creates a new {@code DispatchMetrics} that has not recorded anything yet. */
+  public static DispatchMetrics create() {
+    return new DispatchMetrics();
+  }
+
+  /** The counters of each subscriber method, by subscriber object. */
+  private final LoadingCache<Object, ConcurrentMap<Method, Counters>> countersBySubscriber =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(new CacheLoader<Object, ConcurrentMap<Method, Counters>>() {
+            @Override
+            public ConcurrentMap<Method, Counters> load(Object subscriber) {
+              return Maps.newConcurrentMap();
+            }
+          });
+
+  private DispatchMetrics() {}
+
+  @Override
+  public void eventQueued(Object event, Object subscriber, Method subscriberMethod) {
+    checkNotNull(event);
+    countersFor(subscriber, subscriberMethod).queued.incrementAndGet();
+  }
+
+  @Override
+  public void eventDispatched(Object event, Object subscriber, Method subscriberMethod,
+      long latencyNanos, @Nullable Throwable exception) {
+    checkNotNull(event);
+    countersFor(subscriber, subscriberMethod).record(latencyNanos, exception != null);
+  }
+
+  private Counters countersFor(Object subscriber, Method subscriberMethod) {
+    checkNotNull(subscriberMethod);
+    ConcurrentMap<Method, Counters> countersByMethod =
+        countersBySubscriber.getUnchecked(subscriber);
+    Counters counters = countersByMethod.get(subscriberMethod);
+    if (counters == null) {
+      Counters newCounters = new Counters();
+      counters = countersByMethod.putIfAbsent(subscriberMethod, newCounters);
+      if (counters == null) {
+        counters = newCounters;
+      }
+    }
+    return counters;
+  }
+
+  /**
+   * Returns the current metrics of every subscriber method that had an event
+   * queued for or delivered to it. The counters of a single subscriber method
+   * are read one after another, not atomically, while events may be
+   * dispatched.
+   */
+  public ImmutableList<SubscriberMetrics> snapshot() {
+    ImmutableList.Builder<SubscriberMetrics> snapshot = ImmutableList.builder();
+    for (Map.Entry<Object, ConcurrentMap<Method, Counters>> subscriberEntry
+        : countersBySubscriber.asMap().entrySet()) {
+      for (Map.Entry<Method, Counters> methodEntry : subscriberEntry.getValue().entrySet()) {
+        snapshot.add(methodEntry.getValue()
+            .snapshot(subscriberEntry.getKey(), methodEntry.getKey()));
+      }
+    }
+    return snapshot.build();
+  }
+
+  private static final class Counters {
+    final AtomicLong queued = new AtomicLong();
+    final AtomicLong dispatched = new AtomicLong();
+    final AtomicLong exceptions = new AtomicLong();
+    final LatencyHistogram latencies = LatencyHistogram.create();
+
+    void record(long latencyNanos, boolean threw) {
+      latencies.record(latencyNanos);
+      if (threw) {
+        exceptions.incrementAndGet();
+      }
+      dispatched.incrementAndGet();
+    }
+
+    SubscriberMetrics snapshot(Object subscriber, Method subscriberMethod) {
+      long dispatchedCount = dispatched.get();
+      return new SubscriberMetrics(subscriber, subscriberMethod, dispatchedCount,
+          exceptions.get(), Math.max(0, queued.get() - dispatchedCount), latencies.snapshot());
+    }
+  }
+
+  /**
+   * The metrics of a single subscriber method at the time of a
+   * {@linkplain DispatchMetrics#snapshot snapshot}.
+   *
+   * @since 18.0
+   */
+  @Beta
+  public static final class SubscriberMetrics {
+    private final Object subscriber;
+    private final Method subscriberMethod;
+    private final long invocationCount;
+    private final long exceptionCount;
+    private final long pendingCount;
+    private final LatencyHistogram.Snapshot latencies;
+
+    SubscriberMetrics(Object subscriber, Method subscriberMethod, long invocationCount,
+        long exceptionCount, long pendingCount, LatencyHistogram.Snapshot latencies) {
+      this.subscriber = checkNotNull(subscriber);
+      this.subscriberMethod = checkNotNull(subscriberMethod);
+      this.invocationCount = invocationCount;
+      this.exceptionCount = exceptionCount;
+      this.pendingCount = pendingCount;
+      this.latencies = checkNotNull(latencies);
+    }
+
+    /** Returns the object the subscriber method is called on. */
+    public Object getSubscriber() {
+      return subscriber;
+    }
+
+    /** Returns the subscriber method. */
+    public Method getSubscriberMethod() {
+      return subscriberMethod;
+    }
+
+    /** Returns the number of events the subscriber method has handled, or thrown on. */
+    public long invocationCount() {
+      return invocationCount;
+    }
+
+    /** Returns the number of events on which the subscriber method threw. */
+    public long exceptionCount() {
+      return exceptionCount;
+    }
+
+    /**
+     * Returns the number of events that were queued for the subscriber method
+     * but not delivered yet.
+     */
+    public long pendingCount() {
+      return pendingCount;
+    }
+
+    /**
+     * Returns the histogram of how long the subscriber method took to handle
+     * each event. It does not change as more events are dispatched.
+     */
+    public LatencyHistogram.Snapshot latencies() {
+      return latencies;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(this)
+          .add("subscriberMethod", subscriberMethod)
+          .add("invocationCount", invocationCount)
+          .add("exceptionCount", exceptionCount)
+          .add("pendingCount", pendingCount)
+          .add("latencies", latencies)
+          .toString();
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.eventbus;
+
+import com.google.common.annotations.Beta;
+
+import java.lang.reflect.Method;
+
+import javax.annotation.Nullable;
+
+/**
+ * Observes the delivery of events to subscribers, for instance to collect the
+ * {@link DispatchMetrics} of an {@link EventBus}. A bus calls its monitor from
+ * the threads that post and dispatch events, so implementations must be
+ * thread-safe, fast, and must not throw.
+ *
+ * <p>A bus created without a monitor does not measure anything.
+ *
+ * @since 18.0
+ */
+@Beta
+public interface DispatchMonitor {
+  /**
+   * Called when {@code event} is queued for delivery to {@code subscriberMethod}
+   * on {@code subscriber}.
+   */
+  void eventQueued(Object event, Object subscriber, Method subscriberMethod);
+
+  /**
+   * Called when {@code subscriberMethod} on {@code subscriber} returned from
+   * handling {@code event}, or threw {@code exception}.
+   *
+   * @param latencyNanos how long the subscriber method took, in nanoseconds
+   */
+  void eventDispatched(Object event, Object subscriber, Method subscriberMethod,
+      long latencyNanos, @Nullable Throwable exception);
+}
@@ -24,9 +24,11 @@ import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.Sets;
 import com.google.common.reflect.TypeToken;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
@@ -36,11 +38,13 @@ import java.util.LinkedList;
 import java.util.Map.Entry;
 import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
 /**
  * Dispatches events to listeners, and provides ways for listeners to register
  * themselves.
@@ -132,12 +136,44 @@ public class EventBus {
   /**
    * All registered event subscribers, indexed by event type.
    *
-   * <p>This SetMultimap is NOT safe for concurrent use; all access should be
-   * made after acquiring a read or write lock via {@link #subscribersByTypeLock}.
+   * <p>The sets are immutable: {@link #register} and {@link #unregister} replace
+   * the sets of the types they touch while holding {@link #registryLock}, so
+   * readers never need a lock.
+   */
+  private final ConcurrentMap<Class<?>, ImmutableSet<EventSubscriber>> subscribersByType =
+      Maps.newConcurrentMap();
+  private final Object registryLock = new Object();
+
+  /**
+   * Incremented by {@link #register} and {@link #unregister} after they change
+   * {@link #subscribersByType}, while holding {@link #registryLock}.
+   */
+  private volatile int registryVersion;
+
+  /**
+   * The subscribers to dispatch an event of a given concrete class to, including
+   * the subscribers to all of its supertypes. Entries are computed on the first
+   * post of each class and invalidated whenever the registered subscribers
+   * change, so that {@link #post} costs a single lookup once a class is warm.
    */
-  private final SetMultimap<Class<?>, EventSubscriber> subscribersByType =
-      HashMultimap.create();
-  private final ReadWriteLock subscribersByTypeLock = new ReentrantReadWriteLock();
+  private final LoadingCache<Class<?>, ResolvedSubscribers> dispatchCache =
+      CacheBuilder.newBuilder()
+          .weakKeys()
+          .build(new CacheLoader<Class<?>, ResolvedSubscribers>() {
+            @Override
+            public ResolvedSubscribers load(Class<?> concreteClass) {
+              // Read the version first: the subscribers read below are at least that recent.
+              int version = registryVersion;
+              ImmutableList.Builder<EventSubscriber> subscribers = ImmutableList.builder();
+              for (Class<?> eventType : flattenHierarchy(concreteClass)) {
+                Set<EventSubscriber> subscribersForType = subscribersByType.get(eventType);
+                if (subscribersForType != null) {
+                  subscribers.addAll(subscribersForType);
+                }
+              }
+              return new ResolvedSubscribers(version, subscribers.build());
+            }
+          });
 
   /**
    * Strategy for finding subscriber methods in registered objects.  Currently,
@@ -147,10 +183,10 @@ public class EventBus {
   private final SubscriberFindingStrategy finder = new AnnotatedSubscriberFinder();
 
   /** queues of events for the current thread to dispatch */
-  private final ThreadLocal<Queue<EventWithSubscriber>> eventsToDispatch =
-      new ThreadLocal<Queue<EventWithSubscriber>>() {
-    @Override protected Queue<EventWithSubscriber> initialValue() {
-      return new LinkedList<EventWithSubscriber>();
+  private final ThreadLocal<Queue<EventWithSubscribers>> eventsToDispatch =
+      new ThreadLocal<Queue<EventWithSubscribers>>() {
+    @Override protected Queue<EventWithSubscribers> initialValue() {
+      return new LinkedList<EventWithSubscribers>();
     }
   };
 
@@ -164,6 +200,9 @@ public class EventBus {
 
   private SubscriberExceptionHandler subscriberExceptionHandler;
 
+  /** Observes event delivery, or null if this bus does not measure it. */
+  @Nullable private final DispatchMonitor dispatchMonitor;
+
   /**
    * Creates a new EventBus named "default".
    */
@@ -189,6 +228,23 @@ public class EventBus {
    */
   public EventBus(SubscriberExceptionHandler subscriberExceptionHandler) {
     this.subscriberExceptionHandler = checkNotNull(subscriberExceptionHandler);
+    this.dispatchMonitor = null;
+  }
+
+  /**
+   * Creates a new EventBus with the given {@link SubscriberExceptionHandler},
+   * which reports the queueing and delivery of each event to
+   * {@code dispatchMonitor}, such as a {@link DispatchMetrics}.
+   *
+   * @param subscriberExceptionHandler Handler for subscriber exceptions.
+   * @param dispatchMonitor Monitor of event delivery.
+   * @since 18.0
+   */
+  @Beta
+  public EventBus(SubscriberExceptionHandler subscriberExceptionHandler,
+      DispatchMonitor dispatchMonitor) {
+    this.subscriberExceptionHandler = checkNotNull(subscriberExceptionHandler);
+    this.dispatchMonitor = checkNotNull(dispatchMonitor);
   }
 
   /**
@@ -200,14 +256,31 @@ public class EventBus {
    * @param object  object whose subscriber methods should be registered.
    */
   public void register(Object object) {
+    addSubscribers(object);
+  }
+
+  /**
+   * Registers all subscriber methods on {@code object}, like {@link #register},
+   * and returns them by event type.
+   */
+  Multimap<Class<?>, EventSubscriber> addSubscribers(Object object) {
     Multimap<Class<?>, EventSubscriber> methodsInListener =
         finder.findAllSubscribers(object);
-    subscribersByTypeLock.writeLock().lock();
-    try {
-      subscribersByType.putAll(methodsInListener);
-    } finally {
-      subscribersByTypeLock.writeLock().unlock();
+    synchronized (registryLock) {
+      for (Entry<Class<?>, Collection<EventSubscriber>> entry :
+            methodsInListener.asMap().entrySet()) {
+        Class<?> eventType = entry.getKey();
+        ImmutableSet<EventSubscriber> currentSubscribers = subscribersByType.get(eventType);
+        subscribersByType.put(eventType, currentSubscribers == null
+            ? ImmutableSet.copyOf(entry.getValue())
+            : ImmutableSet.<EventSubscriber>builder()
+                .addAll(currentSubscribers)
+                .addAll(entry.getValue())
+                .build());
+      }
+      invalidateDispatchCache();
     }
+    return methodsInListener;
   }
 
   /**
@@ -218,22 +291,50 @@ public class EventBus {
    */
   public void unregister(Object object) {
     Multimap<Class<?>, EventSubscriber> methodsInListener = finder.findAllSubscribers(object);
-    for (Entry<Class<?>, Collection<EventSubscriber>> entry :
-          methodsInListener.asMap().entrySet()) {
-      Class<?> eventType = entry.getKey();
-      Collection<EventSubscriber> eventMethodsInListener = entry.getValue();
-
-      subscribersByTypeLock.writeLock().lock();
-      try {
-        Set<EventSubscriber> currentSubscribers = subscribersByType.get(eventType);
-        if (!currentSubscribers.containsAll(eventMethodsInListener)) {
+    synchronized (registryLock) {
+      for (Entry<Class<?>, Collection<EventSubscriber>> entry :
+            methodsInListener.asMap().entrySet()) {
+        Set<EventSubscriber> currentSubscribers = subscribersByType.get(entry.getKey());
+        if (currentSubscribers == null || !currentSubscribers.containsAll(entry.getValue())) {
           throw new IllegalArgumentException(
               "missing event subscriber for an annotated method. Is " + object + " registered?");
         }
-        currentSubscribers.removeAll(eventMethodsInListener);
-      } finally {
-        subscribersByTypeLock.writeLock().unlock();
       }
+      for (Entry<Class<?>, Collection<EventSubscriber>> entry :
+            methodsInListener.asMap().entrySet()) {
+        Class<?> eventType = entry.getKey();
+        ImmutableSet<EventSubscriber> remainingSubscribers = ImmutableSet.copyOf(Sets.difference(
+            subscribersByType.get(eventType), ImmutableSet.copyOf(entry.getValue())));
+        if (remainingSubscribers.isEmpty()) {
+          subscribersByType.remove(eventType);
+        } else {
+          subscribersByType.put(eventType, remainingSubscribers);
+        }
+      }
+      invalidateDispatchCache();
+    }
+  }
+
+  /**
+   * Discards the subscribers resolved for each event class. A post that is
+   * concurrently resolving a class may still store its result afterwards, but
+   * that result carries the previous version, so {@link #subscribersFor}
+   * resolves the class again.
+   */
+  @GuardedBy("registryLock")
+  private void invalidateDispatchCache() {
+    registryVersion++;
+    dispatchCache.invalidateAll();
+  }
+
+  /** The subscribers resolved for an event class, and the registry version they reflect. */
+  private static final class ResolvedSubscribers {
+    final int registryVersion;
+    final ImmutableList<EventSubscriber> subscribers;
+
+    ResolvedSubscribers(int registryVersion, ImmutableList<EventSubscriber> subscribers) {
+      this.registryVersion = registryVersion;
+      this.subscribers = subscribers;
     }
   }
 
@@ -249,26 +350,11 @@ public class EventBus {
    * @param event  event to post.
    */
   public void post(Object event) {
-    Set<Class<?>> dispatchTypes = flattenHierarchy(event.getClass());
-
-    boolean dispatched = false;
-    for (Class<?> eventType : dispatchTypes) {
-      subscribersByTypeLock.readLock().lock();
-      try {
-        Set<EventSubscriber> wrappers = subscribersByType.get(eventType);
-
-        if (!wrappers.isEmpty()) {
-          dispatched = true;
-          for (EventSubscriber wrapper : wrappers) {
-            enqueueEvent(event, wrapper);
-          }
-        }
-      } finally {
-        subscribersByTypeLock.readLock().unlock();
-      }
-    }
+    ImmutableList<EventSubscriber> subscribers = subscribersFor(event.getClass());
 
-    if (!dispatched && !(event instanceof DeadEvent)) {
+    if (!subscribers.isEmpty()) {
+      enqueueEvent(event, subscribers);
+    } else if (!(event instanceof DeadEvent)) {
       post(new DeadEvent(this, event));
     }
 
@@ -276,12 +362,45 @@ public class EventBus {
   }
 
   /**
-   * Queue the {@code event} for dispatch during
+   * Returns the subscribers to dispatch an event of class {@code concreteClass}
+   * to, which include the subscribers to all of its supertypes.
+   */
+  @VisibleForTesting
+  ImmutableList<EventSubscriber> subscribersFor(Class<?> concreteClass) {
+    try {
+      ResolvedSubscribers resolved = dispatchCache.getUnchecked(concreteClass);
+      while (resolved.registryVersion != registryVersion) {
+        dispatchCache.asMap().remove(concreteClass, resolved);
+        resolved = dispatchCache.getUnchecked(concreteClass);
+      }
+      return resolved.subscribers;
+    } catch (UncheckedExecutionException e) {
+      throw Throwables.propagate(e.getCause());
+    }
+  }
+
+  /**
+   * Queue the {@code event} for dispatch to each of {@code subscribers} during
    * {@link #dispatchQueuedEvents()}. Events are queued in-order of occurrence
    * so they can be dispatched in the same order.
    */
-  void enqueueEvent(Object event, EventSubscriber subscriber) {
-    eventsToDispatch.get().offer(new EventWithSubscriber(event, subscriber));
+  void enqueueEvent(Object event, ImmutableList<EventSubscriber> subscribers) {
+    if (dispatchMonitor != null) {
+      for (EventSubscriber subscriber : subscribers) {
+        eventQueued(event, subscriber);
+      }
+    }
+    eventsToDispatch.get().offer(new EventWithSubscribers(event, subscribers));
+  }
+
+  /**
+   * Reports to this bus's {@link DispatchMonitor}, if any, that {@code event}
+   * was queued for the subscriber in {@code wrapper}.
+   */
+  void eventQueued(Object event, EventSubscriber wrapper) {
+    if (dispatchMonitor != null) {
+      dispatchMonitor.eventQueued(event, wrapper.getSubscriber(), wrapper.getMethod());
+    }
   }
 
   /**
@@ -298,10 +417,10 @@ public class EventBus {
 
     isDispatching.set(true);
     try {
-      Queue<EventWithSubscriber> events = eventsToDispatch.get();
-      EventWithSubscriber eventWithSubscriber;
-      while ((eventWithSubscriber = events.poll()) != null) {
-        dispatch(eventWithSubscriber.event, eventWithSubscriber.subscriber);
+      Queue<EventWithSubscribers> events = eventsToDispatch.get();
+      EventWithSubscribers eventWithSubscribers;
+      while ((eventWithSubscribers = events.poll()) != null) {
+        eventWithSubscribers.dispatchTo(this);
       }
     } finally {
       isDispatching.remove();
@@ -318,25 +437,62 @@ public class EventBus {
    * @param wrapper  wrapper that will call the subscriber.
    */
   void dispatch(Object event, EventSubscriber wrapper) {
+    if (dispatchMonitor != null) {
+      dispatchMonitored(event, wrapper, dispatchMonitor);
+      return;
+    }
     try {
       wrapper.handleEvent(event);
     } catch (InvocationTargetException e) {
-      try {
-        subscriberExceptionHandler.handleException(
-            e.getCause(),
-            new SubscriberExceptionContext(
-                this,
-                event,
-                wrapper.getSubscriber(),
-                wrapper.getMethod()));
-      } catch (Throwable t) {
-        // If the exception handler throws, log it. There isn't much else to do!
-        Logger.getLogger(EventBus.class.getName()).log(Level.SEVERE,
-             String.format(
-            "Exception %s thrown while handling exception: %s", t,
-            e.getCause()),
-            t);
-      }
+      handleSubscriberException(e.getCause(), event, wrapper);
+    }
+  }
+
+  /**
+   * Dispatches {@code event} like {@link #dispatch}, timing the subscriber and
+   * reporting the outcome to {@code monitor}.
+   */
+  private void dispatchMonitored(
+      Object event, EventSubscriber wrapper, DispatchMonitor monitor) {
+    Throwable exception = null;
+    long start = System.nanoTime();
+    try {
+      wrapper.handleEvent(event);
+    } catch (InvocationTargetException e) {
+      exception = e.getCause();
+    } catch (Error e) {
+      exception = e;
+      throw e;
+    } finally {
+      monitor.eventDispatched(event, wrapper.getSubscriber(), wrapper.getMethod(),
+          System.nanoTime() - start, exception);
+    }
+    if (exception != null) {
+      handleSubscriberException(exception, event, wrapper);
+    }
+  }
+
+  /**
+   * Passes {@code exception}, which occurred while delivering {@code event} to
+   * the subscriber in {@code wrapper}, to this bus's
+   * {@link SubscriberExceptionHandler}.
+   */
+  void handleSubscriberException(Throwable exception, Object event, EventSubscriber wrapper) {
+    try {
+      subscriberExceptionHandler.handleException(
+          exception,
+          new SubscriberExceptionContext(
+              this,
+              event,
+              wrapper.getSubscriber(),
+              wrapper.getMethod()));
+    } catch (Throwable t) {
+      // If the exception handler throws, log it. There isn't much else to do!
+      Logger.getLogger(EventBus.class.getName()).log(Level.SEVERE,
+           String.format(
+          "Exception %s thrown while handling exception: %s", t,
+          exception),
+          t);
     }
   }
 
@@ -387,13 +543,20 @@ public class EventBus {
     }
   }
 
-  /** simple struct representing an event and it's subscriber */
-  static class EventWithSubscriber {
+  /** simple struct representing an event and all of its subscribers */
+  static class EventWithSubscribers {
     final Object event;
-    final EventSubscriber subscriber;
-    public EventWithSubscriber(Object event, EventSubscriber subscriber) {
+    final ImmutableList<EventSubscriber> subscribers;
+    public EventWithSubscribers(Object event, ImmutableList<EventSubscriber> subscribers) {
       this.event = checkNotNull(event);
-      this.subscriber = checkNotNull(subscriber);
+      this.subscribers = checkNotNull(subscribers);
+    }
+
+    /** Dispatches the event to each subscriber in turn, through {@code bus}. */
+    void dispatchTo(EventBus bus) {
+      for (EventSubscriber subscriber : subscribers) {
+        bus.dispatch(event, subscriber);
+      }
     }
   }
 }
@@ -57,7 +57,10 @@ class EventSubscriber {
 
     this.target = target;
     this.method = method;
-    method.setAccessible(true);
+    if (!method.isAccessible()) {
+      // methods found by AnnotatedSubscriberFinder were already made accessible, once per class
+      method.setAccessible(true);
+    }
   }
 
   /**
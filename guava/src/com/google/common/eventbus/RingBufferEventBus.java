@@ -0,0 +1,478 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.eventbus;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An {@link EventBus} for high event rates, which passes events through a
+ * preallocated ring buffer rather than through queues of per-event tasks.
+ *
+ * <p>Posting an event claims the next slot of the ring, stores the event in it
+ * and publishes the slot, without allocating anything. Each registered object
+ * gets its own consumer: a long-running task on the executor given at
+ * construction, which follows the ring by sequence number and delivers each
+ * event to that object's subscriber methods. A consumer that fell behind
+ * catches up in batches, handling every event that was published since it
+ * last looked without waiting in between.
+ *
+ * <p>Events are delivered to every registered object in the order they were
+ * published, and each object receives them on its consumer's thread only, so
+ * subscriber methods are never called concurrently. Objects receive only the
+ * events posted after they were registered.
+ *
+ * <p>The ring holds {@code bufferSize} events. When it is full, because the
+ * slowest consumer is {@code bufferSize} events behind, {@link #post} waits
+ * for that consumer to make room. Consequently, a subscriber method must not
+ * post events to the bus that called it. {@link #lag} reports how far behind
+ * each consumer is.
+ *
+ * <p>Since each registered object occupies an executor thread until it is
+ * {@linkplain #unregister unregistered}, the executor should be able to run
+ * one task per registered object at once, like
+ * {@link java.util.concurrent.Executors#newCachedThreadPool()}. Unregister
+ * every object once the bus is no longer needed.
+ *
+ * @since 18.0
+ */
+@Beta
+public class RingBufferEventBus extends EventBus {
+  /**
+   * How a consumer waits for events to be published.
+   *
+   * @since 18.0
+   */
+  public enum WaitStrategy {
+    /**
+     * Spins on the published sequence. This gives the lowest latency, but keeps
+     * one processor busy per registered object, even while no events are
+     * posted.
+     */
+    BUSY_SPIN,
+
+    /**
+     * Spins for a while, then {@linkplain Thread#yield yields} between checks.
+     * This is a good compromise when there are enough processors for all
+     * consumers.
+     */
+    YIELDING,
+
+    /**
+     * Sleeps on a condition that publishing signals. This uses the least
+     * processor time, but adds the latency of waking up a thread, and makes
+     * each post signal the condition while a consumer is waiting.
+     */
+    BLOCKING
+  }
+
+  private static final int SPIN_TRIES = 100;
+
+  /** The sequence of a consumer that has not been assigned its first sequence yet. */
+  private static final long JOINING = Long.MIN_VALUE;
+
+  private final Executor executor;
+  private final WaitStrategy waitStrategy;
+  private final int mask;
+
+  /** The events, indexed by {@code sequence & mask}. */
+  private final AtomicReferenceArray<Object> events;
+
+  /** The sequence each slot was last published with, so consumers can tell when it is ready. */
+  private final AtomicLongArray publishedSequences;
+
+  /**
+   * The number of consumers that have yet to read the event in each slot. The last one clears
+   * the slot, so that the ring does not keep delivered events reachable.
+   */
+  private final AtomicIntegerArray pendingReaders;
+
+  /** The highest sequence claimed by a producer so far. */
+  private final AtomicLong claimed = new AtomicLong(-1);
+
+  /** A lower bound of the sequences of all consumers, refreshed when producers approach it. */
+  private final AtomicLong gatingSequenceCache = new AtomicLong(-1);
+
+  /**
+   * The consumers that producers must not overtake. The array is replaced, never modified, while
+   * holding the lock on {@link #consumersByListener}. A consumer leaves it only once it has
+   * stopped reading the ring, since it could otherwise clear a slot the producers reused.
+   */
+  private volatile Consumer[] consumers = new Consumer[0];
+  private final Map<Object, Consumer> consumersByListener = Maps.newIdentityHashMap();
+
+  /** Used by the {@link WaitStrategy#BLOCKING} strategy only. */
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition published = lock.newCondition();
+  private final AtomicInteger blockedConsumers = new AtomicInteger();
+
+  /**
+   * Creates a new RingBufferEventBus named {@code identifier}.
+   *
+   * @param identifier short name for the bus, for logging purposes.
+   * @param executor Executor to run the consumer of each registered object
+   *        on. It must be able to run as many tasks at once as there are
+   *        registered objects.
+   * @param bufferSize the number of events in the ring, which must be a power
+   *        of two.
+   * @param waitStrategy how consumers wait for events to be posted.
+   * @throws IllegalArgumentException if {@code bufferSize} is not a positive
+   *         power of two
+   */
+  public RingBufferEventBus(
+      String identifier, Executor executor, int bufferSize, WaitStrategy waitStrategy) {
+    super(identifier);
+    this.executor = checkNotNull(executor);
+    this.waitStrategy = checkNotNull(waitStrategy);
+    checkArgument(bufferSize > 0 && (bufferSize & (bufferSize - 1)) == 0,
+        "bufferSize must be a positive power of two: %s", bufferSize);
+    this.mask = bufferSize - 1;
+    this.events = new AtomicReferenceArray<Object>(bufferSize);
+    this.publishedSequences = new AtomicLongArray(bufferSize);
+    this.pendingReaders = new AtomicIntegerArray(bufferSize);
+    for (int i = 0; i < bufferSize; i++) {
+      publishedSequences.set(i, -1);
+    }
+  }
+
+  /**
+   * Registers all subscriber methods on {@code object} to receive events, and
+   * starts a consumer for them on this bus's executor. Registering an object
+   * that is already registered has no effect.
+   *
+   * @throws java.util.concurrent.RejectedExecutionException if the executor
+   *         rejects the consumer, in which case {@code object} is not
+   *         registered
+   */
+  @Override
+  public void register(Object object) {
+    Consumer consumer;
+    synchronized (consumersByListener) {
+      if (consumersByListener.containsKey(object)) {
+        return;
+      }
+      consumer = new Consumer(object, addSubscribers(object));
+      consumersByListener.put(object, consumer);
+      // Producers must see the new consumer before it picks its first sequence. Otherwise, one
+      // that is not aware of it yet could claim slots the consumer still has to read. Meanwhile,
+      // its JOINING sequence holds back any producer that needs to know how far it is.
+      Consumer[] newConsumers = Arrays.copyOf(consumers, consumers.length + 1);
+      newConsumers[consumers.length] = consumer;
+      consumers = newConsumers;
+      consumer.sequence.set(claimed.get());
+    }
+    boolean threw = true;
+    try {
+      executor.execute(consumer);
+      threw = false;
+    } finally {
+      if (threw) {
+        unregister(object);
+      }
+    }
+  }
+
+  /**
+   * Unregisters all subscriber methods on a registered {@code object}, and
+   * stops its consumer. Events that were posted but not yet delivered to it
+   * are discarded. Until the consumer has finished the event it is currently
+   * delivering, if any, producers may still wait for it to make room.
+   *
+   * @throws IllegalArgumentException if the object was not previously registered.
+   */
+  @Override
+  public void unregister(Object object) {
+    checkNotNull(object);
+    Consumer consumer;
+    synchronized (consumersByListener) {
+      consumer = consumersByListener.remove(object);
+      if (consumer == null) {
+        throw new IllegalArgumentException(
+            "missing event subscriber for an annotated method. Is " + object + " registered?");
+      }
+      super.unregister(object);
+    }
+    consumer.running = false;
+    if (!consumer.started.compareAndSet(false, true)) {
+      // The consumer removes itself once it notices that it was stopped.
+      if (waitStrategy == WaitStrategy.BLOCKING) {
+        signalConsumers();
+      }
+    } else {
+      // It never ran, and now never will.
+      removeConsumer(consumer);
+    }
+  }
+
+  /**
+   * Publishes an event to the consumers of all registered objects, waiting
+   * first if the ring is full. This method returns once the event is
+   * published, usually before it is delivered.
+   *
+   * <p>If no registered object subscribes to {@code event}'s class, and
+   * {@code event} is not already a {@link DeadEvent}, a DeadEvent wrapping it
+   * is posted instead. The ring no longer refers to an event once every
+   * consumer has handled it.
+   *
+   * @param event  event to post.
+   */
+  @Override
+  public void post(Object event) {
+    if (subscribersFor(event.getClass()).isEmpty()) {
+      if (!(event instanceof DeadEvent)) {
+        post(new DeadEvent(this, event));
+      }
+      return;
+    }
+    long sequence = claimNext();
+    int index = (int) sequence & mask;
+    // Every consumer that will read this sequence is already in consumers: one that joins later
+    // starts from a sequence at least as high.
+    int readers = consumers.length;
+    pendingReaders.set(index, readers);
+    events.set(index, (readers == 0) ? null : event);
+    publishedSequences.set(index, sequence);
+    if (waitStrategy == WaitStrategy.BLOCKING && blockedConsumers.get() > 0) {
+      signalConsumers();
+    }
+  }
+
+  /**
+   * Returns the number of events that were posted to this bus but not yet
+   * delivered to the subscriber methods of {@code object}.
+   *
+   * @throws IllegalArgumentException if the object is not registered.
+   */
+  public long lag(Object object) {
+    checkNotNull(object);
+    Consumer consumer;
+    synchronized (consumersByListener) {
+      consumer = consumersByListener.get(object);
+    }
+    checkArgument(consumer != null, "%s is not registered", object);
+    return Math.max(0, claimed.get() - consumer.sequence.get());
+  }
+
+  private long claimNext() {
+    while (true) {
+      long current = claimed.get();
+      long next = current + 1;
+      long wrapPoint = next - (mask + 1);
+      if (wrapPoint > gatingSequenceCache.get()) {
+        // Without consumers, the gate is what was claimed so far, not next: a consumer that joins
+        // before the cache is set starts from claimed, and must not be overtaken.
+        long gatingSequence = minimumConsumerSequence(current);
+        if (wrapPoint > gatingSequence) {
+          // the slowest consumer has not read this slot's previous event yet
+          LockSupport.parkNanos(1);
+          continue;
+        }
+        gatingSequenceCache.set(gatingSequence);
+      } else if (claimed.compareAndSet(current, next)) {
+        return next;
+      }
+    }
+  }
+
+  private long minimumConsumerSequence(long defaultSequence) {
+    while (true) {
+      Consumer[] snapshot = consumers;
+      long minimum = defaultSequence;
+      for (Consumer consumer : snapshot) {
+        minimum = Math.min(minimum, consumer.sequence.get());
+      }
+      // If a consumer joined while we were reading, the sequences we read may be ahead of the one
+      // it started from.
+      if (snapshot == consumers) {
+        return minimum;
+      }
+    }
+  }
+
+  private void removeConsumer(Consumer consumer) {
+    synchronized (consumersByListener) {
+      Consumer[] current = consumers;
+      int index = Arrays.asList(current).indexOf(consumer);
+      if (index >= 0) {
+        Consumer[] newConsumers = new Consumer[current.length - 1];
+        System.arraycopy(current, 0, newConsumers, 0, index);
+        System.arraycopy(current, index + 1, newConsumers, index, current.length - index - 1);
+        consumers = newConsumers;
+      }
+    }
+  }
+
+  /**
+   * Returns the highest sequence from {@code next} on up to which all events
+   * were published, or {@code next - 1} if the event of sequence {@code next}
+   * was not published yet.
+   */
+  private long highestPublished(long next) {
+    long highest = next - 1;
+    long upper = claimed.get();
+    for (long sequence = next; sequence <= upper; sequence++) {
+      if (publishedSequences.get((int) sequence & mask) != sequence) {
+        break;
+      }
+      highest = sequence;
+    }
+    return highest;
+  }
+
+  private void signalConsumers() {
+    lock.lock();
+    try {
+      published.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits according to the wait strategy until the event of sequence
+   * {@code next} is published, and returns the highest published sequence, or
+   * {@code next - 1} if {@code consumer} was stopped in the meantime.
+   */
+  private long waitFor(long next, Consumer consumer) throws InterruptedException {
+    long highest;
+    int tries = 0;
+    while ((highest = highestPublished(next)) < next && consumer.running) {
+      switch (waitStrategy) {
+        case BUSY_SPIN:
+          break;
+        case YIELDING:
+          if (tries < SPIN_TRIES) {
+            tries++;
+          } else {
+            Thread.yield();
+          }
+          break;
+        case BLOCKING:
+          lock.lock();
+          try {
+            // Announce ourselves before checking again, so that a producer either sees us waiting
+            // or published before our check.
+            blockedConsumers.incrementAndGet();
+            try {
+              while (highestPublished(next) < next && consumer.running) {
+                published.await();
+              }
+            } finally {
+              blockedConsumers.decrementAndGet();
+            }
+          } finally {
+            lock.unlock();
+          }
+          break;
+        default:
+          throw new AssertionError(waitStrategy);
+      }
+    }
+    return highest;
+  }
+
+  /** Follows the ring on behalf of one registered object. */
+  private final class Consumer implements Runnable {
+    private final Object listener;
+    private final Multimap<Class<?>, EventSubscriber> subscribersByType;
+
+    /** The subscribers for each concrete event class; only used by the consumer thread. */
+    private final Map<Class<?>, ImmutableList<EventSubscriber>> subscribersByClass =
+        Maps.newHashMap();
+
+    /** The sequence of the last event handled by this consumer. */
+    final AtomicLong sequence = new AtomicLong(JOINING);
+
+    volatile boolean running = true;
+
+    /** Set by the first of {@link #run} and {@link #unregister} to claim this consumer. */
+    final AtomicBoolean started = new AtomicBoolean();
+
+    Consumer(Object listener, Multimap<Class<?>, EventSubscriber> subscribersByType) {
+      this.listener = listener;
+      this.subscribersByType = subscribersByType;
+    }
+
+    @Override
+    public void run() {
+      if (!started.compareAndSet(false, true)) {
+        return; // unregistered before it started
+      }
+      try {
+        long next = sequence.get() + 1;
+        while (running) {
+          long highest = waitFor(next, this);
+          for (; next <= highest && running; next++) {
+            int index = (int) next & mask;
+            Object event = events.get(index);
+            // Our sequence is still below next, so no producer can reuse the slot meanwhile.
+            if (pendingReaders.decrementAndGet(index) == 0) {
+              events.set(index, null);
+            }
+            deliver(event);
+          }
+          sequence.lazySet(next - 1);
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        // stopped, interrupted, or an Error is bubbling up: stop gating the producers
+        removeConsumer(this);
+      }
+    }
+
+    private void deliver(Object event) {
+      ImmutableList<EventSubscriber> subscribers = subscribersByClass.get(event.getClass());
+      if (subscribers == null) {
+        ImmutableList.Builder<EventSubscriber> builder = ImmutableList.builder();
+        for (Class<?> eventType : flattenHierarchy(event.getClass())) {
+          Collection<EventSubscriber> subscribersForType = subscribersByType.get(eventType);
+          builder.addAll(subscribersForType);
+        }
+        subscribers = builder.build();
+        subscribersByClass.put(event.getClass(), subscribers);
+      }
+      for (EventSubscriber subscriber : subscribers) {
+        dispatch(event, subscriber);
+      }
+    }
+
+    @Override
+    public String toString() {
+      return "RingBufferEventBus consumer for " + listener;
+    }
+  }
+}
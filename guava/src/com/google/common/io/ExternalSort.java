@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Lists;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Sorts the lines of text sources that may be too large to sort in memory. Lines are read into
+ * memory until they reach a budget, sorted, and written to a temporary file as a sorted run; once
+ * the whole source has been read, the runs are merged into the sink with
+ * {@link Iterators#mergeSorted}. A source that fits within the budget is sorted in memory, without
+ * temporary files.
+ *
+ * @since 18.0
+ */
+@Beta
+public final class ExternalSort {
+  private ExternalSort() {}
+
+  /**
+   * The most runs that are merged at once. A merge of more runs than this is done in several
+   * passes, each of which merges groups of runs into longer runs, so that the number of files open
+   * at once, and the memory taken by their buffers, stays bounded.
+   */
+  private static final int MAX_MERGE_FAN_IN = 64;
+
+  /**
+   * Writes the lines of {@code source} to {@code sink}, sorted by {@code comparator}, each
+   * terminated with the operating system's default line separator. The sort is stable. Lines are
+   * broken as in {@link CharSource#readLines()}.
+   *
+   * <p>At most {@code maxCharsInMemory} chars of lines, or a single longer line, are held in
+   * memory at once, not counting the overhead of the {@code String} objects that hold them. The
+   * sorted runs are written to a new directory in the default temporary directory, as by
+   * {@link Files#createTempDir}, and are deleted before this method returns, even if it throws.
+   *
+   * @throws IllegalArgumentException if {@code maxCharsInMemory} is not positive
+   * @throws IOException if an I/O error occurs in the process of reading from {@code source},
+   *     writing to {@code sink} or using the temporary files
+   */
+  public static void sortLines(CharSource source, CharSink sink,
+      Comparator<? super String> comparator, long maxCharsInMemory) throws IOException {
+    sortLines(source, sink, comparator, maxCharsInMemory, null, MAX_MERGE_FAN_IN);
+  }
+
+  /**
+   * Like {@link #sortLines(CharSource, CharSink, Comparator, long)}, but writes the runs to
+   * {@code tempDir} instead of to a new directory, unless {@code tempDir} is null, and merges at
+   * most {@code maxFanIn} runs at once.
+   */
+  @VisibleForTesting static void sortLines(CharSource source, CharSink sink,
+      Comparator<? super String> comparator, long maxCharsInMemory, File tempDir, int maxFanIn)
+      throws IOException {
+    checkNotNull(source);
+    checkNotNull(sink);
+    checkNotNull(comparator);
+    checkArgument(maxCharsInMemory > 0, "maxCharsInMemory (%s) must be positive",
+        maxCharsInMemory);
+    checkArgument(maxFanIn >= 2, "maxFanIn (%s) must be at least 2", maxFanIn);
+
+    File runDir = null;
+    List<File> runs = Lists.newArrayList();
+    List<File> runFiles = Lists.newArrayList(); // every run written, to be deleted at the end
+    try {
+      List<String> lines = Lists.newArrayList();
+      long charsInMemory = 0;
+      Closer closer = Closer.create();
+      try {
+        BufferedReader reader = closer.register(source.openBufferedStream());
+        String line;
+        while ((line = reader.readLine()) != null) {
+          if (charsInMemory + line.length() > maxCharsInMemory && !lines.isEmpty()) {
+            if (runDir == null) {
+              runDir = (tempDir == null) ? Files.createTempDir() : tempDir;
+            }
+            runs.add(writeRun(sorted(lines, comparator), runDir, runFiles));
+            lines.clear();
+            charsInMemory = 0;
+          }
+          lines.add(line);
+          charsInMemory += line.length();
+        }
+      } catch (Throwable e) {
+        throw closer.rethrow(e);
+      } finally {
+        closer.close();
+      }
+
+      if (runs.isEmpty()) {
+        sink.writeLines(sorted(lines, comparator));
+        return;
+      }
+      if (!lines.isEmpty()) {
+        runs.add(writeRun(sorted(lines, comparator), runDir, runFiles));
+      }
+      lines = null; // let the last lines be collected while the runs are merged
+
+      // Merge groups of runs into longer runs until one pass can merge them all. Each group is a
+      // range of consecutive runs, and merged runs replace it in order, which keeps the sort stable.
+      while (runs.size() > maxFanIn) {
+        List<File> mergedRuns = Lists.newArrayList();
+        for (List<File> group : Lists.partition(runs, maxFanIn)) {
+          if (group.size() == 1) {
+            mergedRuns.add(group.get(0));
+          } else {
+            mergedRuns.add(mergeRuns(group, comparator, runDir, runFiles));
+          }
+        }
+        runs = mergedRuns;
+      }
+      writeMerged(runs, comparator, sink);
+    } finally {
+      for (File run : runFiles) {
+        run.delete();
+      }
+      if (runDir != null && tempDir == null) {
+        runDir.delete();
+      }
+    }
+  }
+
+  private static List<String> sorted(List<String> lines, Comparator<? super String> comparator) {
+    Collections.sort(lines, comparator);
+    return lines;
+  }
+
+  /*
+   * A run file holds the number of lines in it, as a long, followed by each line as its length and
+   * its chars, written as by DataOutput. Unlike text in some charset, this can hold any string,
+   * including one with unpaired surrogates, unchanged.
+   */
+
+  /** Writes {@code lineCount} lines to a new run file, which is added to {@code runFiles}. */
+  private static File writeRun(Iterator<String> lines, long lineCount, File runDir,
+      List<File> runFiles) throws IOException {
+    File run = new File(runDir, "run-" + runFiles.size());
+    runFiles.add(run);
+    Closer closer = Closer.create();
+    try {
+      DataOutputStream out = closer.register(
+          new DataOutputStream(new BufferedOutputStream(new FileOutputStream(run))));
+      out.writeLong(lineCount);
+      while (lines.hasNext()) {
+        String line = lines.next();
+        out.writeInt(line.length());
+        out.writeChars(line);
+      }
+      out.flush();
+    } catch (Throwable e) {
+      throw closer.rethrow(e);
+    } finally {
+      closer.close();
+    }
+    return run;
+  }
+
+  private static File writeRun(List<String> lines, File runDir, List<File> runFiles)
+      throws IOException {
+    return writeRun(lines.iterator(), lines.size(), runDir, runFiles);
+  }
+
+  /** Merges {@code runs} into a new run, and deletes them. */
+  private static File mergeRuns(List<File> runs, Comparator<? super String> comparator,
+      File runDir, List<File> runFiles) throws IOException {
+    Closer closer = Closer.create();
+    File merged;
+    try {
+      List<RunIterator> readers = openRuns(runs, closer);
+      long lineCount = 0;
+      for (RunIterator reader : readers) {
+        lineCount += reader.remaining;
+      }
+      try {
+        merged = writeRun(
+            Iterators.mergeSorted(readers, comparator), lineCount, runDir, runFiles);
+      } catch (IllegalStateException e) {
+        throw unwrap(e);
+      }
+    } catch (Throwable e) {
+      throw closer.rethrow(e);
+    } finally {
+      closer.close();
+    }
+    for (File run : runs) {
+      run.delete();
+    }
+    return merged;
+  }
+
+  private static void writeMerged(List<File> runs, Comparator<? super String> comparator,
+      CharSink sink) throws IOException {
+    String lineSeparator = System.getProperty("line.separator");
+    Closer closer = Closer.create();
+    try {
+      List<RunIterator> readers = openRuns(runs, closer);
+      Writer out = closer.register(sink.openBufferedStream());
+      try {
+        // mergeSorted reads the first line of each run right away
+        Iterator<String> merged = Iterators.mergeSorted(readers, comparator);
+        while (merged.hasNext()) {
+          out.append(merged.next()).append(lineSeparator);
+        }
+      } catch (IllegalStateException e) {
+        throw unwrap(e);
+      }
+      out.flush();
+    } catch (Throwable e) {
+      throw closer.rethrow(e);
+    } finally {
+      closer.close();
+    }
+  }
+
+  private static List<RunIterator> openRuns(List<File> runs, Closer closer) throws IOException {
+    List<RunIterator> readers = Lists.newArrayListWithCapacity(runs.size());
+    for (File run : runs) {
+      DataInputStream in = closer.register(
+          new DataInputStream(new BufferedInputStream(new FileInputStream(run))));
+      readers.add(new RunIterator(in));
+    }
+    return readers;
+  }
+
+  /**
+   * Returns the {@code IOException} that a {@link RunIterator} wrapped in {@code e}, or rethrows
+   * {@code e} if it is some other exception.
+   */
+  private static IOException unwrap(IllegalStateException e) {
+    if (e.getCause() instanceof IOException) {
+      return (IOException) e.getCause();
+    }
+    throw e;
+  }
+
+  /**
+   * Iterates over the lines of a run file. Since an {@code Iterator} can't throw an
+   * {@code IOException}, one that occurs is wrapped in an {@code IllegalStateException}, as in
+   * {@link ByteArrayDataInput}.
+   */
+  private static final class RunIterator extends AbstractIterator<String> {
+    private final DataInputStream in;
+    private long remaining;
+
+    RunIterator(DataInputStream in) throws IOException {
+      this.in = in;
+      this.remaining = in.readLong();
+    }
+
+    @Override protected String computeNext() {
+      if (remaining == 0) {
+        return endOfData();
+      }
+      try {
+        char[] chars = new char[in.readInt()];
+        for (int i = 0; i < chars.length; i++) {
+          chars[i] = in.readChar();
+        }
+        remaining--;
+        return new String(chars);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -0,0 +1,482 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.primitives;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkPositionIndexes;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.GwtCompatible;
+import com.google.common.annotations.GwtIncompatible;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * An immutable array of {@code int} values, which stores them unboxed. An {@code ImmutableIntArray}
+ * of a million values occupies about 4 MB, where an {@code ImmutableList<Integer>} of the same
+ * values occupies about 20 MB, and it may be shared freely between threads.
+ *
+ * <p>{@link #subArray} returns a view of a range of the values without copying them, and
+ * {@link #asList} returns a {@code List<Integer>} view for code that expects a collection; that
+ * view boxes the values only as they are read.
+ *
+ * <p>Unlike {@link Ints#asList}, which wraps an array that its caller may still modify, an
+ * {@code ImmutableIntArray} is created only by copying values, or through a {@link Builder}.
+ *
+ * @since 18.0
+ */
+@Beta
+@Immutable
+@GwtCompatible
+public final class ImmutableIntArray implements Serializable {
+  private static final ImmutableIntArray EMPTY = new ImmutableIntArray(new int[0]);
+
+  /**
+   * Returns the empty array.
+   */
+  public static ImmutableIntArray of() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns an immutable array containing the given values, in order.
+   */
+  public static ImmutableIntArray of(int... values) {
+    return copyOf(values);
+  }
+
+  /**
+   * Returns an immutable array containing the given values, in order.
+   */
+  public static ImmutableIntArray copyOf(int[] values) {
+    return (values.length == 0) ? EMPTY : new ImmutableIntArray(values.clone());
+  }
+
+  /**
+   * Returns an immutable array containing the given values, in order.
+   *
+   * @throws NullPointerException if any of {@code values} is null
+   */
+  public static ImmutableIntArray copyOf(Collection<Integer> values) {
+    return values.isEmpty() ? EMPTY : new ImmutableIntArray(Ints.toArray(values));
+  }
+
+  /**
+   * Returns an immutable array containing the given values, in order.
+   *
+   * @throws NullPointerException if any of {@code values} is null
+   */
+  public static ImmutableIntArray copyOf(Iterable<Integer> values) {
+    if (values instanceof Collection) {
+      return copyOf((Collection<Integer>) values);
+    }
+    return builder().addAll(values).build();
+  }
+
+  /**
+   * Returns a new, empty builder for {@code ImmutableIntArray} instances.
+   */
+  public static Builder builder() {
+    return new Builder(10);
+  }
+
+  /**
+   * Returns a new, empty builder for {@code ImmutableIntArray} instances, sized to hold up to
+   * {@code initialCapacity} values without resizing.
+   *
+   * @throws IllegalArgumentException if {@code initialCapacity} is negative
+   */
+  public static Builder builder(int initialCapacity) {
+    checkArgument(initialCapacity >= 0, "Invalid initialCapacity: %s", initialCapacity);
+    return new Builder(initialCapacity);
+  }
+
+  /**
+   * A builder for {@code ImmutableIntArray} instances. Unlike {@code ImmutableList.Builder}, it
+   * stores the values unboxed as they are added.
+   *
+   * @since 18.0
+   */
+  public static final class Builder {
+    private int[] array;
+    private int count = 0;
+
+    Builder(int initialCapacity) {
+      array = new int[initialCapacity];
+    }
+
+    /**
+     * Appends {@code value} to the end of the values the built array will contain.
+     */
+    public Builder add(int value) {
+      ensureRoomFor(1);
+      array[count++] = value;
+      return this;
+    }
+
+    /**
+     * Appends {@code values}, in order, to the end of the values the built array will contain.
+     */
+    public Builder addAll(int[] values) {
+      ensureRoomFor(values.length);
+      System.arraycopy(values, 0, array, count, values.length);
+      count += values.length;
+      return this;
+    }
+
+    /**
+     * Appends {@code values}, in order, to the end of the values the built array will contain.
+     *
+     * @throws NullPointerException if any of {@code values} is null
+     */
+    public Builder addAll(Iterable<Integer> values) {
+      if (values instanceof Collection) {
+        ensureRoomFor(((Collection<?>) values).size());
+      }
+      for (Integer value : values) {
+        add(value);
+      }
+      return this;
+    }
+
+    /**
+     * Appends {@code values}, in order, to the end of the values the built array will contain.
+     */
+    public Builder addAll(ImmutableIntArray values) {
+      ensureRoomFor(values.length());
+      System.arraycopy(values.array, values.start, array, count, values.length());
+      count += values.length();
+      return this;
+    }
+
+    private void ensureRoomFor(int numberToAdd) {
+      int newCount = count + numberToAdd;
+      if (newCount < 0) {
+        throw new AssertionError("cannot store more than MAX_VALUE elements");
+      }
+      if (newCount > array.length) {
+        int newCapacity = Math.max(array.length + (array.length >> 1) + 1, newCount);
+        if (newCapacity < 0) {
+          newCapacity = Integer.MAX_VALUE;
+        }
+        array = copyOf(array, newCapacity);
+      }
+    }
+
+    /**
+     * Returns a new immutable array containing the values added to this builder. The builder may
+     * be used further, and doesn't affect the arrays it already built.
+     */
+    public ImmutableIntArray build() {
+      return (count == 0) ? EMPTY : new ImmutableIntArray(copyOf(array, count));
+    }
+  }
+
+  // the values of this array are array[start] through array[end - 1]
+  private final int[] array;
+  private final int start;
+  private final int end;
+
+  private ImmutableIntArray(int[] array) {
+    this(array, 0, array.length);
+  }
+
+  private ImmutableIntArray(int[] array, int start, int end) {
+    this.array = array;
+    this.start = start;
+    this.end = end;
+  }
+
+  /**
+   * Returns the number of values in this array.
+   */
+  public int length() {
+    return end - start;
+  }
+
+  /**
+   * Returns {@code true} if there are no values in this array.
+   */
+  public boolean isEmpty() {
+    return end == start;
+  }
+
+  /**
+   * Returns the {@code int} value at the given index.
+   *
+   * @throws IndexOutOfBoundsException if {@code index} is negative, or is not less than
+   *     {@link #length}
+   */
+  public int get(int index) {
+    checkElementIndex(index, length());
+    return array[start + index];
+  }
+
+  /**
+   * Returns the smallest index for which {@link #get} returns {@code target}, or {@code -1} if
+   * there is none.
+   */
+  public int indexOf(int target) {
+    for (int i = start; i < end; i++) {
+      if (array[i] == target) {
+        return i - start;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the largest index for which {@link #get} returns {@code target}, or {@code -1} if
+   * there is none.
+   */
+  public int lastIndexOf(int target) {
+    for (int i = end - 1; i >= start; i--) {
+      if (array[i] == target) {
+        return i - start;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns {@code true} if {@code target} is present at any index in this array.
+   */
+  public boolean contains(int target) {
+    return indexOf(target) >= 0;
+  }
+
+  /**
+   * Returns the sum of the values in this array, as a {@code long} so that it can't overflow.
+   */
+  public long sum() {
+    long sum = 0;
+    for (int i = start; i < end; i++) {
+      sum += array[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the least value in this array.
+   *
+   * @throws IllegalStateException if this array is empty
+   */
+  public int min() {
+    checkState(!isEmpty(), "min() of an empty array");
+    int min = array[start];
+    for (int i = start + 1; i < end; i++) {
+      if (array[i] < min) {
+        min = array[i];
+      }
+    }
+    return min;
+  }
+
+  /**
+   * Returns the greatest value in this array.
+   *
+   * @throws IllegalStateException if this array is empty
+   */
+  public int max() {
+    checkState(!isEmpty(), "max() of an empty array");
+    int max = array[start];
+    for (int i = start + 1; i < end; i++) {
+      if (array[i] > max) {
+        max = array[i];
+      }
+    }
+    return max;
+  }
+
+  /**
+   * Returns a new, mutable copy of this array's values, as a primitive {@code int[]}.
+   */
+  public int[] toArray() {
+    // Arrays.copyOfRange() is not available under GWT
+    int length = end - start;
+    int[] result = new int[length];
+    System.arraycopy(array, start, result, 0, length);
+    return result;
+  }
+
+  /**
+   * Returns a new immutable array containing the values in the specified range. This is a view
+   * that shares the values of this array, so it takes constant time and space.
+   *
+   * @throws IndexOutOfBoundsException if {@code startIndex} or {@code endIndex} is negative or
+   *     greater than {@link #length}, or if {@code startIndex > endIndex}
+   */
+  public ImmutableIntArray subArray(int startIndex, int endIndex) {
+    checkPositionIndexes(startIndex, endIndex, length());
+    return (startIndex == endIndex)
+        ? EMPTY
+        : new ImmutableIntArray(array, start + startIndex, start + endIndex);
+  }
+
+  /**
+   * Returns an immutable view of this array's values as a {@code List<Integer>}. The values are
+   * boxed as they are read; {@code contains} and {@code indexOf} with an {@code Integer} don't
+   * box the array's values.
+   */
+  public List<Integer> asList() {
+    return new AsList(this);
+  }
+
+  private static final class AsList extends AbstractList<Integer>
+      implements RandomAccess, Serializable {
+    private final ImmutableIntArray parent;
+
+    private AsList(ImmutableIntArray parent) {
+      this.parent = parent;
+    }
+
+    @Override public int size() {
+      return parent.length();
+    }
+
+    @Override public Integer get(int index) {
+      return parent.get(index);
+    }
+
+    @Override public boolean contains(@Nullable Object target) {
+      return indexOf(target) >= 0;
+    }
+
+    @Override public int indexOf(@Nullable Object target) {
+      return (target instanceof Integer) ? parent.indexOf((Integer) target) : -1;
+    }
+
+    @Override public int lastIndexOf(@Nullable Object target) {
+      return (target instanceof Integer) ? parent.lastIndexOf((Integer) target) : -1;
+    }
+
+    @Override public List<Integer> subList(int fromIndex, int toIndex) {
+      return parent.subArray(fromIndex, toIndex).asList();
+    }
+
+    @Override public boolean equals(@Nullable Object object) {
+      if (object instanceof AsList) {
+        return parent.equals(((AsList) object).parent);
+      }
+      return super.equals(object);
+    }
+
+    @Override public int hashCode() {
+      return parent.hashCode();
+    }
+
+    @Override public String toString() {
+      return parent.toString();
+    }
+
+    private static final long serialVersionUID = 0;
+  }
+
+  /**
+   * Returns {@code true} if {@code object} is an {@code ImmutableIntArray} containing the same
+   * values as this one, in the same order.
+   */
+  @Override public boolean equals(@Nullable Object object) {
+    if (object == this) {
+      return true;
+    }
+    if (!(object instanceof ImmutableIntArray)) {
+      return false;
+    }
+    ImmutableIntArray that = (ImmutableIntArray) object;
+    if (this.length() != that.length()) {
+      return false;
+    }
+    for (int i = 0; i < length(); i++) {
+      if (this.array[this.start + i] != that.array[that.start + i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the same hash code as {@link Arrays#hashCode(int[])} would for {@link #toArray}, and
+   * as {@link List#hashCode} would for {@link #asList}.
+   */
+  @Override public int hashCode() {
+    int hash = 1;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + Ints.hashCode(array[i]);
+    }
+    return hash;
+  }
+
+  /**
+   * Returns a string representation of this array in the same form as
+   * {@link Arrays#toString(int[])}, for example {@code "[1, 2, 3]"}.
+   */
+  @Override public String toString() {
+    if (isEmpty()) {
+      return "[]";
+    }
+    StringBuilder builder = new StringBuilder(length() * 5);
+    builder.append('[').append(array[start]);
+    for (int i = start + 1; i < end; i++) {
+      builder.append(", ").append(array[i]);
+    }
+    return builder.append(']').toString();
+  }
+
+  /**
+   * Returns an immutable array containing the same values as this one, whose backing array holds
+   * no other values. Use this to let a large array be garbage-collected after keeping only a
+   * small {@link #subArray} of it.
+   */
+  public ImmutableIntArray trimmed() {
+    return isPartialView() ? new ImmutableIntArray(toArray()) : this;
+  }
+
+  private boolean isPartialView() {
+    return start > 0 || end < array.length;
+  }
+
+  @GwtIncompatible("serialization")
+  Object writeReplace() {
+    return trimmed();
+  }
+
+  @GwtIncompatible("serialization")
+  Object readResolve() {
+    return isEmpty() ? EMPTY : this;
+  }
+
+  // Arrays.copyOf() is not available under GWT
+  private static int[] copyOf(int[] original, int length) {
+    int[] copy = new int[length];
+    System.arraycopy(original, 0, copy, 0, Math.min(original.length, length));
+    return copy;
+  }
+
+  private static final long serialVersionUID = 0;
+}
@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Groups individually submitted items into batches, and hands each batch to a handler that
+ * processes the whole batch at once, such as a bulk write to a storage system. Each submitted item
+ * gets its own {@link ListenableFuture}, which completes with the item's result once its batch has
+ * been processed.
+ *
+ * <p>A batch is handed to the handler as soon as it reaches the maximum batch size, or once its
+ * first item has waited for the maximum delay, whichever comes first. For example: <pre>   {@code
+ *
+ *   BatchingExecutor<Key, Boolean> writer = BatchingExecutor.newBuilder()
+ *       .maxBatchSize(500)
+ *       .maxDelay(10, TimeUnit.MILLISECONDS)
+ *       .capacity(10000)
+ *       .build(new AsyncFunction<List<Key>, List<Boolean>>() {
+ *         public ListenableFuture<List<Boolean>> apply(List<Key> keys) {
+ *           return storageClient.bulkWrite(keys);
+ *         }
+ *       }, scheduler);
+ *
+ *   ListenableFuture<Boolean> written = writer.submit(key);}</pre>
+ *
+ * <p>The handler returns a future of the results of the batch, one per item and in the same order
+ * as the items. If that future fails, or if it has the wrong number of results, the futures of all
+ * the items of the batch fail. The handler is called either from the thread that fills a batch, or
+ * from a thread of the {@link ScheduledExecutorService} that times batches out, so it should
+ * return quickly, and leave the actual processing to the future it returns.
+ *
+ * <p>With a bounded {@linkplain Builder#capacity capacity}, {@link #submit} blocks as long as that
+ * many submitted items have not been completed yet, whether they're still waiting to be batched or
+ * are being processed. This slows down producers to the pace of the handler.
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public final class BatchingExecutor<T, R> {
+  /**
+   * Returns a new builder for a {@code BatchingExecutor}. Both {@link Builder#maxBatchSize} and
+   * {@link Builder#maxDelay} must be set before {@linkplain Builder#build building} it.
+   */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder of {@link BatchingExecutor} instances.
+   *
+   * @since 18.0
+   */
+  @Beta
+  public static final class Builder {
+    private static final int UNSET = -1;
+
+    private int maxBatchSize = UNSET;
+    private long maxDelayNanos = UNSET;
+    private int capacity = Integer.MAX_VALUE;
+
+    private Builder() {}
+
+    /**
+     * Sets the number of items that causes a batch to be handed to the handler right away.
+     *
+     * @throws IllegalArgumentException if {@code maxBatchSize} is negative or zero
+     * @throws IllegalStateException if the maximum batch size was already set
+     */
+    public Builder maxBatchSize(int maxBatchSize) {
+      checkState(this.maxBatchSize == UNSET, "maxBatchSize was already set to %s",
+          this.maxBatchSize);
+      checkArgument(maxBatchSize > 0, "maxBatchSize must be positive: %s", maxBatchSize);
+      this.maxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /**
+     * Sets how long the first item of a batch may wait for more items before the batch is handed
+     * to the handler anyway.
+     *
+     * @throws IllegalArgumentException if {@code maxDelay} is negative
+     * @throws IllegalStateException if the maximum delay was already set
+     */
+    public Builder maxDelay(long maxDelay, TimeUnit unit) {
+      checkNotNull(unit);
+      checkState(maxDelayNanos == UNSET, "maxDelay was already set to %s ns", maxDelayNanos);
+      checkArgument(maxDelay >= 0, "maxDelay must not be negative: %s", maxDelay);
+      this.maxDelayNanos = unit.toNanos(maxDelay);
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of submitted items that have not completed yet. Once it is reached,
+     * {@link BatchingExecutor#submit} blocks until some items complete. By default, the capacity
+     * is unbounded.
+     *
+     * @throws IllegalArgumentException if {@code capacity} is negative or zero
+     */
+    public Builder capacity(int capacity) {
+      checkArgument(capacity > 0, "capacity must be positive: %s", capacity);
+      this.capacity = capacity;
+      return this;
+    }
+
+    /**
+     * Builds a {@code BatchingExecutor} that hands batches to {@code handler}, and uses {@code
+     * scheduler} to hand over batches that didn't fill up within the maximum delay.
+     *
+     * @throws IllegalStateException if the maximum batch size or delay was not set
+     */
+    public <T, R> BatchingExecutor<T, R> build(
+        AsyncFunction<? super List<T>, ? extends List<? extends R>> handler,
+        ScheduledExecutorService scheduler) {
+      checkState(maxBatchSize != UNSET, "maxBatchSize was not set");
+      checkState(maxDelayNanos != UNSET, "maxDelay was not set");
+      return new BatchingExecutor<T, R>(this, handler, scheduler);
+    }
+  }
+
+  private final AsyncFunction<? super List<T>, ? extends List<? extends R>> handler;
+  private final ScheduledExecutorService scheduler;
+  private final int maxBatchSize;
+  private final long maxDelayNanos;
+
+  /** One permit per item that may be submitted without waiting for others to complete. */
+  private final Semaphore permits;
+
+  private final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private List<Item<T, R>> pending;
+
+  /** Incremented each time the pending batch is taken, so stale timeouts can recognize it. */
+  @GuardedBy("lock")
+  private long batchNumber;
+
+  @GuardedBy("lock")
+  private Future<?> pendingTimeout;
+
+  private BatchingExecutor(Builder builder,
+      AsyncFunction<? super List<T>, ? extends List<? extends R>> handler,
+      ScheduledExecutorService scheduler) {
+    this.handler = checkNotNull(handler);
+    this.scheduler = checkNotNull(scheduler);
+    this.maxBatchSize = builder.maxBatchSize;
+    this.maxDelayNanos = builder.maxDelayNanos;
+    this.permits = new Semaphore(builder.capacity);
+    this.pending = Lists.newArrayList();
+  }
+
+  /**
+   * Adds an item to the current batch, blocking first if the capacity of this executor is
+   * exhausted, and returns a future of the item's result.
+   *
+   * @throws InterruptedException if interrupted while waiting for capacity
+   * @throws java.util.concurrent.RejectedExecutionException if the item starts a new batch and
+   *     the scheduler can't schedule its timeout
+   */
+  public ListenableFuture<R> submit(T item) throws InterruptedException {
+    checkNotNull(item);
+    permits.acquire();
+    Item<T, R> submitted = new Item<T, R>(item);
+    List<Item<T, R>> batch = null;
+    synchronized (lock) {
+      pending.add(submitted);
+      if (pending.size() >= maxBatchSize) {
+        batch = takePending();
+      } else if (pending.size() == 1) {
+        try {
+          pendingTimeout =
+              scheduler.schedule(new Timeout(batchNumber), maxDelayNanos, NANOSECONDS);
+        } catch (RuntimeException e) {
+          // typically a RejectedExecutionException, because the scheduler was shut down
+          pending.clear();
+          permits.release();
+          throw e;
+        }
+      }
+    }
+    if (batch != null) {
+      handle(batch);
+    }
+    return submitted.result;
+  }
+
+  /** Hands the current batch to the handler right away, if it has any items. */
+  public void flush() {
+    List<Item<T, R>> batch;
+    synchronized (lock) {
+      if (pending.isEmpty()) {
+        return;
+      }
+      batch = takePending();
+    }
+    handle(batch);
+  }
+
+  @GuardedBy("lock")
+  private List<Item<T, R>> takePending() {
+    List<Item<T, R>> batch = pending;
+    pending = Lists.newArrayList();
+    batchNumber++;
+    if (pendingTimeout != null) {
+      pendingTimeout.cancel(false);
+      pendingTimeout = null;
+    }
+    return batch;
+  }
+
+  private void handle(final List<Item<T, R>> batch) {
+    ImmutableList.Builder<T> items = ImmutableList.builder();
+    for (Item<T, R> item : batch) {
+      items.add(item.item);
+    }
+    ListenableFuture<? extends List<? extends R>> results;
+    try {
+      results = handler.apply(items.build());
+      checkNotNull(results, "handler returned a null future");
+    } catch (Throwable t) {
+      results = Futures.immediateFailedFuture(t);
+    }
+    Futures.addCallback(results, new FutureCallback<List<? extends R>>() {
+      @Override
+      public void onSuccess(List<? extends R> values) {
+        if (values == null || values.size() != batch.size()) {
+          onFailure(new IllegalStateException("handler returned "
+              + (values == null ? "null" : values.size() + " results")
+              + " for a batch of " + batch.size() + " items"));
+          return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+          batch.get(i).result.set(values.get(i));
+        }
+        permits.release(batch.size());
+      }
+
+      @Override
+      public void onFailure(Throwable t) {
+        for (Item<T, R> item : batch) {
+          item.result.setException(t);
+        }
+        permits.release(batch.size());
+      }
+    });
+  }
+
+  private final class Timeout implements Runnable {
+    private final long timedOutBatchNumber;
+
+    Timeout(long timedOutBatchNumber) {
+      this.timedOutBatchNumber = timedOutBatchNumber;
+    }
+
+    @Override
+    public void run() {
+      List<Item<T, R>> batch;
+      synchronized (lock) {
+        if (batchNumber != timedOutBatchNumber) {
+          return; // the batch was already handed over, because it filled up or was flushed
+        }
+        batch = takePending();
+      }
+      handle(batch);
+    }
+  }
+
+  private static final class Item<T, R> {
+    final T item;
+    final SettableFuture<R> result = SettableFuture.create();
+
+    Item(T item) {
+      this.item = item;
+    }
+  }
+}
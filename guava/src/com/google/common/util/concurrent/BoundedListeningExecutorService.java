@@ -0,0 +1,411 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Throwables;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link ListeningExecutorService} with a fixed number of threads and a bounded queue, which
+ * applies an {@link AdmissionPolicy} when the queue is full and reports how loaded it is. For
+ * example: <pre>   {@code
+ *
+ *   BoundedListeningExecutorService executor = BoundedListeningExecutorService.newBuilder()
+ *       .threads(8)
+ *       .queueCapacity(1000)
+ *       .admissionPolicy(AdmissionPolicy.blockWithTimeout(50, TimeUnit.MILLISECONDS))
+ *       .build();
+ *   ...
+ *   if (executor.runTimeHistogram().percentileNanos(0.99) > MAX_LATENCY_NANOS) {
+ *     logger.warning("Slow tasks: " + executor);
+ *   }}</pre>
+ *
+ * <p>Unlike a {@link ThreadPoolExecutor} with a bounded queue, the {@code submit} methods of this
+ * service never throw {@link RejectedExecutionException}: a task that is not admitted, either
+ * because the queue stays full or because the service is shut down, is returned as a future that
+ * has failed with a {@code RejectedExecutionException}. This lets callers handle overload in the
+ * same callbacks as any other failure. {@link #execute} still throws, as {@link
+ * java.util.concurrent.Executor} requires.
+ *
+ * <p>The metrics are updated as tasks run and can be read at any time. The wait time of a task is
+ * the time between its admission and the start of its execution, and its run time is the time it
+ * takes to execute, whether it succeeds or fails.
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public final class BoundedListeningExecutorService extends AbstractListeningExecutorService {
+  /**
+   * Returns a new builder for a {@code BoundedListeningExecutorService}, with one thread per
+   * available processor, a queue capacity of 1024 tasks, the {@linkplain AdmissionPolicy#failFast
+   * fail-fast} admission policy and a {@linkplain Executors#defaultThreadFactory default thread
+   * factory}.
+   */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder of {@link BoundedListeningExecutorService} instances.
+   *
+   * @since 18.0
+   */
+  @Beta
+  public static final class Builder {
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int queueCapacity = 1024;
+    private AdmissionPolicy admissionPolicy = AdmissionPolicy.failFast();
+    private ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+    private Builder() {}
+
+    /**
+     * Sets the number of threads that run tasks. The threads are started when the service is
+     * built.
+     *
+     * @throws IllegalArgumentException if {@code threads} is negative or zero
+     */
+    public Builder threads(int threads) {
+      checkArgument(threads > 0, "threads must be positive: %s", threads);
+      this.threads = threads;
+      return this;
+    }
+
+    /**
+     * Sets the number of tasks that may wait for a thread before the admission policy applies.
+     *
+     * @throws IllegalArgumentException if {@code queueCapacity} is negative or zero
+     */
+    public Builder queueCapacity(int queueCapacity) {
+      checkArgument(queueCapacity > 0, "queueCapacity must be positive: %s", queueCapacity);
+      this.queueCapacity = queueCapacity;
+      return this;
+    }
+
+    /**
+     * Sets what happens to a task that is submitted while the queue is full.
+     */
+    public Builder admissionPolicy(AdmissionPolicy admissionPolicy) {
+      this.admissionPolicy = checkNotNull(admissionPolicy);
+      return this;
+    }
+
+    /**
+     * Sets the factory of the threads that run tasks.
+     */
+    public Builder threadFactory(ThreadFactory threadFactory) {
+      this.threadFactory = checkNotNull(threadFactory);
+      return this;
+    }
+
+    /**
+     * Returns a new {@code BoundedListeningExecutorService} with the settings of this builder.
+     */
+    public BoundedListeningExecutorService build() {
+      return new BoundedListeningExecutorService(this);
+    }
+  }
+
+  /**
+   * What a {@link BoundedListeningExecutorService} does with a task that is submitted while its
+   * queue is full.
+   *
+   * @since 18.0
+   */
+  @Beta
+  public static final class AdmissionPolicy {
+    private static final AdmissionPolicy FAIL_FAST = new AdmissionPolicy(0, false);
+    private static final AdmissionPolicy CALLER_RUNS = new AdmissionPolicy(0, true);
+
+    /**
+     * Returns a policy that rejects the task right away.
+     */
+    public static AdmissionPolicy failFast() {
+      return FAIL_FAST;
+    }
+
+    /**
+     * Returns a policy that runs the task in the thread that submits it, which slows down
+     * submitters to the rate at which the service runs tasks.
+     */
+    public static AdmissionPolicy callerRuns() {
+      return CALLER_RUNS;
+    }
+
+    /**
+     * Returns a policy that blocks the thread that submits the task until there is room in the
+     * queue, and rejects the task if there is still no room after the given timeout, or if the
+     * thread is interrupted while waiting.
+     *
+     * @throws IllegalArgumentException if {@code timeout} is negative
+     */
+    public static AdmissionPolicy blockWithTimeout(long timeout, TimeUnit unit) {
+      checkNotNull(unit);
+      checkArgument(timeout >= 0, "timeout must not be negative: %s", timeout);
+      return new AdmissionPolicy(unit.toNanos(timeout), false);
+    }
+
+    private final long blockNanos;
+    private final boolean callerRuns;
+
+    private AdmissionPolicy(long blockNanos, boolean callerRuns) {
+      this.blockNanos = blockNanos;
+      this.callerRuns = callerRuns;
+    }
+
+    @Override
+    public String toString() {
+      return callerRuns ? "callerRuns"
+          : (blockNanos == 0) ? "failFast" : "blockWithTimeout(" + blockNanos + "ns)";
+    }
+  }
+
+  private final BlockingQueue<Runnable> queue;
+  private final ThreadPoolExecutor pool;
+  private final AdmissionPolicy admissionPolicy;
+
+  private final AtomicInteger activeCount = new AtomicInteger();
+  private final AtomicLong rejectedCount = new AtomicLong();
+  private final AtomicLong callerRunsCount = new AtomicLong();
+  private final LatencyHistogram waitTimes = LatencyHistogram.create();
+  private final LatencyHistogram runTimes = LatencyHistogram.create();
+
+  private BoundedListeningExecutorService(Builder builder) {
+    this.queue = new ArrayBlockingQueue<Runnable>(builder.queueCapacity);
+    this.pool = new ThreadPoolExecutor(builder.threads, builder.threads, 0L, NANOSECONDS,
+        queue, builder.threadFactory);
+    this.admissionPolicy = builder.admissionPolicy;
+    // Tasks are put in the queue directly rather than through pool.execute, so that admission
+    // can block with a timeout. The threads must therefore already be waiting on the queue.
+    pool.prestartAllCoreThreads();
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    TimedTask<Object> task = new TimedTask<Object>(Executors.callable(command), true);
+    if (!admit(task)) {
+      throw new RejectedExecutionException("Task " + command + " rejected from " + this);
+    }
+  }
+
+  @Override
+  public ListenableFuture<?> submit(Runnable task) {
+    return submit(Executors.callable(task));
+  }
+
+  @Override
+  public <T> ListenableFuture<T> submit(Runnable task, @Nullable T result) {
+    return submit(Executors.callable(task, result));
+  }
+
+  @Override
+  public <T> ListenableFuture<T> submit(Callable<T> callable) {
+    TimedTask<T> task = new TimedTask<T>(callable, false);
+    admit(task);
+    return task;
+  }
+
+  /**
+   * Queues, runs or rejects {@code task} according to the admission policy, and returns whether
+   * it was admitted. A rejected task fails with a {@link RejectedExecutionException}.
+   */
+  private boolean admit(TimedTask<?> task) {
+    if (!pool.isShutdown()) {
+      task.admittedNanos = System.nanoTime();
+      boolean queued;
+      if (admissionPolicy.blockNanos == 0) {
+        queued = queue.offer(task);
+      } else {
+        try {
+          queued = queue.offer(task, admissionPolicy.blockNanos, NANOSECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          queued = false;
+        }
+      }
+      if (queued) {
+        // The threads may have exited after draining the queue if we were shut down meanwhile.
+        if (!pool.isShutdown() || !queue.remove(task)) {
+          return true;
+        }
+      } else if (admissionPolicy.callerRuns) {
+        callerRunsCount.incrementAndGet();
+        task.run();
+        return true;
+      }
+    }
+    rejectedCount.incrementAndGet();
+    task.setException(new RejectedExecutionException("Task rejected from " + this));
+    return false;
+  }
+
+  /**
+   * Returns the number of tasks that are waiting in the queue.
+   */
+  public int queueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * Returns the number of tasks that are running, including those run by submitting threads
+   * under the {@linkplain AdmissionPolicy#callerRuns caller-runs} policy.
+   */
+  public int activeCount() {
+    return activeCount.get();
+  }
+
+  /**
+   * Returns the number of tasks that were not admitted.
+   */
+  public long rejectedCount() {
+    return rejectedCount.get();
+  }
+
+  /**
+   * Returns the number of tasks that ran in the thread that submitted them because the queue was
+   * full.
+   */
+  public long callerRunsCount() {
+    return callerRunsCount.get();
+  }
+
+  /**
+   * Returns the number of tasks that completed, successfully or not.
+   */
+  public long completedCount() {
+    return runTimes.snapshot().count();
+  }
+
+  /**
+   * Returns a snapshot of how long the tasks that started so far waited in the queue.
+   */
+  public LatencyHistogram.Snapshot waitTimeHistogram() {
+    return waitTimes.snapshot();
+  }
+
+  /**
+   * Returns a snapshot of how long the tasks that completed so far took to run.
+   */
+  public LatencyHistogram.Snapshot runTimeHistogram() {
+    return runTimes.snapshot();
+  }
+
+  @Override
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  @Override
+  public List<Runnable> shutdownNow() {
+    return pool.shutdownNow();
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return pool.isShutdown();
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return pool.isTerminated();
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return pool.awaitTermination(timeout, unit);
+  }
+
+  @Override
+  public String toString() {
+    return MoreObjects.toStringHelper(this)
+        .add("admissionPolicy", admissionPolicy)
+        .add("queueDepth", queueDepth())
+        .add("activeCount", activeCount())
+        .add("rejectedCount", rejectedCount())
+        .add("completedCount", completedCount())
+        .toString();
+  }
+
+  private final class TimedTask<V> extends AbstractFuture<V> implements Runnable {
+    private final Callable<V> callable;
+
+    /** Whether failures are rethrown to the thread that runs the task, as for execute. */
+    private final boolean rethrow;
+
+    /** When the task was admitted, in {@link System#nanoTime}. */
+    long admittedNanos;
+
+    private volatile Thread runner;
+
+    TimedTask(Callable<V> callable, boolean rethrow) {
+      this.callable = checkNotNull(callable);
+      this.rethrow = rethrow;
+    }
+
+    @Override
+    public void run() {
+      if (isDone()) {
+        return;
+      }
+      long startNanos = System.nanoTime();
+      waitTimes.record(startNanos - admittedNanos);
+      activeCount.incrementAndGet();
+      runner = Thread.currentThread();
+      try {
+        set(callable.call());
+      } catch (Throwable t) {
+        setException(t);
+        if (rethrow) {
+          throw Throwables.propagate(t);
+        }
+      } finally {
+        runner = null;
+        activeCount.decrementAndGet();
+        runTimes.record(System.nanoTime() - startNanos);
+      }
+    }
+
+    @Override
+    protected void interruptTask() {
+      Thread thread = runner;
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+  }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.sameThreadExecutor;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A point in time by which a request, and all the asynchronous work done on its behalf, should
+ * have completed. A deadline replaces a timeout per stage of a {@link ListenableFuture} pipeline
+ * with a single timer per request: futures {@linkplain #attach attached} to the deadline are
+ * cancelled together when it expires, and the timer itself is cancelled as soon as every attached
+ * future is done, so that it doesn't linger in the scheduler.
+ *
+ * <p>The {@link #transform(ListenableFuture, AsyncFunction, Executor) transform}, {@link
+ * #allAsList allAsList} and {@link #successfulAsList successfulAsList} methods are counterparts of
+ * the {@link Futures} methods of the same names that attach the future they return. As documented
+ * in {@code Futures}, cancelling that future also cancels its inputs, so attaching the last stage
+ * of a pipeline is enough to reclaim all of its work. The transformations are also skipped when
+ * the deadline has expired by the time their input completes.
+ *
+ * <p>Cancellation is cooperative: attached futures are cancelled without interrupting the threads
+ * running them. Long-running tasks can check {@link #isExpired} or pass {@link #timeRemaining} on
+ * to blocking calls they make.
+ *
+ * <p>For example: <pre>   {@code
+ *
+ *   Deadline deadline = Deadline.after(200, MILLISECONDS, scheduler);
+ *   ListenableFuture<User> user = deadline.attach(userService.fetch(id));
+ *   ListenableFuture<List<Photo>> photos =
+ *       deadline.transform(user, fetchPhotosFunction, executor);
+ *   ListenableFuture<Page> page = deadline.transform(photos, renderFunction, executor);}</pre>
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public final class Deadline {
+  private final Ticker ticker;
+  private final long deadlineNanos;
+  private final ScheduledExecutorService scheduler;
+
+  private final Object lock = new Object();
+  @GuardedBy("lock")
+  private final Set<Future<?>> attached = Sets.newIdentityHashSet();
+  @GuardedBy("lock")
+  @Nullable private Future<?> expiry;
+  @GuardedBy("lock")
+  private boolean expired;
+
+  private final Runnable expireTask = new Runnable() {
+    @Override public void run() {
+      expire();
+    }
+  };
+
+  private Deadline(Ticker ticker, long deadlineNanos, ScheduledExecutorService scheduler) {
+    this.ticker = ticker;
+    this.deadlineNanos = deadlineNanos;
+    this.scheduler = scheduler;
+  }
+
+  /**
+   * Returns a deadline that expires after the given duration from now. When futures are attached
+   * to it, the deadline schedules a single task on {@code scheduler} to cancel them.
+   */
+  public static Deadline after(
+      long duration, TimeUnit unit, ScheduledExecutorService scheduler) {
+    return after(duration, unit, scheduler, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  static Deadline after(
+      long duration, TimeUnit unit, ScheduledExecutorService scheduler, Ticker ticker) {
+    checkNotNull(unit);
+    checkNotNull(scheduler);
+    long now = ticker.read();
+    return new Deadline(ticker, now + unit.toNanos(duration), scheduler);
+  }
+
+  /**
+   * Returns the time left until this deadline expires, in the given unit, or a value
+   * less than or equal to zero if it has already expired.
+   */
+  public long timeRemaining(TimeUnit unit) {
+    return unit.convert(remainingNanos(), NANOSECONDS);
+  }
+
+  /**
+   * Returns {@code true} if this deadline has expired.
+   */
+  public boolean isExpired() {
+    synchronized (lock) {
+      if (expired) {
+        return true;
+      }
+    }
+    return remainingNanos() <= 0;
+  }
+
+  private long remainingNanos() {
+    return deadlineNanos - ticker.read();
+  }
+
+  /**
+   * Attaches {@code future} to this deadline, so that it is cancelled if it is not done when the
+   * deadline expires, and returns it. If the deadline has already expired, the future is
+   * cancelled immediately.
+   */
+  public <F extends ListenableFuture<?>> F attach(final F future) {
+    checkNotNull(future);
+    boolean cancelNow;
+    synchronized (lock) {
+      cancelNow = expired || remainingNanos() <= 0;
+      if (!cancelNow && !future.isDone() && attached.add(future) && expiry == null) {
+        expiry = scheduler.schedule(expireTask, remainingNanos(), NANOSECONDS);
+      }
+    }
+    if (cancelNow) {
+      future.cancel(false);
+    } else {
+      future.addListener(new Runnable() {
+        @Override public void run() {
+          detach(future);
+        }
+      }, sameThreadExecutor());
+    }
+    return future;
+  }
+
+  private void detach(Future<?> future) {
+    Future<?> unneededExpiry = null;
+    synchronized (lock) {
+      if (attached.remove(future) && attached.isEmpty()) {
+        unneededExpiry = expiry;
+        expiry = null;
+      }
+    }
+    if (unneededExpiry != null) {
+      unneededExpiry.cancel(false);
+    }
+  }
+
+  private void expire() {
+    List<Future<?>> toCancel;
+    synchronized (lock) {
+      expired = true;
+      expiry = null;
+      toCancel = ImmutableList.copyOf(attached);
+      attached.clear();
+    }
+    for (Future<?> future : toCancel) {
+      future.cancel(false);
+    }
+  }
+
+  /**
+   * Returns the result of {@link Futures#transform(ListenableFuture, AsyncFunction, Executor)},
+   * attached to this deadline. If the deadline has expired by the time {@code input} completes,
+   * {@code function} is not applied and the returned future is cancelled.
+   */
+  public <I, O> ListenableFuture<O> transform(ListenableFuture<I> input,
+      final AsyncFunction<? super I, ? extends O> function, Executor executor) {
+    checkNotNull(function);
+    AsyncFunction<I, O> unlessExpired = new AsyncFunction<I, O>() {
+      @Override public ListenableFuture<O> apply(I input) throws Exception {
+        if (isExpired()) {
+          return Futures.immediateCancelledFuture();
+        }
+        @SuppressWarnings("unchecked") // the returned future is read-only
+        ListenableFuture<O> output = (ListenableFuture<O>) function.apply(input);
+        return output;
+      }
+    };
+    return attach(Futures.transform(input, unlessExpired, executor));
+  }
+
+  /**
+   * Returns the result of {@link Futures#transform(ListenableFuture, Function, Executor)},
+   * attached to this deadline. If the deadline has expired by the time {@code input} completes,
+   * {@code function} is not applied and the returned future is cancelled.
+   */
+  public <I, O> ListenableFuture<O> transform(ListenableFuture<I> input,
+      final Function<? super I, ? extends O> function, Executor executor) {
+    checkNotNull(function);
+    AsyncFunction<I, O> unlessExpired = new AsyncFunction<I, O>() {
+      @Override public ListenableFuture<O> apply(I input) {
+        if (isExpired()) {
+          return Futures.immediateCancelledFuture();
+        }
+        O output = function.apply(input);
+        return Futures.immediateFuture(output);
+      }
+    };
+    return attach(Futures.transform(input, unlessExpired, executor));
+  }
+
+  /**
+   * Returns the result of {@link Futures#allAsList(Iterable)}, attached to this deadline.
+   */
+  public <V> ListenableFuture<List<V>> allAsList(
+      Iterable<? extends ListenableFuture<? extends V>> futures) {
+    return attach(Futures.allAsList(futures));
+  }
+
+  /**
+   * Returns the result of {@link Futures#successfulAsList(Iterable)}, attached to this deadline.
+   * Note that when the deadline expires, the returned future is cancelled along with its inputs,
+   * rather than completing with {@code null} for the inputs that had not completed.
+   */
+  public <V> ListenableFuture<List<V>> successfulAsList(
+      Iterable<? extends ListenableFuture<? extends V>> futures) {
+    return attach(Futures.successfulAsList(futures));
+  }
+
+  @Override public String toString() {
+    return isExpired()
+        ? "Deadline[expired]"
+        : "Deadline[" + remainingNanos() + "ns remaining]";
+  }
+}
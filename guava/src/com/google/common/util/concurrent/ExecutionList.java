@@ -20,11 +20,11 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
 
 /**
  * <p>A list of listeners, each with an associated {@code Executor}, that
@@ -40,6 +40,10 @@ import javax.annotation.concurrent.GuardedBy;
  * MoreExecutors#sameThreadExecutor inline execution}) will be caught and
  * logged.
  *
+ * <p>Neither {@link #add} nor {@link #execute} takes a lock: listeners are pushed onto a stack
+ * with a compare-and-set, and {@code execute} detaches the whole stack at once, so that many
+ * threads may add listeners concurrently without contending on a monitor.
+ *
  * @author Nishant Thakkar
  * @author Sven Mawson
  * @since 1.0
@@ -49,13 +53,21 @@ public final class ExecutionList {
   @VisibleForTesting static final Logger log = Logger.getLogger(ExecutionList.class.getName());
 
   /**
-   * The runnable, executor pairs to execute.  This acts as a stack threaded through the 
-   * {@link RunnableExecutorPair#next} field.
+   * A sentinel stored in {@link #runnables} once {@link #execute} has been called. It is never
+   * executed.
+   */
+  private static final RunnableExecutorPair EXECUTED = new RunnableExecutorPair(null, null, null);
+
+  private static final AtomicReferenceFieldUpdater<ExecutionList, RunnableExecutorPair> updater =
+      AtomicReferenceFieldUpdater.newUpdater(
+          ExecutionList.class, RunnableExecutorPair.class, "runnables");
+
+  /**
+   * The runnable, executor pairs to execute.  This acts as a stack threaded through the
+   * {@link RunnableExecutorPair#next} field. It is {@code null} while the stack is empty, and
+   * {@link #EXECUTED} once execution has begun.
    */
-  @GuardedBy("this")
-  private RunnableExecutorPair runnables;
-  @GuardedBy("this")
-  private boolean executed;
+  @Nullable private volatile RunnableExecutorPair runnables;
 
   /** Creates a new, empty {@link ExecutionList}. */
   public ExecutionList() {}
@@ -85,12 +97,18 @@ public final class ExecutionList {
     Preconditions.checkNotNull(runnable, "Runnable was null.");
     Preconditions.checkNotNull(executor, "Executor was null.");
 
-    // Lock while we check state.  We must maintain the lock while adding the
-    // new pair so that another thread can't run the list out from under us.
+    // Push the new pair unless execution has started. If the head changes between our read and
+    // the compare-and-set, another listener was added or execute() was called, so we look again.
     // We only add to the list if we have not yet started execution.
-    synchronized (this) {
-      if (!executed) {
-        runnables = new RunnableExecutorPair(runnable, executor, runnables);
+    RunnableExecutorPair newHead = null;
+    RunnableExecutorPair oldHead;
+    while ((oldHead = runnables) != EXECUTED) {
+      if (newHead == null) {
+        newHead = new RunnableExecutorPair(runnable, executor, oldHead);
+      } else {
+        newHead.next = oldHead;
+      }
+      if (updater.compareAndSet(this, oldHead, newHead)) {
         return;
       }
     }
@@ -114,16 +132,12 @@ public final class ExecutionList {
    * @since 10.0 (present in 1.0 as {@code run})
    */
   public void execute() {
-    // Lock while we update our state so the add method above will finish adding
-    // any listeners before we start to run them.
-    RunnableExecutorPair list;
-    synchronized (this) {
-      if (executed) {
-        return;
-      }
-      executed = true;
-      list = runnables;
-      runnables = null;  // allow GC to free listeners even if this stays around for a while.
+    // Atomically detach the stack and mark the list as executed, so that every add either lands
+    // in the stack we took or sees the sentinel and runs its listener itself.  This also allows
+    // GC to free listeners even if this stays around for a while.
+    RunnableExecutorPair list = updater.getAndSet(this, EXECUTED);
+    if (list == EXECUTED) {
+      return;
     }
     // If we succeeded then list holds all the runnables we to execute.  The pairs in the stack are
     // in the opposite order from how they were added so we need to reverse the list to fulfill our
@@ -132,8 +146,8 @@ public final class ExecutionList {
     // could drop the contract on the method that enforces this queue like behavior since depending
     // on it is likely to be a bug anyway.
     
-    // N.B. All writes to the list and the next pointers must have happened before the above 
-    // synchronized block, so we can iterate the list without the lock held here.
+    // N.B. Every pair and its next pointer were written before the compare-and-set that published
+    // it, and the getAndSet above reads that volatile field, so we can iterate the list safely.
     RunnableExecutorPair reversedList = null;
     while (list != null) {
       RunnableExecutorPair tmp = list;
@@ -168,7 +182,8 @@ public final class ExecutionList {
     final Executor executor;
     @Nullable RunnableExecutorPair next;
 
-    RunnableExecutorPair(Runnable runnable, Executor executor, RunnableExecutorPair next) {
+    RunnableExecutorPair(
+        Runnable runnable, Executor executor, @Nullable RunnableExecutorPair next) {
       this.runnable = runnable;
       this.executor = executor;
       this.next = next;
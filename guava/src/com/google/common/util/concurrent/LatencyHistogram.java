@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A histogram of latencies, in nanoseconds, with buckets of exponentially increasing sizes. Bucket
+ * 0 counts latencies of 0 nanoseconds, and bucket {@code i} counts latencies between
+ * {@code 2^(i - 1)} (inclusive) and {@code 2^i} (exclusive) nanoseconds. The last bucket counts
+ * everything from {@code 2^62} nanoseconds up.
+ *
+ * <p>Latencies may be {@linkplain #record recorded} from any number of threads. To read the
+ * histogram, take a {@link #snapshot}.
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public final class LatencyHistogram {
+  /**
+   * The number of buckets. A non-negative {@code long} has at most 63 significant bits, so the
+   * bucket of a latency is its number of significant bits, between 0 and 63.
+   */
+  private static final int BUCKETS = Long.SIZE;
+
+  /** Creates a new histogram that has not recorded anything yet. */
+  public static LatencyHistogram create() {
+    return new LatencyHistogram();
+  }
+
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  private final AtomicLong totalNanos = new AtomicLong();
+
+  private LatencyHistogram() {}
+
+  /**
+   * Records a latency. Negative latencies, which a clock that is not monotonic may produce, are
+   * recorded as 0.
+   */
+  public void record(long latencyNanos) {
+    long latency = Math.max(0, latencyNanos);
+    buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(latency));
+    totalNanos.addAndGet(latency);
+  }
+
+  /**
+   * Returns the latencies recorded so far. The buckets are read one after another, not atomically,
+   * so latencies recorded while this method runs may or may not be included.
+   */
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets.get(i);
+    }
+    return new Snapshot(counts, totalNanos.get());
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+
+  /**
+   * The contents of a {@link LatencyHistogram} at the time of a {@linkplain #snapshot snapshot},
+   * which does not change as more latencies are recorded.
+   *
+   * <p>The count, the bucket counts and the percentiles are all computed from the same copy of the
+   * buckets, so they agree with each other. The total is read separately, and may include a few
+   * latencies that the buckets don't, or the other way around, if latencies were recorded while
+   * the snapshot was taken.
+   *
+   * @since 18.0
+   */
+  @Beta
+  @Immutable
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long totalNanos;
+
+    private Snapshot(long[] counts, long totalNanos) {
+      long count = 0;
+      for (long bucketCount : counts) {
+        count += bucketCount;
+      }
+      this.counts = counts;
+      this.count = count;
+      this.totalNanos = totalNanos;
+    }
+
+    /** Returns the number of recorded latencies. */
+    public long count() {
+      return count;
+    }
+
+    /** Returns the sum of the recorded latencies, in nanoseconds. */
+    public long totalNanos() {
+      return totalNanos;
+    }
+
+    /**
+     * Returns how many latencies were recorded in the given bucket.
+     *
+     * @throws IllegalArgumentException if {@code bucket} is not between 0 and 63
+     */
+    public long bucketCount(int bucket) {
+      checkArgument(bucket >= 0 && bucket < BUCKETS,
+          "bucket must be between 0 and %s: %s", BUCKETS - 1, bucket);
+      return counts[bucket];
+    }
+
+    /**
+     * Returns an upper bound of the latency, in nanoseconds, under which the given fraction of the
+     * recorded latencies fall, based on the buckets. For example, {@code percentileNanos(0.99)} is
+     * at most twice the actual 99th percentile. Returns 0 if no latency was recorded, and
+     * {@link Long#MAX_VALUE} if the percentile falls in the last bucket.
+     *
+     * @throws IllegalArgumentException if {@code fraction} is not between 0 and 1
+     */
+    public long percentileNanos(double fraction) {
+      checkArgument(fraction >= 0.0 && fraction <= 1.0,
+          "fraction must be between 0 and 1: %s", fraction);
+      long target = (long) Math.ceil(count * fraction);
+      long seen = 0;
+      for (int bucket = 0; bucket < BUCKETS; bucket++) {
+        seen += counts[bucket];
+        if (seen >= target && seen > 0) {
+          return (bucket == 0) ? 0 : (bucket == BUCKETS - 1) ? Long.MAX_VALUE : 1L << bucket;
+        }
+      }
+      return 0;
+    }
+
+    @Override
+    public String toString() {
+      return MoreObjects.toStringHelper(LatencyHistogram.class)
+          .add("count", count)
+          .add("totalNanos", totalNanos)
+          .add("p50Nanos", percentileNanos(0.5))
+          .add("p99Nanos", percentileNanos(0.99))
+          .toString();
+    }
+  }
+}
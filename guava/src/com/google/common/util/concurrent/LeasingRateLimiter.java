@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.max;
+
+/**
+ * A {@link RateLimiter} that takes its permits from a shared {@link PermitSource}, while a local
+ * {@link SmoothRateLimiter} keeps shaping (and, if so configured, warming up) the traffic of this
+ * process.
+ *
+ * <p>Permits are leased from the source {@code leaseSize} at a time and kept in a local pool, so
+ * that the source is consulted only once per {@code leaseSize} permits. A request is granted at
+ * the later of the moment the local limiter allows it and the moment its leased permits become
+ * usable.
+ */
+final class LeasingRateLimiter extends RateLimiter {
+  private final SmoothRateLimiter local;
+  private final PermitSource source;
+  private final int leaseSize;
+
+  /** Permits leased from the source that have not been handed out yet. */
+  private int leasedPermits;
+
+  /** The time when the permits in the pool may be used; could be either in the past or future. */
+  private long leaseAvailableMicros;
+
+  LeasingRateLimiter(
+      SleepingStopwatch stopwatch, SmoothRateLimiter local, PermitSource source, int leaseSize) {
+    super(stopwatch);
+    this.local = checkNotNull(local);
+    this.source = checkNotNull(source);
+    this.leaseSize = leaseSize;
+  }
+
+  @Override
+  void doSetRate(double permitsPerSecond, long nowMicros) {
+    local.doSetRate(permitsPerSecond, nowMicros);
+  }
+
+  @Override
+  double doGetRate() {
+    return local.doGetRate();
+  }
+
+  @Override
+  long queryEarliestAvailable(long nowMicros) {
+    return queryEarliestAvailable(1, nowMicros);
+  }
+
+  /**
+   * Unlike {@link #reserveEarliestAvailable}, this leases nothing: if the pool holds fewer than
+   * {@code permits} permits, it asks the source how long the lease that would top it up must wait.
+   */
+  @Override
+  long queryEarliestAvailable(int permits, long nowMicros) {
+    long leaseMomentAvailable = leaseAvailableMicros;
+    if (leasedPermits < permits) {
+      long waitMicros = source.queryLease(permitsToLease(permits));
+      leaseMomentAvailable = max(leaseMomentAvailable, nowMicros + waitMicros);
+    }
+    return max(local.queryEarliestAvailable(nowMicros), leaseMomentAvailable);
+  }
+
+  @Override
+  long reserveEarliestAvailable(int permits, long nowMicros) {
+    long localMomentAvailable = local.reserveEarliestAvailable(permits, nowMicros);
+    long leaseMomentAvailable = ensureLeased(permits, nowMicros);
+    leasedPermits -= permits;
+    return max(localMomentAvailable, leaseMomentAvailable);
+  }
+
+  @Override
+  void doReleaseLeasedPermits() {
+    if (leasedPermits > 0) {
+      source.release(leasedPermits);
+      leasedPermits = 0;
+    }
+  }
+
+  /**
+   * Makes sure that at least {@code permits} permits are in the pool, leasing more from the
+   * source if needed, and returns the time when the pooled permits may be used.
+   */
+  private long ensureLeased(int permits, long nowMicros) {
+    if (leasedPermits < permits) {
+      int permitsToLease = permitsToLease(permits);
+      long waitMicros = source.lease(permitsToLease);
+      leasedPermits += permitsToLease;
+      leaseAvailableMicros = max(leaseAvailableMicros, nowMicros + waitMicros);
+    }
+    return leaseAvailableMicros;
+  }
+
+  /** Returns how many permits to lease so that the pool holds at least {@code permits}. */
+  private int permitsToLease(int permits) {
+    return max(leaseSize, permits - leasedPermits);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("RateLimiter[stableRate=%3.1fqps, source=%s]", getRate(), source);
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A map of {@code long} counters that is meant for keys updated by many threads at once, such as
+ * the counters of a metrics system. Unlike {@link AtomicLongMap}, which keeps a single
+ * {@code AtomicLong} per key, this map spreads the updates to a key over several cells once they
+ * contend, so that threads incrementing the same hot key don't all compete for one cache line.
+ * The price is that updates don't return the new value, and that reading a value sums its cells.
+ *
+ * <p>As in {@code AtomicLongMap}, a key that has not been updated yet has an implicit value of
+ * zero. Once updated, a key stays in the map until it is {@linkplain #remove removed}, even if its
+ * value is zero.
+ *
+ * <p>Reads are not atomic with respect to concurrent updates: {@link #sum(Object)} and
+ * {@link #snapshot} may or may not reflect updates that happen while they run. The
+ * {@link #sumThenReset(Object)} and {@link #sumThenResetAll} methods suit interval reporting:
+ * they subtract exactly the amount they return, so every update is reported in exactly one
+ * interval, even under contention.
+ *
+ * @since 18.0
+ */
+@Beta
+public final class LongAdderMap<K> {
+  private final ConcurrentHashMap<K, LongAddable> map = new ConcurrentHashMap<K, LongAddable>();
+
+  private LongAdderMap() {}
+
+  /**
+   * Creates an empty {@code LongAdderMap}.
+   */
+  public static <K> LongAdderMap<K> create() {
+    return new LongAdderMap<K>();
+  }
+
+  /**
+   * Adds {@code delta} to the value associated with {@code key}.
+   */
+  public void add(K key, long delta) {
+    adderFor(key).add(delta);
+  }
+
+  /**
+   * Increments by one the value associated with {@code key}.
+   */
+  public void increment(K key) {
+    add(key, 1);
+  }
+
+  /**
+   * Decrements by one the value associated with {@code key}.
+   */
+  public void decrement(K key) {
+    add(key, -1);
+  }
+
+  private LongAddable adderFor(K key) {
+    LongAddable adder = map.get(key);
+    if (adder == null) {
+      LongAddable newAdder = LongAddables.create();
+      adder = map.putIfAbsent(key, newAdder);
+      if (adder == null) {
+        adder = newAdder;
+      }
+    }
+    return adder;
+  }
+
+  /**
+   * Returns the value associated with {@code key}, or zero if there is no value associated with
+   * {@code key}.
+   */
+  public long sum(K key) {
+    LongAddable adder = map.get(key);
+    return adder == null ? 0L : adder.sum();
+  }
+
+  /**
+   * Returns the value associated with {@code key}, and subtracts it from the value. Updates that
+   * happen concurrently are either included in the returned value or kept for the next call.
+   */
+  public long sumThenReset(K key) {
+    LongAddable adder = map.get(key);
+    return adder == null ? 0L : sumThenReset(adder);
+  }
+
+  private static long sumThenReset(LongAddable adder) {
+    // Unlike LongAdder.sumThenReset, subtracting what we read can't lose an update that lands
+    // on a cell between reading and clearing it.
+    long sum = adder.sum();
+    adder.add(-sum);
+    return sum;
+  }
+
+  /**
+   * Returns the sum of all values in this map.
+   */
+  public long sum() {
+    long sum = 0L;
+    for (LongAddable adder : map.values()) {
+      sum += adder.sum();
+    }
+    return sum;
+  }
+
+  /**
+   * Returns an immutable copy of the values in this map, by key.
+   */
+  public ImmutableMap<K, Long> snapshot() {
+    ImmutableMap.Builder<K, Long> snapshot = ImmutableMap.builder();
+    for (Map.Entry<K, LongAddable> entry : map.entrySet()) {
+      snapshot.put(entry.getKey(), entry.getValue().sum());
+    }
+    return snapshot.build();
+  }
+
+  /**
+   * Returns an immutable copy of the values in this map, by key, and subtracts each returned value
+   * from its key as if by {@link #sumThenReset(Object)}. The keys stay in the map. The values of
+   * different keys are not read at the same instant.
+   */
+  public ImmutableMap<K, Long> sumThenResetAll() {
+    ImmutableMap.Builder<K, Long> sums = ImmutableMap.builder();
+    for (Map.Entry<K, LongAddable> entry : map.entrySet()) {
+      sums.put(entry.getKey(), sumThenReset(entry.getValue()));
+    }
+    return sums.build();
+  }
+
+  /**
+   * Removes {@code key} and returns its value, or zero if there is no value associated with
+   * {@code key}. Updates to {@code key} that happen concurrently may be lost.
+   */
+  public long remove(K key) {
+    LongAddable adder = map.remove(key);
+    return adder == null ? 0L : adder.sum();
+  }
+
+  /**
+   * Returns true if this map contains a mapping for the specified key.
+   */
+  public boolean containsKey(Object key) {
+    return map.containsKey(key);
+  }
+
+  /**
+   * Returns the number of keys in this map.
+   */
+  public int size() {
+    return map.size();
+  }
+
+  /**
+   * Returns {@code true} if this map contains no keys.
+   */
+  public boolean isEmpty() {
+    return map.isEmpty();
+  }
+
+  /**
+   * Removes all keys from this map.
+   */
+  public void clear() {
+    map.clear();
+  }
+
+  @Override
+  public String toString() {
+    return snapshot().toString();
+  }
+}
@@ -53,6 +53,8 @@ import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
+import javax.annotation.Nullable;
+
 /**
  * Factory and utility methods for {@link java.util.concurrent.Executor}, {@link
  * ExecutorService}, and {@link ThreadFactory}.
@@ -716,6 +718,56 @@ public final class MoreExecutors {
     }
   }
 
+  /**
+   * Creates an executor service that runs each task in a new <i>virtual thread</i>, when running
+   * on a JDK that supports them (Java 21 or later, or Java 19 or 20 with preview features
+   * enabled). On other JDKs, and when a security manager denies access to virtual threads, tasks
+   * run in a {@linkplain Executors#newCachedThreadPool(ThreadFactory) cached pool} of threads
+   * created by {@link #platformThreadFactory}: {@code ThreadManager.currentRequestThreadFactory()}
+   * on AppEngine, and {@link Executors#defaultThreadFactory()} elsewhere. That pool behaves the
+   * same, except that each concurrently running task costs a platform thread.
+   *
+   * <p>Virtual threads are cheap to create and to block, which makes this executor suitable for
+   * large numbers of concurrent tasks that spend most of their time waiting, such as the method
+   * calls of a {@link SimpleTimeLimiter}. Note that a virtual thread that blocks while holding a
+   * monitor (i.e. inside a {@code synchronized} block) also blocks its carrier thread, whereas
+   * blocking on the {@code java.util.concurrent} locks used by {@link Monitor} and {@link
+   * Uninterruptibles} doesn't.
+   *
+   * @since 18.0
+   */
+  @Beta
+  public static ListeningExecutorService newVirtualThreadPerTaskExecutor() {
+    ExecutorService executor = newJdkVirtualThreadPerTaskExecutor();
+    if (executor == null) {
+      executor = Executors.newCachedThreadPool(platformThreadFactory());
+    }
+    return listeningDecorator(executor);
+  }
+
+  /**
+   * Returns {@code Executors.newVirtualThreadPerTaskExecutor()}, or null if the JDK doesn't
+   * support virtual threads or we may not look them up.
+   */
+  @Nullable
+  private static ExecutorService newJdkVirtualThreadPerTaskExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+          .invoke(null);
+    } catch (NoSuchMethodException e) {
+      // Before Java 19, there are no virtual threads.
+      return null;
+    } catch (IllegalAccessException e) {
+      return null;
+    } catch (InvocationTargetException e) {
+      // In Java 19 and 20, virtual threads are a preview feature, unsupported unless enabled.
+      return null;
+    } catch (SecurityException e) {
+      // A security manager won't let us reflect on Executors.
+      return null;
+    }
+  }
+
   private static boolean isAppEngine() {
     if (System.getProperty("com.google.appengine.runtime.environment") == null) {
       return false;
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.max;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.RateLimiter.SleepingStopwatch;
+import com.google.common.util.concurrent.SmoothRateLimiter.SmoothBursty;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A shared budget of permits from which several {@link RateLimiter} instances lease permits in
+ * batches. A typical implementation is backed by a service shared by every process of a fleet,
+ * so that the fleet as a whole respects a single rate, without each process having its rate
+ * divided manually.
+ *
+ * <p>Permits are leased with the same "pay later" semantics as {@link RateLimiter#acquire(int)}:
+ * a lease is always granted, and the source tells the caller how long it must wait before the
+ * leased permits may be used. Permits that were leased but ended up unused should be handed back
+ * through {@link #release}, so that other holders can lease them.
+ *
+ * <p>Implementations must be thread-safe. Calls are made while the leasing {@code RateLimiter}
+ * holds its internal lock, so implementations that coordinate remotely should keep their
+ * latency low; {@link RateLimiter#create(PermitSource, int, double)} amortizes that cost by
+ * leasing many permits per call.
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public abstract class PermitSource {
+  /**
+   * Creates a {@code PermitSource} that lives in the memory of the current process and hands out
+   * at most {@code permitsPerSecond} permits per second, saving the unused permits of up to one
+   * second. This is mostly useful for tests, and for sharing a single rate between rate limiters
+   * that have different warmup or batching configurations.
+   *
+   * @param permitsPerSecond the rate of the returned {@code PermitSource}, measured in how many
+   *     permits become available per second
+   * @throws IllegalArgumentException if {@code permitsPerSecond} is negative or zero
+   */
+  public static PermitSource createInMemory(double permitsPerSecond) {
+    return createInMemory(SleepingStopwatch.createFromSystemTimer(), permitsPerSecond);
+  }
+
+  @VisibleForTesting
+  static PermitSource createInMemory(SleepingStopwatch stopwatch, double permitsPerSecond) {
+    return new InMemoryPermitSource(stopwatch, permitsPerSecond);
+  }
+
+  /** Constructor for use by subclasses. */
+  protected PermitSource() {}
+
+  /**
+   * Leases the given number of permits, returning the number of microseconds the caller must
+   * wait before it may use them. As with {@link RateLimiter}, the size of a lease affects the
+   * wait of the <i>next</i> lease rather than of this one.
+   *
+   * @param permits the number of permits to lease, always positive
+   * @return time in microseconds to wait until the leased permits may be used, never negative
+   */
+  protected abstract long lease(int permits);
+
+  /**
+   * Returns the number of microseconds that a call to {@link #lease lease(permits)} made now would
+   * ask its caller to wait, without leasing anything. A rate limiter calls this to decide whether
+   * it can grant a request within a timeout before it leases the permits for it.
+   *
+   * @param permits the number of permits that would be leased, always positive
+   * @return time in microseconds that such a lease would have to wait, never negative
+   */
+  protected abstract long queryLease(int permits);
+
+  /**
+   * Gives back permits that were previously leased from this source but were never used.
+   *
+   * @param permits the number of permits to return, always positive
+   */
+  protected abstract void release(int permits);
+
+  /**
+   * A {@code PermitSource} backed by a local bursty token bucket, which is exactly the state that
+   * a {@code RateLimiter.create(permitsPerSecond)} keeps.
+   */
+  private static final class InMemoryPermitSource extends PermitSource {
+    private final SleepingStopwatch stopwatch;
+    private final SmoothRateLimiter bucket;
+
+    InMemoryPermitSource(SleepingStopwatch stopwatch, double permitsPerSecond) {
+      this.stopwatch = checkNotNull(stopwatch);
+      this.bucket = new SmoothBursty(stopwatch, 1.0 /* maxBurstSeconds */);
+      bucket.setRate(permitsPerSecond);
+    }
+
+    @Override
+    protected synchronized long lease(int permits) {
+      return bucket.reserveAndGetWaitLength(permits, stopwatch.readMicros());
+    }
+
+    @Override
+    protected synchronized long queryLease(int permits) {
+      // as with RateLimiter, the wait doesn't depend on the size of the lease
+      long nowMicros = stopwatch.readMicros();
+      return max(bucket.queryEarliestAvailable(nowMicros) - nowMicros, 0);
+    }
+
+    @Override
+    protected synchronized void release(int permits) {
+      bucket.returnPermits(permits, stopwatch.readMicros());
+    }
+
+    @Override
+    public String toString() {
+      return String.format("PermitSource.createInMemory(%3.1f)", bucket.getRate());
+    }
+  }
+}
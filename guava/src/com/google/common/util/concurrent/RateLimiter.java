@@ -177,6 +177,83 @@ public abstract class RateLimiter {
     return rateLimiter;
   }
 
+  /**
+   * Creates a {@code RateLimiter} that issues permits at most at the specified stable throughput,
+   * and only as long as it can lease them from the given {@link PermitSource}. This allows the
+   * rate limiters of several processes to share a single overall rate, which is enforced by the
+   * source, while each of them smoothly spreads its own requests as a {@code RateLimiter}
+   * created by {@link #create(double)} would.
+   *
+   * <p>Permits are leased from the source {@code leaseSize} at a time, so that the source is
+   * consulted only once per {@code leaseSize} acquired permits. Leased permits that have not been
+   * handed out yet can be given back to the source with {@link #releaseLeasedPermits}.
+   *
+   * @param source the shared source of permits
+   * @param leaseSize how many permits to lease from {@code source} at a time
+   * @param permitsPerSecond the maximum rate of the returned {@code RateLimiter}, measured in
+   *        how many permits become available per second
+   * @throws IllegalArgumentException if {@code leaseSize} or {@code permitsPerSecond} is
+   *     negative or zero
+   * @since 18.0
+   */
+  public static RateLimiter create(PermitSource source, int leaseSize, double permitsPerSecond) {
+    return create(SleepingStopwatch.createFromSystemTimer(), source, leaseSize, permitsPerSecond);
+  }
+
+  @VisibleForTesting
+  static RateLimiter create(
+      SleepingStopwatch stopwatch, PermitSource source, int leaseSize, double permitsPerSecond) {
+    checkNotNull(stopwatch);
+    checkNotNull(source);
+    checkLeaseSize(leaseSize);
+    RateLimiter rateLimiter = new LeasingRateLimiter(stopwatch,
+        new SmoothBursty(stopwatch, 1.0 /* maxBurstSeconds */), source, leaseSize);
+    rateLimiter.setRate(permitsPerSecond);
+    return rateLimiter;
+  }
+
+  /**
+   * Creates a {@code RateLimiter} that issues permits at most at the specified stable throughput,
+   * and only as long as it can lease them from the given {@link PermitSource}, after a
+   * <i>warmup period</i> as described in {@link #create(double, long, TimeUnit)}. The warmup
+   * applies to the requests of the returned {@code RateLimiter} only; the overall rate is still
+   * enforced by the source.
+   *
+   * <p>Permits are leased from the source {@code leaseSize} at a time, so that the source is
+   * consulted only once per {@code leaseSize} acquired permits. Leased permits that have not been
+   * handed out yet can be given back to the source with {@link #releaseLeasedPermits}.
+   *
+   * @param source the shared source of permits
+   * @param leaseSize how many permits to lease from {@code source} at a time
+   * @param permitsPerSecond the maximum rate of the returned {@code RateLimiter}, measured in
+   *        how many permits become available per second
+   * @param warmupPeriod the duration of the period where the {@code RateLimiter} ramps up its
+   *        rate, before reaching its stable (maximum) rate
+   * @param unit the time unit of the warmupPeriod argument
+   * @throws IllegalArgumentException if {@code leaseSize} or {@code permitsPerSecond} is
+   *     negative or zero or {@code warmupPeriod} is negative
+   * @since 18.0
+   */
+  public static RateLimiter create(PermitSource source, int leaseSize, double permitsPerSecond,
+      long warmupPeriod, TimeUnit unit) {
+    checkArgument(warmupPeriod >= 0, "warmupPeriod must not be negative: %s", warmupPeriod);
+    return create(SleepingStopwatch.createFromSystemTimer(),
+        source, leaseSize, permitsPerSecond, warmupPeriod, unit);
+  }
+
+  @VisibleForTesting
+  static RateLimiter create(SleepingStopwatch stopwatch, PermitSource source, int leaseSize,
+      double permitsPerSecond, long warmupPeriod, TimeUnit unit) {
+    checkNotNull(stopwatch);
+    checkNotNull(source);
+    checkNotNull(unit);
+    checkLeaseSize(leaseSize);
+    RateLimiter rateLimiter = new LeasingRateLimiter(stopwatch,
+        new SmoothWarmingUp(stopwatch, warmupPeriod, unit), source, leaseSize);
+    rateLimiter.setRate(permitsPerSecond);
+    return rateLimiter;
+  }
+
   /**
    * The underlying timer; used both to measure elapsed time and sleep as necessary. A separate
    * object to facilitate testing.
@@ -247,6 +324,25 @@ public abstract class RateLimiter {
 
   abstract double doGetRate();
 
+  /**
+   * Gives back to the {@link PermitSource} of this {@code RateLimiter} the permits that it has
+   * leased but not handed out yet, so that other rate limiters sharing the source can use them.
+   * This is worth calling when this {@code RateLimiter} is about to become idle for a while, or
+   * to be discarded. Subsequent requests lease permits again as needed.
+   *
+   * <p>This method has no effect on a {@code RateLimiter} that was not created with a
+   * {@code PermitSource}.
+   *
+   * @since 18.0
+   */
+  public final void releaseLeasedPermits() {
+    synchronized (mutex()) {
+      doReleaseLeasedPermits();
+    }
+  }
+
+  void doReleaseLeasedPermits() {}
+
   /**
    * Acquires a single permit from this {@code RateLimiter}, blocking until the
    * request can be granted. Tells the amount of time slept, if any.
@@ -352,7 +448,7 @@ public abstract class RateLimiter {
     long microsToWait;
     synchronized (mutex()) {
       long nowMicros = stopwatch.readMicros();
-      if (!canAcquire(nowMicros, timeoutMicros)) {
+      if (!canAcquire(permits, nowMicros, timeoutMicros)) {
         return false;
       } else {
         microsToWait = reserveAndGetWaitLength(permits, nowMicros);
@@ -362,8 +458,8 @@ public abstract class RateLimiter {
     return true;
   }
 
-  private boolean canAcquire(long nowMicros, long timeoutMicros) {
-    return queryEarliestAvailable(nowMicros) - timeoutMicros <= nowMicros;
+  private boolean canAcquire(int permits, long nowMicros, long timeoutMicros) {
+    return queryEarliestAvailable(permits, nowMicros) - timeoutMicros <= nowMicros;
   }
 
   /**
@@ -384,6 +480,15 @@ public abstract class RateLimiter {
    */
   abstract long queryEarliestAvailable(long nowMicros);
 
+  /**
+   * Returns the earliest time that {@code permits} permits are available, without reserving them.
+   * By default this is {@link #queryEarliestAvailable(long)}, since the size of a request only
+   * affects the wait of the next one.
+   */
+  long queryEarliestAvailable(int permits, long nowMicros) {
+    return queryEarliestAvailable(nowMicros);
+  }
+
     /**
    * Reserves the requested number of permits and returns the time that those permits can be used
    * (with one caveat).
@@ -428,6 +533,11 @@ public abstract class RateLimiter {
     }
   }
 
+  private static int checkLeaseSize(int leaseSize) {
+    checkArgument(leaseSize > 0, "leaseSize (%s) must be positive", leaseSize);
+    return leaseSize;
+  }
+
   private static int checkPermits(int permits) {
     checkArgument(permits > 0, "Requested permits (%s) must be positive", permits);
     return permits;
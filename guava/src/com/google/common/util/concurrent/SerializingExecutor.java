@@ -18,19 +18,21 @@ package com.google.common.util.concurrent;
 
 import com.google.common.base.Preconditions;
 
-import java.util.ArrayDeque;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import javax.annotation.concurrent.GuardedBy;
-
 /**
  * Executor ensuring that all Runnables submitted are executed in order,
  * using the provided Executor, and serially such that no two will ever
  * be running at the same time.
  *
+ * <p>No lock is taken: submitters append to a lock-free queue, and the one
+ * that flips the running flag from false to true schedules the task runner.
+ *
  * TODO(user): The tasks are given to the underlying executor as a single
  * task, which means the semantics of the executor may be changed, e.g. the
  * executor may have an afterExecute method that runs after every task
@@ -50,9 +52,11 @@ final class SerializingExecutor implements Executor {
   /** Underlying executor that all submitted Runnable objects are run on. */
   private final Executor executor;
 
-  /** A list of Runnables to be run in order. */
-  @GuardedBy("internalLock")
-  private final Queue<Runnable> waitQueue = new ArrayDeque<Runnable>();
+  /**
+   * A list of Runnables to be run in order. Many threads add to it, but only
+   * the task runner holding {@link #isThreadScheduled} polls from it.
+   */
+  private final Queue<Runnable> waitQueue = new ConcurrentLinkedQueue<Runnable>();
 
   /**
    * We explicitly keep track of if the TaskRunner is currently scheduled to
@@ -62,8 +66,7 @@ final class SerializingExecutor implements Executor {
    * the isThreadScheduled isn't set to false until after the Runnable is
    * finished.
    */
-  @GuardedBy("internalLock")
-  private boolean isThreadScheduled = false;
+  private final AtomicBoolean isThreadScheduled = new AtomicBoolean();
 
   /** The object that actually runs the Runnables submitted, reused. */
   private final TaskRunner taskRunner = new TaskRunner();
@@ -78,12 +81,6 @@ final class SerializingExecutor implements Executor {
     this.executor = executor;
   }
 
-  private final Object internalLock = new Object() {
-    @Override public String toString() {
-      return "SerializingExecutor lock: " + super.toString();
-    }
-  };
-
   /**
    * Runs the given runnable strictly after all Runnables that were submitted
    * before it, and using the {@code executor} passed to the constructor.     .
@@ -91,29 +88,21 @@ final class SerializingExecutor implements Executor {
   @Override
   public void execute(Runnable r) {
     Preconditions.checkNotNull(r, "'r' must not be null.");
-    boolean scheduleTaskRunner = false;
-    synchronized (internalLock) {
-      waitQueue.add(r);
-
-      if (!isThreadScheduled) {
-        isThreadScheduled = true;
-        scheduleTaskRunner = true;
-      }
-    }
-    if (scheduleTaskRunner) {
+    waitQueue.add(r);
+    // Only the thread that flips the flag schedules the task runner; the
+    // others rely on it (or on the runner's final check) to pick up r.
+    if (isThreadScheduled.compareAndSet(false, true)) {
       boolean threw = true;
       try {
         executor.execute(taskRunner);
         threw = false;
       } finally {
         if (threw) {
-          synchronized (internalLock) {
-            // It is possible that at this point that there are still tasks in
-            // the queue, it would be nice to keep trying but the error may not
-            // be recoverable.  So we update our state and propogate so that if
-            // our caller deems it recoverable we won't be stuck.
-            isThreadScheduled = false;
-          }
+          // It is possible that at this point that there are still tasks in
+          // the queue, it would be nice to keep trying but the error may not
+          // be recoverable.  So we update our state and propogate so that if
+          // our caller deems it recoverable we won't be stuck.
+          isThreadScheduled.set(false);
         }
       }
     }
@@ -125,6 +114,12 @@ final class SerializingExecutor implements Executor {
    * there are no more to run, puts the SerializingExecutor in the state where
    * isThreadScheduled = false and returns.  This allows the current worker
    * thread to return to the original pool.
+   *
+   * <p>A Runnable may be added between the moment the queue is found empty
+   * and the moment the flag is cleared, in which case its submitter saw the
+   * flag still set and did not schedule a runner.  So after clearing the flag
+   * the runner checks the queue once more, and takes the flag back if the
+   * queue is not empty and no other runner has been scheduled meanwhile.
    */
   private class TaskRunner implements Runnable {
     @Override
@@ -132,18 +127,17 @@ final class SerializingExecutor implements Executor {
       boolean stillRunning = true;
       try {
         while (true) {
-          Preconditions.checkState(isThreadScheduled);
-          Runnable nextToRun;
-          synchronized (internalLock) {
-            nextToRun = waitQueue.poll();
-            if (nextToRun == null) {
-              isThreadScheduled = false;
+          Preconditions.checkState(isThreadScheduled.get());
+          Runnable nextToRun = waitQueue.poll();
+          if (nextToRun == null) {
+            isThreadScheduled.set(false);
+            if (waitQueue.isEmpty() || !isThreadScheduled.compareAndSet(false, true)) {
               stillRunning = false;
               break;
             }
+            continue;
           }
 
-          // Always run while not holding the lock, to avoid deadlocks.
           try {
             nextToRun.run();
           } catch (RuntimeException e) {
@@ -157,9 +151,7 @@ final class SerializingExecutor implements Executor {
           // An Error is bubbling up, we should mark ourselves as no longer
           // running, that way if anyone tries to keep using us we won't be
           // corrupted.
-          synchronized (internalLock) {
-            isThreadScheduled = false;
-          }
+          isThreadScheduled.set(false);
         }
       }
     }
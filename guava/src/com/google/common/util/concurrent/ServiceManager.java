@@ -44,6 +44,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Ordering;
@@ -56,7 +57,9 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.EnumMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -118,6 +121,12 @@ import javax.annotation.concurrent.GuardedBy;
  * <p>This class uses the ServiceManager's methods to start all of its services, to respond to
  * service failure and to ensure that when the JVM is shutting down all the services are stopped.
  *
+ * <p>Services that need other services to be running first can be managed with
+ * {@link #ServiceManager(Iterable, Multimap)}. Such a manager starts each service as soon as all
+ * of its dependencies are running, so that independent services start in parallel and the time to
+ * become healthy is that of the slowest chain of dependencies, reported by
+ * {@link #startupCriticalPath}. It stops services in the reverse order.
+ *
  * @author Luke Sandberg
  * @since 14.0
  */
@@ -179,6 +188,7 @@ public final class ServiceManager {
    */
   private final ServiceManagerState state;
   private final ImmutableList<Service> services;
+  private final DependencyGraph dependencyGraph;
   
   /**
    * Constructs a new instance for managing the given services.
@@ -189,7 +199,33 @@ public final class ServiceManager {
    * are any duplicate services.
    */
   public ServiceManager(Iterable<? extends Service> services) {
+    this(services, ImmutableSetMultimap.<Service, Service>of());
+  }
+
+  /**
+   * Constructs a new instance for managing the given services, some of which need others to be
+   * {@linkplain State#RUNNING running} before they can start. {@link #startAsync} starts each
+   * service once all of its dependencies are running, and {@link #stopAsync} stops each service
+   * once all the services that depend on it have stopped. A service whose dependency fails to start
+   * is never started.
+   *
+   * <p>Dependent services are started from the thread on which their last dependency reported
+   * that it was running, and stopped from the thread on which their last dependent reported that it
+   * had terminated.
+   *
+   * @param services The services to manage
+   * @param dependencies The services that each service depends on. All of them must be in
+   *     {@code services}.
+   * 
+   * @throws IllegalArgumentException if not all services are {@linkplain State#NEW new}, if there
+   *     are any duplicate services, if {@code dependencies} mentions a service that is not in
+   *     {@code services} or if the dependencies form a cycle.
+   * @since 18.0
+   */
+  public ServiceManager(Iterable<? extends Service> services,
+      Multimap<? extends Service, ? extends Service> dependencies) {
     ImmutableList<Service> copy = ImmutableList.copyOf(services);
+    this.dependencyGraph = new DependencyGraph(copy, dependencies);
     if (copy.isEmpty()) {
       // Having no services causes the manager to behave strangely. Notably, listeners are never 
       // fired.  To avoid this we substitute a placeholder service.
@@ -213,6 +249,9 @@ public final class ServiceManager {
       // This is necessary to prevent transitions being played back in the wrong order due to thread
       // races to acquire the monitor in ServiceManagerState.
       service.addListener(new ServiceListener(service, stateReference), sameThreadExecutor);
+      if (!dependencyGraph.isEmpty()) {
+        service.addListener(dependencyGraph.new DependencyListener(service), sameThreadExecutor);
+      }
       // We check the state after adding the listener as a way to ensure that our listener was added
       // to a NEW service.
       checkArgument(service.state() == NEW, "Can only manage NEW services, %s", service);
@@ -272,6 +311,7 @@ public final class ServiceManager {
   /**
    * Initiates service {@linkplain Service#startAsync startup} on all the services being managed.  
    * It is only valid to call this method if all of the services are {@linkplain State#NEW new}.
+   * Services that have dependencies are started later, once their dependencies are running.
    * 
    * @return this
    * @throws IllegalStateException if any of the Services are not {@link State#NEW new} when the 
@@ -282,6 +322,10 @@ public final class ServiceManager {
       State state = service.state();
       checkState(state == NEW, "Service %s is %s, cannot start it.", service, state);
     }
+    if (!dependencyGraph.isEmpty()) {
+      dependencyGraph.startReady(services);
+      return this;
+    }
     for (Service service : services) {
       try {
         service.startAsync();
@@ -325,11 +369,17 @@ public final class ServiceManager {
 
   /**
    * Initiates service {@linkplain Service#stopAsync shutdown} if necessary on all the services
-   * being managed. 
+   * being managed. Services that other services depend on are stopped later, once those services
+   * have stopped.
    *    
    * @return this
    */
   public ServiceManager stopAsync() {
+    if (!dependencyGraph.isEmpty()) {
+      dependencyGraph.stopRequested = true;
+      dependencyGraph.stopReady(services);
+      return this;
+    }
     for (Service service : services) {
       service.stopAsync();
     }
@@ -393,6 +443,57 @@ public final class ServiceManager {
   public ImmutableMap<Service, Long> startupTimes() {
     return state.startupTimes();
   }
+
+  /**
+   * Returns the chain of services that determined how long the managed services took to start:
+   * the service that became {@linkplain State#RUNNING running} last, preceded by the dependency
+   * that became running last before it, and so on. This only considers services that have finished
+   * starting.
+   *
+   * <p>Without dependencies, this is just the service that became running last, which is usually,
+   * but not always, the one that took longest to start. With dependencies, shortening the startup
+   * of any service not on this path won't make the manager healthy sooner.
+   *
+   * @return Map of the services on the critical path and their corresponding startup time in
+   *     millis, ordered from the first service to start to the last.
+   * @since 18.0
+   */
+  public ImmutableMap<Service, Long> startupCriticalPath() {
+    ImmutableMap<Service, Long> startupTimes = state.startupTimes();
+    Map<Service, Long> runningTimes = state.runningTimes();
+    Deque<Service> path = new LinkedList<Service>();
+    Service current = latestRunning(runningTimes.keySet(), runningTimes);
+    while (current != null) {
+      path.addFirst(current);
+      current = latestRunning(dependencyGraph.dependencies.get(current), runningTimes);
+    }
+    ImmutableMap.Builder<Service, Long> builder = ImmutableMap.builder();
+    for (Service service : path) {
+      Long startupTime = startupTimes.get(service);
+      if (startupTime != null) {
+        builder.put(service, startupTime);
+      }
+    }
+    return builder.build();
+  }
+
+  /**
+   * Returns the service among {@code candidates} that became running last, or null if none of them
+   * is in {@code runningTimes}.
+   */
+  private static Service latestRunning(
+      Collection<Service> candidates, Map<Service, Long> runningTimes) {
+    Service latest = null;
+    long latestTime = 0;
+    for (Service candidate : candidates) {
+      Long time = runningTimes.get(candidate);
+      if (time != null && (latest == null || time - latestTime > 0)) {
+        latest = candidate;
+        latestTime = time;
+      }
+    }
+    return latest;
+  }
   
   @Override public String toString() {
     return MoreObjects.toStringHelper(ServiceManager.class)
@@ -422,6 +523,10 @@ public final class ServiceManager {
     @GuardedBy("monitor")
     final Map<Service, Stopwatch> startupTimers = Maps.newIdentityHashMap();
 
+    /** The {@link System#nanoTime} at which each service that finished starting became running. */
+    @GuardedBy("monitor")
+    final Map<Service, Long> runningTimes = Maps.newIdentityHashMap();
+
     /**
      * These two booleans are used to mark the state as ready to start.
      * {@link #ready}: is set by {@link #markReady} to indicate that all listeners have been 
@@ -613,6 +718,22 @@ public final class ServiceManager {
       }
       return builder.build();
     }
+
+    /** Returns a copy of {@link #runningTimes}, without the {@link NoOpService}. */
+    Map<Service, Long> runningTimes() {
+      monitor.enter();
+      try {
+        Map<Service, Long> copy = Maps.newIdentityHashMap();
+        for (Entry<Service, Long> entry : runningTimes.entrySet()) {
+          if (!(entry.getKey() instanceof NoOpService)) {
+            copy.put(entry.getKey(), entry.getValue());
+          }
+        }
+        return copy;
+      } finally {
+        monitor.leave();
+      }
+    }
     
     /** 
      * Updates the state with the given service transition.
@@ -647,6 +768,9 @@ public final class ServiceManager {
         if (to.compareTo(RUNNING) >= 0 && stopwatch.isRunning()) {
           // N.B. if we miss the STARTING event then we will never record a startup time.
           stopwatch.stop();
+          if (to == RUNNING) {
+            runningTimes.put(service, System.nanoTime());
+          }
           if (!(service instanceof NoOpService)) {
             logger.log(Level.FINE, "Started {0} in {1}.", new Object[] {service, stopwatch});
           }
@@ -776,6 +900,142 @@ public final class ServiceManager {
     }
   }
   
+  /**
+   * The dependencies among the managed services, and the logic that starts and stops services in
+   * dependency order. All of it runs outside of the {@link ServiceManagerState#monitor}, since
+   * starting or stopping a service may synchronously call back into the state.
+   */
+  private static final class DependencyGraph {
+    /** The services that each service depends on. */
+    final ImmutableSetMultimap<Service, Service> dependencies;
+    /** The services that depend on each service. */
+    final ImmutableSetMultimap<Service, Service> dependents;
+
+    /** Set once {@link ServiceManager#stopAsync} was called, after which nothing is started. */
+    volatile boolean stopRequested;
+
+    DependencyGraph(ImmutableList<Service> services,
+        Multimap<? extends Service, ? extends Service> dependencies) {
+      this.dependencies = ImmutableSetMultimap.copyOf(dependencies);
+      this.dependents = this.dependencies.inverse();
+      Set<Service> serviceSet = Sets.newIdentityHashSet();
+      serviceSet.addAll(services);
+      for (Entry<Service, Service> dependency : this.dependencies.entries()) {
+        checkArgument(serviceSet.contains(dependency.getKey()),
+            "Dependency of %s, which is not managed", dependency.getKey());
+        checkArgument(serviceSet.contains(dependency.getValue()),
+            "Dependency on %s, which is not managed", dependency.getValue());
+      }
+      checkAcyclic(services);
+    }
+
+    /** Removes services without unremoved dependents until only services on cycles remain. */
+    private void checkAcyclic(ImmutableList<Service> services) {
+      Map<Service, Integer> remainingDependents = Maps.newIdentityHashMap();
+      List<Service> free = Lists.newArrayList();
+      for (Service service : services) {
+        int count = dependents.get(service).size();
+        remainingDependents.put(service, count);
+        if (count == 0) {
+          free.add(service);
+        }
+      }
+      int removed = 0;
+      while (!free.isEmpty()) {
+        Service service = free.remove(free.size() - 1);
+        removed++;
+        for (Service dependency : dependencies.get(service)) {
+          int count = remainingDependents.get(dependency) - 1;
+          remainingDependents.put(dependency, count);
+          if (count == 0) {
+            free.add(dependency);
+          }
+        }
+      }
+      if (removed != services.size()) {
+        List<Service> cyclic = Lists.newArrayList();
+        for (Entry<Service, Integer> entry : remainingDependents.entrySet()) {
+          if (entry.getValue() > 0) {
+            cyclic.add(entry.getKey());
+          }
+        }
+        throw new IllegalArgumentException("Services have cyclic dependencies: " + cyclic);
+      }
+    }
+
+    boolean isEmpty() {
+      return dependencies.isEmpty();
+    }
+
+    /** Starts each of {@code candidates} that is new and whose dependencies are all running. */
+    void startReady(Iterable<Service> candidates) {
+      for (Service service : candidates) {
+        if (stopRequested || service.state() != NEW || !allRunning(dependencies.get(service))) {
+          continue;
+        }
+        try {
+          service.startAsync();
+        } catch (IllegalStateException e) {
+          // Two dependencies became running at once, and the other one won the race to start this
+          // service, or stopAsync stopped it first. Either way there is nothing left to do.
+        }
+      }
+    }
+
+    /** Stops each of {@code candidates} whose dependents have all stopped. */
+    void stopReady(Iterable<Service> candidates) {
+      for (Service service : candidates) {
+        if (allTerminal(dependents.get(service))) {
+          service.stopAsync();
+        }
+      }
+    }
+
+    private static boolean allRunning(Collection<Service> services) {
+      for (Service service : services) {
+        if (service.state() != RUNNING) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private static boolean allTerminal(Collection<Service> services) {
+      for (Service service : services) {
+        State state = service.state();
+        if (state != TERMINATED && state != FAILED) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Advances the dependents or dependencies of a service once it starts or stops. */
+    final class DependencyListener extends Service.Listener {
+      final Service service;
+
+      DependencyListener(Service service) {
+        this.service = service;
+      }
+
+      @Override public void running() {
+        startReady(dependents.get(service));
+      }
+
+      @Override public void terminated(State from) {
+        if (stopRequested) {
+          stopReady(dependencies.get(service));
+        }
+      }
+
+      @Override public void failed(State from, Throwable failure) {
+        if (stopRequested) {
+          stopReady(dependencies.get(service));
+        }
+      }
+    }
+  }
+
   /**
    * A {@link Service} instance that does nothing.  This is only useful as a placeholder to
    * ensure that the {@link ServiceManager} functions properly even when it is managing no services.
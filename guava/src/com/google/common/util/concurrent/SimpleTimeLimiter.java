@@ -80,6 +80,20 @@ public final class SimpleTimeLimiter implements TimeLimiter {
     this(Executors.newCachedThreadPool());
   }
 
+  /**
+   * Creates a TimeLimiter instance that runs each proxied method call in a new virtual thread, if
+   * the JDK supports them, using {@link MoreExecutors#newVirtualThreadPerTaskExecutor()}. Unlike
+   * a pool of platform threads, this makes it practical to have tens of thousands of timed calls
+   * in flight at once. On JDKs without virtual threads, method calls run in a cached pool of
+   * threads created by {@link MoreExecutors#platformThreadFactory()}, which is the same as {@link
+   * #SimpleTimeLimiter()} except on AppEngine, where the threads are request threads.
+   *
+   * @since 18.0
+   */
+  public static SimpleTimeLimiter createWithVirtualThreads() {
+    return new SimpleTimeLimiter(MoreExecutors.newVirtualThreadPerTaskExecutor());
+  }
+
   @Override
   public <T> T newProxy(final T target, Class<T> interfaceType,
       final long timeoutDuration, final TimeUnit timeoutUnit) {
@@ -373,6 +373,23 @@ abstract class SmoothRateLimiter extends RateLimiter {
    */
   abstract long storedPermitsToWaitTime(double storedPermits, double permitsToTake);
 
+  /**
+   * Gives back permits that were reserved earlier but never used. Outstanding debt (i.e. a
+   * {@code nextFreeTicketMicros} in the future) is repaid first, at the stable rate; whatever is
+   * left is added to the stored permits, up to {@code maxPermits}.
+   */
+  final void returnPermits(int permits, long nowMicros) {
+    resync(nowMicros);
+    double permitsToStore = permits;
+    long debtMicros = nextFreeTicketMicros - nowMicros;
+    if (debtMicros > 0) {
+      double permitsToRepay = min(permitsToStore, debtMicros / stableIntervalMicros);
+      nextFreeTicketMicros -= (long) (permitsToRepay * stableIntervalMicros);
+      permitsToStore -= permitsToRepay;
+    }
+    storedPermits = min(maxPermits, storedPermits + permitsToStore);
+  }
+
   private void resync(long nowMicros) {
     // if nextFreeTicket is in the past, resync to now
     if (nowMicros > nextFreeTicketMicros) {
@@ -36,7 +36,11 @@ import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -81,6 +85,10 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
  * instead of possibly thousands of locks which could be created in a {@code Map<K, Lock>}
  * structure.
  *
+ * <p>When the right number of stripes is hard to tell in advance, {@link #instrumentedLock(int)}
+ * reports how often each stripe is acquired and contended, and {@link #adaptiveLock(int, int,
+ * int)} starts with few locks and splits them as contention grows.
+ *
  * @author Dimitris Andreou
  * @since 13.0
  */
@@ -218,6 +226,53 @@ public abstract class Striped<L> {
     });
   }
 
+  /**
+   * Creates a {@code Striped<Lock>} with eagerly initialized, strongly referenced locks, which
+   * {@linkplain Instrumented counts} how many times each stripe is acquired, and how many of these
+   * acquisitions had to wait for another thread. Every lock is reentrant.
+   *
+   * @param stripes the minimum number of stripes (locks) required
+   * @return a new {@code Striped.Instrumented<Lock>}
+   * @since 18.0
+   */
+  public static Instrumented<Lock> instrumentedLock(int stripes) {
+    return new AdaptiveStriped(stripes, stripes, Integer.MAX_VALUE, SPLIT_TIMEOUT_NANOS);
+  }
+
+  /**
+   * Creates an {@linkplain Instrumented instrumented} {@code Striped<Lock>} whose stripes initially
+   * share a small number of locks, and which splits these locks as contention grows. Every lock is
+   * reentrant.
+   *
+   * <p>The returned {@code Striped} always has (at least) {@code stripes} stripes, so that the
+   * usual guarantee holds: equal keys lead to the same stripe. But the stripes start out backed by
+   * only {@code initialLocks} locks, each of them shared by a run of consecutive stripes, which
+   * is cheap in memory. Every time {@code contentionThreshold} acquisitions have had to wait for
+   * another thread since the previous split, the number of locks is doubled, until each stripe has
+   * its own lock. A split takes every current lock, so it only completes once no stripe is held;
+   * acquisitions that wait during a split use the new locks once it is done. Splitting is skipped
+   * if it would have to wait too long for the current holders, or if the thread that triggers it
+   * holds a stripe itself, and is attempted again after another {@code contentionThreshold}
+   * contended acquisitions.
+   *
+   * <p>Because the lock behind a stripe may change while nobody holds it, the stripes of the
+   * returned {@code Striped} do not support {@link Lock#newCondition()}, unless
+   * {@code initialLocks} is at least {@code stripes}.
+   *
+   * @param stripes the minimum number of stripes required
+   * @param initialLocks the minimum number of locks backing these stripes initially
+   * @param contentionThreshold the number of contended acquisitions that causes the number of
+   *     locks to double
+   * @return a new {@code Striped.Instrumented<Lock>}
+   * @throws IllegalArgumentException if any argument is negative or zero
+   * @since 18.0
+   */
+  public static Instrumented<Lock> adaptiveLock(
+      int stripes, int initialLocks, int contentionThreshold) {
+    Preconditions.checkArgument(contentionThreshold > 0, "contentionThreshold must be positive");
+    return new AdaptiveStriped(stripes, initialLocks, contentionThreshold, SPLIT_TIMEOUT_NANOS);
+  }
+
   private static <L> Striped<L> lazy(int stripes, Supplier<L> supplier) {
     return stripes < LARGE_LAZY_CUTOFF 
         ? new SmallLazyStriped<L>(stripes, supplier)
@@ -437,6 +492,288 @@ public abstract class Striped<L> {
     }
   }
 
+  /**
+   * A {@code Striped} that also reports how its stripes are used.
+   *
+   * @since 18.0
+   */
+  public abstract static class Instrumented<L> extends Striped<L> {
+    private Instrumented() {}
+
+    /**
+     * Returns the number of times the stripe at the specified index has been acquired, including
+     * reentrant acquisitions.
+     *
+     * @param index the index of the stripe; must be in {@code [0...size())}
+     */
+    public abstract long acquisitionCount(int index);
+
+    /**
+     * Returns the number of acquisitions of the stripe at the specified index that could not be
+     * granted immediately, because another thread was holding the stripe's lock. This is always
+     * at most {@link #acquisitionCount}.
+     *
+     * @param index the index of the stripe; must be in {@code [0...size())}
+     */
+    public abstract long waitCount(int index);
+
+    /**
+     * Returns the number of distinct locks currently backing the stripes of this instance. This
+     * is at most {@link #size()}.
+     */
+    public abstract int lockCount();
+  }
+
+  /**
+   * Implementation of Instrumented where 2^k stripes are mapped to 2^j (j <= k) locks, each of
+   * them backing a run of 2^(k-j) consecutive stripes; since the mapping is monotonic, taking
+   * stripes in increasing index order also takes the locks in increasing order. When enough
+   * acquisitions have been contended, all the current locks are taken and replaced by twice as
+   * many. Each stripe re-resolves its lock after acquiring it, and retries if the locks have been
+   * replaced meanwhile, so that only the current locks are ever held by a stripe's owner.
+   */
+  @VisibleForTesting static final class AdaptiveStriped extends Instrumented<Lock> {
+    private static final AtomicLongFieldUpdater<StripeLock> ACQUISITIONS =
+        AtomicLongFieldUpdater.newUpdater(StripeLock.class, "acquisitions");
+    private static final AtomicLongFieldUpdater<StripeLock> WAITS =
+        AtomicLongFieldUpdater.newUpdater(StripeLock.class, "waits");
+
+    private final StripeLock[] stripes;
+    private final int mask;
+    private final int contentionThreshold;
+    private final long splitTimeoutNanos;
+    private final boolean splittable;
+    private volatile LockTable table;
+
+    AdaptiveStriped(
+        int stripes, int initialLocks, int contentionThreshold, long splitTimeoutNanos) {
+      Preconditions.checkArgument(stripes > 0, "Stripes must be positive");
+      Preconditions.checkArgument(initialLocks > 0, "initialLocks must be positive");
+      Preconditions.checkArgument(stripes <= Ints.MAX_POWER_OF_TWO, "Stripes must be <= 2^30)");
+      int size = ceilToPowerOfTwo(stripes);
+      int locks = Math.min(ceilToPowerOfTwo(Math.min(initialLocks, size)), size);
+      this.mask = size - 1;
+      this.contentionThreshold = contentionThreshold;
+      this.splitTimeoutNanos = splitTimeoutNanos;
+      this.splittable = locks < size;
+      this.table = new LockTable(locks, Integer.numberOfTrailingZeros(size / locks));
+      this.stripes = new StripeLock[size];
+      for (int i = 0; i < size; i++) {
+        this.stripes[i] = new StripeLock(i);
+      }
+    }
+
+    @Override int indexFor(Object key) {
+      int hash = smear(key.hashCode());
+      return hash & mask;
+    }
+
+    @Override public Lock get(Object key) {
+      return stripes[indexFor(key)];
+    }
+
+    @Override public Lock getAt(int index) {
+      return stripes[index];
+    }
+
+    @Override public int size() {
+      return stripes.length;
+    }
+
+    @Override public long acquisitionCount(int index) {
+      return stripes[index].acquisitions;
+    }
+
+    @Override public long waitCount(int index) {
+      return stripes[index].waits;
+    }
+
+    @Override public int lockCount() {
+      return table.locks.length;
+    }
+
+    /**
+     * Records a contended acquisition from the given table, and splits its locks if that makes
+     * the table cross the contention threshold.
+     */
+    private void contended(LockTable current) {
+      if (current.shift > 0
+          && current.contendedAcquisitions.incrementAndGet() == contentionThreshold) {
+        if (!split(current)) {
+          // let the next contentionThreshold contended acquisitions try again
+          current.contendedAcquisitions.set(0);
+        }
+      }
+    }
+
+    private boolean split(LockTable current) {
+      ReentrantLock[] locks = current.locks;
+      for (ReentrantLock lock : locks) {
+        if (lock.isHeldByCurrentThread()) {
+          // the stripes we hold must keep their locks
+          return false;
+        }
+      }
+      int taken = 0;
+      try {
+        for (; taken < locks.length; taken++) {
+          // bounded, so that a thread holding a lock while waiting for a lower one can't deadlock
+          if (!locks[taken].tryLock(splitTimeoutNanos, TimeUnit.NANOSECONDS)) {
+            return false;
+          }
+        }
+        if (table == current) {
+          table = new LockTable(locks.length * 2, current.shift - 1);
+        }
+        return true;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return false;
+      } finally {
+        for (int i = 0; i < taken; i++) {
+          locks[i].unlock();
+        }
+      }
+    }
+
+    private static final class LockTable {
+      final ReentrantLock[] locks;
+      /** Stripe {@code i} is backed by {@code locks[i >>> shift]}. */
+      final int shift;
+      final AtomicInteger contendedAcquisitions = new AtomicInteger();
+
+      LockTable(int size, int shift) {
+        this.locks = new ReentrantLock[size];
+        this.shift = shift;
+        for (int i = 0; i < size; i++) {
+          locks[i] = new PaddedLock();
+        }
+      }
+    }
+
+    private final class StripeLock implements Lock {
+      final int index;
+
+      // Updated through ACQUISITIONS and WAITS.
+      volatile long acquisitions;
+      volatile long waits;
+
+      /** The lock acquired by the current owner of this stripe. */
+      ReentrantLock heldLock;
+
+      // See PaddedLock comment
+      @SuppressWarnings("unused")
+      long q1, q2, q3;
+
+      StripeLock(int index) {
+        this.index = index;
+      }
+
+      @Override public void lock() {
+        boolean waited = false;
+        while (true) {
+          LockTable current = table;
+          ReentrantLock lock = current.locks[index >>> current.shift];
+          if (!lock.tryLock()) {
+            waited = true;
+            contended(current);
+            lock.lock();
+          }
+          if (acquired(current, lock, waited)) {
+            return;
+          }
+        }
+      }
+
+      @Override public void lockInterruptibly() throws InterruptedException {
+        boolean waited = false;
+        while (true) {
+          LockTable current = table;
+          ReentrantLock lock = current.locks[index >>> current.shift];
+          if (!lock.tryLock()) {
+            waited = true;
+            contended(current);
+            lock.lockInterruptibly();
+          }
+          if (acquired(current, lock, waited)) {
+            return;
+          }
+        }
+      }
+
+      @Override public boolean tryLock() {
+        while (true) {
+          LockTable current = table;
+          ReentrantLock lock = current.locks[index >>> current.shift];
+          if (!lock.tryLock()) {
+            return false;
+          }
+          if (acquired(current, lock, false)) {
+            return true;
+          }
+        }
+      }
+
+      @Override public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+        long remainingNanos = unit.toNanos(time);
+        long end = System.nanoTime() + remainingNanos;
+        boolean waited = false;
+        while (true) {
+          LockTable current = table;
+          ReentrantLock lock = current.locks[index >>> current.shift];
+          if (!lock.tryLock()) {
+            waited = true;
+            contended(current);
+            if (!lock.tryLock(remainingNanos, TimeUnit.NANOSECONDS)) {
+              return false;
+            }
+          }
+          if (acquired(current, lock, waited)) {
+            return true;
+          }
+          remainingNanos = end - System.nanoTime();
+        }
+      }
+
+      /**
+       * Completes an acquisition of {@code lock}, or releases it and returns false if the locks
+       * have been split since {@code current} was read.
+       */
+      private boolean acquired(LockTable current, ReentrantLock lock, boolean waited) {
+        if (table != current) {
+          lock.unlock();
+          return false;
+        }
+        heldLock = lock;
+        ACQUISITIONS.incrementAndGet(this);
+        if (waited) {
+          WAITS.incrementAndGet(this);
+        }
+        return true;
+      }
+
+      @Override public void unlock() {
+        ReentrantLock lock = heldLock;
+        if (lock == null) {
+          throw new IllegalMonitorStateException();
+        }
+        lock.unlock();
+      }
+
+      @Override public Condition newCondition() {
+        if (splittable) {
+          throw new UnsupportedOperationException(
+              "Conditions are not supported by stripes whose locks may be split");
+        }
+        LockTable current = table;
+        return current.locks[index >>> current.shift].newCondition();
+      }
+    }
+  }
+
+  /** How long splitting the locks of an adaptive {@code Striped} waits for each current lock. */
+  private static final long SPLIT_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
   /**
    * A bit mask were all bits are set.
    */
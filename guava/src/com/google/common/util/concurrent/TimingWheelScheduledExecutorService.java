@@ -0,0 +1,738 @@
+/*
+ * Copyright (C) 2014 The Guava Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.common.util.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.Lists;
+import com.google.common.math.IntMath;
+import com.google.common.primitives.Longs;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A {@link ListeningScheduledExecutorService} backed by a hierarchical timing wheel, meant for
+ * large numbers of timeouts that are mostly cancelled before they expire, such as request
+ * deadlines. Scheduling and cancelling a task take constant time and never block: they only append
+ * the task to a concurrent queue. A single timer thread moves tasks from those queues into the
+ * wheel, and hands each task to the task executor once it is due. In comparison,
+ * {@link ScheduledThreadPoolExecutor} keeps its tasks in a heap behind a single lock, so each
+ * schedule and cancel costs {@code O(log n)} while contending with every other one.
+ *
+ * <p>The price is precision: time advances in ticks of a {@linkplain Builder#tickDuration
+ * configurable duration}, and a task runs during the first tick that ends after its delay has
+ * elapsed. Tasks never run early, but may run up to a tick late, or later if the timer thread or
+ * the task executor is busy. For example: <pre>   {@code
+ *
+ *   ListeningScheduledExecutorService timeouts = TimingWheelScheduledExecutorService.newBuilder()
+ *       .tickDuration(10, TimeUnit.MILLISECONDS)
+ *       .build(MoreExecutors.sameThreadExecutor());
+ *
+ *   final ListenableFuture<Response> response = client.send(request);
+ *   final ScheduledFuture<?> timeout = timeouts.schedule(new Runnable() {
+ *     public void run() {
+ *       response.cancel(true);
+ *     }
+ *   }, 5, TimeUnit.SECONDS);
+ *   response.addListener(new Runnable() {
+ *     public void run() {
+ *       timeout.cancel(false);
+ *     }
+ *   }, MoreExecutors.sameThreadExecutor());}</pre>
+ *
+ * <p>Every task runs on the task executor passed to {@link Builder#build(Executor)}. With
+ * {@link MoreExecutors#sameThreadExecutor}, due tasks run on the timer thread itself, which suits
+ * short tasks such as the one above, but tasks {@linkplain #execute executed} or
+ * {@linkplain #submit submitted} without a delay then run on the calling thread. Such an instance
+ * must not be given to a {@link SimpleTimeLimiter}, which could then never time out a call: use a
+ * thread pool instead. An {@link AbstractScheduledService} works with either, but with a
+ * same-thread executor its {@code startUp} and {@code shutDown} methods run on the thread that
+ * starts or stops it, and a long {@code runOneIteration} delays every other task.
+ *
+ * <p>After {@link #shutdown}, tasks that were scheduled with a delay still run, but periodic tasks
+ * are cancelled. The timer thread exits once no task is left to run. The task executor is not
+ * shut down by this service.
+ *
+ * @since 18.0
+ */
+@Beta
+@ThreadSafe
+public final class TimingWheelScheduledExecutorService extends AbstractListeningExecutorService
+    implements ListeningScheduledExecutorService {
+  /**
+   * Returns a new builder for a {@code TimingWheelScheduledExecutorService}, with a tick duration
+   * of one millisecond, 512 ticks per wheel and a {@linkplain Executors#defaultThreadFactory
+   * default thread factory}.
+   */
+  public static Builder newBuilder() {
+    return new Builder();
+  }
+
+  /**
+   * A builder of {@link TimingWheelScheduledExecutorService} instances.
+   *
+   * @since 18.0
+   */
+  @Beta
+  public static final class Builder {
+    private long tickNanos = TimeUnit.MILLISECONDS.toNanos(1);
+    private int ticksPerWheel = 512;
+    private ThreadFactory threadFactory = Executors.defaultThreadFactory();
+
+    private Builder() {}
+
+    /**
+     * Sets the granularity of time. Shorter ticks make tasks run closer to their deadline, at the
+     * cost of waking the timer thread more often while tasks are due soon.
+     *
+     * @throws IllegalArgumentException if {@code tickDuration} is negative or zero
+     */
+    public Builder tickDuration(long tickDuration, TimeUnit unit) {
+      checkNotNull(unit);
+      checkArgument(tickDuration > 0, "tickDuration must be positive: %s", tickDuration);
+      this.tickNanos = unit.toNanos(tickDuration);
+      return this;
+    }
+
+    /**
+     * Sets the number of buckets in each level of the wheel. Tasks due within that many ticks are
+     * placed in the bucket of their tick right away, while later tasks are placed in coarser
+     * levels and moved down as their deadline approaches.
+     *
+     * @throws IllegalArgumentException if {@code ticksPerWheel} is not a power of two greater than
+     *     one
+     */
+    public Builder ticksPerWheel(int ticksPerWheel) {
+      checkArgument(ticksPerWheel > 1 && IntMath.isPowerOfTwo(ticksPerWheel),
+          "ticksPerWheel must be a power of two greater than one: %s", ticksPerWheel);
+      this.ticksPerWheel = ticksPerWheel;
+      return this;
+    }
+
+    /**
+     * Sets the factory of the timer thread.
+     */
+    public Builder threadFactory(ThreadFactory threadFactory) {
+      this.threadFactory = checkNotNull(threadFactory);
+      return this;
+    }
+
+    /**
+     * Builds a {@code TimingWheelScheduledExecutorService} that runs tasks on
+     * {@code taskExecutor}. If {@code taskExecutor} rejects a task, the task's future fails with
+     * the {@link RejectedExecutionException}.
+     */
+    public TimingWheelScheduledExecutorService build(Executor taskExecutor) {
+      return new TimingWheelScheduledExecutorService(this, taskExecutor);
+    }
+  }
+
+  /** The value of {@link #wakeUpTick} while the timer thread is not parked. */
+  private static final long AWAKE = Long.MIN_VALUE;
+
+  private final Executor taskExecutor;
+  private final long tickNanos;
+  private final int wheelBits;
+  private final int wheelMask;
+  private final int levels;
+  private final long startNanos = System.nanoTime();
+  private final Thread timerThread;
+
+  /** Tasks to move into the wheel, including periodic tasks that are due again. */
+  private final Queue<WheelTask<?>> newTasks = new ConcurrentLinkedQueue<WheelTask<?>>();
+
+  /** Cancelled tasks to remove from the wheel. */
+  private final Queue<WheelTask<?>> cancelledTasks = new ConcurrentLinkedQueue<WheelTask<?>>();
+
+  /**
+   * The tick at which the parked timer thread will wake up by itself, {@code Long.MAX_VALUE} if it
+   * won't, or {@link #AWAKE}. A task due earlier has to wake it up.
+   */
+  private volatile long wakeUpTick = AWAKE;
+
+  private volatile boolean shutdown;
+  private volatile boolean stopped;
+
+  /**
+   * The timer thread, if it hasn't exited, plus the tasks that were handed to the task executor
+   * and haven't finished. This service terminates when it drops to zero.
+   */
+  private final AtomicInteger activeCount = new AtomicInteger(1);
+  private final CountDownLatch terminated = new CountDownLatch(1);
+
+  /**
+   * The number of threads that are between checking {@link #shutdown} and adding a task to
+   * {@link #newTasks}. The timer thread doesn't exit while a task may still be added.
+   */
+  private final AtomicInteger enqueuing = new AtomicInteger();
+
+  /** The tasks that never started, set by the timer thread as it exits. */
+  private final SettableFuture<List<Runnable>> unstartedTasks = SettableFuture.create();
+
+  // The wheel itself is only accessed by the timer thread.
+
+  /**
+   * The head of the list of tasks in each bucket, by level. A bucket of level {@code k} holds the
+   * tasks due within a span of {@code ticksPerWheel^k} ticks.
+   */
+  private final WheelTask<?>[][] buckets;
+  private final int[] levelCounts;
+  private int scheduledCount;
+
+  /** The last tick that was processed. */
+  private long currentTick;
+  private boolean periodicTasksCancelled;
+
+  private TimingWheelScheduledExecutorService(Builder builder, Executor taskExecutor) {
+    this.taskExecutor = checkNotNull(taskExecutor);
+    this.tickNanos = builder.tickNanos;
+    this.wheelBits = Integer.numberOfTrailingZeros(builder.ticksPerWheel);
+    this.wheelMask = builder.ticksPerWheel - 1;
+    // enough levels to span any tick that fits in a long
+    this.levels = (Long.SIZE - 1 + wheelBits - 1) / wheelBits;
+    this.buckets = new WheelTask<?>[levels][builder.ticksPerWheel];
+    this.levelCounts = new int[levels];
+    this.timerThread = builder.threadFactory.newThread(new TimerLoop());
+    checkArgument(timerThread != null, "threadFactory returned no thread");
+    timerThread.start();
+  }
+
+  @Override
+  public ListenableScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+    return schedule(Executors.callable(command), delay, unit);
+  }
+
+  @Override
+  public <V> ListenableScheduledFuture<V> schedule(
+      Callable<V> callable, long delay, TimeUnit unit) {
+    return enqueueNew(new WheelTask<V>(callable, deadlineNanos(delay, unit), 0));
+  }
+
+  @Override
+  public ListenableScheduledFuture<?> scheduleAtFixedRate(
+      Runnable command, long initialDelay, long period, TimeUnit unit) {
+    checkArgument(period > 0, "period must be positive: %s", period);
+    return enqueueNew(new WheelTask<Object>(
+        Executors.callable(command), deadlineNanos(initialDelay, unit), unit.toNanos(period)));
+  }
+
+  @Override
+  public ListenableScheduledFuture<?> scheduleWithFixedDelay(
+      Runnable command, long initialDelay, long delay, TimeUnit unit) {
+    checkArgument(delay > 0, "delay must be positive: %s", delay);
+    return enqueueNew(new WheelTask<Object>(
+        Executors.callable(command), deadlineNanos(initialDelay, unit), -unit.toNanos(delay)));
+  }
+
+  private long elapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+
+  /** Returns the {@link #elapsedNanos} at which a task due after {@code delay} is due. */
+  private long deadlineNanos(long delay, TimeUnit unit) {
+    return saturatedAdd(elapsedNanos(), Math.max(0, unit.toNanos(delay)));
+  }
+
+  private static long saturatedAdd(long a, long b) {
+    long sum = a + b;
+    return (sum < a) ? Long.MAX_VALUE : sum;
+  }
+
+  private <V> WheelTask<V> enqueueNew(WheelTask<V> task) {
+    if (!tryEnqueue(task)) {
+      throw new RejectedExecutionException("Executor already shutdown");
+    }
+    return task;
+  }
+
+  /**
+   * Adds {@code task} to {@link #newTasks} and returns true, or returns false if this service is
+   * shut down. The timer thread waits for {@link #enqueuing} to drop to zero before it exits, so
+   * it sees every task that was added after a check that found the service running.
+   */
+  private boolean tryEnqueue(WheelTask<?> task) {
+    enqueuing.incrementAndGet();
+    try {
+      if (shutdown) {
+        return false;
+      }
+      newTasks.add(task);
+    } finally {
+      enqueuing.decrementAndGet();
+    }
+    wakeUpTimerFor(task);
+    return true;
+  }
+
+  private void wakeUpTimerFor(WheelTask<?> task) {
+    if (task.deadlineTick < wakeUpTick) {
+      LockSupport.unpark(timerThread);
+    }
+  }
+
+  @Override
+  public void execute(Runnable command) {
+    checkNotNull(command);
+    if (shutdown || !tryAcquire()) {
+      throw new RejectedExecutionException("Executor already shutdown");
+    }
+    boolean handedOff = false;
+    try {
+      taskExecutor.execute(new ReleasingRunnable(command));
+      handedOff = true;
+    } finally {
+      if (!handedOff) {
+        taskFinished();
+      }
+    }
+  }
+
+  private boolean tryAcquire() {
+    while (true) {
+      int active = activeCount.get();
+      if (active == 0) {
+        return false;
+      }
+      if (activeCount.compareAndSet(active, active + 1)) {
+        return true;
+      }
+    }
+  }
+
+  private void taskFinished() {
+    if (activeCount.decrementAndGet() == 0) {
+      terminated.countDown();
+    }
+  }
+
+  @Override
+  public void shutdown() {
+    shutdown = true;
+    LockSupport.unpark(timerThread);
+  }
+
+  /**
+   * Stops the timer thread, interrupting it in case it is running a task, and returns the tasks
+   * that were scheduled but did not start. Tasks that were already handed to the task executor are
+   * not interrupted.
+   */
+  @Override
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    stopped = true;
+    if (Thread.currentThread() == timerThread) {
+      // A task running on the timer thread called us, so we own the wheel.
+      unstartedTasks.set(drainUnstartedTasks());
+    } else {
+      timerThread.interrupt();
+    }
+    return Futures.getUnchecked(unstartedTasks);
+  }
+
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+
+  @Override
+  public boolean isTerminated() {
+    return terminated.getCount() == 0;
+  }
+
+  @Override
+  public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+    return terminated.await(timeout, unit);
+  }
+
+  /** The loop of the timer thread. */
+  private final class TimerLoop implements Runnable {
+    @Override
+    public void run() {
+      try {
+        while (!stopped) {
+          // Interrupts only serve to wake us up.
+          Thread.interrupted();
+          drainCancelledTasks();
+          if (scheduledCount == 0) {
+            // Nothing depends on the position of the empty wheel, so skip ahead, before new tasks
+            // are placed relative to it and the idle ticks would have to be walked through.
+            currentTick = Math.max(currentTick, elapsedNanos() / tickNanos);
+          }
+          drainNewTasks();
+          if (shutdown) {
+            if (!periodicTasksCancelled) {
+              cancelPeriodicTasks();
+              periodicTasksCancelled = true;
+            }
+            // Read enqueuing before newTasks, since a task is added before enqueuing drops.
+            if (scheduledCount == 0 && enqueuing.get() == 0 && newTasks.isEmpty()) {
+              break;
+            }
+          }
+          long elapsed = elapsedNanos();
+          long nowTick = elapsed / tickNanos;
+          long nextTick = nextTickToProcess();
+          if (nextTick <= nowTick) {
+            advanceTo(nextTick);
+            continue;
+          }
+          wakeUpTick = nextTick;
+          if (newTasks.isEmpty()) {
+            if (nextTick == Long.MAX_VALUE) {
+              LockSupport.park(this);
+            } else {
+              long wakeUpNanos = (nextTick > Long.MAX_VALUE / tickNanos)
+                  ? Long.MAX_VALUE
+                  : nextTick * tickNanos;
+              LockSupport.parkNanos(this, wakeUpNanos - elapsed);
+            }
+          }
+          wakeUpTick = AWAKE;
+        }
+      } finally {
+        // If the loop failed, no one is left to run new tasks either. Any thread that starts
+        // enqueuing from now on finds us shut down.
+        shutdown = true;
+        while (enqueuing.get() != 0) {
+          Thread.yield();
+        }
+        List<Runnable> unstarted = drainUnstartedTasks();
+        if (!stopped) {
+          // Only shutdownNow hands the unstarted tasks back; don't leave them pending forever.
+          for (Runnable task : unstarted) {
+            ((WheelTask<?>) task).cancel(false);
+          }
+        }
+        unstartedTasks.set(unstarted);
+        taskFinished();
+      }
+    }
+  }
+
+  private void drainCancelledTasks() {
+    WheelTask<?> task;
+    while ((task = cancelledTasks.poll()) != null) {
+      if (task.level >= 0) {
+        unlink(task);
+      }
+    }
+  }
+
+  private void drainNewTasks() {
+    WheelTask<?> task;
+    while ((task = newTasks.poll()) != null) {
+      if (!task.isDone()) {
+        insert(task);
+      }
+    }
+  }
+
+  /**
+   * Returns the next tick at which a task may be due or need to move to a lower level, or
+   * {@code Long.MAX_VALUE} if the wheel is empty. Ticks in between are skipped.
+   */
+  private long nextTickToProcess() {
+    for (int level = 0; level < levels; level++) {
+      if (levelCounts[level] > 0) {
+        int shift = level * wheelBits;
+        return ((currentTick >> shift) + 1) << shift;
+      }
+    }
+    return Long.MAX_VALUE;
+  }
+
+  private void advanceTo(long tick) {
+    currentTick = tick;
+    // Move tasks down from the coarsest level whose span starts at this tick.
+    int highestLevel = 0;
+    while (highestLevel + 1 < levels
+        && (tick & ((1L << ((highestLevel + 1) * wheelBits)) - 1)) == 0) {
+      highestLevel++;
+    }
+    for (int level = highestLevel; level > 0; level--) {
+      WheelTask<?> task = detachBucket(level, (int) (tick >>> (level * wheelBits)) & wheelMask);
+      while (task != null) {
+        WheelTask<?> next = task.next;
+        task.next = null;
+        insert(task);
+        task = next;
+      }
+    }
+    WheelTask<?> task = detachBucket(0, (int) tick & wheelMask);
+    while (task != null) {
+      WheelTask<?> next = task.next;
+      task.next = null;
+      insert(task);
+      task = next;
+    }
+  }
+
+  /** Places {@code task} in the bucket that matches its deadline, or starts it if it is due. */
+  private void insert(WheelTask<?> task) {
+    if (shutdown && task.periodNanos != 0) {
+      task.cancel(false);
+      return;
+    }
+    long delta = task.deadlineTick - currentTick;
+    if (delta <= 0) {
+      start(task);
+      return;
+    }
+    int level = 0;
+    while (level + 1 < levels && delta >= (1L << ((level + 1) * wheelBits))) {
+      level++;
+    }
+    int slot = (int) (task.deadlineTick >>> (level * wheelBits)) & wheelMask;
+    WheelTask<?> head = buckets[level][slot];
+    task.level = level;
+    task.slot = slot;
+    task.prev = null;
+    task.next = head;
+    if (head != null) {
+      head.prev = task;
+    }
+    buckets[level][slot] = task;
+    levelCounts[level]++;
+    scheduledCount++;
+  }
+
+  private void unlink(WheelTask<?> task) {
+    if (task.prev == null) {
+      buckets[task.level][task.slot] = task.next;
+    } else {
+      task.prev.next = task.next;
+    }
+    if (task.next != null) {
+      task.next.prev = task.prev;
+    }
+    levelCounts[task.level]--;
+    scheduledCount--;
+    task.prev = null;
+    task.next = null;
+    task.level = -1;
+  }
+
+  /** Empties a bucket, and returns its tasks linked through {@link WheelTask#next}. */
+  private WheelTask<?> detachBucket(int level, int slot) {
+    WheelTask<?> head = buckets[level][slot];
+    buckets[level][slot] = null;
+    for (WheelTask<?> task = head; task != null; task = task.next) {
+      task.prev = null;
+      task.level = -1;
+      levelCounts[level]--;
+      scheduledCount--;
+    }
+    return head;
+  }
+
+  private void cancelPeriodicTasks() {
+    for (int level = 0; level < levels; level++) {
+      for (int slot = 0; slot <= wheelMask; slot++) {
+        WheelTask<?> task = buckets[level][slot];
+        while (task != null) {
+          WheelTask<?> next = task.next;
+          if (task.periodNanos != 0) {
+            unlink(task);
+            task.cancel(false);
+          }
+          task = next;
+        }
+      }
+    }
+  }
+
+  private List<Runnable> drainUnstartedTasks() {
+    List<Runnable> unstarted = Lists.newArrayList();
+    for (int level = 0; level < levels; level++) {
+      for (int slot = 0; slot <= wheelMask; slot++) {
+        for (WheelTask<?> task = detachBucket(level, slot); task != null; task = task.next) {
+          unstarted.add(task);
+        }
+      }
+    }
+    WheelTask<?> task;
+    while ((task = newTasks.poll()) != null) {
+      if (!task.isDone()) {
+        unstarted.add(task);
+      }
+    }
+    return unstarted;
+  }
+
+  /** Hands a due task to the task executor. */
+  private void start(WheelTask<?> task) {
+    if (task.isDone()) {
+      return;
+    }
+    activeCount.incrementAndGet(); // can't resurrect us, since the timer thread is still active
+    task.handedOff = true;
+    try {
+      taskExecutor.execute(task);
+    } catch (RuntimeException e) {
+      task.handedOff = false;
+      taskFinished();
+      task.setException(e);
+    }
+  }
+
+  /** A task without a delay, which releases its hold on termination once it completes. */
+  private final class ReleasingRunnable implements Runnable {
+    private final Runnable delegate;
+
+    ReleasingRunnable(Runnable delegate) {
+      this.delegate = delegate;
+    }
+
+    @Override
+    public void run() {
+      try {
+        delegate.run();
+      } finally {
+        taskFinished();
+      }
+    }
+  }
+
+  /**
+   * A task scheduled with a delay, which is also its own future, and its own entry in the wheel.
+   */
+  private final class WheelTask<V> extends AbstractFuture<V>
+      implements ListenableScheduledFuture<V>, Runnable {
+    private final Callable<V> callable;
+
+    /**
+     * Zero for a one-shot task, the period of a task at a fixed rate, or the negated delay of a
+     * task with a fixed delay.
+     */
+    final long periodNanos;
+
+    /** When the task is due, in {@link #elapsedNanos}. */
+    private volatile long deadlineNanos;
+
+    /** The first tick that ends after the deadline, as of the latest enqueuing. */
+    volatile long deadlineTick;
+
+    /** Set by the timer thread as it hands the task over, read by the thread that runs it. */
+    boolean handedOff;
+
+    private volatile Thread runner;
+
+    // Only accessed by the timer thread.
+    WheelTask<?> prev;
+    WheelTask<?> next;
+    int level = -1;
+    int slot;
+
+    WheelTask(Callable<V> callable, long deadlineNanos, long periodNanos) {
+      this.callable = checkNotNull(callable);
+      this.periodNanos = periodNanos;
+      setDeadline(deadlineNanos);
+    }
+
+    private void setDeadline(long deadlineNanos) {
+      this.deadlineNanos = deadlineNanos;
+      long ticks = deadlineNanos / tickNanos;
+      this.deadlineTick = (ticks * tickNanos == deadlineNanos) ? ticks : ticks + 1;
+    }
+
+    @Override
+    public void run() {
+      boolean accounted = handedOff;
+      handedOff = false;
+      runner = Thread.currentThread();
+      try {
+        if (isDone()) {
+          return;
+        }
+        if (periodNanos == 0) {
+          set(callable.call());
+        } else {
+          callable.call();
+          reschedule();
+        }
+      } catch (Throwable t) {
+        setException(t);
+      } finally {
+        runner = null;
+        if (accounted) {
+          taskFinished();
+        }
+      }
+    }
+
+    private void reschedule() {
+      if (isDone()) {
+        return;
+      }
+      if (shutdown) {
+        cancel(false);
+        return;
+      }
+      setDeadline((periodNanos > 0)
+          ? saturatedAdd(deadlineNanos, periodNanos)
+          : saturatedAdd(elapsedNanos(), -periodNanos));
+      if (!tryEnqueue(this)) {
+        cancel(false);
+      }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (super.cancel(mayInterruptIfRunning)) {
+        cancelledTasks.add(this);
+        return true;
+      }
+      return false;
+    }
+
+    @Override
+    protected void interruptTask() {
+      Thread thread = runner;
+      if (thread != null) {
+        thread.interrupt();
+      }
+    }
+
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(deadlineNanos - elapsedNanos(), NANOSECONDS);
+    }
+
+    @Override
+    public int compareTo(Delayed other) {
+      return Longs.compare(getDelay(NANOSECONDS), other.getDelay(NANOSECONDS));
+    }
+  }
+}